@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.logaritex.spring.ai.observe.ObservedChatMemoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Routes the {@link ChatMemoryRepository} calls of the repository beans through an
+ * {@link ObservedChatMemoryRepository}, once a {@link MeterRegistry} is available.
+ * <p>
+ * The bean is replaced by a class-based proxy, so it can still be injected by its
+ * concrete type, such as {@code JdbcChatMemoryRepository}. Only the
+ * {@link ChatMemoryRepository} methods are observed, the other methods go straight to the
+ * bean. A final repository class, or a bean that is already a JDK proxy, can't be
+ * subclassed and is replaced by the plain {@link ObservedChatMemoryRepository} instead,
+ * so it can only be injected as a {@link ChatMemoryRepository}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatMemoryRepositoryPostProcessor implements BeanPostProcessor {
+
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+	ChatMemoryRepositoryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+			ObjectProvider<ObservationRegistry> observationRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.observationRegistry = observationRegistry;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof ChatMemoryRepository repository && !(bean instanceof ObservedChatMemoryRepository)) {
+			MeterRegistry registry = this.meterRegistry.getIfUnique();
+			if (registry != null) {
+				ObservedChatMemoryRepository observed = new ObservedChatMemoryRepository(repository, registry,
+						this.observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
+				return (Modifier.isFinal(bean.getClass().getModifiers())) ? observed : proxy(bean, observed);
+			}
+		}
+		return bean;
+	}
+
+	private static Object proxy(Object bean, ObservedChatMemoryRepository observed) {
+		ProxyFactory proxyFactory = new ProxyFactory(bean);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+			Method method = invocation.getMethod();
+			Method repositoryMethod = ReflectionUtils.findMethod(ChatMemoryRepository.class, method.getName(),
+					method.getParameterTypes());
+			if (repositoryMethod == null) {
+				return invocation.proceed();
+			}
+			return AopUtils.invokeJoinpointUsingReflection(observed, repositoryMethod, invocation.getArguments());
+		});
+		return proxyFactory.getProxy(bean.getClass().getClassLoader());
+	}
+
+}
@@ -0,0 +1,1383 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import com.logaritex.spring.ai.observe.ChatContextWindowObservationHandler;
+import com.logaritex.spring.ai.observe.ChatConversationObservationHandler;
+import com.logaritex.spring.ai.observe.ChatInFlightObservationHandler;
+import com.logaritex.spring.ai.observe.ChatModelExemplarObservationHandler;
+import com.logaritex.spring.ai.observe.ChatPromptCacheObservationHandler;
+import com.logaritex.spring.ai.observe.ChatPromptRepeatObservationHandler;
+import com.logaritex.spring.ai.observe.ChatQuantileSketchObservationHandler;
+import com.logaritex.spring.ai.observe.ChatRetryObservationHandler;
+import com.logaritex.spring.ai.observe.ChatTopCallsObservationHandler;
+import com.logaritex.spring.ai.observe.ContentCaptureGovernor;
+import com.logaritex.spring.ai.observe.ContentCaptureMetrics;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import com.logaritex.spring.ai.observe.ContentEncoder;
+import com.logaritex.spring.ai.observe.MessageCapturePolicy;
+import com.logaritex.spring.ai.observe.PromptTemplateFingerprints;
+import com.logaritex.spring.ai.observe.budget.TokenBudgetAdvisor;
+import com.logaritex.spring.ai.observe.budget.TokenBudgets;
+import com.logaritex.spring.ai.observe.replay.ReplayLogWriter;
+
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the chat observation extensions.
+ *
+ * @author Christian Tzolov
+ */
+@ConfigurationProperties(ObservationAutoConfigurationExtensions.CONFIG_PREFIX)
+public class ChatObservationExtensionsProperties {
+
+	/**
+	 * In-flight chat calls metrics.
+	 */
+	private final InFlight inFlight = new InFlight();
+
+	/**
+	 * Per-choice completion capture.
+	 */
+	private final CompletionChoices completionChoices = new CompletionChoices();
+
+	/**
+	 * Content capture settings.
+	 */
+	private final Capture capture = new Capture();
+
+	/**
+	 * Prompt template fingerprinting.
+	 */
+	private final PromptTemplate promptTemplate = new PromptTemplate();
+
+	/**
+	 * Record and replay log of the chat model calls.
+	 */
+	private final Replay replay = new Replay();
+
+	/**
+	 * Repeated prompts detection.
+	 */
+	private final PromptRepeats promptRepeats = new PromptRepeats();
+
+	/**
+	 * Latency and token usage histograms with exemplars.
+	 */
+	private final Exemplars exemplars = new Exemplars();
+
+	/**
+	 * Per-conversation aggregation of the chat client calls.
+	 */
+	private final Conversations conversations = new Conversations();
+
+	/**
+	 * Context window utilization of the chat model prompts.
+	 */
+	private final ContextWindow contextWindow = new ContextWindow();
+
+	/**
+	 * Slowest and largest chat calls over a sliding window.
+	 */
+	private final TopCalls topCalls = new TopCalls();
+
+	/**
+	 * Mergeable quantile sketches of the chat calls.
+	 */
+	private final Sketches sketches = new Sketches();
+
+	/**
+	 * Provider prompt cache effectiveness.
+	 */
+	private final PromptCache promptCache = new PromptCache();
+
+	/**
+	 * Retries of the chat model calls.
+	 */
+	private final Retries retries = new Retries();
+
+	/**
+	 * Statistics of the chat models routed by latency.
+	 */
+	private final Routing routing = new Routing();
+
+	/**
+	 * Per-key token budgets of the chat client calls.
+	 */
+	private final TokenBudget tokenBudget = new TokenBudget();
+
+	/**
+	 * Chat memory repository metrics.
+	 */
+	private final ChatMemory chatMemory = new ChatMemory();
+
+	public InFlight getInFlight() {
+		return this.inFlight;
+	}
+
+	public CompletionChoices getCompletionChoices() {
+		return this.completionChoices;
+	}
+
+	public Capture getCapture() {
+		return this.capture;
+	}
+
+	public PromptTemplate getPromptTemplate() {
+		return this.promptTemplate;
+	}
+
+	public Replay getReplay() {
+		return this.replay;
+	}
+
+	public PromptRepeats getPromptRepeats() {
+		return this.promptRepeats;
+	}
+
+	public Exemplars getExemplars() {
+		return this.exemplars;
+	}
+
+	public Conversations getConversations() {
+		return this.conversations;
+	}
+
+	public ContextWindow getContextWindow() {
+		return this.contextWindow;
+	}
+
+	public TopCalls getTopCalls() {
+		return this.topCalls;
+	}
+
+	public Sketches getSketches() {
+		return this.sketches;
+	}
+
+	public PromptCache getPromptCache() {
+		return this.promptCache;
+	}
+
+	public Retries getRetries() {
+		return this.retries;
+	}
+
+	public Routing getRouting() {
+		return this.routing;
+	}
+
+	public TokenBudget getTokenBudget() {
+		return this.tokenBudget;
+	}
+
+	public ChatMemory getChatMemory() {
+		return this.chatMemory;
+	}
+
+	public static class InFlight {
+
+		/**
+		 * Whether to register gauges for the chat calls currently in flight.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of distinct provider and model combinations to track. Further
+		 * models are reported as "other".
+		 */
+		private int maxModels = ChatInFlightObservationHandler.DEFAULT_MAX_MODELS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxModels() {
+			return this.maxModels;
+		}
+
+		public void setMaxModels(int maxModels) {
+			this.maxModels = maxModels;
+		}
+
+	}
+
+	public static class CompletionChoices {
+
+		/**
+		 * Whether to record every completion choice with its index, finish reason and
+		 * length.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Whether to include the choice text, or only the choice metadata.
+		 */
+		private boolean includeContent = true;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public boolean isIncludeContent() {
+			return this.includeContent;
+		}
+
+		public void setIncludeContent(boolean includeContent) {
+			this.includeContent = includeContent;
+		}
+
+	}
+
+	public static class Capture {
+
+		/**
+		 * Whether the content capture can be toggled at runtime through the "aicapture"
+		 * actuator endpoint. When enabled, all the content capture components are
+		 * registered and the include-* properties only set their initial state.
+		 */
+		private boolean runtimeToggle = false;
+
+		/**
+		 * Fraction of the calls, between 0 and 1, to capture the content of.
+		 */
+		private double sampleRate = 1.0;
+
+		/**
+		 * Maximum number of prompt characters captured per attribute or event.
+		 */
+		private int maxPromptLength = ContentCaptureSettings.UNLIMITED;
+
+		/**
+		 * Maximum number of completion characters captured per attribute or event.
+		 */
+		private int maxCompletionLength = ContentCaptureSettings.UNLIMITED;
+
+		/**
+		 * Per-role capture rules of the prompt messages, by message type (system, user,
+		 * assistant or tool). Message types without a rule are captured in full.
+		 */
+		private final Map<MessageType, MessageRule> messages = new EnumMap<>(MessageType.class);
+
+		/**
+		 * Rules overriding the content capture settings for the calls they match. The
+		 * first matching rule applies.
+		 */
+		private List<Rule> rules = new ArrayList<>();
+
+		/**
+		 * Self-instrumentation of the content capture.
+		 */
+		private final Metrics metrics = new Metrics();
+
+		/**
+		 * Adaptive shedding of the content capture under pressure.
+		 */
+		private final Governor governor = new Governor();
+
+		/**
+		 * Compressed encoding of the large prompts and completions.
+		 */
+		private final Encoding encoding = new Encoding();
+
+		public boolean isRuntimeToggle() {
+			return this.runtimeToggle;
+		}
+
+		public void setRuntimeToggle(boolean runtimeToggle) {
+			this.runtimeToggle = runtimeToggle;
+		}
+
+		public double getSampleRate() {
+			return this.sampleRate;
+		}
+
+		public void setSampleRate(double sampleRate) {
+			this.sampleRate = sampleRate;
+		}
+
+		public int getMaxPromptLength() {
+			return this.maxPromptLength;
+		}
+
+		public void setMaxPromptLength(int maxPromptLength) {
+			this.maxPromptLength = maxPromptLength;
+		}
+
+		public int getMaxCompletionLength() {
+			return this.maxCompletionLength;
+		}
+
+		public void setMaxCompletionLength(int maxCompletionLength) {
+			this.maxCompletionLength = maxCompletionLength;
+		}
+
+		public Map<MessageType, MessageRule> getMessages() {
+			return this.messages;
+		}
+
+		public List<Rule> getRules() {
+			return this.rules;
+		}
+
+		public void setRules(List<Rule> rules) {
+			this.rules = rules;
+		}
+
+		public Metrics getMetrics() {
+			return this.metrics;
+		}
+
+		public Governor getGovernor() {
+			return this.governor;
+		}
+
+		public Encoding getEncoding() {
+			return this.encoding;
+		}
+
+		public static class Rule {
+
+			/**
+			 * AI provider to match, e.g. "openai".
+			 */
+			private String provider;
+
+			/**
+			 * Requested model to match.
+			 */
+			private String model;
+
+			/**
+			 * AI operation type to match, e.g. "chat", or "framework" for the chat client
+			 * calls.
+			 */
+			private String operation;
+
+			/**
+			 * Low-cardinality key values to match.
+			 */
+			private Map<String, String> keys = new LinkedHashMap<>();
+
+			/**
+			 * Chat client request context entries to match, for the chat client calls and
+			 * the chat model calls made within them.
+			 */
+			private Map<String, String> context = new LinkedHashMap<>();
+
+			/**
+			 * Whether to capture the prompt of the matching calls. Inherited when not
+			 * set.
+			 */
+			private Boolean includePrompt;
+
+			/**
+			 * Whether to capture the completion of the matching calls. Inherited when not
+			 * set.
+			 */
+			private Boolean includeCompletion;
+
+			/**
+			 * Fraction of the matching calls, between 0 and 1, to capture the content of.
+			 * Inherited when not set.
+			 */
+			private Double sampleRate;
+
+			public String getProvider() {
+				return this.provider;
+			}
+
+			public void setProvider(String provider) {
+				this.provider = provider;
+			}
+
+			public String getModel() {
+				return this.model;
+			}
+
+			public void setModel(String model) {
+				this.model = model;
+			}
+
+			public String getOperation() {
+				return this.operation;
+			}
+
+			public void setOperation(String operation) {
+				this.operation = operation;
+			}
+
+			public Map<String, String> getKeys() {
+				return this.keys;
+			}
+
+			public void setKeys(Map<String, String> keys) {
+				this.keys = keys;
+			}
+
+			public Map<String, String> getContext() {
+				return this.context;
+			}
+
+			public void setContext(Map<String, String> context) {
+				this.context = context;
+			}
+
+			public Boolean getIncludePrompt() {
+				return this.includePrompt;
+			}
+
+			public void setIncludePrompt(Boolean includePrompt) {
+				this.includePrompt = includePrompt;
+			}
+
+			public Boolean getIncludeCompletion() {
+				return this.includeCompletion;
+			}
+
+			public void setIncludeCompletion(Boolean includeCompletion) {
+				this.includeCompletion = includeCompletion;
+			}
+
+			public Double getSampleRate() {
+				return this.sampleRate;
+			}
+
+			public void setSampleRate(Double sampleRate) {
+				this.sampleRate = sampleRate;
+			}
+
+		}
+
+		public static class MessageRule {
+
+			/**
+			 * Whether to capture the messages in full, as a hash, or not at all.
+			 */
+			private MessageCapturePolicy.Mode mode = MessageCapturePolicy.Mode.FULL;
+
+			/**
+			 * Maximum number of characters captured per message, in full mode.
+			 */
+			private int maxLength = ContentCaptureSettings.UNLIMITED;
+
+			public MessageCapturePolicy.Mode getMode() {
+				return this.mode;
+			}
+
+			public void setMode(MessageCapturePolicy.Mode mode) {
+				this.mode = mode;
+			}
+
+			public int getMaxLength() {
+				return this.maxLength;
+			}
+
+			public void setMaxLength(int maxLength) {
+				this.maxLength = maxLength;
+			}
+
+		}
+
+		public static class Metrics {
+
+			/**
+			 * Whether to record the time spent, the captured sizes, the truncated and
+			 * dropped values and the span bridge failures of the content capture.
+			 */
+			private boolean enabled = false;
+
+			/**
+			 * Record the timings and sizes of one call in every sample-interval calls.
+			 */
+			private int sampleInterval = ContentCaptureMetrics.DEFAULT_SAMPLE_INTERVAL;
+
+			public boolean isEnabled() {
+				return this.enabled;
+			}
+
+			public void setEnabled(boolean enabled) {
+				this.enabled = enabled;
+			}
+
+			public int getSampleInterval() {
+				return this.sampleInterval;
+			}
+
+			public void setSampleInterval(int sampleInterval) {
+				this.sampleInterval = sampleInterval;
+			}
+
+		}
+
+		public static class Governor {
+
+			/**
+			 * Whether to shed the content capture gradually under byte rate, heap or
+			 * exporter queue pressure.
+			 */
+			private boolean enabled = false;
+
+			/**
+			 * Sustained rate of captured content, no byte rate limit when not set.
+			 */
+			private DataSize bytesPerSecond;
+
+			/**
+			 * Burst of captured content allowed above the sustained rate, expressed as a
+			 * duration at that rate.
+			 */
+			private Duration burst = Duration.ofSeconds(1);
+
+			/**
+			 * Whether to shed on the occupancy of the tenured heap after collection.
+			 */
+			private boolean heap = true;
+
+			/**
+			 * Heap occupancy, between 0 and 1, above which the capture starts to be shed.
+			 */
+			private double heapLowWatermark = ContentCaptureGovernor.DEFAULT_HEAP_LOW_WATERMARK;
+
+			/**
+			 * Heap occupancy, between 0 and 1, above which the capture is fully shed.
+			 */
+			private double heapHighWatermark = ContentCaptureGovernor.DEFAULT_HEAP_HIGH_WATERMARK;
+
+			/**
+			 * Exporter queue fill ratio above which the capture starts to be shed. Used
+			 * when an ExporterQueue bean is available.
+			 */
+			private double exporterLowWatermark = ContentCaptureGovernor.DEFAULT_EXPORTER_LOW_WATERMARK;
+
+			/**
+			 * Exporter queue fill ratio above which the capture is fully shed.
+			 */
+			private double exporterHighWatermark = ContentCaptureGovernor.DEFAULT_EXPORTER_HIGH_WATERMARK;
+
+			public boolean isEnabled() {
+				return this.enabled;
+			}
+
+			public void setEnabled(boolean enabled) {
+				this.enabled = enabled;
+			}
+
+			public DataSize getBytesPerSecond() {
+				return this.bytesPerSecond;
+			}
+
+			public void setBytesPerSecond(DataSize bytesPerSecond) {
+				this.bytesPerSecond = bytesPerSecond;
+			}
+
+			public Duration getBurst() {
+				return this.burst;
+			}
+
+			public void setBurst(Duration burst) {
+				this.burst = burst;
+			}
+
+			public boolean isHeap() {
+				return this.heap;
+			}
+
+			public void setHeap(boolean heap) {
+				this.heap = heap;
+			}
+
+			public double getHeapLowWatermark() {
+				return this.heapLowWatermark;
+			}
+
+			public void setHeapLowWatermark(double heapLowWatermark) {
+				this.heapLowWatermark = heapLowWatermark;
+			}
+
+			public double getHeapHighWatermark() {
+				return this.heapHighWatermark;
+			}
+
+			public void setHeapHighWatermark(double heapHighWatermark) {
+				this.heapHighWatermark = heapHighWatermark;
+			}
+
+			public double getExporterLowWatermark() {
+				return this.exporterLowWatermark;
+			}
+
+			public void setExporterLowWatermark(double exporterLowWatermark) {
+				this.exporterLowWatermark = exporterLowWatermark;
+			}
+
+			public double getExporterHighWatermark() {
+				return this.exporterHighWatermark;
+			}
+
+			public void setExporterHighWatermark(double exporterHighWatermark) {
+				this.exporterHighWatermark = exporterHighWatermark;
+			}
+
+		}
+
+		public static class Encoding {
+
+			/**
+			 * Whether to deflate the prompts and completions longer than the threshold
+			 * and emit them as base64, with a ".encoding" marker attribute.
+			 */
+			private boolean enabled = false;
+
+			/**
+			 * Length, in characters, above which the content is encoded.
+			 */
+			private int threshold = ContentEncoder.DEFAULT_THRESHOLD;
+
+			/**
+			 * Deflate compression level, from 0 to 9.
+			 */
+			private int level = Deflater.BEST_SPEED;
+
+			/**
+			 * Maximum number of idle deflaters kept for reuse.
+			 */
+			private int poolSize = ContentEncoder.DEFAULT_POOL_SIZE;
+
+			public boolean isEnabled() {
+				return this.enabled;
+			}
+
+			public void setEnabled(boolean enabled) {
+				this.enabled = enabled;
+			}
+
+			public int getThreshold() {
+				return this.threshold;
+			}
+
+			public void setThreshold(int threshold) {
+				this.threshold = threshold;
+			}
+
+			public int getLevel() {
+				return this.level;
+			}
+
+			public void setLevel(int level) {
+				this.level = level;
+			}
+
+			public int getPoolSize() {
+				return this.poolSize;
+			}
+
+			public void setPoolSize(int poolSize) {
+				this.poolSize = poolSize;
+			}
+
+		}
+
+	}
+
+	public static class PromptTemplate {
+
+		/**
+		 * Whether to add the fingerprint of the prompt template as a low-cardinality key
+		 * to the chat client and chat model observations. Opt-in: requires a
+		 * PromptTemplateSource bean providing the unrendered templates, the key is not
+		 * added without one.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of distinct prompt templates to fingerprint. Further templates
+		 * are reported as "other".
+		 */
+		private int maxTemplates = PromptTemplateFingerprints.DEFAULT_MAX_TEMPLATES;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxTemplates() {
+			return this.maxTemplates;
+		}
+
+		public void setMaxTemplates(int maxTemplates) {
+			this.maxTemplates = maxTemplates;
+		}
+
+	}
+
+	public static class Replay {
+
+		/**
+		 * Whether to append every chat model call, with its prompt, completion, duration
+		 * and token usage, to a replay log.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Directory of the replay log files.
+		 */
+		private Path directory = Path.of("replay");
+
+		/**
+		 * Prefix of the replay log file names.
+		 */
+		private String prefix = ReplayLogWriter.DEFAULT_PREFIX;
+
+		/**
+		 * Size after which a new replay log file is started.
+		 */
+		private DataSize maxFileSize = DataSize.ofBytes(ReplayLogWriter.DEFAULT_MAX_FILE_SIZE);
+
+		/**
+		 * Maximum number of replay log files to keep. The oldest files are deleted when a
+		 * new one is started.
+		 */
+		private int maxFiles = ReplayLogWriter.DEFAULT_MAX_FILES;
+
+		/**
+		 * Size of the blocks of records buffered before being written.
+		 */
+		private DataSize blockSize = DataSize.ofBytes(ReplayLogWriter.DEFAULT_BLOCK_SIZE);
+
+		/**
+		 * Maximum number of records waiting to be written. Further records are dropped
+		 * until the background writer catches up.
+		 */
+		private int queueCapacity = ReplayLogWriter.DEFAULT_QUEUE_CAPACITY;
+
+		/**
+		 * Whether to deflate the blocks.
+		 */
+		private boolean compress = true;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Path getDirectory() {
+			return this.directory;
+		}
+
+		public void setDirectory(Path directory) {
+			this.directory = directory;
+		}
+
+		public String getPrefix() {
+			return this.prefix;
+		}
+
+		public void setPrefix(String prefix) {
+			this.prefix = prefix;
+		}
+
+		public DataSize getMaxFileSize() {
+			return this.maxFileSize;
+		}
+
+		public void setMaxFileSize(DataSize maxFileSize) {
+			this.maxFileSize = maxFileSize;
+		}
+
+		public int getMaxFiles() {
+			return this.maxFiles;
+		}
+
+		public void setMaxFiles(int maxFiles) {
+			this.maxFiles = maxFiles;
+		}
+
+		public DataSize getBlockSize() {
+			return this.blockSize;
+		}
+
+		public void setBlockSize(DataSize blockSize) {
+			this.blockSize = blockSize;
+		}
+
+		public int getQueueCapacity() {
+			return this.queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public boolean isCompress() {
+			return this.compress;
+		}
+
+		public void setCompress(boolean compress) {
+			this.compress = compress;
+		}
+
+	}
+
+	public static class PromptRepeats {
+
+		/**
+		 * Whether to count the chat calls repeating an earlier prompt, to size a response
+		 * cache.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Sliding window over which the prompts are counted.
+		 */
+		private Duration window = ChatPromptRepeatObservationHandler.DEFAULT_WINDOW;
+
+		/**
+		 * Number of rows of the count-min sketch. More rows lower the probability of an
+		 * overestimate.
+		 */
+		private int depth = ChatPromptRepeatObservationHandler.DEFAULT_DEPTH;
+
+		/**
+		 * Number of counters per row of the count-min sketch. Wider rows lower the
+		 * overestimate.
+		 */
+		private int width = ChatPromptRepeatObservationHandler.DEFAULT_WIDTH;
+
+		/**
+		 * Number of most repeated prompts to track.
+		 */
+		private int topPrompts = ChatPromptRepeatObservationHandler.DEFAULT_TOP_PROMPTS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getWindow() {
+			return this.window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+		public int getDepth() {
+			return this.depth;
+		}
+
+		public void setDepth(int depth) {
+			this.depth = depth;
+		}
+
+		public int getWidth() {
+			return this.width;
+		}
+
+		public void setWidth(int width) {
+			this.width = width;
+		}
+
+		public int getTopPrompts() {
+			return this.topPrompts;
+		}
+
+		public void setTopPrompts(int topPrompts) {
+			this.topPrompts = topPrompts;
+		}
+
+	}
+
+	public static class Exemplars {
+
+		/**
+		 * Whether to record the chat latency and token usage histograms with exemplars
+		 * linking their buckets to the spans of the calls.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of distinct provider and model combinations to track. Further
+		 * models are reported as "other".
+		 */
+		private int maxModels = ChatModelExemplarObservationHandler.DEFAULT_MAX_MODELS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxModels() {
+			return this.maxModels;
+		}
+
+		public void setMaxModels(int maxModels) {
+			this.maxModels = maxModels;
+		}
+
+	}
+
+	public static class Conversations {
+
+		/**
+		 * Whether to aggregate the turns, tokens, latency and tool round-trips of the
+		 * chat client calls per conversation id.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Time without any call after which a conversation is summarized.
+		 */
+		private Duration idleTimeout = ChatConversationObservationHandler.DEFAULT_IDLE_TIMEOUT;
+
+		/**
+		 * Maximum number of conversations tracked at once. The turns of further
+		 * conversations are counted as dropped.
+		 */
+		private int maxConversations = ChatConversationObservationHandler.DEFAULT_MAX_CONVERSATIONS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getIdleTimeout() {
+			return this.idleTimeout;
+		}
+
+		public void setIdleTimeout(Duration idleTimeout) {
+			this.idleTimeout = idleTimeout;
+		}
+
+		public int getMaxConversations() {
+			return this.maxConversations;
+		}
+
+		public void setMaxConversations(int maxConversations) {
+			this.maxConversations = maxConversations;
+		}
+
+	}
+
+	public static class ContextWindow {
+
+		/**
+		 * Whether to record the estimated prompt tokens as a fraction of the model
+		 * context window.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Context window, in tokens, of the models not listed in the windows.
+		 */
+		private int defaultWindow = ChatContextWindowObservationHandler.DEFAULT_CONTEXT_WINDOW;
+
+		/**
+		 * Context window, in tokens, per model name.
+		 */
+		private Map<String, Integer> windows = new LinkedHashMap<>();
+
+		/**
+		 * Maximum number of distinct provider and model combinations to track. Further
+		 * models are reported as "other".
+		 */
+		private int maxModels = ChatContextWindowObservationHandler.DEFAULT_MAX_MODELS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getDefaultWindow() {
+			return this.defaultWindow;
+		}
+
+		public void setDefaultWindow(int defaultWindow) {
+			this.defaultWindow = defaultWindow;
+		}
+
+		public Map<String, Integer> getWindows() {
+			return this.windows;
+		}
+
+		public void setWindows(Map<String, Integer> windows) {
+			this.windows = windows;
+		}
+
+		public int getMaxModels() {
+			return this.maxModels;
+		}
+
+		public void setMaxModels(int maxModels) {
+			this.maxModels = maxModels;
+		}
+
+	}
+
+	public static class TopCalls {
+
+		/**
+		 * Whether to track the slowest chat calls, and those with the largest prompts and
+		 * completions, over a sliding window.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Duration of the sliding window.
+		 */
+		private Duration window = ChatTopCallsObservationHandler.DEFAULT_WINDOW;
+
+		/**
+		 * Number of calls kept per ranking.
+		 */
+		private int size = ChatTopCallsObservationHandler.DEFAULT_SIZE;
+
+		/**
+		 * Maximum length of the preview of the last user message, captured only when the
+		 * prompt capture is enabled. Set to 0 to disable the preview.
+		 */
+		private int previewLength = ChatTopCallsObservationHandler.DEFAULT_PREVIEW_LENGTH;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getWindow() {
+			return this.window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+		public int getSize() {
+			return this.size;
+		}
+
+		public void setSize(int size) {
+			this.size = size;
+		}
+
+		public int getPreviewLength() {
+			return this.previewLength;
+		}
+
+		public void setPreviewLength(int previewLength) {
+			this.previewLength = previewLength;
+		}
+
+	}
+
+	public static class Sketches {
+
+		/**
+		 * Whether to record mergeable quantile sketches of the chat latency, prompt
+		 * tokens and completion tokens per model.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Relative accuracy of the estimated quantiles.
+		 */
+		private double relativeAccuracy = ChatQuantileSketchObservationHandler.DEFAULT_RELATIVE_ACCURACY;
+
+		/**
+		 * Maximum number of distinct provider and model combinations to track. Further
+		 * models are reported as "other".
+		 */
+		private int maxModels = ChatQuantileSketchObservationHandler.DEFAULT_MAX_MODELS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public double getRelativeAccuracy() {
+			return this.relativeAccuracy;
+		}
+
+		public void setRelativeAccuracy(double relativeAccuracy) {
+			this.relativeAccuracy = relativeAccuracy;
+		}
+
+		public int getMaxModels() {
+			return this.maxModels;
+		}
+
+		public void setMaxModels(int maxModels) {
+			this.maxModels = maxModels;
+		}
+
+	}
+
+	public static class PromptCache {
+
+		/**
+		 * Whether to record the input tokens read from the prompt cache of the providers
+		 * reporting them.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of distinct model and system prompt combinations to track.
+		 * Further combinations are reported as "other".
+		 */
+		private int maxPrefixes = ChatPromptCacheObservationHandler.DEFAULT_MAX_PREFIXES;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxPrefixes() {
+			return this.maxPrefixes;
+		}
+
+		public void setMaxPrefixes(int maxPrefixes) {
+			this.maxPrefixes = maxPrefixes;
+		}
+
+	}
+
+	public static class Retries {
+
+		/**
+		 * Whether to record the retries of the chat model calls as span events and
+		 * metrics.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Name of the observations of the HTTP requests sent to the providers, each of
+		 * them being one attempt of a chat model call.
+		 */
+		private String attemptObservationName = ChatRetryObservationHandler.DEFAULT_ATTEMPT_OBSERVATION_NAME;
+
+		/**
+		 * Maximum number of distinct provider and model combinations to track. Further
+		 * models are reported as "other".
+		 */
+		private int maxModels = ChatRetryObservationHandler.DEFAULT_MAX_MODELS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getAttemptObservationName() {
+			return this.attemptObservationName;
+		}
+
+		public void setAttemptObservationName(String attemptObservationName) {
+			this.attemptObservationName = attemptObservationName;
+		}
+
+		public int getMaxModels() {
+			return this.maxModels;
+		}
+
+		public void setMaxModels(int maxModels) {
+			this.maxModels = maxModels;
+		}
+
+	}
+
+	public static class Routing {
+
+		/**
+		 * Whether to feed the latency and outcome of the chat model calls to the routing
+		 * chat models of the application.
+		 */
+		private boolean enabled = false;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+	}
+
+	public static class TokenBudget {
+
+		/**
+		 * Whether to register a chat client advisor enforcing per-key token budgets over
+		 * a sliding window.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Sliding window of the budgets.
+		 */
+		private Duration window = TokenBudgets.DEFAULT_WINDOW;
+
+		/**
+		 * Tokens allowed over the window for the keys without a configured limit.
+		 */
+		private long defaultLimit = 1_000_000;
+
+		/**
+		 * Tokens allowed over the window, per budget key.
+		 */
+		private Map<String, Long> limits = new LinkedHashMap<>();
+
+		/**
+		 * Maximum number of distinct keys with their own budget. Further keys take the
+		 * place of an idle budget, or share the "other" budget when none is idle.
+		 */
+		private int maxKeys = TokenBudgets.DEFAULT_MAX_KEYS;
+
+		/**
+		 * What to do with the calls not fitting in the budget.
+		 */
+		private TokenBudgetAdvisor.Mode mode = TokenBudgetAdvisor.Mode.REJECT;
+
+		/**
+		 * Maximum time a queued call waits for the budget to free before being rejected.
+		 */
+		private Duration maxWait = TokenBudgetAdvisor.DEFAULT_MAX_WAIT;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getWindow() {
+			return this.window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+		public long getDefaultLimit() {
+			return this.defaultLimit;
+		}
+
+		public void setDefaultLimit(long defaultLimit) {
+			this.defaultLimit = defaultLimit;
+		}
+
+		public Map<String, Long> getLimits() {
+			return this.limits;
+		}
+
+		public void setLimits(Map<String, Long> limits) {
+			this.limits = limits;
+		}
+
+		public int getMaxKeys() {
+			return this.maxKeys;
+		}
+
+		public void setMaxKeys(int maxKeys) {
+			this.maxKeys = maxKeys;
+		}
+
+		public TokenBudgetAdvisor.Mode getMode() {
+			return this.mode;
+		}
+
+		public void setMode(TokenBudgetAdvisor.Mode mode) {
+			this.mode = mode;
+		}
+
+		public Duration getMaxWait() {
+			return this.maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+	}
+
+	public static class ChatMemory {
+
+		/**
+		 * Whether to record the latency, message counts and payload size of the chat
+		 * memory repository operations, and summarize them on the chat client
+		 * observation.
+		 */
+		private boolean enabled = false;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.context.annotation.Conditional;
+
+/**
+ * {@link Conditional @Conditional} that matches when the given content capture property
+ * is {@code true}, when a capture rule sets it, or when the content capture can be
+ * toggled at runtime, in which case the capture components are always registered and the
+ * property only sets their initial state.
+ *
+ * @author Christian Tzolov
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Documented
+@Conditional(OnContentCaptureCondition.class)
+@interface ConditionalOnContentCapture {
+
+	/**
+	 * The prefix of the content capture property.
+	 * @return the property prefix
+	 */
+	String prefix() default ObservationAutoConfigurationExtensions.CONFIG_PREFIX;
+
+	/**
+	 * The name of the content capture property, e.g. {@code include-prompt}.
+	 * @return the property name
+	 */
+	String name();
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.logaritex.spring.ai.observe.ContentCaptureControl;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import com.logaritex.spring.ai.observe.ContentEncoder;
+import com.logaritex.spring.ai.observe.MessageCapturePolicy;
+
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link Endpoint @Endpoint} to read and change the AI content capture settings at
+ * runtime, without redeploying the application. The settings are reported as a flat
+ * {@link ContentCaptureDescriptor}.
+ *
+ * @author Christian Tzolov
+ */
+@Endpoint(id = "aicapture")
+public class ContentCaptureEndpoint {
+
+	private final ContentCaptureControl control;
+
+	public ContentCaptureEndpoint(ContentCaptureControl control) {
+		this.control = control;
+	}
+
+	@ReadOperation
+	public ContentCaptureDescriptor settings() {
+		return ContentCaptureDescriptor.of(this.control.settings());
+	}
+
+	@WriteOperation
+	public ContentCaptureDescriptor update(@Nullable Boolean prompt, @Nullable Boolean completion,
+			@Nullable Boolean chatClientPrompt, @Nullable Boolean imagePrompt, @Nullable Double sampleRate,
+			@Nullable Integer maxPromptLength, @Nullable Integer maxCompletionLength) {
+		ContentCaptureSettings.Builder builder = this.control.settings().mutate();
+		if (prompt != null) {
+			builder.prompt(prompt);
+		}
+		if (completion != null) {
+			builder.completion(completion);
+		}
+		if (chatClientPrompt != null) {
+			builder.chatClientPrompt(chatClientPrompt);
+		}
+		if (imagePrompt != null) {
+			builder.imagePrompt(imagePrompt);
+		}
+		if (sampleRate != null) {
+			builder.sampleRate(sampleRate);
+		}
+		if (maxPromptLength != null) {
+			builder.maxPromptLength(maxPromptLength);
+		}
+		if (maxCompletionLength != null) {
+			builder.maxCompletionLength(maxCompletionLength);
+		}
+		ContentCaptureSettings settings = builder.build();
+		this.control.update(settings);
+		return ContentCaptureDescriptor.of(settings);
+	}
+
+	/**
+	 * Description of the content capture settings.
+	 *
+	 * @param prompt whether to capture the chat model prompt
+	 * @param completion whether to capture the chat model completion
+	 * @param chatClientPrompt whether to capture the chat client prompt and input
+	 * @param imagePrompt whether to capture the image model prompt
+	 * @param sampleRate fraction of the calls to capture the content of
+	 * @param maxPromptLength maximum number of prompt characters captured
+	 * @param maxCompletionLength maximum number of completion characters captured
+	 * @param messages the capture rule of the prompt messages, by role
+	 * @param encoding the encoding of the large content, or {@code none}
+	 * @param encodingThreshold the length above which the content is encoded
+	 */
+	public record ContentCaptureDescriptor(boolean prompt, boolean completion, boolean chatClientPrompt,
+			boolean imagePrompt, double sampleRate, int maxPromptLength, int maxCompletionLength,
+			Map<String, MessageRuleDescriptor> messages, String encoding, int encodingThreshold) {
+
+		static final String NO_ENCODING = "none";
+
+		static ContentCaptureDescriptor of(ContentCaptureSettings settings) {
+			Map<String, MessageRuleDescriptor> messages = new LinkedHashMap<>();
+			for (MessageType messageType : MessageType.values()) {
+				MessageCapturePolicy.Rule rule = settings.messages().rule(messageType);
+				messages.put(messageType.getValue(),
+						new MessageRuleDescriptor(rule.mode().name().toLowerCase(Locale.ROOT), rule.maxLength()));
+			}
+			int threshold = settings.encoder().threshold();
+			return new ContentCaptureDescriptor(settings.prompt(), settings.completion(), settings.chatClientPrompt(),
+					settings.imagePrompt(), settings.sampleRate(), settings.maxPromptLength(),
+					settings.maxCompletionLength(), messages,
+					(threshold != ContentCaptureSettings.UNLIMITED) ? ContentEncoder.DEFLATE_BASE64 : NO_ENCODING,
+					threshold);
+		}
+
+	}
+
+	/**
+	 * Description of the capture rule of the messages of a role.
+	 *
+	 * @param mode how the messages are captured: {@code full}, {@code hash} or
+	 * {@code none}
+	 * @param maxLength maximum number of characters captured per message
+	 */
+	public record MessageRuleDescriptor(String mode, int maxLength) {
+
+	}
+
+}
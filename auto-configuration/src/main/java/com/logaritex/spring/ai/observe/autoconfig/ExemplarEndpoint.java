@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.util.List;
+
+import com.logaritex.spring.ai.observe.ChatModelExemplarObservationHandler;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@link Endpoint @Endpoint} exposing the exemplars of the chat latency and token usage
+ * histograms: for every bucket, the trace and span ids of a call recorded in it.
+ *
+ * @author Christian Tzolov
+ */
+@Endpoint(id = "aiexemplars")
+public class ExemplarEndpoint {
+
+	private final ChatModelExemplarObservationHandler handler;
+
+	public ExemplarEndpoint(ChatModelExemplarObservationHandler handler) {
+		this.handler = handler;
+	}
+
+	@ReadOperation
+	public List<ChatModelExemplarObservationHandler.MeterExemplars> exemplars() {
+		return this.handler.exemplars();
+	}
+
+	@DeleteOperation
+	public void reset() {
+		this.handler.resetExemplars();
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import com.logaritex.spring.ai.observe.ImageModelMetricsObservationHandler;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the image observation extensions. The image prompt is
+ * captured when {@code spring.ai.image.observations.include-prompt} is set.
+ *
+ * @author Christian Tzolov
+ */
+@ConfigurationProperties(ObservationAutoConfigurationExtensions.IMAGE_CONFIG_PREFIX)
+public class ImageObservationExtensionsProperties {
+
+	/**
+	 * Image generation metrics.
+	 */
+	private final Metrics metrics = new Metrics();
+
+	public Metrics getMetrics() {
+		return this.metrics;
+	}
+
+	public static class Metrics {
+
+		/**
+		 * Whether to record the generation latency per image, the number of generated
+		 * images and the returned payload sizes, per provider, model and size.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of model and size combinations tracked. Combinations seen after
+		 * the limit is reached are reported as "other".
+		 */
+		private int maxModels = ImageModelMetricsObservationHandler.DEFAULT_MAX_MODELS;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxModels() {
+			return this.maxModels;
+		}
+
+		public void setMaxModels(int maxModels) {
+			this.maxModels = maxModels;
+		}
+
+	}
+
+}
@@ -16,25 +16,71 @@
 
 package com.logaritex.spring.ai.observe.autoconfig;
 
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
 import com.logaritex.spring.ai.observe.ChatClientInputContentObservationFilter;
 import com.logaritex.spring.ai.observe.ChatClientPromptContentObservationFilter;
+import com.logaritex.spring.ai.observe.ChatContextWindowObservationHandler;
+import com.logaritex.spring.ai.observe.ChatConversationObservationHandler;
+import com.logaritex.spring.ai.observe.ChatInFlightObservationHandler;
+import com.logaritex.spring.ai.observe.ChatModelChoiceObservationFilter;
+import com.logaritex.spring.ai.observe.ChatModelChoiceObservationHandler;
 import com.logaritex.spring.ai.observe.ChatModelCompletionObservationFilter;
 import com.logaritex.spring.ai.observe.ChatModelCompletionObservationHandler2;
+import com.logaritex.spring.ai.observe.ChatModelExemplarObservationHandler;
 import com.logaritex.spring.ai.observe.ChatModelPromptContentObservationFilter;
 import com.logaritex.spring.ai.observe.ChatModelPromptContentObservationHandler2;
+import com.logaritex.spring.ai.observe.ChatPromptCacheObservationHandler;
+import com.logaritex.spring.ai.observe.ChatPromptRepeatObservationHandler;
+import com.logaritex.spring.ai.observe.ChatQuantileSketchObservationHandler;
+import com.logaritex.spring.ai.observe.ChatRetryObservationHandler;
+import com.logaritex.spring.ai.observe.ChatTopCallsObservationHandler;
+import com.logaritex.spring.ai.observe.ContentCaptureControl;
+import com.logaritex.spring.ai.observe.ContentCaptureGovernor;
+import com.logaritex.spring.ai.observe.ContentCaptureMetrics;
+import com.logaritex.spring.ai.observe.ContentCaptureRule;
+import com.logaritex.spring.ai.observe.ContentCaptureRules;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import com.logaritex.spring.ai.observe.ContentEncoder;
+import com.logaritex.spring.ai.observe.ImageModelMetricsObservationHandler;
+import com.logaritex.spring.ai.observe.ImageModelPromptContentObservationFilter;
+import com.logaritex.spring.ai.observe.MessageCapturePolicy;
+import com.logaritex.spring.ai.observe.PromptTemplateFingerprintObservationFilter;
+import com.logaritex.spring.ai.observe.PromptTemplateFingerprints;
+import com.logaritex.spring.ai.observe.PromptTemplateSource;
+import com.logaritex.spring.ai.observe.budget.TokenBudgetAdvisor;
+import com.logaritex.spring.ai.observe.budget.TokenBudgetObservationHandler;
+import com.logaritex.spring.ai.observe.budget.TokenBudgets;
+import com.logaritex.spring.ai.observe.replay.ReplayLogWriter;
+import com.logaritex.spring.ai.observe.replay.ReplayObservationHandler;
+import com.logaritex.spring.ai.observe.routing.RoutingObservationHandler;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
 import io.micrometer.tracing.otel.bridge.OtelTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.ai.chat.messages.MessageType;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.image.ImageModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * Auto-configuration for Spring AI chat model observations.
@@ -45,12 +91,18 @@ import org.springframework.context.annotation.Configuration;
 @AutoConfiguration(
 		afterName = { "org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration" })
 @ConditionalOnClass(ChatModel.class)
+@EnableConfigurationProperties({ ChatObservationExtensionsProperties.class,
+		ImageObservationExtensionsProperties.class })
 public class ObservationAutoConfigurationExtensions {
 
 	private static final Logger logger = LoggerFactory.getLogger(ObservationAutoConfigurationExtensions.class);
 
 	public static final String CONFIG_PREFIX = "spring.ai.chat.observations";
 
+	public static final String CLIENT_CONFIG_PREFIX = "spring.ai.chat.client.observations";
+
+	public static final String IMAGE_CONFIG_PREFIX = "spring.ai.image.observations";
+
 	private static void logPromptContentWarning() {
 		logger.warn(
 				"You have enabled the inclusion of the prompt content in the observations, with the risk of exposing sensitive or private information. Please, be careful!");
@@ -61,6 +113,175 @@ public class ObservationAutoConfigurationExtensions {
 				"You have enabled the inclusion of the completion content in the observations, with the risk of exposing sensitive or private information. Please, be careful!");
 	}
 
+	/**
+	 * The settings shared by all the content capture filters and handlers. Unless the
+	 * capture can be toggled at runtime, they never change after startup.
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	ContentCaptureControl contentCaptureControl(ChatObservationExtensionsProperties properties, Environment environment,
+			ObjectProvider<ContentCaptureGovernor> governor) {
+		ChatObservationExtensionsProperties.Capture capture = properties.getCapture();
+		if (capture.isRuntimeToggle()) {
+			logger.warn(
+					"You have enabled the runtime toggle of the content capture. The prompt and completion content can be included in the observations at any time, with the risk of exposing sensitive or private information. Please, be careful!");
+		}
+		return new ContentCaptureControl(ContentCaptureSettings.builder()
+			.prompt(isEnabled(environment, CONFIG_PREFIX + ".include-prompt"))
+			.completion(isEnabled(environment, CONFIG_PREFIX + ".include-completion"))
+			.chatClientPrompt(isEnabled(environment, CLIENT_CONFIG_PREFIX + ".include-prompt")
+					|| isEnabled(environment, CLIENT_CONFIG_PREFIX + ".include-input"))
+			.imagePrompt(isEnabled(environment, IMAGE_CONFIG_PREFIX + ".include-prompt"))
+			.sampleRate(capture.getSampleRate())
+			.maxPromptLength(capture.getMaxPromptLength())
+			.maxCompletionLength(capture.getMaxCompletionLength())
+			.messages(messageCapturePolicy(capture))
+			.encoder(contentEncoder(capture.getEncoding()))
+			.build(), contentCaptureRules(capture), governor.getIfAvailable());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "capture.governor.enabled", havingValue = "true")
+	ContentCaptureGovernor contentCaptureGovernor(ChatObservationExtensionsProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry,
+			ObjectProvider<ContentCaptureGovernor.ExporterQueue> exporterQueue) {
+		ChatObservationExtensionsProperties.Capture.Governor governor = properties.getCapture().getGovernor();
+		ContentCaptureGovernor.Builder builder = ContentCaptureGovernor.builder()
+			.heap(governor.isHeap())
+			.heapWatermarks(governor.getHeapLowWatermark(), governor.getHeapHighWatermark())
+			.exporterQueue(exporterQueue.getIfUnique())
+			.exporterWatermarks(governor.getExporterLowWatermark(), governor.getExporterHighWatermark());
+		if (governor.getBytesPerSecond() != null) {
+			builder.bytesPerSecond(governor.getBytesPerSecond().toBytes(), governor.getBurst().toMillis() / 1000.0);
+		}
+		MeterRegistry registry = meterRegistry.getIfUnique();
+		if (registry != null) {
+			builder.meterRegistry(registry);
+		}
+		return builder.build();
+	}
+
+	private static ContentEncoder contentEncoder(ChatObservationExtensionsProperties.Capture.Encoding encoding) {
+		if (!encoding.isEnabled()) {
+			return ContentEncoder.NONE;
+		}
+		return new ContentEncoder(encoding.getThreshold(), encoding.getLevel(), encoding.getPoolSize());
+	}
+
+	private static ContentCaptureRules contentCaptureRules(ChatObservationExtensionsProperties.Capture capture) {
+		if (capture.getRules().isEmpty()) {
+			return ContentCaptureRules.NONE;
+		}
+		return new ContentCaptureRules(capture.getRules()
+			.stream()
+			.map(rule -> ContentCaptureRule.builder()
+				.provider(rule.getProvider())
+				.model(rule.getModel())
+				.operation(rule.getOperation())
+				.keys(rule.getKeys())
+				.context(rule.getContext())
+				.prompt(rule.getIncludePrompt())
+				.completion(rule.getIncludeCompletion())
+				.sampleRate(rule.getSampleRate())
+				.build())
+			.toList());
+	}
+
+	private static MessageCapturePolicy messageCapturePolicy(ChatObservationExtensionsProperties.Capture capture) {
+		if (capture.getMessages().isEmpty()) {
+			return MessageCapturePolicy.ALL;
+		}
+		Map<MessageType, MessageCapturePolicy.Rule> rules = new EnumMap<>(MessageType.class);
+		capture.getMessages()
+			.forEach((messageType, rule) -> rules.put(messageType,
+					new MessageCapturePolicy.Rule(rule.getMode(), rule.getMaxLength())));
+		return new MessageCapturePolicy(rules);
+	}
+
+	/**
+	 * The self-instrumentation of the content capture, recording nothing unless enabled.
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	ContentCaptureMetrics contentCaptureMetrics(ChatObservationExtensionsProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		ChatObservationExtensionsProperties.Capture.Metrics metrics = properties.getCapture().getMetrics();
+		MeterRegistry registry = meterRegistry.getIfUnique();
+		if (!metrics.isEnabled() || registry == null) {
+			return ContentCaptureMetrics.NOOP;
+		}
+		return new ContentCaptureMetrics(registry, metrics.getSampleInterval());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "top-calls.enabled", havingValue = "true")
+	ChatTopCallsObservationHandler chatTopCallsObservationHandler(ContentCaptureControl contentCaptureControl,
+			ChatObservationExtensionsProperties properties) {
+		ChatObservationExtensionsProperties.TopCalls topCalls = properties.getTopCalls();
+		return new ChatTopCallsObservationHandler(contentCaptureControl, Clock.SYSTEM, topCalls.getWindow(),
+				topCalls.getSize(), topCalls.getPreviewLength());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "sketches.enabled", havingValue = "true")
+	ChatQuantileSketchObservationHandler chatQuantileSketchObservationHandler(
+			ChatObservationExtensionsProperties properties) {
+		ChatObservationExtensionsProperties.Sketches sketches = properties.getSketches();
+		return new ChatQuantileSketchObservationHandler(Clock.SYSTEM, sketches.getRelativeAccuracy(),
+				sketches.getMaxModels());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "routing.enabled", havingValue = "true")
+	RoutingObservationHandler routingObservationHandler() {
+		return new RoutingObservationHandler();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "token-budget.enabled", havingValue = "true")
+	TokenBudgets tokenBudgets(ChatObservationExtensionsProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		ChatObservationExtensionsProperties.TokenBudget tokenBudget = properties.getTokenBudget();
+		return new TokenBudgets(meterRegistry.getIfUnique(), Clock.SYSTEM, tokenBudget.getWindow(),
+				tokenBudget.getDefaultLimit(), tokenBudget.getLimits(), tokenBudget.getMaxKeys());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "token-budget.enabled", havingValue = "true")
+	TokenBudgetAdvisor tokenBudgetAdvisor(TokenBudgets tokenBudgets, ChatObservationExtensionsProperties properties,
+			ObjectProvider<ObservationRegistry> observationRegistry) {
+		ChatObservationExtensionsProperties.TokenBudget tokenBudget = properties.getTokenBudget();
+		return TokenBudgetAdvisor.builder(tokenBudgets)
+			.mode(tokenBudget.getMode())
+			.maxWait(tokenBudget.getMaxWait())
+			.observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
+			.build();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "token-budget.enabled", havingValue = "true")
+	TokenBudgetObservationHandler tokenBudgetObservationHandler() {
+		return new TokenBudgetObservationHandler();
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "chat-memory.enabled", havingValue = "true")
+	static ChatMemoryRepositoryPostProcessor chatMemoryRepositoryPostProcessor(
+			ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<ObservationRegistry> observationRegistry) {
+		return new ChatMemoryRepositoryPostProcessor(meterRegistry, observationRegistry);
+	}
+
+	private static boolean isEnabled(Environment environment, String property) {
+		return environment.getProperty(property, Boolean.class, false);
+	}
+
 	/**
 	 * The chat content is typically too big to be included in an observation as span
 	 * attributes. That's why the preferred way to store it is as span events, which are
@@ -75,18 +296,32 @@ public class ObservationAutoConfigurationExtensions {
 
 		@Bean
 		@ConditionalOnMissingBean
-		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "include-prompt", havingValue = "true")
-		ChatModelPromptContentObservationHandler2 chatModelPromptContentObservationHandler() {
+		@ConditionalOnContentCapture(name = "include-prompt")
+		ChatModelPromptContentObservationHandler2 chatModelPromptContentObservationHandler(
+				ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
 			logPromptContentWarning();
-			return new ChatModelPromptContentObservationHandler2();
+			return new ChatModelPromptContentObservationHandler2(contentCaptureControl, contentCaptureMetrics);
 		}
 
 		@Bean
 		@ConditionalOnMissingBean
-		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "include-completion", havingValue = "true")
-		ChatModelCompletionObservationHandler2 chatModelCompletionObservationHandler() {
+		@ConditionalOnContentCapture(name = "include-completion")
+		ChatModelCompletionObservationHandler2 chatModelCompletionObservationHandler(
+				ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
 			logCompletionWarning();
-			return new ChatModelCompletionObservationHandler2();
+			return new ChatModelCompletionObservationHandler2(contentCaptureControl, contentCaptureMetrics);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "completion-choices.enabled", havingValue = "true")
+		ChatModelChoiceObservationHandler chatModelChoiceObservationHandler(ContentCaptureControl contentCaptureControl,
+				ContentCaptureMetrics contentCaptureMetrics, ChatObservationExtensionsProperties properties) {
+			boolean includeContent = properties.getCompletionChoices().isIncludeContent();
+			if (includeContent) {
+				logCompletionWarning();
+			}
+			return new ChatModelChoiceObservationHandler(contentCaptureControl, contentCaptureMetrics, includeContent);
 		}
 
 	}
@@ -97,42 +332,270 @@ public class ObservationAutoConfigurationExtensions {
 
 		@Bean
 		@ConditionalOnMissingBean
-		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "include-prompt", havingValue = "true")
-		ChatModelPromptContentObservationFilter chatModelPromptObservationFilter() {
+		@ConditionalOnContentCapture(name = "include-prompt")
+		ChatModelPromptContentObservationFilter chatModelPromptObservationFilter(
+				ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
 			logPromptContentWarning();
-			return new ChatModelPromptContentObservationFilter();
+			return new ChatModelPromptContentObservationFilter(contentCaptureControl, contentCaptureMetrics);
 		}
 
 		@Bean
 		@ConditionalOnMissingBean
-		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "include-completion", havingValue = "true")
-		ChatModelCompletionObservationFilter chatModelCompletionObservationFilter() {
+		@ConditionalOnContentCapture(name = "include-completion")
+		ChatModelCompletionObservationFilter chatModelCompletionObservationFilter(
+				ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
 			logCompletionWarning();
-			return new ChatModelCompletionObservationFilter();
+			return new ChatModelCompletionObservationFilter(contentCaptureControl, contentCaptureMetrics);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "completion-choices.enabled", havingValue = "true")
+		ChatModelChoiceObservationFilter chatModelChoiceObservationFilter(ContentCaptureControl contentCaptureControl,
+				ContentCaptureMetrics contentCaptureMetrics, ChatObservationExtensionsProperties properties) {
+			boolean includeContent = properties.getCompletionChoices().isIncludeContent();
+			if (includeContent) {
+				logCompletionWarning();
+			}
+			return new ChatModelChoiceObservationFilter(contentCaptureControl, contentCaptureMetrics, includeContent);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnBean(MeterRegistry.class)
+	static class ChatMetricsObservationConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "in-flight.enabled", havingValue = "true")
+		ChatInFlightObservationHandler chatInFlightObservationHandler(MeterRegistry meterRegistry,
+				ChatObservationExtensionsProperties properties) {
+			return new ChatInFlightObservationHandler(meterRegistry, properties.getInFlight().getMaxModels());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "prompt-repeats.enabled", havingValue = "true")
+		ChatPromptRepeatObservationHandler chatPromptRepeatObservationHandler(MeterRegistry meterRegistry,
+				ChatObservationExtensionsProperties properties) {
+			ChatObservationExtensionsProperties.PromptRepeats promptRepeats = properties.getPromptRepeats();
+			return new ChatPromptRepeatObservationHandler(meterRegistry, promptRepeats.getWindow(),
+					promptRepeats.getDepth(), promptRepeats.getWidth(), promptRepeats.getTopPrompts());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "conversations.enabled", havingValue = "true")
+		ChatConversationObservationHandler chatConversationObservationHandler(MeterRegistry meterRegistry,
+				ApplicationEventPublisher applicationEventPublisher, ChatObservationExtensionsProperties properties) {
+			ChatObservationExtensionsProperties.Conversations conversations = properties.getConversations();
+			return new ChatConversationObservationHandler(meterRegistry, conversations.getIdleTimeout(),
+					conversations.getMaxConversations(), applicationEventPublisher::publishEvent);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "context-window.enabled", havingValue = "true")
+		ChatContextWindowObservationHandler chatContextWindowObservationHandler(MeterRegistry meterRegistry,
+				ChatObservationExtensionsProperties properties) {
+			ChatObservationExtensionsProperties.ContextWindow contextWindow = properties.getContextWindow();
+			return new ChatContextWindowObservationHandler(meterRegistry, contextWindow.getWindows(),
+					contextWindow.getDefaultWindow(), contextWindow.getMaxModels());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "prompt-cache.enabled", havingValue = "true")
+		ChatPromptCacheObservationHandler chatPromptCacheObservationHandler(MeterRegistry meterRegistry,
+				ObjectProvider<ChatPromptCacheObservationHandler.CacheTokensResolver> cacheTokensResolver,
+				ChatObservationExtensionsProperties properties) {
+			return new ChatPromptCacheObservationHandler(meterRegistry,
+					cacheTokensResolver.getIfUnique(() -> ChatPromptCacheObservationHandler.NATIVE_USAGE),
+					properties.getPromptCache().getMaxPrefixes());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "retries.enabled", havingValue = "true")
+		ChatRetryObservationHandler chatRetryObservationHandler(MeterRegistry meterRegistry,
+				ChatObservationExtensionsProperties properties) {
+			ChatObservationExtensionsProperties.Retries retries = properties.getRetries();
+			return new ChatRetryObservationHandler(meterRegistry, retries.getAttemptObservationName(),
+					retries.getMaxModels());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "exemplars.enabled", havingValue = "true")
+		ChatModelExemplarObservationHandler chatModelExemplarObservationHandler(MeterRegistry meterRegistry,
+				ObjectProvider<Tracer> tracer, ChatObservationExtensionsProperties properties) {
+			return new ChatModelExemplarObservationHandler(meterRegistry, tracer.getIfUnique(),
+					properties.getExemplars().getMaxModels());
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	@ConditionalOnBean(MeterRegistry.class)
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "exemplars.enabled", havingValue = "true")
+	static class ExemplarEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint
+		ExemplarEndpoint exemplarEndpoint(ChatModelExemplarObservationHandler chatModelExemplarObservationHandler) {
+			return new ExemplarEndpoint(chatModelExemplarObservationHandler);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "top-calls.enabled", havingValue = "true")
+	static class TopCallsEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint
+		TopCallsEndpoint topCallsEndpoint(ChatTopCallsObservationHandler chatTopCallsObservationHandler) {
+			return new TopCallsEndpoint(chatTopCallsObservationHandler);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "sketches.enabled", havingValue = "true")
+	static class QuantileSketchEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint
+		QuantileSketchEndpoint quantileSketchEndpoint(
+				ChatQuantileSketchObservationHandler chatQuantileSketchObservationHandler) {
+			return new QuantileSketchEndpoint(chatQuantileSketchObservationHandler);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(ImageModel.class)
+	static class ImageObservationConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnContentCapture(prefix = IMAGE_CONFIG_PREFIX, name = "include-prompt")
+		ImageModelPromptContentObservationFilter imageModelPromptContentObservationFilter(
+				ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
+			logPromptContentWarning();
+			return new ImageModelPromptContentObservationFilter(contentCaptureControl, contentCaptureMetrics);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnBean(MeterRegistry.class)
+		@ConditionalOnProperty(prefix = IMAGE_CONFIG_PREFIX, name = "metrics.enabled", havingValue = "true")
+		ImageModelMetricsObservationHandler imageModelMetricsObservationHandler(MeterRegistry meterRegistry,
+				ImageObservationExtensionsProperties properties) {
+			return new ImageModelMetricsObservationHandler(meterRegistry, properties.getMetrics().getMaxModels());
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	@ConditionalOnBean(MeterRegistry.class)
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "prompt-repeats.enabled", havingValue = "true")
+	static class PromptRepeatEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint
+		PromptRepeatEndpoint promptRepeatEndpoint(
+				ChatPromptRepeatObservationHandler chatPromptRepeatObservationHandler) {
+			return new PromptRepeatEndpoint(chatPromptRepeatObservationHandler);
+		}
+
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "prompt-template.enabled", havingValue = "true")
+	@ConditionalOnBean(PromptTemplateSource.class)
+	PromptTemplateFingerprintObservationFilter promptTemplateFingerprintObservationFilter(
+			ChatObservationExtensionsProperties properties, PromptTemplateSource promptTemplateSource) {
+		return new PromptTemplateFingerprintObservationFilter(promptTemplateSource,
+				new PromptTemplateFingerprints(properties.getPromptTemplate().getMaxTemplates()));
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "replay.enabled", havingValue = "true")
+	static class ReplayConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		ReplayLogWriter replayLogWriter(ChatObservationExtensionsProperties properties) throws IOException {
+			ChatObservationExtensionsProperties.Replay replay = properties.getReplay();
+			logger.warn(
+					"You have enabled the replay log of the chat model calls, which stores the prompt and completion content in {}, with the risk of exposing sensitive or private information. Please, be careful!",
+					replay.getDirectory().toAbsolutePath());
+			return ReplayLogWriter.builder(replay.getDirectory())
+				.prefix(replay.getPrefix())
+				.maxFileSize(replay.getMaxFileSize().toBytes())
+				.maxFiles(replay.getMaxFiles())
+				.blockSize((int) replay.getBlockSize().toBytes())
+				.queueCapacity(replay.getQueueCapacity())
+				.compress(replay.isCompress())
+				.build();
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		ReplayObservationHandler replayObservationHandler(ReplayLogWriter replayLogWriter,
+				ContentCaptureControl contentCaptureControl) {
+			return new ReplayObservationHandler(replayLogWriter, contentCaptureControl);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	static class ContentCaptureEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint
+		@ConditionalOnProperty(prefix = CONFIG_PREFIX, name = "capture.runtime-toggle", havingValue = "true")
+		ContentCaptureEndpoint contentCaptureEndpoint(ContentCaptureControl contentCaptureControl) {
+			return new ContentCaptureEndpoint(contentCaptureControl);
 		}
 
 	}
 
 	/**
-	 * @deprecated in favour of {@link #chatClientPromptContentObservationFilter()}.
+	 * @deprecated in favour of {@link #chatClientPromptContentObservationFilter}.
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	@ConditionalOnProperty(prefix = "spring.ai.chat.client.observations", name = "include-input", havingValue = "true")
+	@ConditionalOnProperty(prefix = CLIENT_CONFIG_PREFIX, name = "include-input", havingValue = "true")
 	@Deprecated
-	ChatClientInputContentObservationFilter chatClientInputContentObservationFilter() {
+	ChatClientInputContentObservationFilter chatClientInputContentObservationFilter(
+			ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
 		logger.warn(
 				"You have enabled the inclusion of the input content in the observations, with the risk of exposing sensitive or private information. Please, be careful!");
-		return new ChatClientInputContentObservationFilter();
+		return new ChatClientInputContentObservationFilter(contentCaptureControl, contentCaptureMetrics);
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
-	@ConditionalOnProperty(prefix = "spring.ai.chat.client.observations", name = "include-prompt", havingValue = "true")
-	ChatClientPromptContentObservationFilter chatClientPromptContentObservationFilter() {
+	@ConditionalOnContentCapture(prefix = CLIENT_CONFIG_PREFIX, name = "include-prompt")
+	ChatClientPromptContentObservationFilter chatClientPromptContentObservationFilter(
+			ContentCaptureControl contentCaptureControl, ContentCaptureMetrics contentCaptureMetrics) {
 		logger.warn(
 				"You have enabled the inclusion of the ChatClient prompt content in the observations, with the risk of exposing sensitive or private information. Please, be careful!");
-		return new ChatClientPromptContentObservationFilter();
+		return new ChatClientPromptContentObservationFilter(contentCaptureControl, contentCaptureMetrics);
 	}
 
 }
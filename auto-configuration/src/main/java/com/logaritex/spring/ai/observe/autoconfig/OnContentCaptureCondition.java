@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * {@link SpringBootCondition} backing {@link ConditionalOnContentCapture}.
+ *
+ * @author Christian Tzolov
+ */
+class OnContentCaptureCondition extends SpringBootCondition {
+
+	static final String RUNTIME_TOGGLE_PROPERTY = ObservationAutoConfigurationExtensions.CONFIG_PREFIX
+			+ ".capture.runtime-toggle";
+
+	static final String RULES_PROPERTY = ObservationAutoConfigurationExtensions.CONFIG_PREFIX + ".capture.rules";
+
+	@Override
+	public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+		Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnContentCapture.class.getName());
+		String property = attributes.get("prefix") + "." + attributes.get("name");
+		Environment environment = context.getEnvironment();
+		if (environment.getProperty(property, Boolean.class, false)) {
+			return ConditionOutcome.match(property + " is true");
+		}
+		if (environment.getProperty(RUNTIME_TOGGLE_PROPERTY, Boolean.class, false)) {
+			return ConditionOutcome.match(RUNTIME_TOGGLE_PROPERTY + " is true");
+		}
+		if (isEnabledByRule(environment, (String) attributes.get("name"))) {
+			return ConditionOutcome.match("a rule of " + RULES_PROPERTY + " sets " + attributes.get("name"));
+		}
+		return ConditionOutcome.noMatch("neither " + property + " nor " + RUNTIME_TOGGLE_PROPERTY + " is true");
+	}
+
+	private static boolean isEnabledByRule(Environment environment, String name) {
+		List<ChatObservationExtensionsProperties.Capture.Rule> rules = Binder.get(environment)
+			.bind(RULES_PROPERTY, Bindable.listOf(ChatObservationExtensionsProperties.Capture.Rule.class))
+			.orElse(List.of());
+		for (ChatObservationExtensionsProperties.Capture.Rule rule : rules) {
+			Boolean enabled = switch (name) {
+				case "include-prompt" -> rule.getIncludePrompt();
+				case "include-completion" -> rule.getIncludeCompletion();
+				default -> null;
+			};
+			if (Boolean.TRUE.equals(enabled)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import com.logaritex.spring.ai.observe.ChatPromptRepeatObservationHandler;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@link Endpoint @Endpoint} exposing the repeated chat prompts statistics: the repeat
+ * ratio, the tokens a response cache would save and the most repeated prompt hashes.
+ *
+ * @author Christian Tzolov
+ */
+@Endpoint(id = "aiprompts")
+public class PromptRepeatEndpoint {
+
+	private final ChatPromptRepeatObservationHandler handler;
+
+	public PromptRepeatEndpoint(ChatPromptRepeatObservationHandler handler) {
+		this.handler = handler;
+	}
+
+	@ReadOperation
+	public ChatPromptRepeatObservationHandler.RepeatStatistics statistics() {
+		return this.handler.statistics();
+	}
+
+}
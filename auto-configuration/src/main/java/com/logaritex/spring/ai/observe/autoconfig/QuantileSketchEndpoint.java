@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.util.Base64;
+import java.util.List;
+
+import com.logaritex.spring.ai.observe.ChatQuantileSketchObservationHandler;
+import com.logaritex.spring.ai.observe.ModelKey;
+import com.logaritex.spring.ai.observe.QuantileSketch;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@link Endpoint @Endpoint} exposing the quantile sketches of the chat calls, per model,
+ * in their base64 encoded binary form, to be merged across instances by an aggregator,
+ * together with the local quantiles.
+ *
+ * @author Christian Tzolov
+ */
+@Endpoint(id = "aisketches")
+public class QuantileSketchEndpoint {
+
+	private final ChatQuantileSketchObservationHandler handler;
+
+	public QuantileSketchEndpoint(ChatQuantileSketchObservationHandler handler) {
+		this.handler = handler;
+	}
+
+	@ReadOperation
+	public List<SketchDescriptor> sketches() {
+		return this.handler.sketches().stream().map(SketchDescriptor::of).toList();
+	}
+
+	/**
+	 * Description of a sketch.
+	 *
+	 * @param model the model
+	 * @param measure the sketched measure
+	 * @param count the number of values
+	 * @param p50 the local median
+	 * @param p90 the local 90th percentile
+	 * @param p99 the local 99th percentile
+	 * @param sketch the base64 encoded binary form of the sketch
+	 */
+	public record SketchDescriptor(ModelKey model, ChatQuantileSketchObservationHandler.Measure measure, long count,
+			double p50, double p90, double p99, String sketch) {
+
+		static SketchDescriptor of(ChatQuantileSketchObservationHandler.ModelSketch modelSketch) {
+			QuantileSketch sketch = modelSketch.sketch();
+			long count = sketch.count();
+			return new SketchDescriptor(modelSketch.model(), modelSketch.measure(), count,
+					(count > 0) ? sketch.quantile(0.5) : 0, (count > 0) ? sketch.quantile(0.9) : 0,
+					(count > 0) ? sketch.quantile(0.99) : 0, Base64.getEncoder().encodeToString(sketch.toByteArray()));
+		}
+
+	}
+
+}
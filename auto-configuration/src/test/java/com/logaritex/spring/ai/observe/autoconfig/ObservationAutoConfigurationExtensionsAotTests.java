@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.autoconfig;
+
+import java.util.function.BiConsumer;
+
+import com.logaritex.spring.ai.observe.AiObservationEventNames;
+import com.logaritex.spring.ai.observe.ChatModelCompletionObservationHandler2;
+import com.logaritex.spring.ai.observe.ChatModelPromptContentObservationHandler2;
+import com.logaritex.spring.ai.observe.TracingHelper;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.test.generate.TestGenerationContext;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.test.tools.CompileWithForkedClassLoader;
+import org.springframework.core.test.tools.TestCompiler;
+import org.springframework.javapoet.ClassName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ObservationAutoConfigurationExtensions} processed ahead of time, as
+ * done when building a native image.
+ *
+ * @author Christian Tzolov
+ */
+@CompileWithForkedClassLoader
+class ObservationAutoConfigurationExtensionsAotTests {
+
+	private static final String[] PROPERTIES = { "spring.ai.chat.observations.include-prompt=true",
+			"spring.ai.chat.observations.include-completion=true",
+			"spring.ai.chat.observations.capture.runtime-toggle=true",
+			"management.endpoints.web.exposure.include=aicapture" };
+
+	@Test
+	void whenProcessedAheadOfTimeThenSpanEventsRecorded() {
+		compileAndRun((context, generationContext) -> {
+			assertThat(context.getBean(ChatModelCompletionObservationHandler2.class)).isNotNull();
+
+			var observationContext = ChatModelObservationContext.builder()
+				.prompt(new Prompt("supercalifragilisticexpialidocious",
+						ChatOptions.builder().model("spoonful-of-sugar").build()))
+				.provider("mary-poppins")
+				.build();
+			var tracingContext = new TracingObservationHandler.TracingContext();
+			tracingContext.setSpan(context.getBean(OtelTracer.class).nextSpan());
+			observationContext.put(TracingObservationHandler.TracingContext.class, tracingContext);
+
+			context.getBean(ChatModelPromptContentObservationHandler2.class).onStop(observationContext);
+
+			var spanData = ((ReadableSpan) TracingHelper.extractOtelSpan(tracingContext)).toSpanData();
+			assertThat(spanData.getEvents()).hasSize(1);
+			assertThat(spanData.getEvents().get(0).getName()).isEqualTo(AiObservationEventNames.CONTENT_PROMPT.value());
+			assertThat(spanData.getEvents().get(0).getAttributes().get(AttributeKey.stringArrayKey("gen_ai.prompt")))
+				.containsOnly("supercalifragilisticexpialidocious");
+		});
+	}
+
+	@Test
+	void whenProcessedAheadOfTimeThenEndpointHintsRegistered() {
+		compileAndRun((context, generationContext) -> {
+			assertThat(context.getBean(ContentCaptureEndpoint.class).settings().prompt()).isTrue();
+			assertThat(
+					RuntimeHintsPredicates.reflection().onType(ContentCaptureEndpoint.ContentCaptureDescriptor.class))
+				.accepts(generationContext.getRuntimeHints());
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private void compileAndRun(BiConsumer<GenericApplicationContext, TestGenerationContext> assertions) {
+		AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext();
+		TestPropertyValues.of(PROPERTIES).applyTo(applicationContext);
+		applicationContext.register(TestConfiguration.class);
+		TestGenerationContext generationContext = new TestGenerationContext();
+		ClassName className = new ApplicationContextAotGenerator().processAheadOfTime(applicationContext,
+				generationContext);
+		generationContext.writeGeneratedContent();
+		TestCompiler.forSystem().with(generationContext).compile(compiled -> {
+			GenericApplicationContext freshApplicationContext = new GenericApplicationContext();
+			TestPropertyValues.of(PROPERTIES).applyTo(freshApplicationContext);
+			ApplicationContextInitializer<GenericApplicationContext> initializer = compiled
+				.getInstance(ApplicationContextInitializer.class, className.toString());
+			initializer.initialize(freshApplicationContext);
+			freshApplicationContext.refresh();
+			try {
+				assertions.accept(freshApplicationContext, generationContext);
+			}
+			finally {
+				freshApplicationContext.close();
+			}
+		});
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ImportAutoConfiguration(ObservationAutoConfigurationExtensions.class)
+	static class TestConfiguration {
+
+		@Bean
+		OtelTracer otelTracer() {
+			return new OtelTracer(SdkTracerProvider.builder().build().get("test"), new OtelCurrentTraceContext(), null);
+		}
+
+	}
+
+}
@@ -16,17 +16,61 @@
 
 package com.logaritex.spring.ai.observe.autoconfig;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import com.logaritex.spring.ai.observe.ChatClientPromptContentObservationFilter;
+import com.logaritex.spring.ai.observe.ChatContextWindowObservationHandler;
+import com.logaritex.spring.ai.observe.ChatConversationObservationHandler;
+import com.logaritex.spring.ai.observe.ChatInFlightObservationHandler;
+import com.logaritex.spring.ai.observe.ChatModelChoiceObservationHandler;
 import com.logaritex.spring.ai.observe.ChatModelCompletionObservationFilter;
 import com.logaritex.spring.ai.observe.ChatModelCompletionObservationHandler2;
+import com.logaritex.spring.ai.observe.ChatModelExemplarObservationHandler;
 import com.logaritex.spring.ai.observe.ChatModelPromptContentObservationFilter;
 import com.logaritex.spring.ai.observe.ChatModelPromptContentObservationHandler2;
+import com.logaritex.spring.ai.observe.ChatPromptCacheObservationHandler;
+import com.logaritex.spring.ai.observe.ChatPromptRepeatObservationHandler;
+import com.logaritex.spring.ai.observe.ChatQuantileSketchObservationHandler;
+import com.logaritex.spring.ai.observe.ChatRetryObservationHandler;
+import com.logaritex.spring.ai.observe.ChatTopCallsObservationHandler;
+import com.logaritex.spring.ai.observe.ContentCaptureControl;
+import com.logaritex.spring.ai.observe.ContentCaptureGovernor;
+import com.logaritex.spring.ai.observe.ContentCaptureMetrics;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import com.logaritex.spring.ai.observe.ContentEncoder;
+import com.logaritex.spring.ai.observe.ImageModelMetricsObservationHandler;
+import com.logaritex.spring.ai.observe.ImageModelPromptContentObservationFilter;
+import com.logaritex.spring.ai.observe.MessageCapturePolicy;
+import com.logaritex.spring.ai.observe.ObservedChatMemoryRepository;
+import com.logaritex.spring.ai.observe.PromptTemplateFingerprintObservationFilter;
+import com.logaritex.spring.ai.observe.PromptTemplateSource;
+import com.logaritex.spring.ai.observe.budget.TokenBudgetAdvisor;
+import com.logaritex.spring.ai.observe.budget.TokenBudgetObservationHandler;
+import com.logaritex.spring.ai.observe.budget.TokenBudgets;
+import com.logaritex.spring.ai.observe.replay.ReplayLogWriter;
+import com.logaritex.spring.ai.observe.replay.ReplayObservationHandler;
+import com.logaritex.spring.ai.observe.routing.RoutingObservationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
 import io.micrometer.tracing.otel.bridge.OtelTracer;
 import io.opentelemetry.api.OpenTelemetry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -93,4 +137,604 @@ class ObservationAutoConfigurationExtensionsTests {
 			.run(context -> assertThat(context).doesNotHaveBean(ChatModelCompletionObservationHandler2.class));
 	}
 
+	@Test
+	void choiceHandlerDefault() {
+		this.contextRunner
+			.withBean(OtelTracer.class, OpenTelemetry.noop().getTracer("test"), new OtelCurrentTraceContext(), null)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatModelChoiceObservationHandler.class));
+	}
+
+	@Test
+	@ExtendWith(OutputCaptureExtension.class)
+	void choiceHandlerEnabled(CapturedOutput output) {
+		this.contextRunner
+			.withBean(OtelTracer.class, OpenTelemetry.noop().getTracer("test"), new OtelCurrentTraceContext(), null)
+			.withPropertyValues("spring.ai.chat.observations.completion-choices.enabled=true")
+			.run(context -> assertThat(context).hasSingleBean(ChatModelChoiceObservationHandler.class));
+		assertThat(output).contains("inclusion of the completion content");
+	}
+
+	@Test
+	@ExtendWith(OutputCaptureExtension.class)
+	void choiceHandlerWithoutContent(CapturedOutput output) {
+		this.contextRunner
+			.withBean(OtelTracer.class, OpenTelemetry.noop().getTracer("test"), new OtelCurrentTraceContext(), null)
+			.withPropertyValues("spring.ai.chat.observations.completion-choices.enabled=true",
+					"spring.ai.chat.observations.completion-choices.include-content=false")
+			.run(context -> assertThat(context).hasSingleBean(ChatModelChoiceObservationHandler.class));
+		assertThat(output).doesNotContain("inclusion of the completion content");
+	}
+
+	@Test
+	void inFlightHandlerDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatInFlightObservationHandler.class));
+	}
+
+	@Test
+	void inFlightHandlerEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.in-flight.enabled=true")
+			.run(context -> assertThat(context).hasSingleBean(ChatInFlightObservationHandler.class));
+	}
+
+	@Test
+	void inFlightHandlerWithoutMeterRegistry() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.in-flight.enabled=true")
+			.run(context -> assertThat(context).doesNotHaveBean(ChatInFlightObservationHandler.class));
+	}
+
+	@Test
+	void imageObservationsDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ImageModelPromptContentObservationFilter.class)
+				.doesNotHaveBean(ImageModelMetricsObservationHandler.class));
+	}
+
+	@Test
+	void imageObservationsEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.image.observations.include-prompt=true",
+					"spring.ai.image.observations.metrics.enabled=true")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ImageModelPromptContentObservationFilter.class)
+					.hasSingleBean(ImageModelMetricsObservationHandler.class);
+				var settings = context.getBean(ContentCaptureControl.class).settings();
+				assertThat(settings.imagePrompt()).isTrue();
+				assertThat(settings.prompt()).isFalse();
+			});
+	}
+
+	@Test
+	void imageMetricsWithoutMeterRegistry() {
+		this.contextRunner.withPropertyValues("spring.ai.image.observations.metrics.enabled=true")
+			.run(context -> assertThat(context).doesNotHaveBean(ImageModelMetricsObservationHandler.class));
+	}
+
+	@Test
+	void promptTemplateFingerprintDefault() {
+		this.contextRunner
+			.run(context -> assertThat(context).doesNotHaveBean(PromptTemplateFingerprintObservationFilter.class));
+	}
+
+	@Test
+	void promptTemplateFingerprintEnabledWithoutSource() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.prompt-template.enabled=true")
+			.run(context -> assertThat(context).doesNotHaveBean(PromptTemplateFingerprintObservationFilter.class));
+	}
+
+	@Test
+	void promptTemplateFingerprintEnabled() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.prompt-template.enabled=true")
+			.withBean(PromptTemplateSource.class, () -> PromptTemplateSource.ADVISOR_PARAMS)
+			.run(context -> assertThat(context).hasSingleBean(PromptTemplateFingerprintObservationFilter.class));
+	}
+
+	@Test
+	void replayDefault() {
+		this.contextRunner.run(context -> assertThat(context).doesNotHaveBean(ReplayObservationHandler.class)
+			.doesNotHaveBean(ReplayLogWriter.class));
+	}
+
+	@Test
+	void replayEnabled(@TempDir Path directory) {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.replay.enabled=true",
+					"spring.ai.chat.observations.replay.directory=" + directory,
+					"spring.ai.chat.observations.replay.max-file-size=1MB")
+			.run(context -> assertThat(context).hasSingleBean(ReplayObservationHandler.class)
+				.hasSingleBean(ReplayLogWriter.class));
+	}
+
+	@Test
+	void conversationsDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatConversationObservationHandler.class));
+	}
+
+	@Test
+	void conversationsEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.conversations.enabled=true",
+					"spring.ai.chat.observations.conversations.idle-timeout=5m",
+					"spring.ai.chat.observations.conversations.max-conversations=100")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatConversationObservationHandler.class);
+				var conversations = context.getBean(ChatObservationExtensionsProperties.class).getConversations();
+				assertThat(conversations.getIdleTimeout()).isEqualTo(Duration.ofMinutes(5));
+				assertThat(conversations.getMaxConversations()).isEqualTo(100);
+			});
+	}
+
+	@Test
+	void contextWindowDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatContextWindowObservationHandler.class));
+	}
+
+	@Test
+	void contextWindowEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.context-window.enabled=true",
+					"spring.ai.chat.observations.context-window.windows.[gpt-4.1]=1047576",
+					"spring.ai.chat.observations.context-window.windows.mistral=32000")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatContextWindowObservationHandler.class);
+				assertThat(context.getBean(ChatObservationExtensionsProperties.class).getContextWindow().getWindows())
+					.containsEntry("gpt-4.1", 1047576)
+					.containsEntry("mistral", 32000);
+			});
+	}
+
+	@Test
+	void topCallsDefault() {
+		this.contextRunner.run(context -> assertThat(context).doesNotHaveBean(ChatTopCallsObservationHandler.class)
+			.doesNotHaveBean(TopCallsEndpoint.class));
+	}
+
+	@Test
+	void topCallsEnabled() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.top-calls.enabled=true",
+				"spring.ai.chat.observations.top-calls.window=1m", "management.endpoints.web.exposure.include=aicalls")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatTopCallsObservationHandler.class);
+				assertThat(context.getBean(TopCallsEndpoint.class).topCalls().window())
+					.isEqualTo(Duration.ofMinutes(1));
+			});
+	}
+
+	@Test
+	void sketchesDefault() {
+		this.contextRunner
+			.run(context -> assertThat(context).doesNotHaveBean(ChatQuantileSketchObservationHandler.class)
+				.doesNotHaveBean(QuantileSketchEndpoint.class));
+	}
+
+	@Test
+	void sketchesEnabled() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.sketches.enabled=true",
+					"spring.ai.chat.observations.sketches.relative-accuracy=0.02",
+					"management.endpoints.web.exposure.include=aisketches")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatQuantileSketchObservationHandler.class);
+				assertThat(context.getBean(QuantileSketchEndpoint.class).sketches()).isEmpty();
+				assertThat(
+						context.getBean(ChatObservationExtensionsProperties.class).getSketches().getRelativeAccuracy())
+					.isEqualTo(0.02);
+			});
+	}
+
+	@Test
+	void promptCacheDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatPromptCacheObservationHandler.class));
+	}
+
+	@Test
+	void promptCacheEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.prompt-cache.enabled=true")
+			.run(context -> assertThat(context).hasSingleBean(ChatPromptCacheObservationHandler.class));
+	}
+
+	@Test
+	void retriesDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatRetryObservationHandler.class));
+	}
+
+	@Test
+	void retriesEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.retries.enabled=true",
+					"spring.ai.chat.observations.retries.attempt-observation-name=http.client")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatRetryObservationHandler.class);
+				assertThat(context.getBean(ChatObservationExtensionsProperties.class)
+					.getRetries()
+					.getAttemptObservationName()).isEqualTo("http.client");
+			});
+	}
+
+	@Test
+	void routingDefault() {
+		this.contextRunner.run(context -> assertThat(context).doesNotHaveBean(RoutingObservationHandler.class));
+	}
+
+	@Test
+	void routingEnabled() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.routing.enabled=true")
+			.run(context -> assertThat(context).hasSingleBean(RoutingObservationHandler.class));
+	}
+
+	@Test
+	void tokenBudgetDefault() {
+		this.contextRunner.run(context -> {
+			assertThat(context).doesNotHaveBean(TokenBudgets.class);
+			assertThat(context).doesNotHaveBean(TokenBudgetAdvisor.class);
+			assertThat(context).doesNotHaveBean(TokenBudgetObservationHandler.class);
+		});
+	}
+
+	@Test
+	void tokenBudgetEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.token-budget.enabled=true",
+					"spring.ai.chat.observations.token-budget.default-limit=5000",
+					"spring.ai.chat.observations.token-budget.limits.batch=100000",
+					"spring.ai.chat.observations.token-budget.mode=queue")
+			.run(context -> {
+				assertThat(context).hasSingleBean(TokenBudgetAdvisor.class);
+				assertThat(context).hasSingleBean(TokenBudgetObservationHandler.class);
+				TokenBudgets budgets = context.getBean(TokenBudgets.class);
+				assertThat(budgets.budget("tenant").limit()).isEqualTo(5000);
+				assertThat(budgets.budget("batch").limit()).isEqualTo(100000);
+				assertThat(context.getBean(MeterRegistry.class)
+					.get(TokenBudgets.REMAINING_METER_NAME)
+					.tag(TokenBudgets.KEY_TAG, "batch")
+					.gauge()
+					.value()).isEqualTo(100000);
+				assertThat(context.getBean(ChatObservationExtensionsProperties.class).getTokenBudget().getMode())
+					.isEqualTo(TokenBudgetAdvisor.Mode.QUEUE);
+			});
+	}
+
+	@Test
+	void chatMemoryDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withBean(ChatMemoryRepository.class, InMemoryChatMemoryRepository::new)
+			.run(context -> assertThat(context.getBean(ChatMemoryRepository.class))
+				.isInstanceOf(InMemoryChatMemoryRepository.class));
+	}
+
+	@Test
+	void chatMemoryEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withBean(ChatMemoryRepository.class, InMemoryChatMemoryRepository::new)
+			.withPropertyValues("spring.ai.chat.observations.chat-memory.enabled=true")
+			.run(context -> {
+				ChatMemoryRepository repository = context.getBean(ChatMemoryRepository.class);
+				assertThat(repository).isInstanceOf(ObservedChatMemoryRepository.class);
+				assertThat(((ObservedChatMemoryRepository) repository).getDelegate())
+					.isInstanceOf(InMemoryChatMemoryRepository.class);
+			});
+	}
+
+	@Test
+	void chatMemoryEnabledKeepsConcreteType() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withBean(ConcreteChatMemoryRepository.class, ConcreteChatMemoryRepository::new)
+			.withPropertyValues("spring.ai.chat.observations.chat-memory.enabled=true")
+			.run(context -> {
+				ConcreteChatMemoryRepository repository = context.getBean(ConcreteChatMemoryRepository.class);
+				assertThat(AopUtils.isCglibProxy(repository)).isTrue();
+				repository.saveAll("conversation", List.of(new UserMessage("hello")));
+				assertThat(repository.findByConversationId("conversation")).hasSize(1);
+				assertThat(repository.size()).isEqualTo(1);
+				MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+				assertThat(meterRegistry.get(ObservedChatMemoryRepository.DURATION_METER_NAME)
+					.tag(ObservedChatMemoryRepository.OPERATION_TAG, "write")
+					.timer()
+					.count()).isEqualTo(1);
+				assertThat(meterRegistry.get(ObservedChatMemoryRepository.DURATION_METER_NAME)
+					.tag(ObservedChatMemoryRepository.OPERATION_TAG, "read")
+					.timer()
+					.count()).isEqualTo(1);
+				assertThat(meterRegistry.get(ObservedChatMemoryRepository.DURATION_METER_NAME)
+					.tag(ObservedChatMemoryRepository.OPERATION_TAG, "list")
+					.timer()
+					.count()).isZero();
+			});
+	}
+
+	@Test
+	void exemplarsDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatModelExemplarObservationHandler.class)
+				.doesNotHaveBean(ExemplarEndpoint.class));
+	}
+
+	@Test
+	void exemplarsEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.exemplars.enabled=true",
+					"management.endpoints.web.exposure.include=aiexemplars")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatModelExemplarObservationHandler.class);
+				assertThat(context.getBean(ExemplarEndpoint.class).exemplars()).isEmpty();
+			});
+	}
+
+	@Test
+	void exemplarsWithoutMeterRegistry() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.exemplars.enabled=true")
+			.run(context -> assertThat(context).doesNotHaveBean(ChatModelExemplarObservationHandler.class)
+				.doesNotHaveBean(ExemplarEndpoint.class));
+	}
+
+	@Test
+	void promptRepeatsDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context).doesNotHaveBean(ChatPromptRepeatObservationHandler.class)
+				.doesNotHaveBean(PromptRepeatEndpoint.class));
+	}
+
+	@Test
+	void promptRepeatsEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.prompt-repeats.enabled=true",
+					"spring.ai.chat.observations.prompt-repeats.window=1m",
+					"management.endpoints.web.exposure.include=aiprompts")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatPromptRepeatObservationHandler.class);
+				assertThat(context.getBean(PromptRepeatEndpoint.class).statistics().window())
+					.isEqualTo(Duration.ofMinutes(1));
+			});
+	}
+
+	@Test
+	void promptRepeatsWithoutMeterRegistry() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.prompt-repeats.enabled=true")
+			.run(context -> assertThat(context).doesNotHaveBean(ChatPromptRepeatObservationHandler.class)
+				.doesNotHaveBean(PromptRepeatEndpoint.class));
+	}
+
+	@Test
+	void contentCaptureMetricsDefault() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.run(context -> assertThat(context.getBean(ContentCaptureMetrics.class))
+				.isSameAs(ContentCaptureMetrics.NOOP));
+	}
+
+	@Test
+	void contentCaptureMetricsEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withBean(OtelTracer.class, OpenTelemetry.noop().getTracer("test"), new OtelCurrentTraceContext(), null)
+			.withPropertyValues("spring.ai.chat.observations.include-prompt=true",
+					"spring.ai.chat.observations.capture.metrics.enabled=true")
+			.run(context -> {
+				assertThat(context.getBean(ContentCaptureMetrics.class)).isNotSameAs(ContentCaptureMetrics.NOOP);
+				assertThat(context.getBean(MeterRegistry.class)
+					.find(ContentCaptureMetrics.DURATION_METER_NAME)
+					.tag("component", ChatModelPromptContentObservationHandler2.class.getSimpleName())
+					.timer()).isNotNull();
+			});
+	}
+
+	@Test
+	void contentCaptureMetricsWithoutMeterRegistry() {
+		this.contextRunner.withPropertyValues("spring.ai.chat.observations.capture.metrics.enabled=true")
+			.run(context -> assertThat(context.getBean(ContentCaptureMetrics.class))
+				.isSameAs(ContentCaptureMetrics.NOOP));
+	}
+
+	@Test
+	void contentCaptureGovernorDefault() {
+		this.contextRunner.run(context -> {
+			assertThat(context).doesNotHaveBean(ContentCaptureGovernor.class);
+			assertThat(context.getBean(ContentCaptureControl.class).governor()).isNull();
+		});
+	}
+
+	@Test
+	void contentCaptureGovernorEnabled() {
+		this.contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+			.withPropertyValues("spring.ai.chat.observations.capture.governor.enabled=true",
+					"spring.ai.chat.observations.capture.governor.bytes-per-second=64KB",
+					"spring.ai.chat.observations.capture.governor.heap=false")
+			.run(context -> {
+				ContentCaptureGovernor governor = context.getBean(ContentCaptureGovernor.class);
+				assertThat(context.getBean(ContentCaptureControl.class).governor()).isSameAs(governor);
+				assertThat(context.getBean(MeterRegistry.class)
+					.find(ContentCaptureGovernor.PRESSURE_METER_NAME)
+					.tag("source", "bytes")
+					.gauge()).isNotNull();
+				assertThat(context.getBean(MeterRegistry.class)
+					.find(ContentCaptureGovernor.PRESSURE_METER_NAME)
+					.tag("source", "heap")
+					.gauge()).isNull();
+			});
+	}
+
+	@Test
+	void contentCaptureControlFromProperties() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.include-prompt=true",
+					"spring.ai.chat.observations.capture.sample-rate=0.25",
+					"spring.ai.chat.observations.capture.max-prompt-length=1024")
+			.run(context -> {
+				var settings = context.getBean(ContentCaptureControl.class).settings();
+				assertThat(settings.prompt()).isTrue();
+				assertThat(settings.completion()).isFalse();
+				assertThat(settings.chatClientPrompt()).isFalse();
+				assertThat(settings.sampleRate()).isEqualTo(0.25);
+				assertThat(settings.maxPromptLength()).isEqualTo(1024);
+				assertThat(settings.encoder()).isSameAs(ContentEncoder.NONE);
+			});
+	}
+
+	@Test
+	void contentEncodingFromProperties() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.capture.encoding.enabled=true",
+					"spring.ai.chat.observations.capture.encoding.threshold=2048")
+			.run(context -> {
+				var encoder = context.getBean(ContentCaptureControl.class).settings().encoder();
+				assertThat(encoder).isNotSameAs(ContentEncoder.NONE);
+				assertThat(encoder.threshold()).isEqualTo(2048);
+			});
+	}
+
+	@Test
+	void messageCapturePolicyFromProperties() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.capture.messages.system.mode=hash",
+					"spring.ai.chat.observations.capture.messages.tool.max-length=512",
+					"spring.ai.chat.observations.capture.messages.assistant.mode=none")
+			.run(context -> {
+				var messages = context.getBean(ContentCaptureControl.class).settings().messages();
+				assertThat(messages.rule(MessageType.SYSTEM)).isEqualTo(MessageCapturePolicy.Rule.hash());
+				assertThat(messages.rule(MessageType.TOOL)).isEqualTo(MessageCapturePolicy.Rule.truncate(512));
+				assertThat(messages.rule(MessageType.ASSISTANT)).isEqualTo(MessageCapturePolicy.Rule.none());
+				assertThat(messages.rule(MessageType.USER)).isEqualTo(MessageCapturePolicy.Rule.full());
+			});
+	}
+
+	@Test
+	void contentCaptureRulesFromProperties() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.include-prompt=true",
+					"spring.ai.chat.observations.capture.sample-rate=0.01",
+					"spring.ai.chat.observations.capture.rules[0].context.tenant=pii",
+					"spring.ai.chat.observations.capture.rules[0].sample-rate=0",
+					"spring.ai.chat.observations.capture.rules[1].model=gpt-4o",
+					"spring.ai.chat.observations.capture.rules[1].keys.[gen_ai.system]=openai",
+					"spring.ai.chat.observations.capture.rules[1].sample-rate=1")
+			.run(context -> {
+				var rules = context.getBean(ContentCaptureControl.class).rules().rules();
+				assertThat(rules).hasSize(2);
+				assertThat(rules.get(0).context()).containsEntry("tenant", "pii");
+				assertThat(rules.get(0).sampleRate()).isZero();
+				assertThat(rules.get(1).model()).isEqualTo("gpt-4o");
+				assertThat(rules.get(1).keys()).containsEntry("gen_ai.system", "openai");
+				assertThat(rules.get(1).prompt()).isNull();
+			});
+	}
+
+	@Test
+	void contentCaptureRuleRegistersComponents() {
+		this.contextRunner
+			.withBean(OtelTracer.class, OpenTelemetry.noop().getTracer("test"), new OtelCurrentTraceContext(), null)
+			.withPropertyValues("spring.ai.chat.observations.capture.rules[0].model=gpt-4o",
+					"spring.ai.chat.observations.capture.rules[0].include-completion=true")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatModelCompletionObservationHandler2.class);
+				assertThat(context).doesNotHaveBean(ChatModelPromptContentObservationHandler2.class);
+				assertThat(context.getBean(ContentCaptureControl.class).settings().completion()).isFalse();
+			});
+	}
+
+	@Test
+	void messageCapturePolicyDefault() {
+		this.contextRunner.run(context -> assertThat(context.getBean(ContentCaptureControl.class).settings().messages())
+			.isSameAs(MessageCapturePolicy.ALL));
+	}
+
+	@Test
+	void runtimeToggleRegistersDisabledHandlers() {
+		this.contextRunner
+			.withBean(OtelTracer.class, OpenTelemetry.noop().getTracer("test"), new OtelCurrentTraceContext(), null)
+			.withPropertyValues("spring.ai.chat.observations.capture.runtime-toggle=true",
+					"management.endpoints.web.exposure.include=aicapture")
+			.run(context -> {
+				assertThat(context).hasSingleBean(ChatModelPromptContentObservationHandler2.class);
+				assertThat(context).hasSingleBean(ChatModelCompletionObservationHandler2.class);
+				assertThat(context).hasSingleBean(ChatClientPromptContentObservationFilter.class);
+				assertThat(context).hasSingleBean(ContentCaptureEndpoint.class);
+				var settings = context.getBean(ContentCaptureControl.class).settings();
+				assertThat(settings.prompt()).isFalse();
+				assertThat(settings.completion()).isFalse();
+			});
+	}
+
+	@Test
+	void runtimeToggleEndpointUpdatesSettings() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.capture.runtime-toggle=true",
+					"management.endpoints.web.exposure.include=aicapture")
+			.run(context -> {
+				var endpoint = context.getBean(ContentCaptureEndpoint.class);
+				endpoint.update(true, null, null, null, 0.1, null, 512);
+
+				var settings = context.getBean(ContentCaptureControl.class).settings();
+				assertThat(settings.prompt()).isTrue();
+				assertThat(settings.completion()).isFalse();
+				assertThat(settings.sampleRate()).isEqualTo(0.1);
+				assertThat(settings.maxCompletionLength()).isEqualTo(512);
+
+				var descriptor = endpoint.settings();
+				assertThat(descriptor.prompt()).isTrue();
+				assertThat(descriptor.completion()).isFalse();
+				assertThat(descriptor.sampleRate()).isEqualTo(0.1);
+				assertThat(descriptor.maxCompletionLength()).isEqualTo(512);
+				assertThat(descriptor.encoding()).isEqualTo("none");
+				assertThat(descriptor.messages()).containsKeys("user", "assistant", "system", "tool");
+			});
+	}
+
+	@Test
+	void runtimeToggleEndpointDescribesMessagesAndEncoding() {
+		this.contextRunner
+			.withPropertyValues("spring.ai.chat.observations.capture.runtime-toggle=true",
+					"spring.ai.chat.observations.capture.messages.system.mode=hash",
+					"spring.ai.chat.observations.capture.messages.tool.max-length=512",
+					"spring.ai.chat.observations.capture.encoding.enabled=true",
+					"management.endpoints.web.exposure.include=aicapture")
+			.run(context -> {
+				var descriptor = context.getBean(ContentCaptureEndpoint.class).settings();
+				assertThat(descriptor.messages().get("system")).isEqualTo(
+						new ContentCaptureEndpoint.MessageRuleDescriptor("hash", ContentCaptureSettings.UNLIMITED));
+				assertThat(descriptor.messages().get("tool"))
+					.isEqualTo(new ContentCaptureEndpoint.MessageRuleDescriptor("full", 512));
+				assertThat(descriptor.encoding()).isEqualTo(ContentEncoder.DEFLATE_BASE64);
+				assertThat(descriptor.encodingThreshold()).isEqualTo(ContentEncoder.DEFAULT_THRESHOLD);
+			});
+	}
+
+	@Test
+	void runtimeToggleEndpointDefault() {
+		this.contextRunner.run(context -> assertThat(context).doesNotHaveBean(ContentCaptureEndpoint.class));
+	}
+
+	static class ConcreteChatMemoryRepository implements ChatMemoryRepository {
+
+		private final ChatMemoryRepository delegate = new InMemoryChatMemoryRepository();
+
+		@Override
+		public List<String> findConversationIds() {
+			return this.delegate.findConversationIds();
+		}
+
+		@Override
+		public List<Message> findByConversationId(String conversationId) {
+			return this.delegate.findByConversationId(conversationId);
+		}
+
+		@Override
+		public void saveAll(String conversationId, List<Message> messages) {
+			this.delegate.saveAll(conversationId, messages);
+		}
+
+		@Override
+		public void deleteByConversationId(String conversationId) {
+			this.delegate.deleteByConversationId(conversationId);
+		}
+
+		int size() {
+			return this.delegate.findConversationIds().size();
+		}
+
+	}
+
 }
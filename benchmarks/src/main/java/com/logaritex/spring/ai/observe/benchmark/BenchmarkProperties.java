@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the overhead benchmark.
+ *
+ * @author Christian Tzolov
+ */
+@ConfigurationProperties(BenchmarkProperties.CONFIG_PREFIX)
+public class BenchmarkProperties {
+
+	public static final String CONFIG_PREFIX = "benchmark";
+
+	/**
+	 * Content capture modes to measure.
+	 */
+	private List<CaptureMode> captureModes = new ArrayList<>(List.of(CaptureMode.values()));
+
+	/**
+	 * Kinds of threads driving the calls. Virtual threads are skipped on JVMs not
+	 * supporting them.
+	 */
+	private List<ThreadKind> threads = new ArrayList<>(List.of(ThreadKind.values()));
+
+	/**
+	 * Number of concurrent callers.
+	 */
+	private int concurrency = 16;
+
+	/**
+	 * Number of calls made before measuring.
+	 */
+	private int warmupCalls = 20_000;
+
+	/**
+	 * Number of measured calls.
+	 */
+	private int calls = 100_000;
+
+	/**
+	 * Latency of the stub chat model.
+	 */
+	private Duration latency = Duration.ofMillis(1);
+
+	/**
+	 * Number of characters of the user prompt.
+	 */
+	private int promptSize = 4_096;
+
+	/**
+	 * Number of characters of the completion.
+	 */
+	private int responseSize = 4_096;
+
+	/**
+	 * Whether to stream the completion instead of calling the model.
+	 */
+	private boolean streaming = false;
+
+	/**
+	 * Number of chunks a streamed completion is split into.
+	 */
+	private int chunks = 16;
+
+	/**
+	 * File the results are written to.
+	 */
+	private Path results = Path.of("target", "benchmark-results.json");
+
+	/**
+	 * Baseline file the results are compared against.
+	 */
+	private Path baseline = Path.of("baseline.json");
+
+	/**
+	 * Whether to overwrite the baseline with the results instead of comparing them.
+	 */
+	private boolean updateBaseline = false;
+
+	/**
+	 * Relative regression, compared to the baseline, tolerated before the run fails.
+	 */
+	private double tolerance = 0.25;
+
+	public List<CaptureMode> getCaptureModes() {
+		return this.captureModes;
+	}
+
+	public void setCaptureModes(List<CaptureMode> captureModes) {
+		this.captureModes = captureModes;
+	}
+
+	public List<ThreadKind> getThreads() {
+		return this.threads;
+	}
+
+	public void setThreads(List<ThreadKind> threads) {
+		this.threads = threads;
+	}
+
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public int getWarmupCalls() {
+		return this.warmupCalls;
+	}
+
+	public void setWarmupCalls(int warmupCalls) {
+		this.warmupCalls = warmupCalls;
+	}
+
+	public int getCalls() {
+		return this.calls;
+	}
+
+	public void setCalls(int calls) {
+		this.calls = calls;
+	}
+
+	public Duration getLatency() {
+		return this.latency;
+	}
+
+	public void setLatency(Duration latency) {
+		this.latency = latency;
+	}
+
+	public int getPromptSize() {
+		return this.promptSize;
+	}
+
+	public void setPromptSize(int promptSize) {
+		this.promptSize = promptSize;
+	}
+
+	public int getResponseSize() {
+		return this.responseSize;
+	}
+
+	public void setResponseSize(int responseSize) {
+		this.responseSize = responseSize;
+	}
+
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getChunks() {
+		return this.chunks;
+	}
+
+	public void setChunks(int chunks) {
+		this.chunks = chunks;
+	}
+
+	public Path getResults() {
+		return this.results;
+	}
+
+	public void setResults(Path results) {
+		this.results = results;
+	}
+
+	public Path getBaseline() {
+		return this.baseline;
+	}
+
+	public void setBaseline(Path baseline) {
+		this.baseline = baseline;
+	}
+
+	public boolean isUpdateBaseline() {
+		return this.updateBaseline;
+	}
+
+	public void setUpdateBaseline(boolean updateBaseline) {
+		this.updateBaseline = updateBaseline;
+	}
+
+	public double getTolerance() {
+		return this.tolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+}
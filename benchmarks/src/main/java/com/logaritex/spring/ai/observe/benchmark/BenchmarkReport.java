@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The results of a benchmark run, stored as JSON so that later runs can be compared
+ * against it.
+ * <p>
+ * Latencies depend on the machine running the benchmark, so they are compared as the p99
+ * overhead relative to the {@link CaptureMode#OFF} scenario of the same run, and only
+ * against a baseline recorded with the same number of processors: the overhead of the
+ * capture on a single processor says little about the overhead on many. The allocated and
+ * exported bytes per call are compared as is.
+ *
+ * @param javaVersion the Java version the benchmark ran on
+ * @param availableProcessors the number of processors available to the JVM
+ * @param streaming whether the completions were streamed
+ * @param results the scenario results
+ * @author Christian Tzolov
+ */
+public record BenchmarkReport(String javaVersion, int availableProcessors, boolean streaming,
+		List<ScenarioResult> results) {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	public static BenchmarkReport read(Path file) throws IOException {
+		return objectMapper.readValue(file.toFile(), BenchmarkReport.class);
+	}
+
+	public void write(Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		objectMapper.writeValue(file.toFile(), this);
+	}
+
+	/**
+	 * Return the p99 latency of the given scenario relative to the same kind of threads
+	 * without content capture.
+	 * @param result the scenario result
+	 * @return the p99 latency ratio, or empty if there is no result without capture
+	 */
+	public Optional<Double> p99Overhead(ScenarioResult result) {
+		return find(CaptureMode.OFF, result.threads()).filter(off -> off.p99Millis() > 0)
+			.map(off -> result.p99Millis() / off.p99Millis());
+	}
+
+	/**
+	 * Compare these results with a baseline. The p99 overheads are skipped when the
+	 * baseline was recorded with a different number of processors.
+	 * @param baseline the baseline results
+	 * @param tolerance the relative regression tolerated, e.g. {@code 0.25} for 25%
+	 * @return a description of every regression beyond the tolerance
+	 */
+	public List<String> regressions(BenchmarkReport baseline, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		if (this.streaming != baseline.streaming()) {
+			regressions.add("The baseline was recorded with streaming=" + baseline.streaming());
+			return regressions;
+		}
+		boolean compareLatencies = this.availableProcessors == baseline.availableProcessors();
+		for (ScenarioResult result : this.results) {
+			ScenarioResult expected = baseline.find(result.captureMode(), result.threads()).orElse(null);
+			if (expected == null) {
+				continue;
+			}
+			String scenario = result.captureMode() + "/" + result.threads();
+			Optional<Double> overhead = p99Overhead(result);
+			Optional<Double> expectedOverhead = baseline.p99Overhead(expected);
+			if (compareLatencies && overhead.isPresent() && expectedOverhead.isPresent()) {
+				check(regressions, scenario, "p99 overhead", overhead.get(), expectedOverhead.get(), tolerance);
+			}
+			if (result.allocatedBytesPerCall() >= 0 && expected.allocatedBytesPerCall() >= 0) {
+				check(regressions, scenario, "allocated bytes per call", result.allocatedBytesPerCall(),
+						expected.allocatedBytesPerCall(), tolerance);
+			}
+			check(regressions, scenario, "exported bytes per call", result.exportedBytesPerCall(),
+					expected.exportedBytesPerCall(), tolerance);
+		}
+		return regressions;
+	}
+
+	private static void check(List<String> regressions, String scenario, String metric, double actual, double expected,
+			double tolerance) {
+		if (actual > expected * (1 + tolerance)) {
+			regressions.add(String.format(Locale.ROOT, "%s: %s is %.2f, baseline %.2f (+%.0f%%)", scenario, metric,
+					actual, expected, 100 * (actual / expected - 1)));
+		}
+	}
+
+	private Optional<ScenarioResult> find(CaptureMode captureMode, ThreadKind threads) {
+		return this.results.stream()
+			.filter(result -> result.captureMode() == captureMode && result.threads() == threads)
+			.findFirst();
+	}
+
+	/**
+	 * Format the results as a table.
+	 * @return the formatted results
+	 */
+	public String format() {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+				"%-9s %-9s %10s %8s %8s %8s %9s %9s %11s %10s %11s%n", "capture", "threads", "calls/s", "p50 ms",
+				"p90 ms", "p99 ms", "p99.9 ms", "p99 x off", "alloc/call", "spans/call", "bytes/call"));
+		for (ScenarioResult result : this.results) {
+			table.append(String.format(Locale.ROOT, "%-9s %-9s %10.1f %8.3f %8.3f %8.3f %9.3f %9s %11d %10.2f %11d%n",
+					result.captureMode(), result.threads(), result.throughput(), result.p50Millis(), result.p90Millis(),
+					result.p99Millis(), result.p999Millis(),
+					p99Overhead(result).map(overhead -> String.format(Locale.ROOT, "%.2f", overhead)).orElse("-"),
+					result.allocatedBytesPerCall(), result.exportedSpansPerCall(), result.exportedBytesPerCall()));
+		}
+		return table.toString();
+	}
+
+}
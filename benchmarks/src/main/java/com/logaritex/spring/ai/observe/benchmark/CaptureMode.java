@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.util.List;
+
+/**
+ * How the chat content is captured during a benchmark scenario.
+ *
+ * @author Christian Tzolov
+ */
+public enum CaptureMode {
+
+	/**
+	 * No content capture, the baseline every other mode is compared against.
+	 */
+	OFF(List.of()),
+
+	/**
+	 * The prompt and completion are added as high-cardinality observation attributes by
+	 * the observation filters. With OpenTelemetry on the classpath the auto-configuration
+	 * only registers the span event handlers, so the chat model filters are registered by
+	 * the {@link OverheadBenchmarkApplication} for this mode.
+	 */
+	FILTERS(List.of("spring.ai.chat.client.observations.include-prompt=true")),
+
+	/**
+	 * The prompt and completion are added as span events by the observation handlers.
+	 */
+	HANDLERS(List.of("spring.ai.chat.observations.include-prompt=true",
+			"spring.ai.chat.observations.include-completion=true",
+			"spring.ai.chat.client.observations.include-prompt=true")),
+
+	/**
+	 * As {@link #HANDLERS}, with the content longer than 1024 characters deflated and
+	 * emitted as base64, trading CPU time for exported bytes.
+	 */
+	COMPRESSED(List.of("spring.ai.chat.observations.include-prompt=true",
+			"spring.ai.chat.observations.include-completion=true",
+			"spring.ai.chat.client.observations.include-prompt=true",
+			"spring.ai.chat.observations.capture.encoding.enabled=true",
+			"spring.ai.chat.observations.capture.encoding.threshold=1024"));
+
+	private final List<String> properties;
+
+	CaptureMode(List<String> properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Return the application properties enabling this mode.
+	 * @return the properties, in {@code name=value} form
+	 */
+	public List<String> properties() {
+		return this.properties;
+	}
+
+}
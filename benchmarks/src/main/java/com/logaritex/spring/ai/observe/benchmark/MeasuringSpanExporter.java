@@ -0,0 +1,121 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * In-memory {@link SpanExporter} keeping only the number of exported spans and their
+ * estimated encoded size, so that it can run for any number of calls.
+ * <p>
+ * The size is the UTF-8 length of the span and event names, attribute keys and string
+ * values, plus the fixed size of the identifiers, timestamps and numeric values. It
+ * leaves out the protocol framing and is meant for comparing capture modes, not for
+ * sizing an exporter.
+ *
+ * @author Christian Tzolov
+ */
+public class MeasuringSpanExporter implements SpanExporter {
+
+	private static final int IDS_SIZE = 16 + 8 + 8;
+
+	private static final int TIMESTAMP_SIZE = 8;
+
+	private final LongAdder spans = new LongAdder();
+
+	private final LongAdder bytes = new LongAdder();
+
+	@Override
+	public CompletableResultCode export(Collection<SpanData> spans) {
+		for (SpanData span : spans) {
+			this.spans.increment();
+			this.bytes.add(size(span));
+		}
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode flush() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode shutdown() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	/**
+	 * Return the number of spans exported since the last reset.
+	 * @return the number of spans
+	 */
+	public long spans() {
+		return this.spans.sum();
+	}
+
+	/**
+	 * Return the estimated encoded size of the spans exported since the last reset.
+	 * @return the size in bytes
+	 */
+	public long bytes() {
+		return this.bytes.sum();
+	}
+
+	public void reset() {
+		this.spans.reset();
+		this.bytes.reset();
+	}
+
+	static long size(SpanData span) {
+		long size = IDS_SIZE + 2 * TIMESTAMP_SIZE + utf8Length(span.getName()) + size(span.getAttributes());
+		for (EventData event : span.getEvents()) {
+			size += TIMESTAMP_SIZE + utf8Length(event.getName()) + size(event.getAttributes());
+		}
+		return size;
+	}
+
+	private static long size(Attributes attributes) {
+		long[] size = { 0 };
+		attributes.forEach((key, value) -> size[0] += utf8Length(key.getKey()) + valueSize(key, value));
+		return size[0];
+	}
+
+	private static long valueSize(AttributeKey<?> key, Object value) {
+		return switch (key.getType()) {
+			case STRING -> utf8Length((String) value);
+			case BOOLEAN -> 1;
+			case STRING_ARRAY -> ((List<?>) value).stream().mapToLong(item -> utf8Length((String) item)).sum();
+			case BOOLEAN_ARRAY -> ((List<?>) value).size();
+			case LONG_ARRAY, DOUBLE_ARRAY -> 8L * ((List<?>) value).size();
+			default -> 8;
+		};
+	}
+
+	private static long utf8Length(String value) {
+		return value.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+}
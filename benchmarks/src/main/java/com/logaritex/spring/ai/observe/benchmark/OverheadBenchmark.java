@@ -0,0 +1,293 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.Assert;
+
+/**
+ * Measures the end-to-end cost of the content capture: for every capture mode and kind of
+ * threads it starts an {@link OverheadBenchmarkApplication}, drives it with concurrent
+ * chat calls and records the throughput, latency percentiles, allocation per call and
+ * exported span bytes.
+ * <p>
+ * The results are written as JSON and, unless the baseline is being updated, compared
+ * against the stored baseline. The process exits with status 1 on a regression, so that
+ * it can gate a CI run.
+ *
+ * @author Christian Tzolov
+ */
+public final class OverheadBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(OverheadBenchmark.class);
+
+	private static final Duration SETTLE_INTERVAL = Duration.ofMillis(50);
+
+	private static final Map<String, Object> DEFAULT_PROPERTIES = Map.of("spring.main.web-application-type", "none",
+			"spring.main.banner-mode", "off", "spring.main.log-startup-info", "false",
+			"management.tracing.sampling.probability", "1.0", "logging.level.root", "warn",
+			"logging.level.com.logaritex.spring.ai.observe.autoconfig", "error");
+
+	private final BenchmarkProperties properties;
+
+	private final String[] args;
+
+	/**
+	 * Create a benchmark.
+	 * @param args the command line arguments, passed on to every application run
+	 */
+	public OverheadBenchmark(String... args) {
+		this.args = args;
+		this.properties = bind(args);
+		Assert.isTrue(this.properties.getConcurrency() > 0, "concurrency must be greater than zero");
+		Assert.isTrue(this.properties.getCalls() > 0, "calls must be greater than zero");
+	}
+
+	public static void main(String[] args) throws IOException {
+		OverheadBenchmark benchmark = new OverheadBenchmark(args);
+		BenchmarkProperties properties = benchmark.properties;
+
+		BenchmarkReport report = benchmark.run();
+		System.out.println(report.format());
+		report.write(properties.getResults());
+
+		if (properties.isUpdateBaseline()) {
+			report.write(properties.getBaseline());
+			logger.warn("Updated the baseline {}", properties.getBaseline().toAbsolutePath());
+			return;
+		}
+		if (!Files.exists(properties.getBaseline())) {
+			logger.warn("No baseline found at {}, skipping the comparison", properties.getBaseline().toAbsolutePath());
+			return;
+		}
+		BenchmarkReport baseline = BenchmarkReport.read(properties.getBaseline());
+		if (baseline.availableProcessors() != report.availableProcessors()) {
+			logger.warn(
+					"The baseline was recorded with {} processors and this run has {}, skipping the latency comparison",
+					baseline.availableProcessors(), report.availableProcessors());
+		}
+		List<String> regressions = report.regressions(baseline, properties.getTolerance());
+		if (!regressions.isEmpty()) {
+			regressions.forEach(regression -> logger.error("Regression {}", regression));
+			System.exit(1);
+		}
+	}
+
+	private static BenchmarkProperties bind(String... args) {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+		return Binder.get(environment).bindOrCreate(BenchmarkProperties.CONFIG_PREFIX, BenchmarkProperties.class);
+	}
+
+	/**
+	 * Run every configured scenario.
+	 * @return the results
+	 */
+	public BenchmarkReport run() {
+		List<ScenarioResult> results = new ArrayList<>();
+		for (ThreadKind threads : this.properties.getThreads()) {
+			ExecutorService executor = threads.executor(this.properties.getConcurrency());
+			if (executor == null) {
+				logger.warn("Skipping the {} threads scenarios, not supported on Java {}", threads,
+						System.getProperty("java.version"));
+				continue;
+			}
+			try {
+				// The first scenario would otherwise also pay for compiling the code
+				// shared by every scenario, e.g. the chat client and the tracer.
+				run(this.properties.getCaptureModes().get(0), threads, executor);
+				for (CaptureMode captureMode : this.properties.getCaptureModes()) {
+					results.add(run(captureMode, threads, executor));
+				}
+			}
+			finally {
+				executor.shutdownNow();
+			}
+		}
+		return new BenchmarkReport(System.getProperty("java.version"), Runtime.getRuntime().availableProcessors(),
+				this.properties.isStreaming(), results);
+	}
+
+	private ScenarioResult run(CaptureMode captureMode, ThreadKind threads, ExecutorService executor) {
+		try (ConfigurableApplicationContext context = start(captureMode)) {
+			ChatClient chatClient = context.getBean(ChatClient.class);
+			MeasuringSpanExporter exporter = context.getBean(MeasuringSpanExporter.class);
+			SdkTracerProvider tracerProvider = context.getBean(SdkTracerProvider.class);
+			String prompt = StubChatModel.text(this.properties.getPromptSize());
+			Runnable call = () -> call(chatClient, prompt);
+
+			drive(executor, this.properties.getWarmupCalls(), call);
+			settle(tracerProvider, exporter);
+			exporter.reset();
+
+			Measurement measurement = drive(executor, this.properties.getCalls(), call);
+			settle(tracerProvider, exporter);
+
+			return measurement.result(captureMode, threads, this.properties.getConcurrency(), exporter);
+		}
+	}
+
+	/**
+	 * Flush the exported spans until no more arrive. A streamed call returns to the
+	 * caller before its observations are stopped, so its spans may still be ending.
+	 */
+	private static void settle(SdkTracerProvider tracerProvider, MeasuringSpanExporter exporter) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		long spans = -1;
+		while (spans != exporter.spans() && System.nanoTime() < deadline) {
+			spans = exporter.spans();
+			tracerProvider.forceFlush().join(30, TimeUnit.SECONDS);
+			sleep(SETTLE_INTERVAL);
+			tracerProvider.forceFlush().join(30, TimeUnit.SECONDS);
+		}
+	}
+
+	private static void sleep(Duration duration) {
+		try {
+			Thread.sleep(duration.toMillis());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the spans to be exported", ex);
+		}
+	}
+
+	private ConfigurableApplicationContext start(CaptureMode captureMode) {
+		List<String> args = new ArrayList<>(Arrays.asList(this.args));
+		args.add("--" + OverheadBenchmarkApplication.CAPTURE_MODE_PROPERTY + "="
+				+ captureMode.name().toLowerCase(Locale.ROOT));
+		captureMode.properties().forEach(property -> args.add("--" + property));
+
+		SpringApplication application = new SpringApplication(OverheadBenchmarkApplication.class);
+		application.setDefaultProperties(new LinkedHashMap<>(DEFAULT_PROPERTIES));
+		return application.run(args.toArray(String[]::new));
+	}
+
+	private void call(ChatClient chatClient, String prompt) {
+		if (this.properties.isStreaming()) {
+			chatClient.prompt().user(prompt).stream().content().blockLast();
+		}
+		else {
+			chatClient.prompt().user(prompt).call().content();
+		}
+	}
+
+	private Measurement drive(ExecutorService executor, int calls, Runnable call) {
+		long[] latencies = new long[calls];
+		AtomicInteger next = new AtomicInteger();
+		LongAdder allocatedBytes = new LongAdder();
+		AtomicBoolean allocationMeasured = new AtomicBoolean(true);
+
+		long start = System.nanoTime();
+		List<Future<?>> callers = new ArrayList<>();
+		for (int i = 0; i < this.properties.getConcurrency(); i++) {
+			callers.add(executor.submit(() -> {
+				long allocationStart = allocatedBytes();
+				for (int index = next.getAndIncrement(); index < calls; index = next.getAndIncrement()) {
+					long callStart = System.nanoTime();
+					call.run();
+					latencies[index] = System.nanoTime() - callStart;
+				}
+				long allocationEnd = allocatedBytes();
+				if (allocationStart < 0 || allocationEnd < 0) {
+					allocationMeasured.set(false);
+				}
+				else {
+					allocatedBytes.add(allocationEnd - allocationStart);
+				}
+			}));
+		}
+		for (Future<?> caller : callers) {
+			await(caller);
+		}
+		long elapsed = System.nanoTime() - start;
+		return new Measurement(latencies, elapsed, allocationMeasured.get() ? allocatedBytes.sum() : -1);
+	}
+
+	private static void await(Future<?> caller) {
+		try {
+			caller.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the benchmark callers", ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Benchmark call failed", ex.getCause());
+		}
+	}
+
+	/**
+	 * Return the bytes allocated so far by the current thread, or -1 if the JVM cannot
+	 * measure it, e.g. for virtual threads.
+	 */
+	private static long allocatedBytes() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+				&& threadMXBean.isThreadAllocatedMemoryEnabled()) {
+			return threadMXBean.getCurrentThreadAllocatedBytes();
+		}
+		return -1;
+	}
+
+	private record Measurement(long[] latencies, long elapsedNanos, long allocatedBytes) {
+
+		ScenarioResult result(CaptureMode captureMode, ThreadKind threads, int concurrency,
+				MeasuringSpanExporter exporter) {
+			long[] sorted = this.latencies.clone();
+			Arrays.sort(sorted);
+			int calls = sorted.length;
+			return new ScenarioResult(captureMode, threads, concurrency, calls, calls / (this.elapsedNanos / 1e9),
+					percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+					percentile(sorted, 0.999), (this.allocatedBytes >= 0) ? this.allocatedBytes / calls : -1,
+					(double) exporter.spans() / calls, exporter.bytes() / calls);
+		}
+
+		private static double percentile(long[] sorted, double quantile) {
+			int index = (int) Math.ceil(quantile * sorted.length) - 1;
+			return sorted[Math.max(0, index)] / 1e6;
+		}
+
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import com.logaritex.spring.ai.observe.ChatModelCompletionObservationFilter;
+import com.logaritex.spring.ai.observe.ChatModelPromptContentObservationFilter;
+import com.logaritex.spring.ai.observe.ContentCaptureControl;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application measured by the {@link OverheadBenchmark}: a {@link ChatClient} over a
+ * {@link StubChatModel}, with the observation extensions auto-configured and the spans
+ * exported to a {@link MeasuringSpanExporter}.
+ *
+ * @author Christian Tzolov
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableConfigurationProperties(BenchmarkProperties.class)
+public class OverheadBenchmarkApplication {
+
+	/**
+	 * Property selecting the capture mode of the application.
+	 */
+	public static final String CAPTURE_MODE_PROPERTY = BenchmarkProperties.CONFIG_PREFIX + ".capture-mode";
+
+	/**
+	 * Upper bound of the spans exported per chat call, used to size the export queue so
+	 * that no span is dropped during a measurement.
+	 */
+	private static final int MAX_SPANS_PER_CALL = 8;
+
+	@Bean
+	StubChatModel stubChatModel(ObservationRegistry observationRegistry, BenchmarkProperties properties) {
+		return new StubChatModel(observationRegistry, properties.getLatency(), properties.getResponseSize(),
+				properties.getChunks());
+	}
+
+	@Bean
+	ChatClient chatClient(StubChatModel chatModel, ObservationRegistry observationRegistry) {
+		return ChatClient.builder(chatModel, observationRegistry, null).build();
+	}
+
+	/**
+	 * Not an autowire candidate, so that it is only used by the
+	 * {@link #measuringSpanProcessor} and not by the span processor auto-configured with
+	 * a bounded queue.
+	 */
+	@Bean(autowireCandidate = false)
+	MeasuringSpanExporter measuringSpanExporter() {
+		return new MeasuringSpanExporter();
+	}
+
+	@Bean
+	BatchSpanProcessor measuringSpanProcessor(BenchmarkProperties properties) {
+		int calls = Math.max(properties.getCalls(), properties.getWarmupCalls());
+		return BatchSpanProcessor.builder(measuringSpanExporter())
+			.setMaxQueueSize(Math.max(2048, calls * MAX_SPANS_PER_CALL))
+			.build();
+	}
+
+	/**
+	 * With OpenTelemetry on the classpath the auto-configuration always prefers the span
+	 * event handlers, so the attribute filters are registered explicitly.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(name = CAPTURE_MODE_PROPERTY, havingValue = "filters")
+	static class FilterCaptureConfiguration {
+
+		@Bean
+		ContentCaptureControl contentCaptureControl() {
+			return new ContentCaptureControl(ContentCaptureSettings.ENABLED);
+		}
+
+		@Bean
+		ChatModelPromptContentObservationFilter chatModelPromptObservationFilter(
+				ContentCaptureControl contentCaptureControl) {
+			return new ChatModelPromptContentObservationFilter(contentCaptureControl);
+		}
+
+		@Bean
+		ChatModelCompletionObservationFilter chatModelCompletionObservationFilter(
+				ContentCaptureControl contentCaptureControl) {
+			return new ChatModelCompletionObservationFilter(contentCaptureControl);
+		}
+
+	}
+
+}
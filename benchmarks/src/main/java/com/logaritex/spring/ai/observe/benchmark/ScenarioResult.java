@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+/**
+ * The measurements of a single benchmark scenario.
+ *
+ * @param captureMode the content capture mode
+ * @param threads the kind of threads driving the calls
+ * @param concurrency the number of concurrent callers
+ * @param calls the number of measured calls
+ * @param throughput the number of calls per second
+ * @param p50Millis the median call latency, in milliseconds
+ * @param p90Millis the 90th percentile call latency, in milliseconds
+ * @param p99Millis the 99th percentile call latency, in milliseconds
+ * @param p999Millis the 99.9th percentile call latency, in milliseconds
+ * @param allocatedBytesPerCall the bytes allocated by the calling thread per call, or -1
+ * if the JVM cannot measure it for this kind of threads
+ * @param exportedSpansPerCall the number of spans exported per call
+ * @param exportedBytesPerCall the estimated encoded size of the spans exported per call
+ * @author Christian Tzolov
+ */
+public record ScenarioResult(CaptureMode captureMode, ThreadKind threads, int concurrency, int calls, double throughput,
+		double p50Millis, double p90Millis, double p99Millis, double p999Millis, long allocatedBytesPerCall,
+		double exportedSpansPerCall, long exportedBytesPerCall) {
+
+	/**
+	 * Whether this result was measured for the same scenario as the given one.
+	 * @param other the other result
+	 * @return {@code true} if both have the same capture mode and kind of threads
+	 */
+	public boolean sameScenario(ScenarioResult other) {
+		return this.captureMode == other.captureMode() && this.threads == other.threads();
+	}
+
+}
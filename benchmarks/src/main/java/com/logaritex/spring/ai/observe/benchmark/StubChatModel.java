@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationConvention;
+import org.springframework.ai.chat.observation.ChatModelObservationDocumentation;
+import org.springframework.ai.chat.observation.DefaultChatModelObservationConvention;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.util.Assert;
+
+/**
+ * Deterministic local {@link ChatModel} answering every prompt with the same completion
+ * after a fixed latency. It is observed the same way the Spring AI model integrations
+ * are, so that the observation filters and handlers see realistic contexts.
+ *
+ * @author Christian Tzolov
+ */
+public class StubChatModel implements ChatModel {
+
+	public static final String PROVIDER = "stub";
+
+	public static final String MODEL = "stub-model";
+
+	private static final ChatModelObservationConvention DEFAULT_OBSERVATION_CONVENTION = new DefaultChatModelObservationConvention();
+
+	private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod tempor ";
+
+	private final ObservationRegistry observationRegistry;
+
+	private final Duration latency;
+
+	private final String completion;
+
+	private final List<String> chunks;
+
+	public StubChatModel(ObservationRegistry observationRegistry, Duration latency, int responseSize, int chunks) {
+		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+		Assert.notNull(latency, "latency cannot be null");
+		Assert.isTrue(chunks > 0, "chunks must be greater than zero");
+		this.observationRegistry = observationRegistry;
+		this.latency = latency;
+		this.completion = text(responseSize);
+		this.chunks = split(this.completion, chunks);
+	}
+
+	/**
+	 * Return a deterministic text of the given size.
+	 * @param size the number of characters
+	 * @return the text
+	 */
+	public static String text(int size) {
+		StringBuilder text = new StringBuilder(size);
+		while (text.length() < size) {
+			text.append(WORDS, 0, Math.min(WORDS.length(), size - text.length()));
+		}
+		return text.toString();
+	}
+
+	private static List<String> split(String text, int count) {
+		int size = Math.max(1, (text.length() + count - 1) / count);
+		List<String> chunks = new ArrayList<>(count);
+		for (int start = 0; start < text.length(); start += size) {
+			chunks.add(text.substring(start, Math.min(text.length(), start + size)));
+		}
+		return (chunks.isEmpty()) ? List.of("") : List.copyOf(chunks);
+	}
+
+	@Override
+	public ChatOptions getDefaultOptions() {
+		return ChatOptions.builder().model(MODEL).build();
+	}
+
+	@Override
+	public ChatResponse call(Prompt prompt) {
+		ChatModelObservationContext observationContext = observationContext(prompt);
+		return ChatModelObservationDocumentation.CHAT_MODEL_OPERATION
+			.observation(null, DEFAULT_OBSERVATION_CONVENTION, () -> observationContext, this.observationRegistry)
+			.observe(() -> {
+				sleep(this.latency);
+				ChatResponse response = response(this.completion, prompt);
+				observationContext.setResponse(response);
+				return response;
+			});
+	}
+
+	@Override
+	public Flux<ChatResponse> stream(Prompt prompt) {
+		return Flux.deferContextual(contextView -> {
+			ChatModelObservationContext observationContext = observationContext(prompt);
+			Observation observation = ChatModelObservationDocumentation.CHAT_MODEL_OPERATION.observation(null,
+					DEFAULT_OBSERVATION_CONVENTION, () -> observationContext, this.observationRegistry);
+			observation.parentObservation(contextView.getOrDefault(ObservationThreadLocalAccessor.KEY, null)).start();
+
+			Duration chunkLatency = this.latency.dividedBy(this.chunks.size());
+			return Flux.fromIterable(this.chunks).map(chunk -> {
+				sleep(chunkLatency);
+				return response(chunk, prompt);
+			}).doOnError(observation::error).doFinally(signal -> {
+				observationContext.setResponse(response(this.completion, prompt));
+				observation.stop();
+			}).contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+		});
+	}
+
+	private static ChatModelObservationContext observationContext(Prompt prompt) {
+		return ChatModelObservationContext.builder().prompt(prompt).provider(PROVIDER).build();
+	}
+
+	private static ChatResponse response(String text, Prompt prompt) {
+		var generation = new Generation(new AssistantMessage(text),
+				ChatGenerationMetadata.builder().finishReason("STOP").build());
+		var metadata = ChatResponseMetadata.builder()
+			.id("stub")
+			.model(MODEL)
+			.usage(new DefaultUsage(tokens(prompt.getContents()), tokens(text)))
+			.build();
+		return ChatResponse.builder().generations(List.of(generation)).metadata(metadata).build();
+	}
+
+	private static int tokens(String text) {
+		return text.length() / 4;
+	}
+
+	private static void sleep(Duration duration) {
+		if (duration.isZero() || duration.isNegative()) {
+			return;
+		}
+		try {
+			Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while simulating the model latency", ex);
+		}
+	}
+
+}
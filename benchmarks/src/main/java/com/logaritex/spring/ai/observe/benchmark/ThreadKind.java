@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * The kind of threads driving the chat calls of a benchmark scenario.
+ *
+ * @author Christian Tzolov
+ */
+public enum ThreadKind {
+
+	/**
+	 * A fixed pool of platform threads, one per concurrent caller.
+	 */
+	PLATFORM,
+
+	/**
+	 * A new virtual thread per concurrent caller. Requires Java 21 or later.
+	 */
+	VIRTUAL;
+
+	/**
+	 * Create the executor running the concurrent callers.
+	 * @param concurrency the number of concurrent callers
+	 * @return the executor, or {@code null} if this kind of threads is not supported by
+	 * the running JVM
+	 */
+	@Nullable
+	public ExecutorService executor(int concurrency) {
+		if (this == PLATFORM) {
+			return Executors.newFixedThreadPool(concurrency);
+		}
+		// Looked up reflectively, the benchmarks are compiled for Java 17.
+		var factory = ReflectionUtils.findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+		return (factory != null) ? (ExecutorService) ReflectionUtils.invokeMethod(factory, null) : null;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.benchmark;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OverheadBenchmark}, running tiny scenarios.
+ *
+ * @author Christian Tzolov
+ */
+class OverheadBenchmarkTests {
+
+	private static final String[] ARGS = { "--benchmark.threads=platform", "--benchmark.concurrency=4",
+			"--benchmark.warmup-calls=8", "--benchmark.calls=40", "--benchmark.latency=0ms",
+			"--benchmark.prompt-size=2000", "--benchmark.response-size=2000" };
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void whenContentCapturedThenExportedBytesGrow() {
+		BenchmarkReport report = new OverheadBenchmark(ARGS).run();
+
+		assertThat(report.results()).extracting(ScenarioResult::captureMode)
+			.containsExactly(CaptureMode.OFF, CaptureMode.FILTERS, CaptureMode.HANDLERS, CaptureMode.COMPRESSED);
+		// The chat client, its advisors and the chat model are observed on every call.
+		double spansPerCall = report.results().get(0).exportedSpansPerCall();
+		assertThat(spansPerCall).isGreaterThanOrEqualTo(2.0);
+		assertThat(report.results()).allSatisfy(result -> {
+			assertThat(result.calls()).isEqualTo(40);
+			assertThat(result.exportedSpansPerCall()).isEqualTo(spansPerCall);
+			assertThat(result.allocatedBytesPerCall()).isPositive();
+		});
+
+		// The chat client prompt, the chat model prompt and the completion are captured.
+		long off = report.results().get(0).exportedBytesPerCall();
+		assertThat(report.results().get(1).exportedBytesPerCall()).isGreaterThan(off + 3 * 2000);
+		assertThat(report.results().get(2).exportedBytesPerCall()).isGreaterThan(off + 3 * 2000);
+		assertThat(report.results().get(3).exportedBytesPerCall()).isGreaterThan(off)
+			.isLessThan(report.results().get(2).exportedBytesPerCall() - 1000);
+	}
+
+	@Test
+	void whenStreamingThenCompletionCaptured() {
+		BenchmarkReport report = new OverheadBenchmark(ARGS[0], ARGS[1], ARGS[2], ARGS[3], ARGS[4], ARGS[5], ARGS[6],
+				"--benchmark.capture-modes=off,handlers", "--benchmark.streaming=true")
+			.run();
+
+		assertThat(report.streaming()).isTrue();
+		assertThat(report.results()).hasSize(2);
+		assertThat(report.results().get(1).exportedSpansPerCall())
+			.isEqualTo(report.results().get(0).exportedSpansPerCall());
+		assertThat(report.results().get(1).exportedBytesPerCall())
+			.isGreaterThan(report.results().get(0).exportedBytesPerCall() + 2000);
+	}
+
+	@Test
+	void whenComparedWithBaselineThenRegressionsReported() throws Exception {
+		var off = result(CaptureMode.OFF, 1.0, 1000, 500);
+		var baseline = new BenchmarkReport("17", 4, false, List.of(off, result(CaptureMode.HANDLERS, 1.2, 2000, 3000)));
+		Path file = this.tempDir.resolve("baseline.json");
+		baseline.write(file);
+		baseline = BenchmarkReport.read(file);
+
+		var same = new BenchmarkReport("21", 4, false, List.of(off, result(CaptureMode.HANDLERS, 1.3, 2100, 3000)));
+		assertThat(same.regressions(baseline, 0.25)).isEmpty();
+
+		var worse = new BenchmarkReport("21", 4, false, List.of(off, result(CaptureMode.HANDLERS, 2.0, 2100, 6000)));
+		assertThat(worse.regressions(baseline, 0.25)).hasSize(2)
+			.anySatisfy(regression -> assertThat(regression).startsWith("HANDLERS/PLATFORM: p99 overhead"))
+			.anySatisfy(regression -> assertThat(regression).startsWith("HANDLERS/PLATFORM: exported bytes"));
+
+		var otherMachine = new BenchmarkReport("21", 8, false,
+				List.of(off, result(CaptureMode.HANDLERS, 2.0, 2100, 6000)));
+		assertThat(otherMachine.regressions(baseline, 0.25)).singleElement()
+			.satisfies(regression -> assertThat(regression).startsWith("HANDLERS/PLATFORM: exported bytes"));
+	}
+
+	private static ScenarioResult result(CaptureMode captureMode, double p99Millis, long allocatedBytes,
+			long exportedBytes) {
+		return new ScenarioResult(captureMode, ThreadKind.PLATFORM, 4, 100, 1000, 0.5, 0.8, p99Millis, p99Millis,
+				allocatedBytes, 2, exportedBytes);
+	}
+
+}
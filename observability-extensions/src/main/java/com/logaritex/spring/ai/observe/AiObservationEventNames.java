@@ -37,7 +37,12 @@ public enum AiObservationEventNames {
 	/**
 	 * Completion of content generation.
 	 */
-	CONTENT_COMPLETION("gen_ai.content.completion");
+	CONTENT_COMPLETION("gen_ai.content.completion"),
+
+	/**
+	 * A single choice of content generation.
+	 */
+	CHOICE("gen_ai.choice");
 
 	private final String value;
 
@@ -25,8 +25,10 @@ import io.micrometer.observation.ObservationFilter;
 
 import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 /**
@@ -36,20 +38,68 @@ import org.springframework.util.CollectionUtils;
  */
 public class ChatClientInputContentObservationFilter implements ObservationFilter {
 
+	private static final List<String> KEYS = List.of("spring.ai.chat.client.system.text",
+			"spring.ai.chat.client.system.params", "spring.ai.chat.client.user.text",
+			"spring.ai.chat.client.user.params");
+
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ChatClientInputContentObservationFilter() {
+		this(new ContentCaptureControl());
+	}
+
+	public ChatClientInputContentObservationFilter(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ChatClientInputContentObservationFilter(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatClientInputContentObservationFilter.class,
+				ContentCaptureMetrics.Target.ATTRIBUTE);
+	}
+
 	@Override
 	public Observation.Context map(Observation.Context context) {
 		if (!(context instanceof ChatClientObservationContext chatClientObservationContext)) {
 			return context;
 		}
-		chatClientSystemText(chatClientObservationContext);
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.chatClientPrompt()) {
+			return context;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return context;
+		}
+		long sample = this.metrics.start();
+		chatClientSystemText(chatClientObservationContext, settings.messages());
 		chatClientSystemParams(chatClientObservationContext);
-		chatClientUserText(chatClientObservationContext);
+		chatClientUserText(chatClientObservationContext, settings.messages());
 		chatClientUserParams(chatClientObservationContext);
 
+		for (String key : KEYS) {
+			KeyValue keyValue = chatClientObservationContext.getHighCardinalityKeyValue(key);
+			if (keyValue != null) {
+				this.metrics.recordSize(sample, keyValue.getValue());
+				this.control.recordCaptured(keyValue.getValue());
+			}
+		}
+		this.metrics.stop(sample);
 		return chatClientObservationContext;
 	}
 
 	protected void chatClientSystemText(ChatClientObservationContext context) {
+		chatClientSystemText(context, MessageCapturePolicy.ALL);
+	}
+
+	protected void chatClientSystemText(ChatClientObservationContext context, MessageCapturePolicy policy) {
+		if (!policy.includes(MessageType.SYSTEM)) {
+			return;
+		}
 		List<Message> messages = context.getRequest().prompt().getInstructions();
 		if (CollectionUtils.isEmpty(messages)) {
 			return;
@@ -62,7 +112,7 @@ public class ChatClientInputContentObservationFilter implements ObservationFilte
 			return;
 		}
 		context.addHighCardinalityKeyValue(
-				KeyValue.of("spring.ai.chat.client.system.text", systemMessage.get().getText()));
+				KeyValue.of("spring.ai.chat.client.system.text", String.valueOf(policy.capture(systemMessage.get()))));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -81,6 +131,13 @@ public class ChatClientInputContentObservationFilter implements ObservationFilte
 	}
 
 	protected void chatClientUserText(ChatClientObservationContext context) {
+		chatClientUserText(context, MessageCapturePolicy.ALL);
+	}
+
+	protected void chatClientUserText(ChatClientObservationContext context, MessageCapturePolicy policy) {
+		if (!policy.includes(MessageType.USER)) {
+			return;
+		}
 		List<Message> messages = context.getRequest().prompt().getInstructions();
 		if (CollectionUtils.isEmpty(messages)) {
 			return;
@@ -89,7 +146,8 @@ public class ChatClientInputContentObservationFilter implements ObservationFilte
 		if (!(messages.get(messages.size() - 1) instanceof UserMessage userMessage)) {
 			return;
 		}
-		context.addHighCardinalityKeyValue(KeyValue.of("spring.ai.chat.client.user.text", userMessage.getText()));
+		context.addHighCardinalityKeyValue(
+				KeyValue.of("spring.ai.chat.client.user.text", String.valueOf(policy.capture(userMessage))));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -16,51 +16,107 @@
 
 package com.logaritex.spring.ai.observe;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import io.micrometer.common.KeyValue;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationFilter;
 
 import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
-import org.springframework.ai.chat.observation.ChatModelObservationDocumentation;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * An {@link ObservationFilter} to include the chat client prompt content in the
- * observation. gen_ai.completion
+ * observation. The messages are recorded in order, keyed by their type, following the
+ * per-role {@link MessageCapturePolicy}. Messages without text are skipped. Media
+ * attached to the messages is recorded as metadata only, never as payload, indexed by the
+ * position of its message among the recorded ones.
  *
  * @author Thomas Vitale
  * @author Christian Tzolov
  */
 public final class ChatClientPromptContentObservationFilter implements ObservationFilter {
 
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ChatClientPromptContentObservationFilter() {
+		this(new ContentCaptureControl());
+	}
+
+	public ChatClientPromptContentObservationFilter(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ChatClientPromptContentObservationFilter(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatClientPromptContentObservationFilter.class,
+				ContentCaptureMetrics.Target.ATTRIBUTE);
+	}
+
 	@Override
 	public Observation.Context map(Observation.Context context) {
 		if (!(context instanceof ChatClientObservationContext chatClientObservationContext)) {
 			return context;
 		}
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.chatClientPrompt()) {
+			return context;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return context;
+		}
+		long sample = this.metrics.start();
 
-		var prompts = processPrompt(chatClientObservationContext);
+		var prompts = TracingHelper
+			.concatenateEntries(processPrompt(chatClientObservationContext, settings.messages()));
+		var capturedPrompts = TracingHelper.truncate(prompts, settings.maxPromptLength());
+		this.metrics.recordTruncation(prompts, capturedPrompts);
+		var encoded = settings.encoder().encode(capturedPrompts);
+		if (encoded != null) {
+			capturedPrompts = encoded;
+			chatClientObservationContext.addHighCardinalityKeyValue(
+					KeyValue.of("gen_ai.prompt" + ContentEncoder.ENCODING_SUFFIX, ContentEncoder.DEFLATE_BASE64));
+		}
+		this.metrics.recordSize(sample, capturedPrompts);
+		this.control.recordCaptured(capturedPrompts);
+		chatClientObservationContext.addHighCardinalityKeyValue(KeyValue.of("gen_ai.prompt", capturedPrompts));
 
-		chatClientObservationContext
-			.addHighCardinalityKeyValue(KeyValue.of("gen_ai.prompt", TracingHelper.concatenateMaps(prompts)));
+		var media = ChatModelObservationContentProcessor
+			.media(chatClientObservationContext.getRequest().prompt().getInstructions(), settings.messages());
+		if (!media.isEmpty()) {
+			var formattedMedia = TracingHelper.concatenateMedia(media);
+			this.metrics.recordSize(sample, formattedMedia);
+			this.control.recordCaptured(formattedMedia);
+			chatClientObservationContext.addHighCardinalityKeyValue(KeyValue.of("gen_ai.prompt.media", formattedMedia));
+		}
 
+		this.metrics.stop(sample);
 		return chatClientObservationContext;
 	}
 
-	private Map<String, Object> processPrompt(ChatClientObservationContext context) {
-		if (CollectionUtils.isEmpty(context.getRequest().prompt().getInstructions())) {
-			return Map.of();
+	private List<Map.Entry<String, Object>> processPrompt(ChatClientObservationContext context,
+			MessageCapturePolicy policy) {
+		List<Message> messages = context.getRequest().prompt().getInstructions();
+		if (CollectionUtils.isEmpty(messages)) {
+			return List.of();
 		}
 
-		var messages = new HashMap<String, Object>();
-		context.getRequest()
-			.prompt()
-			.getInstructions()
-			.forEach(message -> messages.put(message.getMessageType().getValue(), message.getText()));
-		return messages;
+		List<Map.Entry<String, Object>> prompt = new ArrayList<>(messages.size());
+		for (Message message : messages) {
+			if (ChatModelObservationContentProcessor.isCaptured(message, policy)) {
+				prompt.add(Map.entry(message.getMessageType().getValue(), policy.capture(message)));
+			}
+		}
+		return prompt;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * Handler estimating, before the call, the share of the model context window used by the
+ * prompt of every chat model call, so the over-long prompts show up before the provider
+ * rejects them. It records:
+ * <ul>
+ * <li>{@code gen_ai.client.context.window.utilization}: the estimated prompt tokens as a
+ * fraction of the context window of the model.</li>
+ * <li>{@code gen_ai.client.prompt.tokens.estimated}: the estimated prompt tokens.</li>
+ * <li>{@code gen_ai.client.context.window.exceeded}: the calls whose estimated prompt
+ * does not fit the context window.</li>
+ * <li>{@code gen_ai.client.prompt.tokens.calibration}: the calibration factor of the
+ * estimator for the model.</li>
+ * </ul>
+ * The prompt tokens are estimated in {@link #onStart} by the {@link TokenEstimator}, then
+ * multiplied by a per-model calibration factor, an exponentially weighted moving average
+ * of the ratio between the prompt tokens reported by the model and the raw estimate.
+ * <p>
+ * The number of tracked models is bounded, models seen after the limit is reached are
+ * reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatContextWindowObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	public static final String UTILIZATION_METER_NAME = "gen_ai.client.context.window.utilization";
+
+	public static final String ESTIMATED_TOKENS_METER_NAME = "gen_ai.client.prompt.tokens.estimated";
+
+	public static final String EXCEEDED_METER_NAME = "gen_ai.client.context.window.exceeded";
+
+	public static final String CALIBRATION_METER_NAME = "gen_ai.client.prompt.tokens.calibration";
+
+	public static final int DEFAULT_CONTEXT_WINDOW = 128_000;
+
+	public static final int DEFAULT_MAX_MODELS = 100;
+
+	/**
+	 * Weight of the latest call in the calibration factor.
+	 */
+	private static final double CALIBRATION_ALPHA = 0.1;
+
+	/**
+	 * Bounds of the ratio learned from a single call, so that a prompt with a large
+	 * attachment does not skew the factor.
+	 */
+	private static final double MIN_RATIO = 0.25;
+
+	private static final double MAX_RATIO = 4.0;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, Integer> contextWindows;
+
+	private final int defaultContextWindow;
+
+	private final int maxModels;
+
+	private final Map<ModelKey, Meters> meters = new ConcurrentHashMap<>();
+
+	public ChatContextWindowObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, Map.of(), DEFAULT_CONTEXT_WINDOW, DEFAULT_MAX_MODELS);
+	}
+
+	public ChatContextWindowObservationHandler(MeterRegistry meterRegistry, Map<String, Integer> contextWindows,
+			int defaultContextWindow, int maxModels) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.notNull(contextWindows, "contextWindows cannot be null");
+		Assert.isTrue(defaultContextWindow > 0, "defaultContextWindow must be greater than zero");
+		Assert.isTrue(maxModels > 0, "maxModels must be greater than zero");
+		contextWindows.forEach((model, window) -> Assert.isTrue(window != null && window > 0,
+				() -> "context window of " + model + " must be greater than zero"));
+		this.meterRegistry = meterRegistry;
+		this.contextWindows = Map.copyOf(contextWindows);
+		this.defaultContextWindow = defaultContextWindow;
+		this.maxModels = maxModels;
+	}
+
+	@Override
+	public void onStart(ChatModelObservationContext context) {
+		ModelKey key = ModelKey.from(context);
+		if (key == null || context.getRequest() == null) {
+			return;
+		}
+		long rawEstimate = TokenEstimator.estimate(context.getRequest().getInstructions());
+		Meters meters = meters(key);
+		long estimate = Math.round(rawEstimate * meters.calibration().factor());
+		int contextWindow = this.contextWindows.getOrDefault(key.model(), this.defaultContextWindow);
+		meters.estimatedTokens().record(estimate);
+		meters.utilization().record((double) estimate / contextWindow);
+		if (estimate > contextWindow) {
+			meters.exceeded().increment();
+		}
+		context.put(PromptEstimate.class, new PromptEstimate(rawEstimate, meters.calibration()));
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		PromptEstimate estimate = context.get(PromptEstimate.class);
+		ChatResponseMetadata metadata = (context.getResponse() != null) ? context.getResponse().getMetadata() : null;
+		Usage usage = (metadata != null) ? metadata.getUsage() : null;
+		Integer promptTokens = (usage != null) ? usage.getPromptTokens() : null;
+		if (estimate != null && estimate.rawTokens() > 0 && promptTokens != null && promptTokens > 0) {
+			estimate.calibration().update((double) promptTokens / estimate.rawTokens());
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	/**
+	 * Return the current calibration factor of the given model.
+	 * @param key the model key
+	 * @return the calibration factor, {@code 1} until the model reported its usage
+	 */
+	public double calibration(ModelKey key) {
+		Meters meters = this.meters.get(key);
+		return (meters != null) ? meters.calibration().factor() : 1.0;
+	}
+
+	private Meters meters(ModelKey key) {
+		Meters meters = this.meters.get(key);
+		if (meters != null) {
+			return meters;
+		}
+		ModelKey boundedKey = (this.meters.size() < this.maxModels) ? key : key.overflow();
+		return this.meters.computeIfAbsent(boundedKey, this::register);
+	}
+
+	private Meters register(ModelKey key) {
+		Calibration calibration = new Calibration();
+		Gauge.builder(CALIBRATION_METER_NAME, calibration, Calibration::factor)
+			.description("Ratio between the reported and the locally estimated prompt tokens")
+			.tags(key.tags())
+			.register(this.meterRegistry);
+		return new Meters(
+				DistributionSummary.builder(UTILIZATION_METER_NAME)
+					.description("Estimated prompt tokens as a fraction of the model context window")
+					.tags(key.tags())
+					.serviceLevelObjectives(0.25, 0.5, 0.75, 0.9, 1.0)
+					.register(this.meterRegistry),
+				DistributionSummary.builder(ESTIMATED_TOKENS_METER_NAME)
+					.description("Estimated prompt tokens per chat model call")
+					.baseUnit("tokens")
+					.tags(key.tags())
+					.register(this.meterRegistry),
+				Counter.builder(EXCEEDED_METER_NAME)
+					.description("Number of chat model calls with a prompt estimated over the context window")
+					.tags(key.tags())
+					.register(this.meterRegistry),
+				calibration);
+	}
+
+	/**
+	 * The raw prompt estimate of a call, stored in the observation context between start
+	 * and stop.
+	 */
+	private record PromptEstimate(long rawTokens, Calibration calibration) {
+	}
+
+	/**
+	 * The meters of a single model.
+	 */
+	private record Meters(DistributionSummary utilization, DistributionSummary estimatedTokens, Counter exceeded,
+			Calibration calibration) {
+	}
+
+	/**
+	 * Lock-free exponentially weighted moving average of the ratio between the reported
+	 * and the estimated prompt tokens. The first report replaces the initial factor.
+	 */
+	private static final class Calibration {
+
+		private static final long UNCALIBRATED = Double.doubleToRawLongBits(Double.NaN);
+
+		private final AtomicLong factorBits = new AtomicLong(UNCALIBRATED);
+
+		double factor() {
+			double factor = Double.longBitsToDouble(this.factorBits.get());
+			return Double.isNaN(factor) ? 1.0 : factor;
+		}
+
+		void update(double ratio) {
+			double bounded = Math.min(MAX_RATIO, Math.max(MIN_RATIO, ratio));
+			long bits;
+			double next;
+			do {
+				bits = this.factorBits.get();
+				double current = Double.longBitsToDouble(bits);
+				next = Double.isNaN(current) ? bounded : current + CALIBRATION_ALPHA * (bounded - current);
+			}
+			while (!this.factorBits.compareAndSet(bits, Double.doubleToRawLongBits(next)));
+		}
+
+	}
+
+}
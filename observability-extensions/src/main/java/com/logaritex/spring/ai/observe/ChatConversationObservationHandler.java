@@ -0,0 +1,382 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Handler aggregating the chat client calls of a conversation, identified by the
+ * {@link ChatMemory#CONVERSATION_ID} entry of the chat client request context. For every
+ * conversation it accumulates the number of turns, the tokens, the latency of the turns
+ * and the tool round-trips, that is the chat model calls answered with tool calls.
+ * <p>
+ * A conversation is summarized when it is {@link #end(String) ended} or when it has been
+ * idle for longer than the idle timeout. The summary is recorded by the
+ * {@code gen_ai.client.conversation.*} meters, tagged with the {@code reason} the
+ * conversation was closed, and passed to the optional listener.
+ * <p>
+ * The store is bounded: idle conversations are expired at most once per tenth of the idle
+ * timeout, on the calls themselves, and the new conversations started while the store is
+ * full are not tracked but counted by {@code gen_ai.client.conversation.dropped}. The
+ * memory use is therefore fixed, whatever the number of conversations per day.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatConversationObservationHandler implements ObservationHandler<Observation.Context> {
+
+	public static final String TURNS_METER_NAME = "gen_ai.client.conversation.turns";
+
+	public static final String TOKENS_METER_NAME = "gen_ai.client.conversation.tokens";
+
+	public static final String DURATION_METER_NAME = "gen_ai.client.conversation.duration";
+
+	public static final String TOOL_CALLS_METER_NAME = "gen_ai.client.conversation.tool.calls";
+
+	public static final String ACTIVE_METER_NAME = "gen_ai.client.conversation.active";
+
+	public static final String DROPPED_METER_NAME = "gen_ai.client.conversation.dropped";
+
+	public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+	public static final int DEFAULT_MAX_CONVERSATIONS = 10_000;
+
+	private final Clock clock;
+
+	private final long idleTimeoutNanos;
+
+	private final long expireIntervalNanos;
+
+	private final int maxConversations;
+
+	private final Consumer<ConversationSummary> listener;
+
+	private final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
+
+	private final Map<CloseReason, SummaryMeters> summaryMeters;
+
+	private final Counter dropped;
+
+	private volatile long lastExpire;
+
+	public ChatConversationObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_CONVERSATIONS, summary -> {
+		});
+	}
+
+	public ChatConversationObservationHandler(MeterRegistry meterRegistry, Duration idleTimeout, int maxConversations,
+			Consumer<ConversationSummary> listener) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.notNull(idleTimeout, "idleTimeout cannot be null");
+		Assert.isTrue(idleTimeout.toNanos() > 0, "idleTimeout must be positive");
+		Assert.isTrue(maxConversations > 0, "maxConversations must be greater than zero");
+		Assert.notNull(listener, "listener cannot be null");
+		this.clock = meterRegistry.config().clock();
+		this.idleTimeoutNanos = idleTimeout.toNanos();
+		this.expireIntervalNanos = Math.max(1, this.idleTimeoutNanos / 10);
+		this.maxConversations = maxConversations;
+		this.listener = listener;
+		this.lastExpire = this.clock.monotonicTime();
+		this.summaryMeters = new EnumMap<>(CloseReason.class);
+		for (CloseReason reason : CloseReason.values()) {
+			this.summaryMeters.put(reason, new SummaryMeters(meterRegistry, reason));
+		}
+		this.dropped = Counter.builder(DROPPED_METER_NAME)
+			.description("Number of conversation turns not tracked because the store was full")
+			.register(meterRegistry);
+		Gauge.builder(ACTIVE_METER_NAME, this.conversations, Map::size)
+			.description("Number of conversations currently tracked")
+			.register(meterRegistry);
+	}
+
+	@Override
+	public void onStart(Observation.Context context) {
+		if (context instanceof ChatClientObservationContext) {
+			context.put(TurnStart.class, new TurnStart(this.clock.monotonicTime()));
+		}
+	}
+
+	@Override
+	public void onStop(Observation.Context context) {
+		long now = this.clock.monotonicTime();
+		if (context instanceof ChatClientObservationContext chatClientContext) {
+			TurnStart start = context.get(TurnStart.class);
+			Conversation conversation = conversation(conversationId(chatClientContext), now, true);
+			if (conversation != null && start != null) {
+				conversation.turn(now - start.nanos(), now);
+			}
+		}
+		else if (context instanceof ChatModelObservationContext chatModelContext) {
+			ChatClientObservationContext chatClientContext = TracingHelper.parentChatClientContext(chatModelContext);
+			String conversationId = (chatClientContext != null) ? conversationId(chatClientContext) : null;
+			Conversation conversation = conversation(conversationId, now, false);
+			if (conversation != null) {
+				ChatResponse response = chatModelContext.getResponse();
+				conversation.modelCall(TokenUsage.total(response), response != null && response.hasToolCalls(), now);
+			}
+		}
+		expire(now);
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatClientObservationContext || context instanceof ChatModelObservationContext;
+	}
+
+	/**
+	 * End the given conversation, recording and publishing its summary.
+	 * @param conversationId the conversation id
+	 * @return the conversation summary, or {@code null} if the conversation is not
+	 * tracked
+	 */
+	@Nullable
+	public ConversationSummary end(String conversationId) {
+		Conversation conversation = this.conversations.remove(conversationId);
+		return (conversation != null) ? close(conversationId, conversation, CloseReason.ENDED) : null;
+	}
+
+	/**
+	 * Summarize and drop the conversations idle for longer than the idle timeout. Called
+	 * on the observed calls, at most once per tenth of the idle timeout, and may also be
+	 * called on a schedule when the traffic is sparse.
+	 */
+	public void expireIdle() {
+		long now = this.clock.monotonicTime();
+		this.lastExpire = now;
+		Iterator<Map.Entry<String, Conversation>> iterator = this.conversations.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, Conversation> entry = iterator.next();
+			if (now - entry.getValue().lastActive() >= this.idleTimeoutNanos
+					&& this.conversations.remove(entry.getKey(), entry.getValue())) {
+				close(entry.getKey(), entry.getValue(), CloseReason.IDLE);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of conversations currently tracked.
+	 * @return the number of conversations
+	 */
+	public int size() {
+		return this.conversations.size();
+	}
+
+	private void expire(long now) {
+		if (now - this.lastExpire < this.expireIntervalNanos) {
+			return;
+		}
+		synchronized (this) {
+			if (now - this.lastExpire < this.expireIntervalNanos) {
+				return;
+			}
+			expireIdle();
+		}
+	}
+
+	@Nullable
+	private Conversation conversation(@Nullable String conversationId, long now, boolean turn) {
+		if (conversationId == null) {
+			return null;
+		}
+		Conversation conversation = this.conversations.get(conversationId);
+		if (conversation != null) {
+			return conversation;
+		}
+		if (this.conversations.size() >= this.maxConversations) {
+			if (turn) {
+				this.dropped.increment();
+			}
+			return null;
+		}
+		return this.conversations.computeIfAbsent(conversationId, id -> new Conversation(now));
+	}
+
+	private ConversationSummary close(String conversationId, Conversation conversation, CloseReason reason) {
+		ConversationSummary summary = conversation.summary(conversationId, reason);
+		this.summaryMeters.get(reason).record(summary);
+		this.listener.accept(summary);
+		return summary;
+	}
+
+	@Nullable
+	private static String conversationId(ChatClientObservationContext context) {
+		Object conversationId = context.getRequest().context().get(ChatMemory.CONVERSATION_ID);
+		return (conversationId != null) ? conversationId.toString() : null;
+	}
+
+	/**
+	 * Why a conversation summary was recorded.
+	 */
+	public enum CloseReason {
+
+		/**
+		 * The conversation was explicitly ended.
+		 */
+		ENDED("ended"),
+
+		/**
+		 * The conversation was idle for longer than the idle timeout.
+		 */
+		IDLE("idle");
+
+		private final String value;
+
+		CloseReason(String value) {
+			this.value = value;
+		}
+
+		/**
+		 * Return the value of the {@code reason} tag.
+		 * @return the tag value
+		 */
+		public String value() {
+			return this.value;
+		}
+
+	}
+
+	/**
+	 * The aggregated statistics of a closed conversation.
+	 *
+	 * @param conversationId the conversation id
+	 * @param reason why the conversation was closed
+	 * @param turns the number of chat client calls
+	 * @param tokens the total tokens of the chat model calls
+	 * @param latency the cumulative latency of the chat client calls
+	 * @param toolCalls the number of chat model calls answered with tool calls
+	 * @param duration the time between the first and the last call
+	 */
+	public record ConversationSummary(String conversationId, CloseReason reason, long turns, long tokens,
+			Duration latency, long toolCalls, Duration duration) {
+	}
+
+	/**
+	 * The monotonic start time of a chat client call.
+	 */
+	private record TurnStart(long nanos) {
+	}
+
+	/**
+	 * The running statistics of a tracked conversation.
+	 */
+	private static final class Conversation {
+
+		private final long firstActive;
+
+		private long lastActive;
+
+		private long turns;
+
+		private long tokens;
+
+		private long latencyNanos;
+
+		private long toolCalls;
+
+		private Conversation(long now) {
+			this.firstActive = now;
+			this.lastActive = now;
+		}
+
+		synchronized void turn(long latencyNanos, long now) {
+			this.turns++;
+			this.latencyNanos += latencyNanos;
+			this.lastActive = now;
+		}
+
+		synchronized void modelCall(long tokens, boolean toolCall, long now) {
+			this.tokens += tokens;
+			this.toolCalls += toolCall ? 1 : 0;
+			this.lastActive = now;
+		}
+
+		synchronized long lastActive() {
+			return this.lastActive;
+		}
+
+		synchronized ConversationSummary summary(String conversationId, CloseReason reason) {
+			return new ConversationSummary(conversationId, reason, this.turns, this.tokens,
+					Duration.ofNanos(this.latencyNanos), this.toolCalls,
+					Duration.ofNanos(this.lastActive - this.firstActive));
+		}
+
+	}
+
+	/**
+	 * The meters recording the summaries closed for one reason.
+	 */
+	private static final class SummaryMeters {
+
+		private final DistributionSummary turns;
+
+		private final DistributionSummary tokens;
+
+		private final Timer latency;
+
+		private final DistributionSummary toolCalls;
+
+		private SummaryMeters(MeterRegistry meterRegistry, CloseReason reason) {
+			this.turns = DistributionSummary.builder(TURNS_METER_NAME)
+				.description("Number of turns per conversation")
+				.tag("reason", reason.value())
+				.register(meterRegistry);
+			this.tokens = DistributionSummary.builder(TOKENS_METER_NAME)
+				.description("Number of tokens used per conversation")
+				.baseUnit("tokens")
+				.tag("reason", reason.value())
+				.register(meterRegistry);
+			this.latency = Timer.builder(DURATION_METER_NAME)
+				.description("Cumulative latency of the turns of a conversation")
+				.tag("reason", reason.value())
+				.register(meterRegistry);
+			this.toolCalls = DistributionSummary.builder(TOOL_CALLS_METER_NAME)
+				.description("Number of tool round-trips per conversation")
+				.tag("reason", reason.value())
+				.register(meterRegistry);
+		}
+
+		void record(ConversationSummary summary) {
+			this.turns.record(summary.turns());
+			this.tokens.record(summary.tokens());
+			this.latency.record(summary.latency().toNanos(), TimeUnit.NANOSECONDS);
+			this.toolCalls.record(summary.toolCalls());
+		}
+
+	}
+
+}
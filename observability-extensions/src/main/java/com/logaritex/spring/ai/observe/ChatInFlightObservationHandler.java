@@ -0,0 +1,187 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * Handler tracking the chat model and chat client calls that are currently in flight. For
+ * every provider and model it registers a gauge with the number of outstanding calls and
+ * a time gauge with the age of the oldest one.
+ * <p>
+ * The hot path only increments a striped counter and adds the call to a concurrent set;
+ * the oldest age is computed when the gauge is read. The number of tracked models is
+ * bounded, models seen after the limit is reached are reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatInFlightObservationHandler implements ObservationHandler<Observation.Context> {
+
+	public static final String ACTIVE_METER_NAME = "gen_ai.client.operation.active";
+
+	public static final String OLDEST_METER_NAME = "gen_ai.client.operation.active.oldest";
+
+	public static final int DEFAULT_MAX_MODELS = 100;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Clock clock;
+
+	private final int maxModels;
+
+	private final Map<ModelKey, InFlightCalls> inFlightCalls = new ConcurrentHashMap<>();
+
+	public ChatInFlightObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, DEFAULT_MAX_MODELS);
+	}
+
+	public ChatInFlightObservationHandler(MeterRegistry meterRegistry, int maxModels) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.isTrue(maxModels > 0, "maxModels must be greater than zero");
+		this.meterRegistry = meterRegistry;
+		this.clock = meterRegistry.config().clock();
+		this.maxModels = maxModels;
+	}
+
+	@Override
+	public void onStart(Observation.Context context) {
+		ModelKey key = ModelKey.from(context);
+		if (key == null) {
+			return;
+		}
+		InFlightCall call = new InFlightCall(inFlightCalls(key), this.clock.monotonicTime());
+		call.calls().add(call);
+		context.put(InFlightCall.class, call);
+	}
+
+	@Override
+	public void onStop(Observation.Context context) {
+		InFlightCall call = context.get(InFlightCall.class);
+		if (call != null) {
+			call.calls().remove(call);
+			context.remove(InFlightCall.class);
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext || context instanceof ChatClientObservationContext;
+	}
+
+	private InFlightCalls inFlightCalls(ModelKey key) {
+		InFlightCalls calls = this.inFlightCalls.get(key);
+		if (calls != null) {
+			return calls;
+		}
+		ModelKey boundedKey = (this.inFlightCalls.size() < this.maxModels) ? key : key.overflow();
+		return this.inFlightCalls.computeIfAbsent(boundedKey, this::register);
+	}
+
+	private InFlightCalls register(ModelKey key) {
+		InFlightCalls calls = new InFlightCalls(this.clock);
+		Gauge.builder(ACTIVE_METER_NAME, calls, InFlightCalls::count)
+			.description("Number of AI operations currently in flight")
+			.tags(key.tags())
+			.register(this.meterRegistry);
+		TimeGauge.builder(OLDEST_METER_NAME, calls, TimeUnit.NANOSECONDS, InFlightCalls::oldestAgeNanos)
+			.description("Age of the oldest AI operation currently in flight")
+			.tags(key.tags())
+			.register(this.meterRegistry);
+		return calls;
+	}
+
+	/**
+	 * A single outstanding call, stored in the observation context between start and
+	 * stop. Compared by identity.
+	 */
+	private static final class InFlightCall {
+
+		private final InFlightCalls calls;
+
+		private final long startNanos;
+
+		private InFlightCall(InFlightCalls calls, long startNanos) {
+			this.calls = calls;
+			this.startNanos = startNanos;
+		}
+
+		InFlightCalls calls() {
+			return this.calls;
+		}
+
+		long startNanos() {
+			return this.startNanos;
+		}
+
+	}
+
+	/**
+	 * The outstanding calls of a single model.
+	 */
+	private static final class InFlightCalls {
+
+		private final Clock clock;
+
+		private final LongAdder count = new LongAdder();
+
+		private final Set<InFlightCall> calls = ConcurrentHashMap.newKeySet();
+
+		private InFlightCalls(Clock clock) {
+			this.clock = clock;
+		}
+
+		void add(InFlightCall call) {
+			this.calls.add(call);
+			this.count.increment();
+		}
+
+		void remove(InFlightCall call) {
+			if (this.calls.remove(call)) {
+				this.count.decrement();
+			}
+		}
+
+		double count() {
+			return this.count.sum();
+		}
+
+		double oldestAgeNanos() {
+			long oldest = Long.MAX_VALUE;
+			for (InFlightCall call : this.calls) {
+				oldest = Math.min(oldest, call.startNanos());
+			}
+			return (oldest == Long.MAX_VALUE) ? 0 : this.clock.monotonicTime() - oldest;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import com.logaritex.spring.ai.observe.ChatModelObservationContentProcessor.CompletionChoice;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationFilter;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link ObservationFilter} to include every chat completion choice in the observation
+ * as an indexed set of attributes: {@code gen_ai.completion.<index>.finish_reason},
+ * {@code gen_ai.completion.<index>.length} and, if enabled,
+ * {@code gen_ai.completion.<index>.content}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatModelChoiceObservationFilter implements ObservationFilter {
+
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	private final boolean includeContent;
+
+	public ChatModelChoiceObservationFilter() {
+		this(true);
+	}
+
+	/**
+	 * Create a new filter.
+	 * @param includeContent whether to include the choice text in the attributes, or only
+	 * the choice metadata
+	 */
+	public ChatModelChoiceObservationFilter(boolean includeContent) {
+		this(new ContentCaptureControl(), includeContent);
+	}
+
+	/**
+	 * Create a new filter.
+	 * @param control the content capture control
+	 * @param includeContent whether to include the choice text in the attributes, or only
+	 * the choice metadata
+	 */
+	public ChatModelChoiceObservationFilter(ContentCaptureControl control, boolean includeContent) {
+		this(control, ContentCaptureMetrics.NOOP, includeContent);
+	}
+
+	/**
+	 * Create a new filter.
+	 * @param control the content capture control
+	 * @param metrics the content capture metrics
+	 * @param includeContent whether to include the choice text in the attributes, or only
+	 * the choice metadata
+	 */
+	public ChatModelChoiceObservationFilter(ContentCaptureControl control, ContentCaptureMetrics metrics,
+			boolean includeContent) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatModelChoiceObservationFilter.class, ContentCaptureMetrics.Target.ATTRIBUTE);
+		this.includeContent = includeContent;
+	}
+
+	@Override
+	public Observation.Context map(Observation.Context context) {
+		if (!(context instanceof ChatModelObservationContext chatModelObservationContext)) {
+			return context;
+		}
+		ContentCaptureSettings settings = this.control.settings(context);
+		boolean captureContent = captureContent(context, settings);
+		long sample = this.metrics.start();
+
+		for (CompletionChoice choice : ChatModelObservationContentProcessor.choices(chatModelObservationContext)) {
+			String prefix = "gen_ai.completion." + choice.index();
+			chatModelObservationContext
+				.addHighCardinalityKeyValue(KeyValue.of(prefix + ".length", String.valueOf(choice.length())));
+			if (choice.finishReason() != null) {
+				chatModelObservationContext
+					.addHighCardinalityKeyValue(KeyValue.of(prefix + ".finish_reason", choice.finishReason()));
+			}
+			if (captureContent && choice.text() != null) {
+				String completion = TracingHelper.truncate(choice.text(), settings.maxCompletionLength());
+				this.metrics.recordTruncation(choice.text(), completion);
+				String encoded = settings.encoder().encode(completion);
+				if (encoded != null) {
+					completion = encoded;
+					chatModelObservationContext.addHighCardinalityKeyValue(KeyValue
+						.of(prefix + ".content" + ContentEncoder.ENCODING_SUFFIX, ContentEncoder.DEFLATE_BASE64));
+				}
+				this.metrics.recordSize(sample, completion);
+				this.control.recordCaptured(completion);
+				chatModelObservationContext.addHighCardinalityKeyValue(KeyValue.of(prefix + ".content", completion));
+			}
+		}
+
+		this.metrics.stop(sample);
+		return chatModelObservationContext;
+	}
+
+	private boolean captureContent(Observation.Context context, ContentCaptureSettings settings) {
+		if (!this.includeContent || !settings.completion()) {
+			return false;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return false;
+		}
+		return true;
+	}
+
+}
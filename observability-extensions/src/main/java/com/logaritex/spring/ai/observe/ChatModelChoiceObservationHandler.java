@@ -0,0 +1,155 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import com.logaritex.spring.ai.observe.ChatModelObservationContentProcessor.CompletionChoice;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * Handler for including every chat completion choice in the observation as its own span
+ * event, carrying the choice index, finish reason and length. The choice text is only
+ * read when the content is included.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatModelChoiceObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	static final AttributeKey<Long> INDEX = AttributeKey.longKey("gen_ai.choice.index");
+
+	static final AttributeKey<String> FINISH_REASON = AttributeKey.stringKey("gen_ai.response.finish_reason");
+
+	static final AttributeKey<Long> LENGTH = AttributeKey.longKey("gen_ai.completion.length");
+
+	static final AttributeKey<String> COMPLETION = AttributeKey.stringKey("gen_ai.completion");
+
+	static final AttributeKey<String> COMPLETION_ENCODING = AttributeKey
+		.stringKey("gen_ai.completion" + ContentEncoder.ENCODING_SUFFIX);
+
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	private final boolean includeContent;
+
+	public ChatModelChoiceObservationHandler() {
+		this(true);
+	}
+
+	/**
+	 * Create a new handler.
+	 * @param includeContent whether to include the choice text in the events, or only the
+	 * choice metadata
+	 */
+	public ChatModelChoiceObservationHandler(boolean includeContent) {
+		this(new ContentCaptureControl(), includeContent);
+	}
+
+	/**
+	 * Create a new handler.
+	 * @param control the content capture control
+	 * @param includeContent whether to include the choice text in the events, or only the
+	 * choice metadata
+	 */
+	public ChatModelChoiceObservationHandler(ContentCaptureControl control, boolean includeContent) {
+		this(control, ContentCaptureMetrics.NOOP, includeContent);
+	}
+
+	/**
+	 * Create a new handler.
+	 * @param control the content capture control
+	 * @param metrics the content capture metrics
+	 * @param includeContent whether to include the choice text in the events, or only the
+	 * choice metadata
+	 */
+	public ChatModelChoiceObservationHandler(ContentCaptureControl control, ContentCaptureMetrics metrics,
+			boolean includeContent) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatModelChoiceObservationHandler.class, ContentCaptureMetrics.Target.EVENT);
+		this.includeContent = includeContent;
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		ContentCaptureSettings settings = this.control.settings(context);
+		boolean captureContent = captureContent(context, settings);
+		long sample = this.metrics.start();
+		TracingObservationHandler.TracingContext tracingContext = context
+			.get(TracingObservationHandler.TracingContext.class);
+		Span otelSpan = TracingHelper.extractOtelSpan(tracingContext);
+
+		if (otelSpan != null) {
+			for (CompletionChoice choice : ChatModelObservationContentProcessor.choices(context)) {
+				otelSpan.addEvent(AiObservationEventNames.CHOICE.value(),
+						attributes(choice, settings, captureContent, sample));
+			}
+		}
+		else if (tracingContext != null) {
+			this.metrics.recordBridgeFailure();
+		}
+		this.metrics.stop(sample);
+	}
+
+	private boolean captureContent(ChatModelObservationContext context, ContentCaptureSettings settings) {
+		if (!this.includeContent || !settings.completion()) {
+			return false;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return false;
+		}
+		return true;
+	}
+
+	private Attributes attributes(CompletionChoice choice, ContentCaptureSettings settings, boolean captureContent,
+			long sample) {
+		AttributesBuilder attributes = Attributes.builder().put(INDEX, choice.index()).put(LENGTH, choice.length());
+		String finishReason = choice.finishReason();
+		if (finishReason != null) {
+			attributes.put(FINISH_REASON, finishReason);
+		}
+		if (captureContent && choice.text() != null) {
+			String completion = TracingHelper.truncate(choice.text(), settings.maxCompletionLength());
+			this.metrics.recordTruncation(choice.text(), completion);
+			String encoded = settings.encoder().encode(completion);
+			if (encoded != null) {
+				completion = encoded;
+				attributes.put(COMPLETION_ENCODING, ContentEncoder.DEFLATE_BASE64);
+			}
+			this.metrics.recordSize(sample, completion);
+			this.control.recordCaptured(completion);
+			attributes.put(COMPLETION, completion);
+		}
+		return attributes.build();
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+}
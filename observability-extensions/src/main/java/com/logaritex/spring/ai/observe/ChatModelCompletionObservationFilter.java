@@ -21,6 +21,7 @@ import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationFilter;
 
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
 
 /**
  * An {@link ObservationFilter} to include the chat completion content in the observation.
@@ -29,17 +30,56 @@ import org.springframework.ai.chat.observation.ChatModelObservationContext;
  */
 public class ChatModelCompletionObservationFilter implements ObservationFilter {
 
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ChatModelCompletionObservationFilter() {
+		this(new ContentCaptureControl());
+	}
+
+	public ChatModelCompletionObservationFilter(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ChatModelCompletionObservationFilter(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatModelCompletionObservationFilter.class,
+				ContentCaptureMetrics.Target.ATTRIBUTE);
+	}
+
 	@Override
 	public Observation.Context map(Observation.Context context) {
 		if (!(context instanceof ChatModelObservationContext chatModelObservationContext)) {
 			return context;
 		}
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.completion()) {
+			return context;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return context;
+		}
+		long sample = this.metrics.start();
 
-		var completions = ChatModelObservationContentProcessor.completion(chatModelObservationContext);
-
-		chatModelObservationContext.addHighCardinalityKeyValue(
-				KeyValue.of("gen_ai.completion", TracingHelper.concatenateStrings(completions)));
+		var completions = TracingHelper
+			.concatenateStrings(ChatModelObservationContentProcessor.completion(chatModelObservationContext));
+		var capturedCompletions = TracingHelper.truncate(completions, settings.maxCompletionLength());
+		this.metrics.recordTruncation(completions, capturedCompletions);
+		var encoded = settings.encoder().encode(capturedCompletions);
+		if (encoded != null) {
+			capturedCompletions = encoded;
+			chatModelObservationContext.addHighCardinalityKeyValue(
+					KeyValue.of("gen_ai.completion" + ContentEncoder.ENCODING_SUFFIX, ContentEncoder.DEFLATE_BASE64));
+		}
+		this.metrics.recordSize(sample, capturedCompletions);
+		this.control.recordCaptured(capturedCompletions);
+		chatModelObservationContext.addHighCardinalityKeyValue(KeyValue.of("gen_ai.completion", capturedCompletions));
 
+		this.metrics.stop(sample);
 		return chatModelObservationContext;
 	}
 
@@ -24,6 +24,7 @@ import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
 
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
 
 /**
  * Handler for including the chat completion content in the observation as a span event.
@@ -32,17 +33,61 @@ import org.springframework.ai.chat.observation.ChatModelObservationContext;
  */
 public class ChatModelCompletionObservationHandler2 implements ObservationHandler<ChatModelObservationContext> {
 
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ChatModelCompletionObservationHandler2() {
+		this(new ContentCaptureControl());
+	}
+
+	public ChatModelCompletionObservationHandler2(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ChatModelCompletionObservationHandler2(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatModelCompletionObservationHandler2.class,
+				ContentCaptureMetrics.Target.EVENT);
+	}
+
 	@Override
 	public void onStop(ChatModelObservationContext context) {
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.completion()) {
+			return;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return;
+		}
+		long sample = this.metrics.start();
 		TracingObservationHandler.TracingContext tracingContext = context
 			.get(TracingObservationHandler.TracingContext.class);
 		Span otelSpan = TracingHelper.extractOtelSpan(tracingContext);
 
 		if (otelSpan != null) {
-			otelSpan.addEvent(AiObservationEventNames.CONTENT_COMPLETION.value(),
-					Attributes.of(AttributeKey.stringArrayKey("gen_ai.completion"),
-							ChatModelObservationContentProcessor.completion(context)));
+			var completion = ChatModelObservationContentProcessor.completion(context);
+			var capturedCompletion = TracingHelper.truncate(completion, settings.maxCompletionLength());
+			this.metrics.recordTruncation(completion, capturedCompletion);
+			var attributes = Attributes.builder();
+			var encoded = settings.encoder().encode(capturedCompletion);
+			if (encoded != null) {
+				capturedCompletion = encoded;
+				attributes.put(AttributeKey.stringKey("gen_ai.completion" + ContentEncoder.ENCODING_SUFFIX),
+						ContentEncoder.DEFLATE_BASE64);
+			}
+			this.metrics.recordSize(sample, capturedCompletion);
+			this.control.recordCaptured(capturedCompletion);
+			attributes.put(AttributeKey.stringArrayKey("gen_ai.completion"), capturedCompletion);
+			otelSpan.addEvent(AiObservationEventNames.CONTENT_COMPLETION.value(), attributes.build());
+		}
+		else if (tracingContext != null) {
+			this.metrics.recordBridgeFailure();
 		}
+		this.metrics.stop(sample);
 	}
 
 	@Override
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Handler recording the latency and token usage histograms of the chat model calls, with
+ * exemplars linking their buckets to the spans of the calls:
+ * <ul>
+ * <li>{@code gen_ai.client.operation.duration}: the call latency.</li>
+ * <li>{@code gen_ai.client.operation.tokens}: the tokens used per call, tagged with the
+ * {@code gen_ai.token.type} ({@code input} or {@code output}).</li>
+ * </ul>
+ * When a {@link Tracer} is given, the meters are recorded with the span of the call in
+ * scope, so that the registries sampling exemplars from the current span, such as
+ * Prometheus, link the buckets to that span rather than to its parent. Independently of
+ * the registry, every meter keeps an {@link ExemplarReservoir} with one exemplar per
+ * bucket, available from {@link #exemplars()}.
+ * <p>
+ * The meters duplicate the {@code gen_ai.client.operation} timer and
+ * {@code gen_ai.client.token.usage} counter of Spring AI, with percentile histograms,
+ * under their own names so that their tags do not clash with the Spring AI meters.
+ * <p>
+ * The number of tracked models is bounded, models seen after the limit is reached are
+ * reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatModelExemplarObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	public static final String DURATION_METER_NAME = "gen_ai.client.operation.duration";
+
+	public static final String TOKENS_METER_NAME = "gen_ai.client.operation.tokens";
+
+	public static final int DEFAULT_MAX_MODELS = 100;
+
+	private static final double MILLIS_PER_SECOND = 1000.0;
+
+	private final MeterRegistry meterRegistry;
+
+	@Nullable
+	private final Tracer tracer;
+
+	private final Clock clock;
+
+	private final int maxModels;
+
+	private final Map<ModelKey, Meters> meters = new ConcurrentHashMap<>();
+
+	public ChatModelExemplarObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, null, DEFAULT_MAX_MODELS);
+	}
+
+	public ChatModelExemplarObservationHandler(MeterRegistry meterRegistry, @Nullable Tracer tracer, int maxModels) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.isTrue(maxModels > 0, "maxModels must be greater than zero");
+		this.meterRegistry = meterRegistry;
+		this.tracer = tracer;
+		this.clock = meterRegistry.config().clock();
+		this.maxModels = maxModels;
+	}
+
+	@Override
+	public void onStart(ChatModelObservationContext context) {
+		context.put(CallStart.class, new CallStart(this.clock.monotonicTime()));
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		CallStart start = context.get(CallStart.class);
+		ModelKey key = ModelKey.from(context);
+		if (start == null || key == null) {
+			return;
+		}
+		long durationNanos = this.clock.monotonicTime() - start.nanos();
+		TracingObservationHandler.TracingContext tracingContext = context
+			.get(TracingObservationHandler.TracingContext.class);
+		Span span = (tracingContext != null) ? tracingContext.getSpan() : null;
+		if (this.tracer != null && span != null) {
+			Tracer.SpanInScope scope = this.tracer.withSpan(span);
+			try {
+				record(context, key, durationNanos, tracingContext);
+			}
+			finally {
+				scope.close();
+			}
+		}
+		else {
+			record(context, key, durationNanos, tracingContext);
+		}
+	}
+
+	private void record(ChatModelObservationContext context, ModelKey key, long durationNanos,
+			@Nullable TracingObservationHandler.TracingContext tracingContext) {
+		Meters meters = meters(key);
+		TraceContext traceContext = TracingHelper.traceContext(tracingContext);
+		long timestamp = this.clock.wallTime();
+
+		meters.duration().record(durationNanos, TimeUnit.NANOSECONDS);
+		meters.durationExemplars().offer(durationNanos / 1e9, traceContext, timestamp);
+
+		ChatResponseMetadata metadata = (context.getResponse() != null) ? context.getResponse().getMetadata() : null;
+		Usage usage = (metadata != null) ? metadata.getUsage() : null;
+		if (usage != null && usage.getPromptTokens() != null && usage.getPromptTokens() > 0) {
+			meters.inputTokens().record(usage.getPromptTokens());
+			meters.inputExemplars().offer(usage.getPromptTokens(), traceContext, timestamp);
+		}
+		if (usage != null && usage.getCompletionTokens() != null && usage.getCompletionTokens() > 0) {
+			meters.outputTokens().record(usage.getCompletionTokens());
+			meters.outputExemplars().offer(usage.getCompletionTokens(), traceContext, timestamp);
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	/**
+	 * Return the exemplars of every meter, by model.
+	 * @return the exemplars
+	 */
+	public List<MeterExemplars> exemplars() {
+		List<MeterExemplars> exemplars = new ArrayList<>();
+		this.meters.forEach((key, meters) -> {
+			exemplars.add(new MeterExemplars(DURATION_METER_NAME, key, null, meters.durationExemplars().exemplars()));
+			exemplars.add(new MeterExemplars(TOKENS_METER_NAME, key, "input", meters.inputExemplars().exemplars()));
+			exemplars.add(new MeterExemplars(TOKENS_METER_NAME, key, "output", meters.outputExemplars().exemplars()));
+		});
+		return exemplars;
+	}
+
+	/**
+	 * Drop all the exemplars and start a new sampling period.
+	 */
+	public void resetExemplars() {
+		this.meters.values().forEach(meters -> {
+			meters.durationExemplars().reset();
+			meters.inputExemplars().reset();
+			meters.outputExemplars().reset();
+		});
+	}
+
+	private Meters meters(ModelKey key) {
+		Meters meters = this.meters.get(key);
+		if (meters != null) {
+			return meters;
+		}
+		ModelKey boundedKey = (this.meters.size() < this.maxModels) ? key : key.overflow();
+		return this.meters.computeIfAbsent(boundedKey, this::register);
+	}
+
+	private Meters register(ModelKey key) {
+		return new Meters(
+				Timer.builder(DURATION_METER_NAME)
+					.description("Chat model call latency")
+					.tags(key.tags())
+					.publishPercentileHistogram()
+					.register(this.meterRegistry),
+				tokens(key, "input"), tokens(key, "output"), new ExemplarReservoir(MILLIS_PER_SECOND),
+				new ExemplarReservoir(1), new ExemplarReservoir(1));
+	}
+
+	private DistributionSummary tokens(ModelKey key, String type) {
+		return DistributionSummary.builder(TOKENS_METER_NAME)
+			.description("Tokens used per chat model call")
+			.baseUnit("tokens")
+			.tags(key.tags())
+			.tag("gen_ai.token.type", type)
+			.publishPercentileHistogram()
+			.register(this.meterRegistry);
+	}
+
+	/**
+	 * The exemplars of a single meter.
+	 *
+	 * @param meter the meter name
+	 * @param model the model the meter is recorded for
+	 * @param tokenType the token type of a token meter, {@code null} for the duration
+	 * @param exemplars the exemplars, by increasing bucket; durations are in seconds
+	 */
+	public record MeterExemplars(String meter, ModelKey model, @Nullable String tokenType,
+			List<ExemplarReservoir.Exemplar> exemplars) {
+	}
+
+	private record CallStart(long nanos) {
+	}
+
+	private record Meters(Timer duration, DistributionSummary inputTokens, DistributionSummary outputTokens,
+			ExemplarReservoir durationExemplars, ExemplarReservoir inputExemplars, ExemplarReservoir outputExemplars) {
+	}
+
+}
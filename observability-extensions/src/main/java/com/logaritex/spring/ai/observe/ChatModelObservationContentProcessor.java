@@ -16,10 +16,17 @@
 
 package com.logaritex.spring.ai.observe;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
 import org.springframework.ai.content.Content;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.content.MediaContent;
+import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -41,13 +48,108 @@ public final class ChatModelObservationContentProcessor {
 		return context.getRequest().getInstructions().stream().map(Content::getText).toList();
 	}
 
-	public static List<String> completion(ChatModelObservationContext context) {
-		if (context == null || context.getResponse() == null || context.getResponse().getResults() == null
-				|| CollectionUtils.isEmpty(context.getResponse().getResults())) {
+	/**
+	 * Return the prompt messages to capture according to the given policy. The excluded
+	 * messages are skipped without reading their text, and so are the messages without
+	 * text, as decided by {@link #isCaptured(Message, MessageCapturePolicy)}.
+	 * @param context the chat model observation context
+	 * @param policy the per-role capture policy
+	 * @return the captured messages text, in message order
+	 */
+	public static List<String> prompt(ChatModelObservationContext context, MessageCapturePolicy policy) {
+		List<Message> messages = context.getRequest().getInstructions();
+		if (CollectionUtils.isEmpty(messages)) {
+			return List.of();
+		}
+
+		List<String> prompt = new ArrayList<>(messages.size());
+		for (Message message : messages) {
+			String text = policy.capture(message);
+			if (text != null) {
+				prompt.add(text);
+			}
+		}
+		return prompt;
+	}
+
+	/**
+	 * Return the metadata of the media attached to the prompt messages.
+	 * @param context the chat model observation context
+	 * @return the media metadata, in message order
+	 */
+	public static List<MediaMetadata> promptMedia(ChatModelObservationContext context) {
+		return media(context.getRequest().getInstructions());
+	}
+
+	/**
+	 * Return the metadata of the media attached to the prompt messages included by the
+	 * given policy.
+	 * @param context the chat model observation context
+	 * @param policy the per-role capture policy
+	 * @return the media metadata, in message order
+	 */
+	public static List<MediaMetadata> promptMedia(ChatModelObservationContext context, MessageCapturePolicy policy) {
+		return media(context.getRequest().getInstructions(), policy);
+	}
+
+	/**
+	 * Return the metadata of the media attached to the given messages. The media payload
+	 * is never copied, it is only read to compute its hash.
+	 * @param messages the messages
+	 * @return the media metadata, in message order
+	 */
+	public static List<MediaMetadata> media(List<Message> messages) {
+		return media(messages, MessageCapturePolicy.ALL);
+	}
+
+	/**
+	 * Return the metadata of the media attached to the given messages captured by the
+	 * given policy. The index of every media is the position of its message among the
+	 * captured messages, so it matches the position of the message entry in the captured
+	 * prompt even when some messages are omitted. The media payload is never copied, it
+	 * is only read to compute its hash.
+	 * @param messages the messages
+	 * @param policy the per-role capture policy
+	 * @return the media metadata, in message order
+	 */
+	public static List<MediaMetadata> media(List<Message> messages, MessageCapturePolicy policy) {
+		if (CollectionUtils.isEmpty(messages)) {
 			return List.of();
 		}
 
-		if (!StringUtils.hasText(context.getResponse().getResult().getOutput().getText())) {
+		List<MediaMetadata> media = null;
+		int position = 0;
+		for (Message message : messages) {
+			if (!isCaptured(message, policy)) {
+				continue;
+			}
+			if (message instanceof MediaContent mediaContent && !CollectionUtils.isEmpty(mediaContent.getMedia())) {
+				if (media == null) {
+					media = new ArrayList<>();
+				}
+				for (Media item : mediaContent.getMedia()) {
+					media.add(MediaMetadata.of(position, item));
+				}
+			}
+			position++;
+		}
+		return (media != null) ? media : List.of();
+	}
+
+	/**
+	 * Return whether the given message has an entry in the captured prompt: its type is
+	 * included by the policy, and it has text.
+	 * @param message the message
+	 * @param policy the per-role capture policy
+	 * @return whether the message is captured
+	 */
+	public static boolean isCaptured(Message message, MessageCapturePolicy policy) {
+		return policy.includes(message.getMessageType()) && message.getText() != null;
+	}
+
+	public static List<String> completion(ChatModelObservationContext context) {
+		if (context == null || context.getResponse() == null || context.getResponse().getResults() == null
+				|| CollectionUtils.isEmpty(context.getResponse().getResults())) {
 			return List.of();
 		}
 
@@ -60,4 +162,102 @@ public final class ChatModelObservationContentProcessor {
 			.toList();
 	}
 
+	/**
+	 * Return the completion choices of the response, one per generation. The returned
+	 * list is a view over the response generations: no choice is created, and no text is
+	 * read, until it is accessed.
+	 * @param context the chat model observation context
+	 * @return the completion choices, in generation order
+	 */
+	public static List<CompletionChoice> choices(ChatModelObservationContext context) {
+		if (context == null || context.getResponse() == null
+				|| CollectionUtils.isEmpty(context.getResponse().getResults())) {
+			return List.of();
+		}
+
+		List<Generation> generations = context.getResponse().getResults();
+		return new AbstractList<>() {
+
+			@Override
+			public CompletionChoice get(int index) {
+				return new CompletionChoice(index, generations.get(index));
+			}
+
+			@Override
+			public int size() {
+				return generations.size();
+			}
+
+		};
+	}
+
+	/**
+	 * A single completion choice of a chat response.
+	 *
+	 * @param index the index of the choice in the response
+	 * @param generation the generation backing the choice
+	 */
+	public record CompletionChoice(int index, Generation generation) {
+
+		/**
+		 * Return the text of the choice.
+		 * @return the choice text, or {@code null} if the generation has no output
+		 */
+		@Nullable
+		public String text() {
+			return (this.generation.getOutput() != null) ? this.generation.getOutput().getText() : null;
+		}
+
+		/**
+		 * Return the length of the choice text, without copying it.
+		 * @return the text length, or {@code 0} if there is no text
+		 */
+		public int length() {
+			String text = text();
+			return (text != null) ? text.length() : 0;
+		}
+
+		/**
+		 * Return the reason the model stopped generating the choice.
+		 * @return the finish reason, or {@code null} if not reported
+		 */
+		@Nullable
+		public String finishReason() {
+			return (this.generation.getMetadata() != null) ? this.generation.getMetadata().getFinishReason() : null;
+		}
+
+	}
+
+	/**
+	 * Metadata of a media attached to a prompt message, recorded instead of its payload.
+	 *
+	 * @param messageIndex the position of the message the media is attached to among the
+	 * captured prompt messages
+	 * @param mimeType the media MIME type
+	 * @param size the payload size in bytes, or {@code -1} if the media is referenced by
+	 * URL
+	 * @param hash a fast hash of the payload, or of the URL for referenced media
+	 */
+	public record MediaMetadata(int messageIndex, String mimeType, long size, String hash) {
+
+		static MediaMetadata of(int messageIndex, Media media) {
+			String mimeType = (media.getMimeType() != null) ? media.getMimeType().toString() : "";
+			if (media.getData() instanceof byte[] bytes) {
+				return new MediaMetadata(messageIndex, mimeType, bytes.length, ContentHash.crc32c(bytes));
+			}
+			String url = String.valueOf(media.getData());
+			return new MediaMetadata(messageIndex, mimeType, -1, ContentHash.toHex(ContentHash.fnv1a64(url)));
+		}
+
+		/**
+		 * Format the metadata as a single attribute value.
+		 * @return the formatted metadata
+		 */
+		public String format() {
+			return "{\"index\":" + this.messageIndex + ", \"mime_type\":\"" + this.mimeType + "\", \"size\":"
+					+ this.size + ", \"hash\":\"" + this.hash + "\"}";
+		}
+
+	}
+
 }
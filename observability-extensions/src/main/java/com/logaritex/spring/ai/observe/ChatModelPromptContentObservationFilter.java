@@ -21,6 +21,7 @@ import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationFilter;
 
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
 
 /**
  * An {@link ObservationFilter} to include the chat prompt content in the observation.
@@ -29,17 +30,64 @@ import org.springframework.ai.chat.observation.ChatModelObservationContext;
  */
 public class ChatModelPromptContentObservationFilter implements ObservationFilter {
 
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ChatModelPromptContentObservationFilter() {
+		this(new ContentCaptureControl());
+	}
+
+	public ChatModelPromptContentObservationFilter(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ChatModelPromptContentObservationFilter(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatModelPromptContentObservationFilter.class,
+				ContentCaptureMetrics.Target.ATTRIBUTE);
+	}
+
 	@Override
 	public Observation.Context map(Observation.Context context) {
 		if (!(context instanceof ChatModelObservationContext chatModelObservationContext)) {
 			return context;
 		}
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.prompt()) {
+			return context;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return context;
+		}
+		long sample = this.metrics.start();
 
-		var prompts = ChatModelObservationContentProcessor.prompt(chatModelObservationContext);
+		var prompts = TracingHelper.concatenateStrings(
+				ChatModelObservationContentProcessor.prompt(chatModelObservationContext, settings.messages()));
+		var capturedPrompts = TracingHelper.truncate(prompts, settings.maxPromptLength());
+		this.metrics.recordTruncation(prompts, capturedPrompts);
+		var encoded = settings.encoder().encode(capturedPrompts);
+		if (encoded != null) {
+			capturedPrompts = encoded;
+			chatModelObservationContext.addHighCardinalityKeyValue(
+					KeyValue.of("gen_ai.prompt" + ContentEncoder.ENCODING_SUFFIX, ContentEncoder.DEFLATE_BASE64));
+		}
+		this.metrics.recordSize(sample, capturedPrompts);
+		this.control.recordCaptured(capturedPrompts);
+		chatModelObservationContext.addHighCardinalityKeyValue(KeyValue.of("gen_ai.prompt", capturedPrompts));
 
-		chatModelObservationContext
-			.addHighCardinalityKeyValue(KeyValue.of("gen_ai.prompt", TracingHelper.concatenateStrings(prompts)));
+		var media = ChatModelObservationContentProcessor.promptMedia(chatModelObservationContext, settings.messages());
+		if (!media.isEmpty()) {
+			var formattedMedia = TracingHelper.concatenateMedia(media);
+			this.metrics.recordSize(sample, formattedMedia);
+			this.control.recordCaptured(formattedMedia);
+			chatModelObservationContext.addHighCardinalityKeyValue(KeyValue.of("gen_ai.prompt.media", formattedMedia));
+		}
 
+		this.metrics.stop(sample);
 		return chatModelObservationContext;
 	}
 
@@ -24,6 +24,7 @@ import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
 
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
 
 /**
  * Handler for including the chat prompt content in the observation as a span event.
@@ -32,18 +33,70 @@ import org.springframework.ai.chat.observation.ChatModelObservationContext;
  */
 public class ChatModelPromptContentObservationHandler2 implements ObservationHandler<ChatModelObservationContext> {
 
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ChatModelPromptContentObservationHandler2() {
+		this(new ContentCaptureControl());
+	}
+
+	public ChatModelPromptContentObservationHandler2(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ChatModelPromptContentObservationHandler2(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ChatModelPromptContentObservationHandler2.class,
+				ContentCaptureMetrics.Target.EVENT);
+	}
+
 	@Override
 	public void onStop(ChatModelObservationContext context) {
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.prompt()) {
+			return;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return;
+		}
+		long sample = this.metrics.start();
 		TracingObservationHandler.TracingContext tracingContext = context
 			.get(TracingObservationHandler.TracingContext.class);
 		Span otelSpan = TracingHelper.extractOtelSpan(tracingContext);
 
 		if (otelSpan != null) {
-			otelSpan.addEvent(AiObservationEventNames.CONTENT_PROMPT.value(),
-					Attributes.of(AttributeKey.stringArrayKey("gen_ai.prompt"),
-							ChatModelObservationContentProcessor.prompt(context)));
+			var prompt = ChatModelObservationContentProcessor.prompt(context, settings.messages());
+			var capturedPrompt = TracingHelper.truncate(prompt, settings.maxPromptLength());
+			this.metrics.recordTruncation(prompt, capturedPrompt);
+			var attributes = Attributes.builder();
+			var encoded = settings.encoder().encode(capturedPrompt);
+			if (encoded != null) {
+				capturedPrompt = encoded;
+				attributes.put(AttributeKey.stringKey("gen_ai.prompt" + ContentEncoder.ENCODING_SUFFIX),
+						ContentEncoder.DEFLATE_BASE64);
+			}
+			this.metrics.recordSize(sample, capturedPrompt);
+			this.control.recordCaptured(capturedPrompt);
+			attributes.put(AttributeKey.stringArrayKey("gen_ai.prompt"), capturedPrompt);
+			var media = ChatModelObservationContentProcessor.promptMedia(context, settings.messages());
+			if (!media.isEmpty()) {
+				var formattedMedia = media.stream()
+					.map(ChatModelObservationContentProcessor.MediaMetadata::format)
+					.toList();
+				this.metrics.recordSize(sample, formattedMedia);
+				this.control.recordCaptured(formattedMedia);
+				attributes.put(AttributeKey.stringArrayKey("gen_ai.prompt.media"), formattedMedia);
+			}
+			otelSpan.addEvent(AiObservationEventNames.CONTENT_PROMPT.value(), attributes.build());
 		}
-
+		else if (tracingContext != null) {
+			this.metrics.recordBridgeFailure();
+		}
+		this.metrics.stop(sample);
 	}
 
 	@Override
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Handler recording how much of the prompts is served from the prompt cache of the
+ * provider, for the providers reporting it in their native usage data. It records:
+ * <ul>
+ * <li>{@code gen_ai.client.prompt.cache.tokens}: the input tokens, tagged with the
+ * {@code gen_ai.cache.status}, {@code hit} for the tokens read from the cache, which the
+ * provider did not process again, and {@code miss} for the others.</li>
+ * <li>{@code gen_ai.client.prompt.cache.hit.ratio}: the fraction of the input tokens read
+ * from the cache.</li>
+ * </ul>
+ * The meters are tagged with the model and with {@code gen_ai.prompt.prefix}, a hash of
+ * the leading system messages, which are the prefix the providers cache, so the system
+ * prompts that miss the cache stand out.
+ * <p>
+ * The cached tokens are read from the native usage by a {@link CacheTokensResolver}. The
+ * default one recognizes the OpenAI {@code prompt_tokens_details.cached_tokens}, the
+ * Anthropic {@code cache_read_input_tokens} and the Gemini
+ * {@code cached_content_token_count}, in the usage objects and maps of the providers,
+ * resolving the accessors once per usage class. The calls of the providers not reporting
+ * cached tokens are not recorded. The number of tracked model and prefix combinations is
+ * bounded, further combinations are reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatPromptCacheObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	public static final String TOKENS_METER_NAME = "gen_ai.client.prompt.cache.tokens";
+
+	public static final String HIT_RATIO_METER_NAME = "gen_ai.client.prompt.cache.hit.ratio";
+
+	public static final String PREFIX_TAG = "gen_ai.prompt.prefix";
+
+	public static final int DEFAULT_MAX_PREFIXES = 200;
+
+	/**
+	 * Resolves the cached tokens from the native usage of the OpenAI, Anthropic and
+	 * Gemini models.
+	 */
+	public static final CacheTokensResolver NATIVE_USAGE = new NativeUsageCacheTokensResolver();
+
+	private static final long NO_PREFIX = 0;
+
+	private final MeterRegistry meterRegistry;
+
+	private final CacheTokensResolver resolver;
+
+	private final int maxPrefixes;
+
+	private final Map<CacheKey, CacheMeters> meters = new ConcurrentHashMap<>();
+
+	public ChatPromptCacheObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, NATIVE_USAGE, DEFAULT_MAX_PREFIXES);
+	}
+
+	public ChatPromptCacheObservationHandler(MeterRegistry meterRegistry, CacheTokensResolver resolver,
+			int maxPrefixes) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.notNull(resolver, "resolver cannot be null");
+		Assert.isTrue(maxPrefixes > 0, "maxPrefixes must be greater than zero");
+		this.meterRegistry = meterRegistry;
+		this.resolver = resolver;
+		this.maxPrefixes = maxPrefixes;
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		ChatResponseMetadata metadata = (context.getResponse() != null) ? context.getResponse().getMetadata() : null;
+		Usage usage = (metadata != null) ? metadata.getUsage() : null;
+		ModelKey key = ModelKey.from(context);
+		if (usage == null || key == null) {
+			return;
+		}
+		CacheTokens tokens = this.resolver.resolve(usage);
+		if (tokens == null) {
+			return;
+		}
+		CacheMeters meters = meters(new CacheKey(key, prefixHash(context.getRequest())));
+		meters.hits().add(tokens.cached());
+		meters.misses().add(tokens.uncached());
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	private CacheMeters meters(CacheKey key) {
+		CacheMeters meters = this.meters.get(key);
+		if (meters != null) {
+			return meters;
+		}
+		CacheKey boundedKey = (this.meters.size() < this.maxPrefixes) ? key : key.overflow();
+		return this.meters.computeIfAbsent(boundedKey, this::register);
+	}
+
+	private CacheMeters register(CacheKey key) {
+		CacheMeters meters = new CacheMeters(new LongAdder(), new LongAdder());
+		String prefix = key.prefixTag();
+		FunctionCounter.builder(TOKENS_METER_NAME, meters.hits(), LongAdder::sum)
+			.description("Number of input tokens by prompt cache status")
+			.baseUnit("tokens")
+			.tags(key.model().tags())
+			.tag(PREFIX_TAG, prefix)
+			.tag("gen_ai.cache.status", "hit")
+			.register(this.meterRegistry);
+		FunctionCounter.builder(TOKENS_METER_NAME, meters.misses(), LongAdder::sum)
+			.description("Number of input tokens by prompt cache status")
+			.baseUnit("tokens")
+			.tags(key.model().tags())
+			.tag(PREFIX_TAG, prefix)
+			.tag("gen_ai.cache.status", "miss")
+			.register(this.meterRegistry);
+		Gauge.builder(HIT_RATIO_METER_NAME, meters, CacheMeters::hitRatio)
+			.description("Fraction of the input tokens read from the prompt cache")
+			.tags(key.model().tags())
+			.tag(PREFIX_TAG, prefix)
+			.register(this.meterRegistry);
+		return meters;
+	}
+
+	/**
+	 * Hash the text of the leading system messages of the prompt.
+	 * @param prompt the prompt
+	 * @return the prefix hash, or {@code 0} if the prompt has no leading system message
+	 */
+	static long prefixHash(@Nullable Prompt prompt) {
+		if (prompt == null) {
+			return NO_PREFIX;
+		}
+		List<Message> messages = prompt.getInstructions();
+		long hash = ContentHash.fnv1a64Seed();
+		int systemMessages = 0;
+		for (int i = 0; i < messages.size() && messages.get(i).getMessageType() == MessageType.SYSTEM; i++) {
+			String text = messages.get(i).getText();
+			hash = ContentHash.fnv1a64(hash, "\u0000", 0, 1);
+			hash = (text != null) ? ContentHash.fnv1a64(hash, text, 0, text.length()) : hash;
+			systemMessages++;
+		}
+		return (systemMessages > 0 && hash != NO_PREFIX) ? hash : NO_PREFIX;
+	}
+
+	/**
+	 * Resolves the cached input tokens of a call from its usage.
+	 */
+	@FunctionalInterface
+	public interface CacheTokensResolver {
+
+		/**
+		 * Resolve the cached and uncached input tokens.
+		 * @param usage the usage of the call
+		 * @return the tokens, or {@code null} if the usage does not report cached tokens
+		 */
+		@Nullable
+		CacheTokens resolve(Usage usage);
+
+	}
+
+	/**
+	 * The input tokens of a call, split by prompt cache status.
+	 *
+	 * @param cached the input tokens read from the cache
+	 * @param uncached the other input tokens
+	 */
+	public record CacheTokens(long cached, long uncached) {
+	}
+
+	/**
+	 * The model and the prompt prefix hash keying the meters.
+	 */
+	private record CacheKey(ModelKey model, long prefixHash) {
+
+		private static final long OTHER = -1;
+
+		CacheKey overflow() {
+			return new CacheKey(this.model.overflow(), OTHER);
+		}
+
+		String prefixTag() {
+			if (this.prefixHash == NO_PREFIX) {
+				return ModelKey.NONE;
+			}
+			return (this.prefixHash == OTHER) ? ModelKey.OTHER : ContentHash.toHex(this.prefixHash);
+		}
+
+	}
+
+	/**
+	 * The token counts of a model and prefix.
+	 */
+	private record CacheMeters(LongAdder hits, LongAdder misses) {
+
+		double hitRatio() {
+			long hits = this.hits.sum();
+			long total = hits + this.misses.sum();
+			return (total > 0) ? (double) hits / total : 0;
+		}
+
+	}
+
+	/**
+	 * Reads the cached tokens from the native usage of the providers. The OpenAI and
+	 * Gemini prompt tokens include the cached tokens, the Anthropic ones do not.
+	 */
+	private static final class NativeUsageCacheTokensResolver implements CacheTokensResolver {
+
+		private static final String[] INCLUDED = { "cachedTokens", "cachedContentTokenCount" };
+
+		private static final String[] EXCLUDED = { "cacheReadInputTokens" };
+
+		private static final String[] DETAILS = { "promptTokensDetails" };
+
+		private final ClassValue<Function<Object, CacheRead>> accessors = new ClassValue<>() {
+			@Override
+			protected Function<Object, CacheRead> computeValue(Class<?> type) {
+				return accessor(type);
+			}
+		};
+
+		@Override
+		@Nullable
+		public CacheTokens resolve(Usage usage) {
+			Object nativeUsage = usage.getNativeUsage();
+			if (nativeUsage == null) {
+				return null;
+			}
+			CacheRead read = (nativeUsage instanceof Map<?, ?> map) ? fromMap(map)
+					: this.accessors.get(nativeUsage.getClass()).apply(nativeUsage);
+			if (read == null) {
+				return null;
+			}
+			long promptTokens = (usage.getPromptTokens() != null) ? usage.getPromptTokens() : 0;
+			long uncached = read.includedInPromptTokens() ? Math.max(0, promptTokens - read.tokens()) : promptTokens;
+			return new CacheTokens(read.tokens(), uncached);
+		}
+
+		@Nullable
+		private static CacheRead fromMap(Map<?, ?> map) {
+			if (map.get("cache_read_input_tokens") instanceof Number tokens) {
+				return new CacheRead(tokens.longValue(), false);
+			}
+			if (map.get("cached_content_token_count") instanceof Number tokens) {
+				return new CacheRead(tokens.longValue(), true);
+			}
+			if (map.get("prompt_tokens_details") instanceof Map<?, ?> details
+					&& details.get("cached_tokens") instanceof Number tokens) {
+				return new CacheRead(tokens.longValue(), true);
+			}
+			return null;
+		}
+
+		private static Function<Object, CacheRead> accessor(Class<?> type) {
+			Method excluded = method(type, EXCLUDED);
+			if (excluded != null) {
+				return usage -> read(excluded, usage, false);
+			}
+			Method included = method(type, INCLUDED);
+			if (included != null) {
+				return usage -> read(included, usage, true);
+			}
+			Method details = method(type, DETAILS);
+			if (details != null) {
+				Method cachedTokens = method(details.getReturnType(), INCLUDED);
+				if (cachedTokens != null) {
+					return usage -> {
+						Object detailsValue = ReflectionUtils.invokeMethod(details, usage);
+						return (detailsValue != null) ? read(cachedTokens, detailsValue, true) : null;
+					};
+				}
+			}
+			return usage -> null;
+		}
+
+		@Nullable
+		private static CacheRead read(Method method, Object target, boolean includedInPromptTokens) {
+			return (ReflectionUtils.invokeMethod(method, target) instanceof Number tokens)
+					? new CacheRead(tokens.longValue(), includedInPromptTokens) : null;
+		}
+
+		/**
+		 * Find the record style or getter style accessor with one of the given names.
+		 */
+		@Nullable
+		private static Method method(Class<?> type, String[] names) {
+			for (String name : names) {
+				for (String candidate : new String[] { name,
+						"get" + Character.toUpperCase(name.charAt(0)) + name.substring(1) }) {
+					Method method = ReflectionUtils.findMethod(type, candidate);
+					if (method != null && method.getReturnType() != void.class) {
+						ReflectionUtils.makeAccessible(method);
+						return method;
+					}
+				}
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * Cached tokens read from a native usage.
+	 */
+	private record CacheRead(long tokens, boolean includedInPromptTokens) {
+	}
+
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Handler detecting the chat model calls repeating an earlier prompt, to estimate the
+ * benefit of a response cache. Every prompt is hashed, after normalizing its whitespace,
+ * together with the model and the options, and counted in a {@link CountMinSketch} over a
+ * sliding window. It records:
+ * <ul>
+ * <li>{@code gen_ai.client.prompt.repeat.ratio}: the fraction of the calls in the window
+ * repeating an earlier prompt.</li>
+ * <li>{@code gen_ai.client.prompt.repeats}: the number of repeated calls.</li>
+ * <li>{@code gen_ai.client.prompt.repeat.savable.tokens}: the tokens a response cache
+ * would have saved.</li>
+ * <li>{@code gen_ai.client.prompt.repeat.top}: the count of the most repeated prompts,
+ * tagged with their rank.</li>
+ * </ul>
+ * <p>
+ * The window is made of two halves; the older half is cleared and reused when the window
+ * slides, so the memory use is constant. The most repeated prompt hashes are tracked in a
+ * fixed-size heavy-hitters list and available from {@link #statistics()}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatPromptRepeatObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	public static final String RATIO_METER_NAME = "gen_ai.client.prompt.repeat.ratio";
+
+	public static final String REPEATS_METER_NAME = "gen_ai.client.prompt.repeats";
+
+	public static final String SAVABLE_TOKENS_METER_NAME = "gen_ai.client.prompt.repeat.savable.tokens";
+
+	public static final String TOP_METER_NAME = "gen_ai.client.prompt.repeat.top";
+
+	public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(10);
+
+	public static final int DEFAULT_DEPTH = 4;
+
+	public static final int DEFAULT_WIDTH = 2048;
+
+	public static final int DEFAULT_TOP_PROMPTS = 10;
+
+	private static final String SPACE = " ";
+
+	private final Clock clock;
+
+	private final Duration window;
+
+	private final long halfWindowNanos;
+
+	private final Counter repeats;
+
+	private final Counter savableTokens;
+
+	private final HeavyHitters topPrompts;
+
+	private volatile Slot current;
+
+	private volatile Slot previous;
+
+	private volatile long currentStart;
+
+	public ChatPromptRepeatObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, DEFAULT_WINDOW, DEFAULT_DEPTH, DEFAULT_WIDTH, DEFAULT_TOP_PROMPTS);
+	}
+
+	public ChatPromptRepeatObservationHandler(MeterRegistry meterRegistry, Duration window, int depth, int width,
+			int topPrompts) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.notNull(window, "window cannot be null");
+		Assert.isTrue(window.toNanos() >= 2, "window must be positive");
+		Assert.isTrue(topPrompts > 0, "topPrompts must be greater than zero");
+		this.clock = meterRegistry.config().clock();
+		this.window = window;
+		this.halfWindowNanos = window.toNanos() / 2;
+		this.current = new Slot(depth, width);
+		this.previous = new Slot(depth, width);
+		this.currentStart = this.clock.monotonicTime();
+		this.topPrompts = new HeavyHitters(topPrompts);
+		this.repeats = Counter.builder(REPEATS_METER_NAME)
+			.description("Number of chat calls repeating an earlier prompt")
+			.register(meterRegistry);
+		this.savableTokens = Counter.builder(SAVABLE_TOKENS_METER_NAME)
+			.description("Number of tokens a response cache would have saved")
+			.register(meterRegistry);
+		Gauge.builder(RATIO_METER_NAME, this, ChatPromptRepeatObservationHandler::repeatRatio)
+			.description("Fraction of the chat calls in the window repeating an earlier prompt")
+			.register(meterRegistry);
+		for (int rank = 1; rank <= topPrompts; rank++) {
+			int index = rank - 1;
+			Gauge.builder(TOP_METER_NAME, this.topPrompts, hitters -> hitters.count(index))
+				.description("Number of calls in the window of the most repeated prompts")
+				.tag("rank", String.valueOf(rank))
+				.register(meterRegistry);
+		}
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		if (context.getResponse() == null) {
+			return;
+		}
+		slide();
+		long hash = hash(context.getRequest());
+		Slot current = this.current;
+		long count = this.previous.sketch.estimate(hash) + current.sketch.add(hash);
+		current.calls.increment();
+		if (count < 2) {
+			return;
+		}
+		long tokens = TokenUsage.total(context.getResponse());
+		current.repeats.increment();
+		current.savableTokens.add(tokens);
+		this.repeats.increment();
+		this.savableTokens.increment(tokens);
+		this.topPrompts.offer(hash, count, tokens);
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	/**
+	 * Return the repeated prompt statistics of the current window.
+	 * @return the statistics
+	 */
+	public RepeatStatistics statistics() {
+		slide();
+		Slot current = this.current;
+		Slot previous = this.previous;
+		long calls = current.calls.sum() + previous.calls.sum();
+		long repeats = current.repeats.sum() + previous.repeats.sum();
+		return new RepeatStatistics(this.window, calls, repeats, ratio(repeats, calls),
+				current.savableTokens.sum() + previous.savableTokens.sum(), this.topPrompts.top());
+	}
+
+	private double repeatRatio() {
+		slide();
+		Slot current = this.current;
+		Slot previous = this.previous;
+		return ratio(current.repeats.sum() + previous.repeats.sum(), current.calls.sum() + previous.calls.sum());
+	}
+
+	private void slide() {
+		long now = this.clock.monotonicTime();
+		if (now - this.currentStart < this.halfWindowNanos) {
+			return;
+		}
+		synchronized (this) {
+			long elapsed = now - this.currentStart;
+			if (elapsed < this.halfWindowNanos) {
+				return;
+			}
+			Slot recycled = this.previous;
+			recycled.clear();
+			if (elapsed >= 2 * this.halfWindowNanos) {
+				// Idle for a whole window, nothing left to remember
+				this.current.clear();
+			}
+			this.previous = this.current;
+			this.current = recycled;
+			this.currentStart = now;
+			this.topPrompts.refresh(this.previous.sketch);
+		}
+	}
+
+	private static double ratio(long repeats, long calls) {
+		return (calls > 0) ? (double) repeats / calls : 0;
+	}
+
+	/**
+	 * Hash the prompt messages, with their whitespace collapsed and trimmed, together
+	 * with the chat options.
+	 * @param prompt the prompt
+	 * @return the prompt hash
+	 */
+	static long hash(Prompt prompt) {
+		long hash = ContentHash.fnv1a64Seed();
+		for (Message message : prompt.getInstructions()) {
+			String type = message.getMessageType().getValue();
+			hash = ContentHash.fnv1a64(hash, type, 0, type.length());
+			hash = normalizedHash(hash, message.getText());
+		}
+		ChatOptions options = prompt.getOptions();
+		if (options != null) {
+			String values = options.getModel() + "|" + options.getTemperature() + "|" + options.getTopP() + "|"
+					+ options.getTopK() + "|" + options.getMaxTokens() + "|" + options.getFrequencyPenalty() + "|"
+					+ options.getPresencePenalty() + "|" + options.getStopSequences();
+			hash = ContentHash.fnv1a64(hash, values, 0, values.length());
+		}
+		return hash;
+	}
+
+	private static long normalizedHash(long hash, @Nullable String text) {
+		hash = ContentHash.fnv1a64(hash, "\u0000", 0, 1);
+		if (text == null) {
+			return hash;
+		}
+		boolean pendingSpace = false;
+		boolean leading = true;
+		int start = -1;
+		for (int i = 0; i < text.length(); i++) {
+			if (Character.isWhitespace(text.charAt(i))) {
+				if (start >= 0) {
+					hash = ContentHash.fnv1a64(hash, text, start, i);
+					start = -1;
+				}
+				pendingSpace = !leading;
+				continue;
+			}
+			if (start < 0) {
+				if (pendingSpace) {
+					hash = ContentHash.fnv1a64(hash, SPACE, 0, 1);
+					pendingSpace = false;
+				}
+				start = i;
+				leading = false;
+			}
+		}
+		return (start >= 0) ? ContentHash.fnv1a64(hash, text, start, text.length()) : hash;
+	}
+
+	/**
+	 * Repeated prompt statistics over a window.
+	 *
+	 * @param window the window duration
+	 * @param calls the number of calls
+	 * @param repeats the number of calls repeating an earlier prompt
+	 * @param repeatRatio the fraction of the calls repeating an earlier prompt
+	 * @param savableTokens the number of tokens a response cache would have saved
+	 * @param topPrompts the most repeated prompts, most repeated first
+	 */
+	public record RepeatStatistics(Duration window, long calls, long repeats, double repeatRatio, long savableTokens,
+			List<RepeatedPrompt> topPrompts) {
+	}
+
+	/**
+	 * A frequently repeated prompt.
+	 *
+	 * @param hash the prompt hash
+	 * @param count the estimated number of calls with the prompt in the window
+	 * @param tokens the total tokens of the last call with the prompt
+	 * @param savableTokens the tokens a response cache would have saved for the prompt
+	 */
+	public record RepeatedPrompt(String hash, long count, long tokens, long savableTokens) {
+	}
+
+	/**
+	 * The sketch and counters of one half of the window.
+	 */
+	private static final class Slot {
+
+		private final CountMinSketch sketch;
+
+		private final LongAdder calls = new LongAdder();
+
+		private final LongAdder repeats = new LongAdder();
+
+		private final LongAdder savableTokens = new LongAdder();
+
+		private Slot(int depth, int width) {
+			this.sketch = new CountMinSketch(depth, width);
+		}
+
+		void clear() {
+			this.sketch.clear();
+			this.calls.reset();
+			this.repeats.reset();
+			this.savableTokens.reset();
+		}
+
+	}
+
+	/**
+	 * Fixed-size list of the most repeated prompt hashes. Only updated on repeated calls.
+	 */
+	private static final class HeavyHitters {
+
+		private final long[] hashes;
+
+		private final long[] counts;
+
+		private final long[] tokens;
+
+		private int size;
+
+		private HeavyHitters(int capacity) {
+			this.hashes = new long[capacity];
+			this.counts = new long[capacity];
+			this.tokens = new long[capacity];
+		}
+
+		synchronized void offer(long hash, long count, long tokens) {
+			int min = -1;
+			for (int i = 0; i < this.size; i++) {
+				if (this.hashes[i] == hash) {
+					this.counts[i] = Math.max(this.counts[i], count);
+					this.tokens[i] = tokens;
+					return;
+				}
+				if (min < 0 || this.counts[i] < this.counts[min]) {
+					min = i;
+				}
+			}
+			if (this.size < this.hashes.length) {
+				set(this.size++, hash, count, tokens);
+			}
+			else if (count > this.counts[min]) {
+				set(min, hash, count, tokens);
+			}
+		}
+
+		/**
+		 * Re-estimate the counts after the window slid, dropping the prompts no longer
+		 * repeated.
+		 */
+		synchronized void refresh(CountMinSketch sketch) {
+			int kept = 0;
+			for (int i = 0; i < this.size; i++) {
+				long count = sketch.estimate(this.hashes[i]);
+				if (count >= 2) {
+					set(kept++, this.hashes[i], count, this.tokens[i]);
+				}
+			}
+			this.size = kept;
+		}
+
+		synchronized double count(int rank) {
+			List<RepeatedPrompt> top = top();
+			return (rank < top.size()) ? top.get(rank).count() : 0;
+		}
+
+		synchronized List<RepeatedPrompt> top() {
+			List<RepeatedPrompt> top = new ArrayList<>(this.size);
+			for (int i = 0; i < this.size; i++) {
+				top.add(new RepeatedPrompt(ContentHash.toHex(this.hashes[i]), this.counts[i], this.tokens[i],
+						(this.counts[i] - 1) * this.tokens[i]));
+			}
+			top.sort(Comparator.comparingLong(RepeatedPrompt::count).reversed());
+			return top;
+		}
+
+		private void set(int index, long hash, long count, long tokens) {
+			this.hashes[index] = hash;
+			this.counts[index] = count;
+			this.tokens[index] = tokens;
+		}
+
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * Handler recording, per model, mergeable {@link QuantileSketch quantile sketches} of the
+ * latency, the prompt tokens and the completion tokens of the chat model calls. Unlike
+ * the percentiles computed by every instance, the sketches of several instances can be
+ * merged into exact fleet-wide quantiles, within the relative accuracy of the sketches.
+ * <p>
+ * The sketches are cumulative since the start of the application; the difference of two
+ * snapshots, bucket by bucket, is the sketch of the calls between them. Recording a call
+ * does not allocate. The number of tracked models is bounded, models seen after the limit
+ * is reached are reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatQuantileSketchObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+	public static final int DEFAULT_MAX_MODELS = 100;
+
+	private static final double MIN_LATENCY_MILLIS = 0.01;
+
+	private static final double MAX_LATENCY_MILLIS = 1e8;
+
+	private static final double MIN_TOKENS = 1;
+
+	private static final double MAX_TOKENS = 1e8;
+
+	private static final double NANOS_PER_MILLI = 1e6;
+
+	private final Clock clock;
+
+	private final double relativeAccuracy;
+
+	private final int maxModels;
+
+	private final Map<ModelKey, Sketches> sketches = new ConcurrentHashMap<>();
+
+	public ChatQuantileSketchObservationHandler() {
+		this(Clock.SYSTEM, DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_MODELS);
+	}
+
+	public ChatQuantileSketchObservationHandler(Clock clock, double relativeAccuracy, int maxModels) {
+		Assert.notNull(clock, "clock cannot be null");
+		Assert.isTrue(relativeAccuracy > 0 && relativeAccuracy < 1, "relativeAccuracy must be between 0 and 1");
+		Assert.isTrue(maxModels > 0, "maxModels must be greater than zero");
+		this.clock = clock;
+		this.relativeAccuracy = relativeAccuracy;
+		this.maxModels = maxModels;
+	}
+
+	@Override
+	public void onStart(ChatModelObservationContext context) {
+		context.put(CallStart.class, new CallStart(this.clock.monotonicTime()));
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		CallStart start = context.get(CallStart.class);
+		ModelKey key = ModelKey.from(context);
+		if (start == null || key == null) {
+			return;
+		}
+		Sketches sketches = sketches(key);
+		sketches.latency().add((this.clock.monotonicTime() - start.nanos()) / NANOS_PER_MILLI);
+		ChatResponseMetadata metadata = (context.getResponse() != null) ? context.getResponse().getMetadata() : null;
+		Usage usage = (metadata != null) ? metadata.getUsage() : null;
+		if (usage != null && usage.getPromptTokens() != null) {
+			sketches.promptTokens().add(usage.getPromptTokens());
+		}
+		if (usage != null && usage.getCompletionTokens() != null) {
+			sketches.completionTokens().add(usage.getCompletionTokens());
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	/**
+	 * Return the sketches of every model.
+	 * @return the sketches
+	 */
+	public List<ModelSketch> sketches() {
+		List<ModelSketch> sketches = new ArrayList<>();
+		this.sketches.forEach((key, modelSketches) -> {
+			sketches.add(new ModelSketch(key, Measure.LATENCY, modelSketches.latency()));
+			sketches.add(new ModelSketch(key, Measure.PROMPT_TOKENS, modelSketches.promptTokens()));
+			sketches.add(new ModelSketch(key, Measure.COMPLETION_TOKENS, modelSketches.completionTokens()));
+		});
+		return sketches;
+	}
+
+	private Sketches sketches(ModelKey key) {
+		Sketches sketches = this.sketches.get(key);
+		if (sketches != null) {
+			return sketches;
+		}
+		ModelKey boundedKey = (this.sketches.size() < this.maxModels) ? key : key.overflow();
+		return this.sketches.computeIfAbsent(boundedKey,
+				k -> new Sketches(new QuantileSketch(this.relativeAccuracy, MIN_LATENCY_MILLIS, MAX_LATENCY_MILLIS),
+						new QuantileSketch(this.relativeAccuracy, MIN_TOKENS, MAX_TOKENS),
+						new QuantileSketch(this.relativeAccuracy, MIN_TOKENS, MAX_TOKENS)));
+	}
+
+	/**
+	 * The measures sketched per model.
+	 */
+	public enum Measure {
+
+		/**
+		 * The call latency, in milliseconds.
+		 */
+		LATENCY,
+
+		/**
+		 * The prompt tokens reported by the model.
+		 */
+		PROMPT_TOKENS,
+
+		/**
+		 * The completion tokens reported by the model.
+		 */
+		COMPLETION_TOKENS
+
+	}
+
+	/**
+	 * The sketch of a measure of a model.
+	 *
+	 * @param model the model
+	 * @param measure the sketched measure
+	 * @param sketch the sketch
+	 */
+	public record ModelSketch(ModelKey model, Measure measure, QuantileSketch sketch) {
+	}
+
+	/**
+	 * The monotonic start time of a call.
+	 */
+	private record CallStart(long nanos) {
+	}
+
+	/**
+	 * The sketches of a single model.
+	 */
+	private record Sketches(QuantileSketch latency, QuantileSketch promptTokens, QuantileSketch completionTokens) {
+	}
+
+}
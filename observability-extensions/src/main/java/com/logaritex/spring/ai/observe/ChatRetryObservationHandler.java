@@ -0,0 +1,325 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Handler observing the retries of the chat model calls. Every HTTP request sent to the
+ * provider while a chat model call is in progress is observed as a child of the chat
+ * model observation, so every attempt of the retry layer shows up as one of those child
+ * observations. From the second attempt on, the handler:
+ * <ul>
+ * <li>adds a {@code gen_ai.client.retry} event to the chat model observation, with the
+ * attempt number, the {@code error.type} of the previous attempt and the backoff slept
+ * since then. With the OpenTelemetry bridge on the classpath the event is added to the
+ * span with typed attributes by {@link ChatRetrySpanEvents}.</li>
+ * <li>counts the retry in {@code gen_ai.client.retries}, tagged with the
+ * {@code error.type}.</li>
+ * <li>records the backoff in {@code gen_ai.client.retry.backoff}.</li>
+ * </ul>
+ * When a retried call completes, the time spent before its last attempt, failed attempts
+ * and backoffs, is recorded in {@code gen_ai.client.retry.overhead}, so the latency added
+ * by the retries can be told apart from the latency of the provider.
+ * <p>
+ * The error type is the class name of the exception of the attempt, or its HTTP status
+ * code. The number of tracked models is bounded, models seen after the limit is reached
+ * are reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatRetryObservationHandler implements ObservationHandler<Observation.Context> {
+
+	public static final String RETRY_EVENT_NAME = "gen_ai.client.retry";
+
+	public static final String RETRIES_METER_NAME = "gen_ai.client.retries";
+
+	public static final String BACKOFF_METER_NAME = "gen_ai.client.retry.backoff";
+
+	public static final String OVERHEAD_METER_NAME = "gen_ai.client.retry.overhead";
+
+	/**
+	 * Name of the observations of the HTTP requests sent by the Spring {@code RestClient}
+	 * and {@code WebClient}.
+	 */
+	public static final String DEFAULT_ATTEMPT_OBSERVATION_NAME = "http.client.requests";
+
+	public static final int DEFAULT_MAX_MODELS = 100;
+
+	private static final String STATUS_KEY = "status";
+
+	private static final int FIRST_ERROR_STATUS = 400;
+
+	private static final boolean otelBridgePresent = ClassUtils.isPresent("io.micrometer.tracing.otel.bridge.OtelSpan",
+			ChatRetryObservationHandler.class.getClassLoader());
+
+	private final MeterRegistry meterRegistry;
+
+	private final Clock clock;
+
+	private final String attemptObservationName;
+
+	private final int maxModels;
+
+	private final RetryEvents events;
+
+	private final Map<ModelKey, Meters> meters = new ConcurrentHashMap<>();
+
+	public ChatRetryObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, DEFAULT_ATTEMPT_OBSERVATION_NAME, DEFAULT_MAX_MODELS);
+	}
+
+	public ChatRetryObservationHandler(MeterRegistry meterRegistry, String attemptObservationName, int maxModels) {
+		this(meterRegistry, attemptObservationName, maxModels,
+				otelBridgePresent ? new ChatRetrySpanEvents() : RetryEvents.OBSERVATION);
+	}
+
+	public ChatRetryObservationHandler(MeterRegistry meterRegistry, String attemptObservationName, int maxModels,
+			RetryEvents events) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.hasText(attemptObservationName, "attemptObservationName cannot be empty");
+		Assert.isTrue(maxModels > 0, "maxModels must be greater than zero");
+		Assert.notNull(events, "events cannot be null");
+		this.meterRegistry = meterRegistry;
+		this.clock = meterRegistry.config().clock();
+		this.attemptObservationName = attemptObservationName;
+		this.maxModels = maxModels;
+		this.events = events;
+	}
+
+	@Override
+	public void onStart(Observation.Context context) {
+		if (context instanceof ChatModelObservationContext) {
+			return;
+		}
+		Observation chatModelObservation = chatModelObservation(context);
+		if (chatModelObservation == null) {
+			return;
+		}
+		ChatModelObservationContext chatModelContext = (ChatModelObservationContext) chatModelObservation.getContext();
+		long now = this.clock.monotonicTime();
+		Attempts attempts = chatModelContext.computeIfAbsent(Attempts.class, key -> new Attempts());
+		Attempt previous = attempts.start(now);
+		if (previous == null) {
+			return;
+		}
+		ModelKey key = ModelKey.from(chatModelContext);
+		Meters meters = meters(key);
+		String errorType = (previous.errorType() != null) ? previous.errorType() : KeyValue.NONE_VALUE;
+		long backoffNanos = Math.max(0, now - previous.stopNanos());
+		meters.retries(errorType).increment();
+		meters.backoff().record(backoffNanos, TimeUnit.NANOSECONDS);
+		this.events.retry(chatModelObservation, previous.number() + 1, errorType, Duration.ofNanos(backoffNanos));
+	}
+
+	@Override
+	public void onStop(Observation.Context context) {
+		if (context instanceof ChatModelObservationContext chatModelContext) {
+			Attempts attempts = chatModelContext.get(Attempts.class);
+			long overheadNanos = (attempts != null) ? attempts.overheadNanos() : 0;
+			if (overheadNanos > 0) {
+				meters(ModelKey.from(chatModelContext)).overhead().record(overheadNanos, TimeUnit.NANOSECONDS);
+			}
+			return;
+		}
+		Observation chatModelObservation = chatModelObservation(context);
+		Attempts attempts = (chatModelObservation != null) ? chatModelObservation.getContext().get(Attempts.class)
+				: null;
+		if (attempts != null) {
+			attempts.stop(this.clock.monotonicTime(), errorType(context));
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext || this.attemptObservationName.equals(context.getName());
+	}
+
+	/**
+	 * Return the chat model observation the given attempt is a child of.
+	 */
+	@Nullable
+	private static Observation chatModelObservation(Observation.Context context) {
+		ObservationView parent = context.getParentObservation();
+		while (parent != null) {
+			if (parent.getContextView() instanceof ChatModelObservationContext && parent instanceof Observation) {
+				return (Observation) parent;
+			}
+			parent = parent.getContextView().getParentObservation();
+		}
+		return null;
+	}
+
+	@Nullable
+	private static String errorType(Observation.Context context) {
+		if (context.getError() != null) {
+			return context.getError().getClass().getName();
+		}
+		KeyValue status = context.getLowCardinalityKeyValue(STATUS_KEY);
+		if (status != null) {
+			try {
+				return (Integer.parseInt(status.getValue()) >= FIRST_ERROR_STATUS) ? status.getValue() : null;
+			}
+			catch (NumberFormatException ex) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private Meters meters(ModelKey key) {
+		Meters meters = this.meters.get(key);
+		if (meters != null) {
+			return meters;
+		}
+		ModelKey boundedKey = (this.meters.size() < this.maxModels) ? key : key.overflow();
+		return this.meters.computeIfAbsent(boundedKey, k -> new Meters(this.meterRegistry, k));
+	}
+
+	/**
+	 * Records a retry on the chat model observation.
+	 */
+	@FunctionalInterface
+	public interface RetryEvents {
+
+		/**
+		 * Records the retries as {@link Observation.Event observation events}.
+		 */
+		RetryEvents OBSERVATION = (chatModelObservation, attempt, errorType, backoff) -> chatModelObservation
+			.event(Observation.Event.of(RETRY_EVENT_NAME,
+					"retry attempt " + attempt + " after " + errorType + ", backoff " + backoff.toMillis() + "ms"));
+
+		/**
+		 * Record a retry.
+		 * @param chatModelObservation the observation of the retried chat model call
+		 * @param attempt the number of the attempt, starting at 2 for the first retry
+		 * @param errorType the error type of the previous attempt
+		 * @param backoff the backoff slept since the previous attempt
+		 */
+		void retry(Observation chatModelObservation, int attempt, String errorType, Duration backoff);
+
+	}
+
+	/**
+	 * A finished attempt.
+	 */
+	private record Attempt(int number, long stopNanos, @Nullable String errorType) {
+	}
+
+	/**
+	 * The attempts of a chat model call, stored in its observation context.
+	 */
+	private static final class Attempts {
+
+		private int count;
+
+		private long firstStartNanos;
+
+		private long lastStartNanos;
+
+		@Nullable
+		private Attempt previous;
+
+		/**
+		 * Start a new attempt.
+		 * @return the previous attempt, or {@code null} for the first one
+		 */
+		@Nullable
+		synchronized Attempt start(long now) {
+			this.count++;
+			if (this.count == 1) {
+				this.firstStartNanos = now;
+			}
+			this.lastStartNanos = now;
+			return this.previous;
+		}
+
+		synchronized void stop(long now, @Nullable String errorType) {
+			this.previous = new Attempt(this.count, now, errorType);
+		}
+
+		synchronized long overheadNanos() {
+			return (this.count > 1) ? this.lastStartNanos - this.firstStartNanos : 0;
+		}
+
+	}
+
+	/**
+	 * The meters of a single model.
+	 */
+	private static final class Meters {
+
+		private final MeterRegistry meterRegistry;
+
+		private final ModelKey key;
+
+		private final Map<String, Counter> retries = new ConcurrentHashMap<>();
+
+		private final Timer backoff;
+
+		private final Timer overhead;
+
+		private Meters(MeterRegistry meterRegistry, ModelKey key) {
+			this.meterRegistry = meterRegistry;
+			this.key = key;
+			this.backoff = Timer.builder(BACKOFF_METER_NAME)
+				.description("Backoff slept before retrying a chat model call")
+				.tags(key.tags())
+				.register(meterRegistry);
+			this.overhead = Timer.builder(OVERHEAD_METER_NAME)
+				.description("Time spent in failed attempts and backoffs by the retried chat model calls")
+				.tags(key.tags())
+				.register(meterRegistry);
+		}
+
+		Counter retries(String errorType) {
+			return this.retries.computeIfAbsent(errorType,
+					type -> Counter.builder(RETRIES_METER_NAME)
+						.description("Number of retried chat model call attempts")
+						.tags(this.key.tags())
+						.tag("error.type", type)
+						.register(this.meterRegistry));
+		}
+
+		Timer backoff() {
+			return this.backoff;
+		}
+
+		Timer overhead() {
+			return this.overhead;
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+
+/**
+ * {@link ChatRetryObservationHandler.RetryEvents} adding the retries as
+ * {@code gen_ai.client.retry} events with typed attributes to the OpenTelemetry span of
+ * the chat model call. Calls without an OpenTelemetry span fall back to
+ * {@link ChatRetryObservationHandler.RetryEvents#OBSERVATION observation events}.
+ * <p>
+ * Requires the optional OpenTelemetry tracing bridge on the classpath.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatRetrySpanEvents implements ChatRetryObservationHandler.RetryEvents {
+
+	static final AttributeKey<Long> ATTEMPT = AttributeKey.longKey("gen_ai.retry.attempt");
+
+	static final AttributeKey<String> ERROR_TYPE = AttributeKey.stringKey("error.type");
+
+	static final AttributeKey<Long> BACKOFF = AttributeKey.longKey("gen_ai.retry.backoff_ms");
+
+	@Override
+	public void retry(Observation chatModelObservation, int attempt, String errorType, Duration backoff) {
+		Span otelSpan = TracingHelper
+			.extractOtelSpan(chatModelObservation.getContext().get(TracingObservationHandler.TracingContext.class));
+		if (otelSpan == null) {
+			ChatRetryObservationHandler.RetryEvents.OBSERVATION.retry(chatModelObservation, attempt, errorType,
+					backoff);
+			return;
+		}
+		otelSpan.addEvent(ChatRetryObservationHandler.RETRY_EVENT_NAME,
+				Attributes.builder()
+					.put(ATTEMPT, attempt)
+					.put(ERROR_TYPE, errorType)
+					.put(BACKOFF, backoff.toMillis())
+					.build());
+	}
+
+}
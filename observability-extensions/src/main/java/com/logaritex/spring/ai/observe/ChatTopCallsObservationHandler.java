@@ -0,0 +1,323 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Handler tracking the slowest chat model calls, and those with the largest prompts and
+ * completions, over a sliding window. Every call is ranked by its latency, its prompt
+ * tokens and its completion tokens, and the top calls of every ranking are available from
+ * {@link #topCalls()} with their model, trace id and a short preview of their last user
+ * message.
+ * <p>
+ * Every ranking keeps a bounded min-heap per half of the window, and publishes the
+ * smallest value it holds once full. A call that does not beat the thresholds costs three
+ * volatile reads; only the qualifying calls are recorded, under the lock of the heaps
+ * they enter. The prompt preview follows the {@link ContentCaptureControl content
+ * capture} settings and sampling of the call.
+ *
+ * @author Christian Tzolov
+ */
+public class ChatTopCallsObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+
+	public static final int DEFAULT_SIZE = 20;
+
+	public static final int DEFAULT_PREVIEW_LENGTH = 100;
+
+	private final ContentCaptureControl control;
+
+	private final Clock clock;
+
+	private final Duration window;
+
+	private final long halfWindowNanos;
+
+	private final int size;
+
+	private final int previewLength;
+
+	private volatile Slot current;
+
+	private volatile Slot previous;
+
+	private volatile long currentStart;
+
+	public ChatTopCallsObservationHandler(ContentCaptureControl control) {
+		this(control, Clock.SYSTEM, DEFAULT_WINDOW, DEFAULT_SIZE, DEFAULT_PREVIEW_LENGTH);
+	}
+
+	public ChatTopCallsObservationHandler(ContentCaptureControl control, Clock clock, Duration window, int size,
+			int previewLength) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(clock, "clock cannot be null");
+		Assert.notNull(window, "window cannot be null");
+		Assert.isTrue(window.toNanos() >= 2, "window must be positive");
+		Assert.isTrue(size > 0, "size must be greater than zero");
+		Assert.isTrue(previewLength >= 0, "previewLength must not be negative");
+		this.control = control;
+		this.clock = clock;
+		this.window = window;
+		this.halfWindowNanos = window.toNanos() / 2;
+		this.size = size;
+		this.previewLength = previewLength;
+		this.current = new Slot(size);
+		this.previous = new Slot(size);
+		this.currentStart = clock.monotonicTime();
+	}
+
+	@Override
+	public void onStart(ChatModelObservationContext context) {
+		context.put(CallStart.class, new CallStart(this.clock.monotonicTime()));
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		CallStart start = context.get(CallStart.class);
+		if (start == null) {
+			return;
+		}
+		slide();
+		long latencyNanos = this.clock.monotonicTime() - start.nanos();
+		long promptTokens = TokenUsage.prompt(context.getResponse());
+		long completionTokens = TokenUsage.completion(context.getResponse());
+
+		Slot slot = this.current;
+		boolean slowest = slot.slowest.qualifies(latencyNanos);
+		boolean largestPrompts = slot.largestPrompts.qualifies(promptTokens);
+		boolean largestCompletions = slot.largestCompletions.qualifies(completionTokens);
+		if (!slowest && !largestPrompts && !largestCompletions) {
+			return;
+		}
+		TopCall call = topCall(context, latencyNanos, promptTokens, completionTokens);
+		if (slowest) {
+			slot.slowest.offer(latencyNanos, call);
+		}
+		if (largestPrompts) {
+			slot.largestPrompts.offer(promptTokens, call);
+		}
+		if (largestCompletions) {
+			slot.largestCompletions.offer(completionTokens, call);
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	/**
+	 * Return the top calls of the current window, largest first.
+	 * @return the top calls
+	 */
+	public TopCalls topCalls() {
+		slide();
+		Slot current = this.current;
+		Slot previous = this.previous;
+		return new TopCalls(this.window, merge(current.slowest, previous.slowest),
+				merge(current.largestPrompts, previous.largestPrompts),
+				merge(current.largestCompletions, previous.largestCompletions));
+	}
+
+	private List<TopCall> merge(TopHeap current, TopHeap previous) {
+		List<RankedCall> calls = new ArrayList<>(2 * this.size);
+		current.copyTo(calls);
+		previous.copyTo(calls);
+		calls.sort(Comparator.comparingLong(RankedCall::value).reversed());
+		return calls.stream().limit(this.size).map(RankedCall::call).toList();
+	}
+
+	private TopCall topCall(ChatModelObservationContext context, long latencyNanos, long promptTokens,
+			long completionTokens) {
+		TraceContext traceContext = TracingHelper
+			.traceContext(context.get(TracingObservationHandler.TracingContext.class));
+		return new TopCall(ModelKey.from(context), Duration.ofNanos(latencyNanos), promptTokens, completionTokens,
+				(traceContext != null) ? traceContext.traceId() : null,
+				(traceContext != null) ? traceContext.spanId() : null, preview(context), this.clock.wallTime());
+	}
+
+	@Nullable
+	private String preview(ChatModelObservationContext context) {
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (this.previewLength == 0 || !settings.prompt() || !this.control.isSampled(context, settings)
+				|| context.getRequest() == null) {
+			return null;
+		}
+		List<Message> messages = context.getRequest().getInstructions();
+		for (int i = messages.size() - 1; i >= 0; i--) {
+			if (messages.get(i) instanceof UserMessage userMessage && userMessage.getText() != null) {
+				return TracingHelper.truncate(userMessage.getText(),
+						Math.min(this.previewLength, settings.maxPromptLength()));
+			}
+		}
+		return null;
+	}
+
+	private void slide() {
+		long now = this.clock.monotonicTime();
+		if (now - this.currentStart < this.halfWindowNanos) {
+			return;
+		}
+		synchronized (this) {
+			long elapsed = now - this.currentStart;
+			if (elapsed < this.halfWindowNanos) {
+				return;
+			}
+			Slot recycled = this.previous;
+			recycled.clear();
+			if (elapsed >= 2 * this.halfWindowNanos) {
+				// Idle for a whole window, nothing left to report
+				this.current.clear();
+			}
+			this.previous = this.current;
+			this.current = recycled;
+			this.currentStart = now;
+		}
+	}
+
+	/**
+	 * The top calls over a window.
+	 *
+	 * @param window the window duration
+	 * @param slowest the slowest calls, slowest first
+	 * @param largestPrompts the calls with the most prompt tokens, largest first
+	 * @param largestCompletions the calls with the most completion tokens, largest first
+	 */
+	public record TopCalls(Duration window, List<TopCall> slowest, List<TopCall> largestPrompts,
+			List<TopCall> largestCompletions) {
+	}
+
+	/**
+	 * A chat model call ranked in the top calls.
+	 *
+	 * @param model the model serving the call
+	 * @param latency the call latency
+	 * @param promptTokens the prompt tokens reported by the model
+	 * @param completionTokens the completion tokens reported by the model
+	 * @param traceId the trace id of the call, if traced
+	 * @param spanId the span id of the call, if traced
+	 * @param promptPreview the beginning of the last user message, if captured
+	 * @param timestamp the wall time the call completed, in milliseconds since the epoch
+	 */
+	public record TopCall(@Nullable ModelKey model, Duration latency, long promptTokens, long completionTokens,
+			@Nullable String traceId, @Nullable String spanId, @Nullable String promptPreview, long timestamp) {
+	}
+
+	/**
+	 * The monotonic start time of a call.
+	 */
+	private record CallStart(long nanos) {
+	}
+
+	/**
+	 * A call with the value it is ranked by.
+	 */
+	private record RankedCall(long value, TopCall call) {
+	}
+
+	/**
+	 * The rankings of one half of the window.
+	 */
+	private static final class Slot {
+
+		private final TopHeap slowest;
+
+		private final TopHeap largestPrompts;
+
+		private final TopHeap largestCompletions;
+
+		private Slot(int size) {
+			this.slowest = new TopHeap(size);
+			this.largestPrompts = new TopHeap(size);
+			this.largestCompletions = new TopHeap(size);
+		}
+
+		void clear() {
+			this.slowest.clear();
+			this.largestPrompts.clear();
+			this.largestCompletions.clear();
+		}
+
+	}
+
+	/**
+	 * Bounded min-heap of the largest values, with a volatile threshold read without
+	 * locking on the hot path.
+	 */
+	private static final class TopHeap {
+
+		private final int size;
+
+		private final PriorityQueue<RankedCall> heap;
+
+		/**
+		 * The smallest value in the heap once full, below which no call qualifies.
+		 */
+		private volatile long threshold = 0;
+
+		private TopHeap(int size) {
+			this.size = size;
+			this.heap = new PriorityQueue<>(size + 1, Comparator.comparingLong(RankedCall::value));
+		}
+
+		boolean qualifies(long value) {
+			return value > this.threshold;
+		}
+
+		synchronized void offer(long value, TopCall call) {
+			if (value <= this.threshold) {
+				return;
+			}
+			this.heap.add(new RankedCall(value, call));
+			if (this.heap.size() > this.size) {
+				this.heap.poll();
+			}
+			if (this.heap.size() == this.size) {
+				this.threshold = this.heap.peek().value();
+			}
+		}
+
+		synchronized void copyTo(List<RankedCall> calls) {
+			calls.addAll(this.heap);
+		}
+
+		synchronized void clear() {
+			this.heap.clear();
+			this.threshold = 0;
+		}
+
+	}
+
+}
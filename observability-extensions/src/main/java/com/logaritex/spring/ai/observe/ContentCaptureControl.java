@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Holds the current {@link ContentCaptureSettings} and lets them be replaced at runtime.
+ * The content capture filters and handlers read the settings once per call, through a
+ * single volatile read, and return immediately when the capture is off.
+ * <p>
+ * Optional {@link ContentCaptureRules rules} override the settings for the calls they
+ * match. The settings of every rule are derived once per settings update, and the
+ * matching rule is resolved once per observation.
+ * <p>
+ * An optional {@link ContentCaptureGovernor governor} sheds the content of the sampled
+ * calls under pressure. A shed call carries the
+ * {@value ContentCaptureGovernor#SHED_REASON_KEY} key, so the traces missing their
+ * content say why.
+ *
+ * @author Christian Tzolov
+ */
+public class ContentCaptureControl {
+
+	private final ContentCaptureRules rules;
+
+	@Nullable
+	private final ContentCaptureGovernor governor;
+
+	private volatile Snapshot snapshot;
+
+	public ContentCaptureControl() {
+		this(ContentCaptureSettings.ENABLED);
+	}
+
+	public ContentCaptureControl(ContentCaptureSettings settings) {
+		this(settings, ContentCaptureRules.NONE);
+	}
+
+	public ContentCaptureControl(ContentCaptureSettings settings, ContentCaptureRules rules) {
+		this(settings, rules, null);
+	}
+
+	public ContentCaptureControl(ContentCaptureSettings settings, ContentCaptureRules rules,
+			@Nullable ContentCaptureGovernor governor) {
+		Assert.notNull(settings, "settings cannot be null");
+		Assert.notNull(rules, "rules cannot be null");
+		this.rules = rules;
+		this.governor = governor;
+		this.snapshot = new Snapshot(settings, rules);
+	}
+
+	/**
+	 * Return the current settings.
+	 * @return the current settings snapshot
+	 */
+	public ContentCaptureSettings settings() {
+		return this.snapshot.settings();
+	}
+
+	/**
+	 * Return the current settings for the given call, with the first matching rule
+	 * applied.
+	 * @param context the observation context
+	 * @return the settings for the call
+	 */
+	public ContentCaptureSettings settings(Observation.Context context) {
+		Snapshot snapshot = this.snapshot;
+		if (snapshot.ruleSettings().length == 0) {
+			return snapshot.settings();
+		}
+		int match = context.computeIfAbsent(ContentCaptureRules.class, key -> this.rules.match(context));
+		return (match != ContentCaptureRules.NO_MATCH) ? snapshot.ruleSettings()[match] : snapshot.settings();
+	}
+
+	/**
+	 * Return the rules overriding the settings.
+	 * @return the rules
+	 */
+	public ContentCaptureRules rules() {
+		return this.rules;
+	}
+
+	/**
+	 * Return the governor shedding the content under pressure.
+	 * @return the governor, or {@code null} if none
+	 */
+	@Nullable
+	public ContentCaptureGovernor governor() {
+		return this.governor;
+	}
+
+	/**
+	 * Replace the current settings.
+	 * @param settings the new settings snapshot
+	 */
+	public void update(ContentCaptureSettings settings) {
+		Assert.notNull(settings, "settings cannot be null");
+		this.snapshot = new Snapshot(settings, this.rules);
+	}
+
+	/**
+	 * Decide whether the content of the observed call is sampled. The decision is taken
+	 * once per observation and shared by all the filters and handlers of that
+	 * observation, so the prompt and the completion of a call are captured together.
+	 * Calls picked by the sample rate may still be shed by the governor.
+	 * @param context the observation context
+	 * @param settings the settings read for the current call
+	 * @return whether to capture the content of the call
+	 */
+	public boolean isSampled(Observation.Context context, ContentCaptureSettings settings) {
+		if (settings.sampleRate() <= 0.0) {
+			return false;
+		}
+		if (settings.sampleRate() >= 1.0 && this.governor == null) {
+			return true;
+		}
+		SamplingDecision decision = context.computeIfAbsent(SamplingDecision.class, key -> decide(context, settings));
+		return decision == SamplingDecision.SAMPLED;
+	}
+
+	private SamplingDecision decide(Observation.Context context, ContentCaptureSettings settings) {
+		if (settings.sampleRate() < 1.0 && ThreadLocalRandom.current().nextDouble() >= settings.sampleRate()) {
+			return SamplingDecision.NOT_SAMPLED;
+		}
+		ContentCaptureGovernor.Reason reason = (this.governor != null) ? this.governor.shed() : null;
+		if (reason != null) {
+			context.addHighCardinalityKeyValue(KeyValue.of(ContentCaptureGovernor.SHED_REASON_KEY, reason.value()));
+			return SamplingDecision.SHED;
+		}
+		return SamplingDecision.SAMPLED;
+	}
+
+	/**
+	 * Charge the captured content to the byte rate budget of the governor.
+	 * @param value the captured value
+	 */
+	public void recordCaptured(@Nullable CharSequence value) {
+		if (this.governor != null && value != null) {
+			this.governor.consume(value.length());
+		}
+	}
+
+	/**
+	 * Charge the captured content to the byte rate budget of the governor.
+	 * @param values the captured values
+	 */
+	public void recordCaptured(List<String> values) {
+		if (this.governor != null) {
+			long length = 0;
+			for (String value : values) {
+				length += (value != null) ? value.length() : 0;
+			}
+			this.governor.consume(length);
+		}
+	}
+
+	private enum SamplingDecision {
+
+		SAMPLED, NOT_SAMPLED, SHED
+
+	}
+
+	/**
+	 * The global settings, and the settings of every rule derived from them.
+	 */
+	private record Snapshot(ContentCaptureSettings settings, ContentCaptureSettings[] ruleSettings) {
+
+		Snapshot(ContentCaptureSettings settings, ContentCaptureRules rules) {
+			this(settings,
+					rules.rules().stream().map(rule -> rule.apply(settings)).toArray(ContentCaptureSettings[]::new));
+		}
+
+	}
+
+}
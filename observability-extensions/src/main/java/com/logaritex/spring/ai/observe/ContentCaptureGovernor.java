@@ -0,0 +1,517 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Sheds the content capture gradually when the application is under pressure. The
+ * governor turns three pressure signals into a capture probability:
+ * <ul>
+ * <li>{@link Reason#BYTES bytes}: a token bucket refilled at the configured rate and
+ * drained by the content actually captured.</li>
+ * <li>{@link Reason#HEAP heap}: the occupancy of the tenured heap pool after the last
+ * collection, polled at most once a second.</li>
+ * <li>{@link Reason#EXPORTER exporter}: the fill ratio of the span exporter queue, when
+ * an {@link ExporterQueue} is provided.</li>
+ * </ul>
+ * Every signal maps to a probability of 1 below its low watermark, of 0 above its high
+ * watermark and linearly in between; the capture probability is the lowest of them, and
+ * the signal holding it is the reason reported when a call is shed. The
+ * {@link ContentCaptureControl} consults the governor once per observation.
+ * <p>
+ * When a meter registry is given, the governor registers the
+ * {@code spring.ai.observation.capture.probability} gauge, a
+ * {@code spring.ai.observation.capture.pressure} gauge per signal and the
+ * {@code spring.ai.observation.capture.shed} counter tagged with the reason.
+ *
+ * @author Christian Tzolov
+ */
+public final class ContentCaptureGovernor {
+
+	public static final String PROBABILITY_METER_NAME = "spring.ai.observation.capture.probability";
+
+	public static final String PRESSURE_METER_NAME = "spring.ai.observation.capture.pressure";
+
+	public static final String SHED_METER_NAME = "spring.ai.observation.capture.shed";
+
+	/**
+	 * Observation key naming the reason why the content of a call was shed.
+	 */
+	public static final String SHED_REASON_KEY = "spring.ai.capture.shed.reason";
+
+	public static final double DEFAULT_HEAP_LOW_WATERMARK = 0.75;
+
+	public static final double DEFAULT_HEAP_HIGH_WATERMARK = 0.9;
+
+	public static final double DEFAULT_EXPORTER_LOW_WATERMARK = 0.5;
+
+	public static final double DEFAULT_EXPORTER_HIGH_WATERMARK = 0.9;
+
+	/**
+	 * The bucket starts shedding once more than half of it is drained.
+	 */
+	static final double BYTES_LOW_WATERMARK = 0.5;
+
+	private static final long HEAP_REFRESH_NANOS = 1_000_000_000L;
+
+	private static final long REFILL_MIN_NANOS = 1_000_000L;
+
+	private static final Logger logger = LoggerFactory.getLogger(ContentCaptureGovernor.class);
+
+	private final Clock clock;
+
+	@Nullable
+	private final TokenBucket bytes;
+
+	@Nullable
+	private final HeapPressure heap;
+
+	@Nullable
+	private final ExporterQueue exporterQueue;
+
+	private final double exporterLowWatermark;
+
+	private final double exporterHighWatermark;
+
+	private final Map<Reason, Counter> shed;
+
+	private ContentCaptureGovernor(Builder builder) {
+		this.clock = builder.clock;
+		this.bytes = (builder.bytesPerSecond > 0)
+				? new TokenBucket(builder.bytesPerSecond,
+						(long) Math.max(1, builder.bytesPerSecond * builder.burstSeconds), this.clock.monotonicTime())
+				: null;
+		this.heap = builder.heap ? HeapPressure.create(builder.heapLowWatermark, builder.heapHighWatermark,
+				builder.heapOccupancy, this.clock) : null;
+		this.exporterQueue = builder.exporterQueue;
+		this.exporterLowWatermark = builder.exporterLowWatermark;
+		this.exporterHighWatermark = builder.exporterHighWatermark;
+		this.shed = new EnumMap<>(Reason.class);
+		if (builder.meterRegistry != null) {
+			register(builder.meterRegistry);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private void register(MeterRegistry meterRegistry) {
+		Gauge.builder(PROBABILITY_METER_NAME, this, ContentCaptureGovernor::probability)
+			.description("Probability of capturing the AI content given the current pressure")
+			.register(meterRegistry);
+		for (Reason reason : Reason.values()) {
+			if (isActive(reason)) {
+				Gauge.builder(PRESSURE_METER_NAME, this, governor -> governor.pressure(reason))
+					.description("Pressure of a content capture shedding signal, from 0 to 1")
+					.tag("source", reason.value())
+					.register(meterRegistry);
+				this.shed.put(reason,
+						Counter.builder(SHED_METER_NAME)
+							.description("Calls whose AI content was not captured because of the pressure")
+							.tag("reason", reason.value())
+							.register(meterRegistry));
+			}
+		}
+	}
+
+	/**
+	 * Decide whether the content of a call is shed.
+	 * @return the reason to shed the content, or {@code null} to capture it
+	 */
+	@Nullable
+	public Reason shed() {
+		double probability = 1.0;
+		Reason limiting = null;
+		for (Reason reason : Reason.values()) {
+			if (isActive(reason)) {
+				double signal = probability(reason);
+				if (signal < probability) {
+					probability = signal;
+					limiting = reason;
+				}
+			}
+		}
+		if (limiting == null || ThreadLocalRandom.current().nextDouble() < probability) {
+			return null;
+		}
+		Counter counter = this.shed.get(limiting);
+		if (counter != null) {
+			counter.increment();
+		}
+		return limiting;
+	}
+
+	/**
+	 * Charge the content captured for a call to the byte rate budget.
+	 * @param length the captured length, in characters
+	 */
+	public void consume(long length) {
+		if (this.bytes != null && length > 0) {
+			this.bytes.consume(length);
+		}
+	}
+
+	/**
+	 * Return the current capture probability, the lowest of the signal probabilities.
+	 * @return the capture probability, from 0 to 1
+	 */
+	public double probability() {
+		double probability = 1.0;
+		for (Reason reason : Reason.values()) {
+			if (isActive(reason)) {
+				probability = Math.min(probability, probability(reason));
+			}
+		}
+		return probability;
+	}
+
+	/**
+	 * Return the current pressure of a signal.
+	 * @param reason the signal
+	 * @return the pressure, from 0 to 1, or 0 if the signal is not active
+	 */
+	public double pressure(Reason reason) {
+		return switch (reason) {
+			case BYTES -> (this.bytes != null) ? this.bytes.drained(this.clock.monotonicTime()) : 0.0;
+			case HEAP -> (this.heap != null) ? this.heap.occupancy() : 0.0;
+			case EXPORTER -> (this.exporterQueue != null) ? exporterQueueRatio(this.exporterQueue) : 0.0;
+		};
+	}
+
+	private double probability(Reason reason) {
+		double pressure = pressure(reason);
+		return switch (reason) {
+			case BYTES -> ramp(pressure, BYTES_LOW_WATERMARK, 1.0);
+			case HEAP -> ramp(pressure, this.heap.lowWatermark, this.heap.highWatermark);
+			case EXPORTER -> ramp(pressure, this.exporterLowWatermark, this.exporterHighWatermark);
+		};
+	}
+
+	private boolean isActive(Reason reason) {
+		return switch (reason) {
+			case BYTES -> this.bytes != null;
+			case HEAP -> this.heap != null;
+			case EXPORTER -> this.exporterQueue != null;
+		};
+	}
+
+	static double ramp(double pressure, double low, double high) {
+		if (pressure <= low) {
+			return 1.0;
+		}
+		if (pressure >= high) {
+			return 0.0;
+		}
+		return (high - pressure) / (high - low);
+	}
+
+	private static double exporterQueueRatio(ExporterQueue queue) {
+		int capacity = queue.capacity();
+		return (capacity > 0) ? Math.min(1.0, Math.max(0, queue.size()) / (double) capacity) : 0.0;
+	}
+
+	/**
+	 * The signal that caused the content of a call to be shed.
+	 */
+	public enum Reason {
+
+		/**
+		 * The captured content exceeds the byte rate budget.
+		 */
+		BYTES,
+
+		/**
+		 * The tenured heap is filling up.
+		 */
+		HEAP,
+
+		/**
+		 * The span exporter is falling behind.
+		 */
+		EXPORTER;
+
+		public String value() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+
+	}
+
+	/**
+	 * The queue of the span exporter, e.g. the queue of a batch span processor.
+	 */
+	public interface ExporterQueue {
+
+		/**
+		 * Return the number of spans waiting to be exported.
+		 * @return the queue size
+		 */
+		int size();
+
+		/**
+		 * Return the maximum number of spans the queue holds.
+		 * @return the queue capacity
+		 */
+		int capacity();
+
+	}
+
+	/**
+	 * Lock-free token bucket, refilled lazily by the callers. Consumption may drive the
+	 * bucket below zero; the debt is paid back by the following refills.
+	 */
+	private static final class TokenBucket {
+
+		private final long capacity;
+
+		private final double tokensPerNano;
+
+		private final AtomicLong tokens;
+
+		private final AtomicLong lastRefill;
+
+		private TokenBucket(long bytesPerSecond, long capacity, long now) {
+			this.capacity = capacity;
+			this.tokensPerNano = bytesPerSecond / 1e9;
+			this.tokens = new AtomicLong(capacity);
+			this.lastRefill = new AtomicLong(now);
+		}
+
+		void consume(long length) {
+			this.tokens.addAndGet(-length);
+		}
+
+		double drained(long now) {
+			refill(now);
+			long available = Math.max(0, this.tokens.get());
+			return 1.0 - Math.min(1.0, available / (double) this.capacity);
+		}
+
+		private void refill(long now) {
+			long last = this.lastRefill.get();
+			long elapsed = now - last;
+			if (elapsed < REFILL_MIN_NANOS || !this.lastRefill.compareAndSet(last, now)) {
+				return;
+			}
+			long refill = (long) (elapsed * this.tokensPerNano);
+			this.tokens.accumulateAndGet(refill, (current, added) -> Math.min(this.capacity, current + added));
+		}
+
+	}
+
+	/**
+	 * Occupancy of the tenured heap pool after the last collection, polled at most once a
+	 * second. The collection usage of the pool is only read: its usage threshold is a
+	 * JVM-wide setting other components may own, so it is never changed.
+	 */
+	private static final class HeapPressure {
+
+		private final double lowWatermark;
+
+		private final double highWatermark;
+
+		private final DoubleSupplier occupancy;
+
+		private final Clock clock;
+
+		private volatile double value;
+
+		private volatile long refreshed;
+
+		private HeapPressure(double lowWatermark, double highWatermark, DoubleSupplier occupancy, Clock clock) {
+			this.lowWatermark = lowWatermark;
+			this.highWatermark = highWatermark;
+			this.occupancy = occupancy;
+			this.clock = clock;
+			this.value = occupancy.getAsDouble();
+			this.refreshed = clock.monotonicTime();
+		}
+
+		@Nullable
+		static HeapPressure create(double lowWatermark, double highWatermark, @Nullable DoubleSupplier occupancy,
+				Clock clock) {
+			if (occupancy != null) {
+				return new HeapPressure(lowWatermark, highWatermark, occupancy, clock);
+			}
+			MemoryPoolMXBean pool = tenuredPool();
+			if (pool == null) {
+				logger.warn("No heap memory pool reports its usage after collection, heap shedding disabled");
+				return null;
+			}
+			return new HeapPressure(lowWatermark, highWatermark, () -> occupancy(pool.getCollectionUsage()), clock);
+		}
+
+		@Nullable
+		private static MemoryPoolMXBean tenuredPool() {
+			MemoryPoolMXBean tenured = null;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null
+						&& pool.getUsage().getMax() > 0
+						&& (tenured == null || pool.getUsage().getMax() > tenured.getUsage().getMax())) {
+					tenured = pool;
+				}
+			}
+			return tenured;
+		}
+
+		private static double occupancy(@Nullable MemoryUsage usage) {
+			return (usage != null && usage.getMax() > 0) ? usage.getUsed() / (double) usage.getMax() : 0.0;
+		}
+
+		double occupancy() {
+			long now = this.clock.monotonicTime();
+			if (now - this.refreshed >= HEAP_REFRESH_NANOS) {
+				this.refreshed = now;
+				this.value = this.occupancy.getAsDouble();
+			}
+			return this.value;
+		}
+
+	}
+
+	public static final class Builder {
+
+		private long bytesPerSecond;
+
+		private double burstSeconds = 1.0;
+
+		private boolean heap = true;
+
+		private double heapLowWatermark = DEFAULT_HEAP_LOW_WATERMARK;
+
+		private double heapHighWatermark = DEFAULT_HEAP_HIGH_WATERMARK;
+
+		@Nullable
+		private DoubleSupplier heapOccupancy;
+
+		@Nullable
+		private ExporterQueue exporterQueue;
+
+		private double exporterLowWatermark = DEFAULT_EXPORTER_LOW_WATERMARK;
+
+		private double exporterHighWatermark = DEFAULT_EXPORTER_HIGH_WATERMARK;
+
+		@Nullable
+		private MeterRegistry meterRegistry;
+
+		private Clock clock = Clock.SYSTEM;
+
+		private Builder() {
+		}
+
+		/**
+		 * Limit the rate of the captured content. Disabled by default.
+		 * @param bytesPerSecond the sustained rate, in characters per second, 0 to
+		 * disable the byte rate signal
+		 * @param burstSeconds the bucket capacity, in seconds of the sustained rate
+		 * @return this builder
+		 */
+		public Builder bytesPerSecond(long bytesPerSecond, double burstSeconds) {
+			Assert.isTrue(bytesPerSecond >= 0, "bytesPerSecond must not be negative");
+			Assert.isTrue(burstSeconds > 0, "burstSeconds must be positive");
+			this.bytesPerSecond = bytesPerSecond;
+			this.burstSeconds = burstSeconds;
+			return this;
+		}
+
+		/**
+		 * Shed on the tenured heap occupancy. Enabled by default.
+		 * @param enabled whether to use the heap signal
+		 * @return this builder
+		 */
+		public Builder heap(boolean enabled) {
+			this.heap = enabled;
+			return this;
+		}
+
+		public Builder heapWatermarks(double low, double high) {
+			assertWatermarks(low, high);
+			this.heapLowWatermark = low;
+			this.heapHighWatermark = high;
+			return this;
+		}
+
+		/**
+		 * Read the heap occupancy from the given supplier instead of the memory pools.
+		 * @param heapOccupancy the heap occupancy, from 0 to 1
+		 * @return this builder
+		 */
+		Builder heapOccupancy(DoubleSupplier heapOccupancy) {
+			this.heapOccupancy = heapOccupancy;
+			return this;
+		}
+
+		/**
+		 * Shed on the fill ratio of the span exporter queue.
+		 * @param exporterQueue the exporter queue, {@code null} to disable the signal
+		 * @return this builder
+		 */
+		public Builder exporterQueue(@Nullable ExporterQueue exporterQueue) {
+			this.exporterQueue = exporterQueue;
+			return this;
+		}
+
+		public Builder exporterWatermarks(double low, double high) {
+			assertWatermarks(low, high);
+			this.exporterLowWatermark = low;
+			this.exporterHighWatermark = high;
+			return this;
+		}
+
+		/**
+		 * Register the governor meters, and use the registry clock.
+		 * @param meterRegistry the meter registry
+		 * @return this builder
+		 */
+		public Builder meterRegistry(MeterRegistry meterRegistry) {
+			Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+			this.meterRegistry = meterRegistry;
+			this.clock = meterRegistry.config().clock();
+			return this;
+		}
+
+		private static void assertWatermarks(double low, double high) {
+			Assert.isTrue(low >= 0 && low < high && high <= 1, "watermarks must satisfy 0 <= low < high <= 1");
+		}
+
+		public ContentCaptureGovernor build() {
+			return new ContentCaptureGovernor(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Self-instrumentation of the content capture filters and handlers: the time they spend,
+ * the size of the content they record, the values they truncate or drop and the failures
+ * to reach the OpenTelemetry span.
+ * <p>
+ * The meters of a filter or handler are registered once, when it obtains its
+ * {@link Recorder}, so the hot path only updates existing meters. Timings and sizes are
+ * recorded for one call in every {@code sampleInterval}, picked at random, while the
+ * counters see every call. {@link #NOOP}, the default, records nothing.
+ *
+ * @author Christian Tzolov
+ */
+public final class ContentCaptureMetrics {
+
+	public static final String DURATION_METER_NAME = "spring.ai.observation.capture.duration";
+
+	public static final String SIZE_METER_NAME = "spring.ai.observation.capture.size";
+
+	public static final String TRUNCATED_METER_NAME = "spring.ai.observation.capture.truncated";
+
+	public static final String DROPPED_METER_NAME = "spring.ai.observation.capture.dropped";
+
+	public static final String BRIDGE_FAILURES_METER_NAME = "spring.ai.observation.capture.bridge.failures";
+
+	public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+	/**
+	 * Metrics recording nothing.
+	 */
+	public static final ContentCaptureMetrics NOOP = new ContentCaptureMetrics();
+
+	@Nullable
+	private final MeterRegistry meterRegistry;
+
+	private final int sampleInterval;
+
+	private ContentCaptureMetrics() {
+		this.meterRegistry = null;
+		this.sampleInterval = 1;
+	}
+
+	public ContentCaptureMetrics(MeterRegistry meterRegistry) {
+		this(meterRegistry, DEFAULT_SAMPLE_INTERVAL);
+	}
+
+	/**
+	 * Create metrics registered in the given registry.
+	 * @param meterRegistry the meter registry
+	 * @param sampleInterval record the timings and sizes of one call in every
+	 * {@code sampleInterval}, 1 to record them for every call
+	 */
+	public ContentCaptureMetrics(MeterRegistry meterRegistry, int sampleInterval) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.isTrue(sampleInterval > 0, "sampleInterval must be greater than zero");
+		this.meterRegistry = meterRegistry;
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Register the meters of a filter or handler.
+	 * @param component the filter or handler class
+	 * @param target where the component records the content
+	 * @return the recorder of the component
+	 */
+	public Recorder recorder(Class<?> component, Target target) {
+		Assert.notNull(component, "component cannot be null");
+		Assert.notNull(target, "target cannot be null");
+		if (this.meterRegistry == null) {
+			return Recorder.NOOP;
+		}
+		return new Recorder(this.meterRegistry, this.sampleInterval,
+				Tags.of("component", component.getSimpleName(), "target", target.value()), target == Target.EVENT);
+	}
+
+	/**
+	 * Where the content is recorded.
+	 */
+	public enum Target {
+
+		/**
+		 * High-cardinality observation attributes, added by the filters.
+		 */
+		ATTRIBUTE,
+
+		/**
+		 * Span events, added by the handlers.
+		 */
+		EVENT;
+
+		String value() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+
+	}
+
+	/**
+	 * The pre-registered meters of a single filter or handler.
+	 */
+	public static final class Recorder {
+
+		static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+		static final Recorder NOOP = new Recorder();
+
+		private final boolean enabled;
+
+		private final int sampleInterval;
+
+		@Nullable
+		private final Clock clock;
+
+		@Nullable
+		private final Timer duration;
+
+		@Nullable
+		private final DistributionSummary size;
+
+		@Nullable
+		private final Counter truncated;
+
+		@Nullable
+		private final Counter droppedBySampling;
+
+		@Nullable
+		private final Counter droppedByLength;
+
+		@Nullable
+		private final Counter bridgeFailures;
+
+		private Recorder() {
+			this.enabled = false;
+			this.sampleInterval = 1;
+			this.clock = null;
+			this.duration = null;
+			this.size = null;
+			this.truncated = null;
+			this.droppedBySampling = null;
+			this.droppedByLength = null;
+			this.bridgeFailures = null;
+		}
+
+		private Recorder(MeterRegistry meterRegistry, int sampleInterval, Tags tags, boolean spanEvents) {
+			this.enabled = true;
+			this.sampleInterval = sampleInterval;
+			this.clock = meterRegistry.config().clock();
+			this.duration = Timer.builder(DURATION_METER_NAME)
+				.description("Time spent capturing the AI content, for a sample of the calls")
+				.tags(tags)
+				.register(meterRegistry);
+			this.size = DistributionSummary.builder(SIZE_METER_NAME)
+				.description("UTF-8 size of the AI content captured per attribute or event, for a sample of the calls")
+				.baseUnit("bytes")
+				.tags(tags)
+				.register(meterRegistry);
+			this.truncated = Counter.builder(TRUNCATED_METER_NAME)
+				.description("AI content values truncated to the maximum length")
+				.tags(tags)
+				.register(meterRegistry);
+			this.droppedBySampling = dropped(meterRegistry, tags, "sampling");
+			this.droppedByLength = dropped(meterRegistry, tags, "length");
+			this.bridgeFailures = spanEvents ? Counter.builder(BRIDGE_FAILURES_METER_NAME)
+				.description("Calls whose OpenTelemetry span could not be extracted from the observation")
+				.tags(tags)
+				.register(meterRegistry) : null;
+		}
+
+		private static Counter dropped(MeterRegistry meterRegistry, Tags tags, String reason) {
+			return Counter.builder(DROPPED_METER_NAME)
+				.description("AI content not captured")
+				.tags(tags)
+				.tag("reason", reason)
+				.register(meterRegistry);
+		}
+
+		/**
+		 * Start timing the capture, if the call is picked for sampling.
+		 * @return the sample to pass to the other methods
+		 */
+		public long start() {
+			if (!this.enabled
+					|| (this.sampleInterval > 1 && ThreadLocalRandom.current().nextInt(this.sampleInterval) != 0)) {
+				return NOT_SAMPLED;
+			}
+			return this.clock.monotonicTime();
+		}
+
+		/**
+		 * Stop timing the capture.
+		 * @param sample the sample returned by {@link #start()}
+		 */
+		public void stop(long sample) {
+			if (sample != NOT_SAMPLED) {
+				this.duration.record(this.clock.monotonicTime() - sample, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		/**
+		 * Record the size of a captured attribute or event.
+		 * @param sample the sample returned by {@link #start()}
+		 * @param value the captured value
+		 */
+		public void recordSize(long sample, @Nullable CharSequence value) {
+			if (sample != NOT_SAMPLED && value != null) {
+				this.size.record(utf8Length(value));
+			}
+		}
+
+		/**
+		 * Record the size of a captured attribute or event made of several values.
+		 * @param sample the sample returned by {@link #start()}
+		 * @param values the captured values
+		 */
+		public void recordSize(long sample, List<String> values) {
+			if (sample != NOT_SAMPLED) {
+				long length = 0;
+				for (String value : values) {
+					length += (value != null) ? utf8Length(value) : 0;
+				}
+				this.size.record(length);
+			}
+		}
+
+		/**
+		 * Record whether the captured value was truncated.
+		 * @param value the original value
+		 * @param captured the value returned by
+		 * {@link TracingHelper#truncate(String, int)}
+		 */
+		public void recordTruncation(@Nullable String value, @Nullable String captured) {
+			if (this.enabled && value != captured) {
+				this.truncated.increment();
+			}
+		}
+
+		/**
+		 * Record the values truncated or dropped to fit the maximum length.
+		 * @param values the original values
+		 * @param captured the values returned by
+		 * {@link TracingHelper#truncate(List, int)}
+		 */
+		public void recordTruncation(List<String> values, List<String> captured) {
+			if (!this.enabled || values == captured) {
+				return;
+			}
+			int last = captured.size() - 1;
+			if (last >= 0 && captured.get(last) != values.get(last)) {
+				this.truncated.increment();
+			}
+			if (values.size() > captured.size()) {
+				this.droppedByLength.increment(values.size() - captured.size());
+			}
+		}
+
+		/**
+		 * Record a call whose content is not captured because it was not sampled.
+		 */
+		public void recordNotSampled() {
+			if (this.enabled) {
+				this.droppedBySampling.increment();
+			}
+		}
+
+		/**
+		 * Record a call whose OpenTelemetry span could not be extracted.
+		 */
+		public void recordBridgeFailure() {
+			if (this.bridgeFailures != null) {
+				this.bridgeFailures.increment();
+			}
+		}
+
+		static long utf8Length(CharSequence value) {
+			long length = 0;
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c < 0x80) {
+					length++;
+				}
+				else if (c < 0x800) {
+					length += 2;
+				}
+				else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+						&& Character.isLowSurrogate(value.charAt(i + 1))) {
+					length += 4;
+					i++;
+				}
+				else {
+					length += 3;
+				}
+			}
+			return length;
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A content capture rule: the calls matching all its conditions are captured with its
+ * settings instead of the global ones. Conditions and settings left {@code null} are
+ * respectively ignored and inherited from the global settings.
+ *
+ * @param provider the AI provider to match, e.g. {@code openai}
+ * @param model the requested model to match
+ * @param operation the AI operation type to match, e.g. {@code chat} or {@code framework}
+ * for chat client calls
+ * @param keys the low-cardinality key values to match
+ * @param context the chat client request context entries to match, for chat client calls
+ * and the chat model calls made within them
+ * @param prompt whether to capture the prompt of the matching calls
+ * @param completion whether to capture the completion of the matching calls
+ * @param sampleRate fraction of the matching calls, between 0 and 1, to capture the
+ * content of
+ * @author Christian Tzolov
+ */
+public record ContentCaptureRule(@Nullable String provider, @Nullable String model, @Nullable String operation,
+		Map<String, String> keys, Map<String, String> context, @Nullable Boolean prompt, @Nullable Boolean completion,
+		@Nullable Double sampleRate) {
+
+	public ContentCaptureRule {
+		Assert.notNull(keys, "keys cannot be null");
+		Assert.notNull(context, "context cannot be null");
+		Assert.isTrue(sampleRate == null || (sampleRate >= 0 && sampleRate <= 1), "sampleRate must be between 0 and 1");
+		keys = Map.copyOf(keys);
+		context = Map.copyOf(context);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Apply the settings of this rule over the given settings.
+	 * @param settings the global settings
+	 * @return the settings of the matching calls
+	 */
+	public ContentCaptureSettings apply(ContentCaptureSettings settings) {
+		ContentCaptureSettings.Builder builder = settings.mutate();
+		if (this.prompt != null) {
+			builder.prompt(this.prompt).chatClientPrompt(this.prompt).imagePrompt(this.prompt);
+		}
+		if (this.completion != null) {
+			builder.completion(this.completion);
+		}
+		if (this.sampleRate != null) {
+			builder.sampleRate(this.sampleRate);
+		}
+		return builder.build();
+	}
+
+	public static final class Builder {
+
+		private String provider;
+
+		private String model;
+
+		private String operation;
+
+		private final Map<String, String> keys = new LinkedHashMap<>();
+
+		private final Map<String, String> context = new LinkedHashMap<>();
+
+		private Boolean prompt;
+
+		private Boolean completion;
+
+		private Double sampleRate;
+
+		private Builder() {
+		}
+
+		public Builder provider(@Nullable String provider) {
+			this.provider = provider;
+			return this;
+		}
+
+		public Builder model(@Nullable String model) {
+			this.model = model;
+			return this;
+		}
+
+		public Builder operation(@Nullable String operation) {
+			this.operation = operation;
+			return this;
+		}
+
+		public Builder key(String key, String value) {
+			this.keys.put(key, value);
+			return this;
+		}
+
+		public Builder keys(Map<String, String> keys) {
+			this.keys.putAll(keys);
+			return this;
+		}
+
+		public Builder context(String key, String value) {
+			this.context.put(key, value);
+			return this;
+		}
+
+		public Builder context(Map<String, String> context) {
+			this.context.putAll(context);
+			return this;
+		}
+
+		public Builder prompt(@Nullable Boolean prompt) {
+			this.prompt = prompt;
+			return this;
+		}
+
+		public Builder completion(@Nullable Boolean completion) {
+			this.completion = completion;
+			return this;
+		}
+
+		public Builder sampleRate(@Nullable Double sampleRate) {
+			this.sampleRate = sampleRate;
+			return this;
+		}
+
+		public ContentCaptureRule build() {
+			return new ContentCaptureRule(this.provider, this.model, this.operation, this.keys, this.context,
+					this.prompt, this.completion, this.sampleRate);
+		}
+
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * An ordered list of {@link ContentCaptureRule content capture rules}, compiled into a
+ * decision cache. The first matching rule applies.
+ * <p>
+ * The rules are compiled once: the union of the keys and context entries they match on is
+ * resolved upfront, so a call only reads these attributes and looks its decision up in a
+ * concurrent map keyed by their values. The rules are only scanned the first time a
+ * combination of values is seen. The number of cached decisions is bounded, further
+ * combinations are scanned every time.
+ *
+ * @author Christian Tzolov
+ */
+public final class ContentCaptureRules {
+
+	/**
+	 * Index returned when no rule matches.
+	 */
+	public static final int NO_MATCH = -1;
+
+	/**
+	 * No rules.
+	 */
+	public static final ContentCaptureRules NONE = new ContentCaptureRules(List.of());
+
+	static final int MAX_DECISIONS = 4096;
+
+	private final List<ContentCaptureRule> rules;
+
+	private final String[] keyNames;
+
+	private final String[] contextNames;
+
+	private final CompiledRule[] compiledRules;
+
+	private final Map<Attributes, Integer> decisions = new ConcurrentHashMap<>();
+
+	public ContentCaptureRules(List<ContentCaptureRule> rules) {
+		Assert.notNull(rules, "rules cannot be null");
+		Assert.noNullElements(rules, "rules cannot contain null elements");
+		this.rules = List.copyOf(rules);
+		Set<String> keyNames = new LinkedHashSet<>();
+		Set<String> contextNames = new LinkedHashSet<>();
+		for (ContentCaptureRule rule : rules) {
+			keyNames.addAll(rule.keys().keySet());
+			contextNames.addAll(rule.context().keySet());
+		}
+		this.keyNames = keyNames.toArray(String[]::new);
+		this.contextNames = contextNames.toArray(String[]::new);
+		this.compiledRules = rules.stream().map(this::compile).toArray(CompiledRule[]::new);
+	}
+
+	/**
+	 * Return the rules, in evaluation order.
+	 * @return the rules
+	 */
+	public List<ContentCaptureRule> rules() {
+		return this.rules;
+	}
+
+	public boolean isEmpty() {
+		return this.rules.isEmpty();
+	}
+
+	/**
+	 * Return the index of the first rule matching the given observation.
+	 * @param context the chat model or chat client observation context
+	 * @return the index of the matching rule, or {@link #NO_MATCH}
+	 */
+	public int match(Observation.Context context) {
+		if (this.compiledRules.length == 0) {
+			return NO_MATCH;
+		}
+		ModelKey modelKey = ModelKey.from(context);
+		if (modelKey == null) {
+			return NO_MATCH;
+		}
+		Attributes attributes = attributes(context, modelKey);
+		Integer decision = this.decisions.get(attributes);
+		if (decision != null) {
+			return decision;
+		}
+		int match = scan(attributes);
+		if (this.decisions.size() < MAX_DECISIONS) {
+			this.decisions.putIfAbsent(attributes, match);
+		}
+		return match;
+	}
+
+	private Attributes attributes(Observation.Context context, ModelKey modelKey) {
+		String[] values = new String[this.keyNames.length + this.contextNames.length];
+		for (int i = 0; i < this.keyNames.length; i++) {
+			KeyValue keyValue = context.getLowCardinalityKeyValue(this.keyNames[i]);
+			values[i] = (keyValue != null) ? keyValue.getValue() : null;
+		}
+		if (this.contextNames.length > 0) {
+			ChatClientObservationContext chatClientContext = (context instanceof ChatClientObservationContext client)
+					? client : TracingHelper.parentChatClientContext(context);
+			Map<String, Object> requestContext = (chatClientContext != null) ? chatClientContext.getRequest().context()
+					: Map.of();
+			for (int i = 0; i < this.contextNames.length; i++) {
+				Object value = requestContext.get(this.contextNames[i]);
+				values[this.keyNames.length + i] = (value != null) ? value.toString() : null;
+			}
+		}
+		return new Attributes(modelKey, Arrays.asList(values));
+	}
+
+	private int scan(Attributes attributes) {
+		for (int i = 0; i < this.compiledRules.length; i++) {
+			if (this.compiledRules[i].matches(attributes)) {
+				return i;
+			}
+		}
+		return NO_MATCH;
+	}
+
+	private CompiledRule compile(ContentCaptureRule rule) {
+		List<Integer> positions = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		List<String> keyNames = Arrays.asList(this.keyNames);
+		List<String> contextNames = Arrays.asList(this.contextNames);
+		rule.keys().forEach((name, value) -> {
+			positions.add(keyNames.indexOf(name));
+			values.add(value);
+		});
+		rule.context().forEach((name, value) -> {
+			positions.add(this.keyNames.length + contextNames.indexOf(name));
+			values.add(value);
+		});
+		return new CompiledRule(rule.provider(), rule.model(), rule.operation(),
+				positions.stream().mapToInt(Integer::intValue).toArray(), values.toArray(String[]::new));
+	}
+
+	/**
+	 * The values of a call the rules match on.
+	 */
+	private record Attributes(ModelKey modelKey, List<String> values) {
+	}
+
+	private record CompiledRule(@Nullable String provider, @Nullable String model, @Nullable String operation,
+			int[] positions, String[] values) {
+
+		boolean matches(Attributes attributes) {
+			ModelKey modelKey = attributes.modelKey();
+			if ((this.provider != null && !this.provider.equals(modelKey.provider()))
+					|| (this.model != null && !this.model.equals(modelKey.model()))
+					|| (this.operation != null && !this.operation.equals(modelKey.operation()))) {
+				return false;
+			}
+			for (int i = 0; i < this.positions.length; i++) {
+				if (!Objects.equals(this.values[i], attributes.values().get(this.positions[i]))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable snapshot of the content capture configuration. A new snapshot is published
+ * through {@link ContentCaptureControl} whenever the configuration changes.
+ *
+ * @param prompt whether to capture the chat model prompt
+ * @param completion whether to capture the chat model completion
+ * @param chatClientPrompt whether to capture the chat client prompt and input
+ * @param imagePrompt whether to capture the image model prompt
+ * @param sampleRate fraction of the calls, between 0 and 1, to capture the content of
+ * @param maxPromptLength maximum number of prompt characters captured per attribute or
+ * event
+ * @param maxCompletionLength maximum number of completion characters captured per
+ * attribute or event
+ * @param messages the per-role capture policy of the prompt messages
+ * @param encoder the compressed encoding of the large prompts and completions
+ * @author Christian Tzolov
+ */
+public record ContentCaptureSettings(boolean prompt, boolean completion, boolean chatClientPrompt, boolean imagePrompt,
+		double sampleRate, int maxPromptLength, int maxCompletionLength, MessageCapturePolicy messages,
+		ContentEncoder encoder) {
+
+	/**
+	 * Value for the maximum lengths meaning no limit.
+	 */
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+
+	/**
+	 * Settings capturing all the content of every call.
+	 */
+	public static final ContentCaptureSettings ENABLED = new ContentCaptureSettings(true, true, true, true, 1.0,
+			UNLIMITED, UNLIMITED, MessageCapturePolicy.ALL, ContentEncoder.NONE);
+
+	/**
+	 * Settings capturing no content.
+	 */
+	public static final ContentCaptureSettings DISABLED = new ContentCaptureSettings(false, false, false, false, 1.0,
+			UNLIMITED, UNLIMITED, MessageCapturePolicy.ALL, ContentEncoder.NONE);
+
+	public ContentCaptureSettings {
+		Assert.isTrue(sampleRate >= 0 && sampleRate <= 1, "sampleRate must be between 0 and 1");
+		Assert.isTrue(maxPromptLength >= 0, "maxPromptLength must not be negative");
+		Assert.isTrue(maxCompletionLength >= 0, "maxCompletionLength must not be negative");
+		Assert.notNull(messages, "messages cannot be null");
+		Assert.notNull(encoder, "encoder cannot be null");
+	}
+
+	public static Builder builder() {
+		return new Builder(ENABLED);
+	}
+
+	public Builder mutate() {
+		return new Builder(this);
+	}
+
+	public static final class Builder {
+
+		private boolean prompt;
+
+		private boolean completion;
+
+		private boolean chatClientPrompt;
+
+		private boolean imagePrompt;
+
+		private double sampleRate;
+
+		private int maxPromptLength;
+
+		private int maxCompletionLength;
+
+		private MessageCapturePolicy messages;
+
+		private ContentEncoder encoder;
+
+		private Builder(ContentCaptureSettings settings) {
+			this.prompt = settings.prompt();
+			this.completion = settings.completion();
+			this.chatClientPrompt = settings.chatClientPrompt();
+			this.imagePrompt = settings.imagePrompt();
+			this.sampleRate = settings.sampleRate();
+			this.maxPromptLength = settings.maxPromptLength();
+			this.maxCompletionLength = settings.maxCompletionLength();
+			this.messages = settings.messages();
+			this.encoder = settings.encoder();
+		}
+
+		public Builder prompt(boolean prompt) {
+			this.prompt = prompt;
+			return this;
+		}
+
+		public Builder completion(boolean completion) {
+			this.completion = completion;
+			return this;
+		}
+
+		public Builder chatClientPrompt(boolean chatClientPrompt) {
+			this.chatClientPrompt = chatClientPrompt;
+			return this;
+		}
+
+		public Builder imagePrompt(boolean imagePrompt) {
+			this.imagePrompt = imagePrompt;
+			return this;
+		}
+
+		public Builder sampleRate(double sampleRate) {
+			this.sampleRate = sampleRate;
+			return this;
+		}
+
+		public Builder maxPromptLength(int maxPromptLength) {
+			this.maxPromptLength = maxPromptLength;
+			return this;
+		}
+
+		public Builder maxCompletionLength(int maxCompletionLength) {
+			this.maxCompletionLength = maxCompletionLength;
+			return this;
+		}
+
+		public Builder messages(MessageCapturePolicy messages) {
+			this.messages = messages;
+			return this;
+		}
+
+		public Builder encoder(ContentEncoder encoder) {
+			this.encoder = encoder;
+			return this;
+		}
+
+		public ContentCaptureSettings build() {
+			return new ContentCaptureSettings(this.prompt, this.completion, this.chatClientPrompt, this.imagePrompt,
+					this.sampleRate, this.maxPromptLength, this.maxCompletionLength, this.messages, this.encoder);
+		}
+
+	}
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Compressed encoding of the large content attributes and events. Content longer than the
+ * threshold is deflated and emitted as base64, next to an attribute suffixed with
+ * {@value #ENCODING_SUFFIX} holding {@value #DEFLATE_BASE64}, e.g.
+ * {@code gen_ai.completion.encoding}. Content that does not shrink is kept as is.
+ * <p>
+ * Deflating allocates native memory, so the {@link Deflater} instances and their output
+ * buffers are pooled; the pool is bounded and extra instances are released after use.
+ * {@link #decode(String)} restores the original content for the readers of the traces.
+ *
+ * @author Christian Tzolov
+ */
+public final class ContentEncoder {
+
+	/**
+	 * Value of the encoding marker attribute.
+	 */
+	public static final String DEFLATE_BASE64 = "deflate+base64";
+
+	/**
+	 * Suffix of the encoding marker attribute, appended to the name of the encoded one.
+	 */
+	public static final String ENCODING_SUFFIX = ".encoding";
+
+	public static final int DEFAULT_THRESHOLD = 8192;
+
+	public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Encoder leaving all the content as is.
+	 */
+	public static final ContentEncoder NONE = new ContentEncoder(ContentCaptureSettings.UNLIMITED, Deflater.BEST_SPEED,
+			1);
+
+	private static final int MIN_BUFFER_SIZE = 1024;
+
+	private final int threshold;
+
+	private final int level;
+
+	private final BlockingQueue<PooledDeflater> pool;
+
+	public ContentEncoder() {
+		this(DEFAULT_THRESHOLD);
+	}
+
+	public ContentEncoder(int threshold) {
+		this(threshold, Deflater.BEST_SPEED, DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 * Create an encoder.
+	 * @param threshold the length, in characters, above which the content is encoded
+	 * @param level the deflate compression level, from 0 to 9
+	 * @param poolSize the maximum number of idle deflaters kept for reuse
+	 */
+	public ContentEncoder(int threshold, int level, int poolSize) {
+		Assert.isTrue(threshold >= 0, "threshold must not be negative");
+		Assert.isTrue(level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+				"level must be between 0 and 9");
+		Assert.isTrue(poolSize > 0, "poolSize must be greater than zero");
+		this.threshold = threshold;
+		this.level = level;
+		this.pool = new ArrayBlockingQueue<>(poolSize);
+	}
+
+	public int threshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * Encode the given content if it exceeds the threshold and shrinks.
+	 * @param content the content
+	 * @return the encoded content, or {@code null} if the content is kept as is
+	 */
+	@Nullable
+	public String encode(@Nullable String content) {
+		if (content == null || content.length() <= this.threshold) {
+			return null;
+		}
+		String encoded = deflate(content);
+		return (encoded.length() < content.length()) ? encoded : null;
+	}
+
+	/**
+	 * Encode every value of the given content if their total length exceeds the
+	 * threshold, so that a single marker describes the whole array.
+	 * @param content the content values
+	 * @return the encoded values, or {@code null} if the content is kept as is
+	 */
+	@Nullable
+	public List<String> encode(List<String> content) {
+		long length = 0;
+		for (String value : content) {
+			length += (value != null) ? value.length() : 0;
+		}
+		if (length <= this.threshold) {
+			return null;
+		}
+		List<String> encoded = new ArrayList<>(content.size());
+		long encodedLength = 0;
+		for (String value : content) {
+			String deflated = deflate((value != null) ? value : "");
+			encodedLength += deflated.length();
+			encoded.add(deflated);
+		}
+		return (encodedLength < length) ? encoded : null;
+	}
+
+	private String deflate(String content) {
+		byte[] input = content.getBytes(StandardCharsets.UTF_8);
+		PooledDeflater pooled = acquire();
+		try {
+			Deflater deflater = pooled.deflater;
+			deflater.setInput(input);
+			deflater.finish();
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == pooled.buffer.length) {
+					pooled.grow();
+				}
+				length += deflater.deflate(pooled.buffer, length, pooled.buffer.length - length);
+			}
+			ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(pooled.buffer, 0, length));
+			return new String(encoded.array(), 0, encoded.limit(), StandardCharsets.ISO_8859_1);
+		}
+		finally {
+			release(pooled);
+		}
+	}
+
+	private PooledDeflater acquire() {
+		PooledDeflater pooled = this.pool.poll();
+		return (pooled != null) ? pooled : new PooledDeflater(this.level);
+	}
+
+	private void release(PooledDeflater pooled) {
+		pooled.deflater.reset();
+		if (!this.pool.offer(pooled)) {
+			pooled.deflater.end();
+		}
+	}
+
+	/**
+	 * Decode content encoded with {@value #DEFLATE_BASE64}.
+	 * @param encoded the encoded content
+	 * @return the original content
+	 * @throws IllegalArgumentException if the content is not validly encoded
+	 */
+	public static String decode(String encoded) {
+		byte[] compressed = Base64.getDecoder().decode(encoded);
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			byte[] buffer = new byte[Math.max(MIN_BUFFER_SIZE, compressed.length * 4)];
+			int length = 0;
+			while (!inflater.finished()) {
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				int inflated = inflater.inflate(buffer, length, buffer.length - length);
+				if (inflated == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalArgumentException("Truncated deflate stream");
+				}
+				length += inflated;
+			}
+			return new String(buffer, 0, length, StandardCharsets.UTF_8);
+		}
+		catch (DataFormatException ex) {
+			throw new IllegalArgumentException("Invalid deflate stream", ex);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Decode every value of content encoded with {@value #DEFLATE_BASE64}.
+	 * @param encoded the encoded values
+	 * @return the original values
+	 */
+	public static List<String> decode(List<String> encoded) {
+		List<String> decoded = new ArrayList<>(encoded.size());
+		for (String value : encoded) {
+			decoded.add(decode(value));
+		}
+		return decoded;
+	}
+
+	/**
+	 * A deflater and its reusable output buffer.
+	 */
+	private static final class PooledDeflater {
+
+		private final Deflater deflater;
+
+		private byte[] buffer = new byte[MIN_BUFFER_SIZE * 8];
+
+		private PooledDeflater(int level) {
+			this.deflater = new Deflater(level);
+		}
+
+		void grow() {
+			this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+		}
+
+	}
+
+}
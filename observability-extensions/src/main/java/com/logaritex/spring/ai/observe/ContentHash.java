@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Fast, non-cryptographic content hashes used to identify prompt content and media in
+ * observations without recording the content itself.
+ *
+ * @author Christian Tzolov
+ */
+public final class ContentHash {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private ContentHash() {
+	}
+
+	/**
+	 * Hash the given bytes with CRC-32C, which is hardware accelerated on most platforms.
+	 * @param bytes the bytes to hash
+	 * @return the hash as an 8 characters hex string
+	 */
+	public static String crc32c(byte[] bytes) {
+		CRC32C crc = new CRC32C();
+		crc.update(bytes, 0, bytes.length);
+		return String.format("%08x", crc.getValue());
+	}
+
+	/**
+	 * Hash the characters of the given text with 64-bit FNV-1a, without encoding or
+	 * copying the text.
+	 * @param text the text to hash
+	 * @return the hash
+	 */
+	public static long fnv1a64(CharSequence text) {
+		return fnv1a64(FNV_OFFSET_BASIS, text, 0, text.length());
+	}
+
+	/**
+	 * Continue a 64-bit FNV-1a hash over a range of characters, without encoding or
+	 * copying the text.
+	 * @param hash the hash so far, or {@link #fnv1a64Seed()} to start a new one
+	 * @param text the text to hash
+	 * @param start the index of the first character to hash
+	 * @param end the index after the last character to hash
+	 * @return the updated hash
+	 */
+	public static long fnv1a64(long hash, CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+			hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Return the initial value of a 64-bit FNV-1a hash.
+	 * @return the hash seed
+	 */
+	public static long fnv1a64Seed() {
+		return FNV_OFFSET_BASIS;
+	}
+
+	/**
+	 * Format a 64-bit hash as a 16 characters hex string.
+	 * @param hash the hash
+	 * @return the hex string
+	 */
+	public static String toHex(long hash) {
+		String hex = Long.toHexString(hash);
+		return (hex.length() == 16) ? hex : "0".repeat(16 - hex.length()) + hex;
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-memory, lock-free count-min sketch estimating how many times a 64-bit hash was
+ * added. Estimates never undercount; they overcount by at most {@code e / width} of the
+ * total count, with a probability of {@code 1 - e^-depth}.
+ *
+ * @author Christian Tzolov
+ */
+public class CountMinSketch {
+
+	private final int depth;
+
+	private final int width;
+
+	private final AtomicLongArray counters;
+
+	public CountMinSketch(int depth, int width) {
+		Assert.isTrue(depth > 0, "depth must be greater than zero");
+		Assert.isTrue(width > 0, "width must be greater than zero");
+		this.depth = depth;
+		this.width = width;
+		this.counters = new AtomicLongArray(depth * width);
+	}
+
+	/**
+	 * Count one occurrence of the given hash.
+	 * @param hash the hash
+	 * @return the estimated count of the hash, including this occurrence
+	 */
+	public long add(long hash) {
+		long mixed = mix(hash);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < this.depth; row++) {
+			estimate = Math.min(estimate, this.counters.incrementAndGet(index(mixed, row)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * Estimate the count of the given hash.
+	 * @param hash the hash
+	 * @return the estimated count
+	 */
+	public long estimate(long hash) {
+		long mixed = mix(hash);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < this.depth; row++) {
+			estimate = Math.min(estimate, this.counters.get(index(mixed, row)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * Reset all the counts to zero.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.counters.length(); i++) {
+			this.counters.set(i, 0);
+		}
+	}
+
+	private int index(long mixed, int row) {
+		// Derive the row hashes from the two halves of the mixed hash
+		int combined = (int) mixed + row * (int) (mixed >>> 32);
+		return row * this.width + Math.floorMod(combined, this.width);
+	}
+
+	private static long mix(long hash) {
+		// MurmurHash3 finalizer, to spread hashes that differ in a few bits only
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
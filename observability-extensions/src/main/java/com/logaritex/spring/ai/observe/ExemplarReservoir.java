@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.micrometer.tracing.TraceContext;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Keeps one exemplar per power-of-two bucket of the recorded values, so that every region
+ * of a histogram, and its outliers in particular, links to a trace. Within a bucket the
+ * exemplar is chosen by reservoir sampling: the n-th value of the bucket replaces the
+ * current exemplar with probability 1/n, which keeps every value equally likely to be
+ * chosen.
+ * <p>
+ * Offering a value costs a leading-zeros count, an atomic increment and, rarely, an
+ * atomic write; {@link #reset()} starts a new sampling period.
+ *
+ * @author Christian Tzolov
+ */
+public final class ExemplarReservoir {
+
+	private static final int BUCKETS = 64;
+
+	private final double scale;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final AtomicReferenceArray<Exemplar> exemplars = new AtomicReferenceArray<>(BUCKETS);
+
+	/**
+	 * Create a reservoir.
+	 * @param scale the number of units of the recorded values per bucket unit, e.g. 1000
+	 * to bucket values in seconds by millisecond
+	 */
+	public ExemplarReservoir(double scale) {
+		this.scale = scale;
+	}
+
+	/**
+	 * Offer a value recorded for the given trace.
+	 * @param value the recorded value
+	 * @param traceContext the trace the value was recorded in, ignored when {@code null}
+	 * @param timestamp the wall clock time of the recording, in milliseconds
+	 */
+	public void offer(double value, @Nullable TraceContext traceContext, long timestamp) {
+		if (traceContext == null) {
+			return;
+		}
+		int bucket = bucket(value);
+		long count = this.counts.incrementAndGet(bucket);
+		if (count == 1 || ThreadLocalRandom.current().nextLong(count) == 0) {
+			this.exemplars.set(bucket,
+					new Exemplar(value, upperBound(bucket), traceContext.traceId(), traceContext.spanId(), timestamp));
+		}
+	}
+
+	/**
+	 * Return the current exemplars, by increasing bucket.
+	 * @return the exemplars
+	 */
+	public List<Exemplar> exemplars() {
+		List<Exemplar> exemplars = new ArrayList<>();
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			Exemplar exemplar = this.exemplars.get(bucket);
+			if (exemplar != null) {
+				exemplars.add(exemplar);
+			}
+		}
+		return exemplars;
+	}
+
+	/**
+	 * Return the exemplar of the highest non-empty bucket.
+	 * @return the exemplar of the largest values, or {@code null} if none
+	 */
+	@Nullable
+	public Exemplar max() {
+		for (int bucket = BUCKETS - 1; bucket >= 0; bucket--) {
+			Exemplar exemplar = this.exemplars.get(bucket);
+			if (exemplar != null) {
+				return exemplar;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Drop all the exemplars and start a new sampling period.
+	 */
+	public void reset() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			this.exemplars.set(bucket, null);
+			this.counts.set(bucket, 0);
+		}
+	}
+
+	private int bucket(double value) {
+		long units = (long) Math.ceil(value * this.scale);
+		return (units <= 1) ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(units - 1));
+	}
+
+	private double upperBound(int bucket) {
+		return (1L << bucket) / this.scale;
+	}
+
+	/**
+	 * A recorded value and the span it was recorded in.
+	 *
+	 * @param value the recorded value
+	 * @param bucketUpperBound the inclusive upper bound of the bucket of the value
+	 * @param traceId the trace id
+	 * @param spanId the span id
+	 * @param timestamp the wall clock time of the recording, in milliseconds
+	 */
+	public record Exemplar(double value, double bucketUpperBound, String traceId, String spanId, long timestamp) {
+	}
+
+}
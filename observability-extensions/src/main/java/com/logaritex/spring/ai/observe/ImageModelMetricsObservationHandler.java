@@ -0,0 +1,192 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.image.Image;
+import org.springframework.ai.image.ImageGeneration;
+import org.springframework.ai.image.ImageOptions;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.image.observation.ImageModelObservationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Handler recording the generation metrics of the image model calls, per provider, model
+ * and requested size:
+ * <ul>
+ * <li>{@code gen_ai.client.image.generation.duration}: the call latency divided by the
+ * number of generated images, recorded once per image.</li>
+ * <li>{@code gen_ai.client.image.generated}: the number of generated images.</li>
+ * <li>{@code gen_ai.client.image.payload.size}: the size of every returned image, tagged
+ * with the {@code format}: the decoded size of the base64 data, or the length of the
+ * URL.</li>
+ * </ul>
+ * The sizes are computed from the lengths of the returned strings, the image data is
+ * never decoded nor copied. The number of tracked models and sizes is bounded,
+ * combinations seen after the limit is reached are reported as {@link ModelKey#OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class ImageModelMetricsObservationHandler implements ObservationHandler<ImageModelObservationContext> {
+
+	public static final String DURATION_METER_NAME = "gen_ai.client.image.generation.duration";
+
+	public static final String GENERATED_METER_NAME = "gen_ai.client.image.generated";
+
+	public static final String PAYLOAD_SIZE_METER_NAME = "gen_ai.client.image.payload.size";
+
+	public static final int DEFAULT_MAX_MODELS = 100;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Clock clock;
+
+	private final int maxModels;
+
+	private final Map<MeterKey, Meters> meters = new ConcurrentHashMap<>();
+
+	public ImageModelMetricsObservationHandler(MeterRegistry meterRegistry) {
+		this(meterRegistry, DEFAULT_MAX_MODELS);
+	}
+
+	public ImageModelMetricsObservationHandler(MeterRegistry meterRegistry, int maxModels) {
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.isTrue(maxModels > 0, "maxModels must be greater than zero");
+		this.meterRegistry = meterRegistry;
+		this.clock = meterRegistry.config().clock();
+		this.maxModels = maxModels;
+	}
+
+	@Override
+	public void onStart(ImageModelObservationContext context) {
+		context.put(GenerationStart.class, new GenerationStart(this.clock.monotonicTime()));
+	}
+
+	@Override
+	public void onStop(ImageModelObservationContext context) {
+		GenerationStart start = context.get(GenerationStart.class);
+		ImageResponse response = context.getResponse();
+		if (start == null || response == null || response.getResults() == null || response.getResults().isEmpty()) {
+			return;
+		}
+		ModelKey key = ModelKey.from(context);
+		if (key == null) {
+			return;
+		}
+		Meters meters = meters(new MeterKey(key, size(context)));
+		int images = response.getResults().size();
+		long perImageNanos = (this.clock.monotonicTime() - start.nanos()) / images;
+		for (ImageGeneration generation : response.getResults()) {
+			meters.duration().record(perImageNanos, TimeUnit.NANOSECONDS);
+			Image image = (generation != null) ? generation.getOutput() : null;
+			if (image != null && image.getB64Json() != null) {
+				meters.base64Size().record(decodedLength(image.getB64Json()));
+			}
+			else if (image != null && image.getUrl() != null) {
+				meters.urlSize().record(image.getUrl().length());
+			}
+		}
+		meters.generated().increment(images);
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ImageModelObservationContext;
+	}
+
+	private static String size(ImageModelObservationContext context) {
+		ImageOptions options = (context.getRequest() != null) ? context.getRequest().getOptions() : null;
+		if (options == null || options.getWidth() == null || options.getHeight() == null) {
+			return ModelKey.NONE;
+		}
+		return options.getWidth() + "x" + options.getHeight();
+	}
+
+	/**
+	 * Return the number of bytes encoded by the given base64 text, without decoding it.
+	 * @param base64 the base64 text
+	 * @return the decoded length
+	 */
+	static long decodedLength(String base64) {
+		int length = base64.length();
+		int padding = 0;
+		if (length > 0 && base64.charAt(length - 1) == '=') {
+			padding++;
+			if (length > 1 && base64.charAt(length - 2) == '=') {
+				padding++;
+			}
+		}
+		return Math.max(0, (length / 4L) * 3 - padding);
+	}
+
+	private Meters meters(MeterKey key) {
+		Meters meters = this.meters.get(key);
+		if (meters != null) {
+			return meters;
+		}
+		MeterKey boundedKey = (this.meters.size() < this.maxModels) ? key
+				: new MeterKey(key.model().overflow(), ModelKey.OTHER);
+		return this.meters.computeIfAbsent(boundedKey, this::register);
+	}
+
+	private Meters register(MeterKey key) {
+		Tags tags = key.model().tags().and("gen_ai.request.image.size", key.size());
+		return new Meters(
+				Timer.builder(DURATION_METER_NAME)
+					.description("Image generation latency per generated image")
+					.tags(tags)
+					.register(this.meterRegistry),
+				Counter.builder(GENERATED_METER_NAME)
+					.description("Number of generated images")
+					.tags(tags)
+					.register(this.meterRegistry),
+				payloadSize(tags, "b64_json"), payloadSize(tags, "url"));
+	}
+
+	private DistributionSummary payloadSize(Tags tags, String format) {
+		return DistributionSummary.builder(PAYLOAD_SIZE_METER_NAME)
+			.description("Size of the returned image payloads")
+			.baseUnit("bytes")
+			.tags(tags)
+			.tag("format", format)
+			.register(this.meterRegistry);
+	}
+
+	private record GenerationStart(long nanos) {
+	}
+
+	private record MeterKey(ModelKey model, String size) {
+	}
+
+	private record Meters(Timer duration, Counter generated, DistributionSummary base64Size,
+			DistributionSummary urlSize) {
+	}
+
+}
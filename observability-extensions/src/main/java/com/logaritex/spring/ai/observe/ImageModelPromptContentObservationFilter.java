@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationFilter;
+
+import org.springframework.ai.image.ImageMessage;
+import org.springframework.ai.image.ImageOptions;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.observation.ImageModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link ObservationFilter} to include the image prompt in the observation, together
+ * with the requested number of images, size and response format. The prompt is only
+ * captured when the image prompt capture of the {@link ContentCaptureSettings} is on; it
+ * is capped to their maximum prompt length, and the call is subject to their sample rate.
+ * <p>
+ * Only the request is recorded: the generated images, their URLs and their base64 data
+ * are never copied into the observation.
+ *
+ * @author Christian Tzolov
+ */
+public class ImageModelPromptContentObservationFilter implements ObservationFilter {
+
+	public static final String PROMPT_KEY = "gen_ai.prompt";
+
+	public static final String COUNT_KEY = "gen_ai.request.image.count";
+
+	public static final String SIZE_KEY = "gen_ai.request.image.size";
+
+	public static final String RESPONSE_FORMAT_KEY = "gen_ai.request.image.response_format";
+
+	private final ContentCaptureControl control;
+
+	private final ContentCaptureMetrics.Recorder metrics;
+
+	public ImageModelPromptContentObservationFilter() {
+		this(new ContentCaptureControl());
+	}
+
+	public ImageModelPromptContentObservationFilter(ContentCaptureControl control) {
+		this(control, ContentCaptureMetrics.NOOP);
+	}
+
+	public ImageModelPromptContentObservationFilter(ContentCaptureControl control, ContentCaptureMetrics metrics) {
+		Assert.notNull(control, "control cannot be null");
+		Assert.notNull(metrics, "metrics cannot be null");
+		this.control = control;
+		this.metrics = metrics.recorder(ImageModelPromptContentObservationFilter.class,
+				ContentCaptureMetrics.Target.ATTRIBUTE);
+	}
+
+	@Override
+	public Observation.Context map(Observation.Context context) {
+		if (!(context instanceof ImageModelObservationContext imageModelObservationContext)
+				|| imageModelObservationContext.getRequest() == null) {
+			return context;
+		}
+		ImagePrompt request = imageModelObservationContext.getRequest();
+		ImageOptions options = request.getOptions();
+		if (options != null) {
+			if (options.getN() != null) {
+				context.addHighCardinalityKeyValue(KeyValue.of(COUNT_KEY, String.valueOf(options.getN())));
+			}
+			if (options.getWidth() != null && options.getHeight() != null) {
+				context
+					.addHighCardinalityKeyValue(KeyValue.of(SIZE_KEY, options.getWidth() + "x" + options.getHeight()));
+			}
+			if (options.getResponseFormat() != null) {
+				context.addHighCardinalityKeyValue(KeyValue.of(RESPONSE_FORMAT_KEY, options.getResponseFormat()));
+			}
+		}
+
+		ContentCaptureSettings settings = this.control.settings(context);
+		if (!settings.imagePrompt()) {
+			return context;
+		}
+		if (!this.control.isSampled(context, settings)) {
+			this.metrics.recordNotSampled();
+			return context;
+		}
+		long sample = this.metrics.start();
+
+		var prompts = TracingHelper.concatenateStrings(instructions(request));
+		var capturedPrompts = TracingHelper.truncate(prompts, settings.maxPromptLength());
+		this.metrics.recordTruncation(prompts, capturedPrompts);
+		this.metrics.recordSize(sample, capturedPrompts);
+		this.control.recordCaptured(capturedPrompts);
+		context.addHighCardinalityKeyValue(KeyValue.of(PROMPT_KEY, capturedPrompts));
+
+		this.metrics.stop(sample);
+		return context;
+	}
+
+	private static List<String> instructions(ImagePrompt request) {
+		List<String> instructions = new ArrayList<>();
+		if (request.getInstructions() != null) {
+			for (ImageMessage message : request.getInstructions()) {
+				if (message.getText() != null) {
+					instructions.add(message.getText());
+				}
+			}
+		}
+		return instructions;
+	}
+
+}
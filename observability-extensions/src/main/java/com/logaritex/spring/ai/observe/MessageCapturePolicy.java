@@ -0,0 +1,148 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Per-role capture policy of the prompt messages. Every {@link MessageType} is captured
+ * in full, as a hash, or not at all, and the captured text can be capped to a maximum
+ * length. Message types without a rule are captured in full.
+ *
+ * @param rules the capture rules, by message type
+ * @author Christian Tzolov
+ */
+public record MessageCapturePolicy(Map<MessageType, Rule> rules) {
+
+	/**
+	 * Policy capturing every message in full.
+	 */
+	public static final MessageCapturePolicy ALL = new MessageCapturePolicy(Map.of());
+
+	private static final Rule DEFAULT_RULE = new Rule(Mode.FULL, ContentCaptureSettings.UNLIMITED);
+
+	/**
+	 * Prefix of the captured value of the messages captured as a hash.
+	 */
+	public static final String HASH_PREFIX = "fnv1a64:";
+
+	public MessageCapturePolicy {
+		Assert.notNull(rules, "rules cannot be null");
+		Assert.noNullElements(rules.values(), "rules cannot contain null elements");
+		rules = rules.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(rules));
+	}
+
+	/**
+	 * Return the rule for the given message type.
+	 * @param messageType the message type
+	 * @return the rule, never {@code null}
+	 */
+	public Rule rule(MessageType messageType) {
+		Rule rule = this.rules.get(messageType);
+		return (rule != null) ? rule : DEFAULT_RULE;
+	}
+
+	/**
+	 * Whether messages of the given type are captured at all.
+	 * @param messageType the message type
+	 * @return {@code false} if the messages are excluded
+	 */
+	public boolean includes(MessageType messageType) {
+		return rule(messageType).mode() != Mode.NONE;
+	}
+
+	/**
+	 * Return the text to capture for the given message. The text of excluded messages is
+	 * never read.
+	 * @param message the message
+	 * @return the text to capture, or {@code null} if the message is excluded
+	 */
+	@Nullable
+	public String capture(Message message) {
+		Rule rule = rule(message.getMessageType());
+		return switch (rule.mode()) {
+			case NONE -> null;
+			case HASH -> {
+				String text = message.getText();
+				yield (text != null) ? HASH_PREFIX + ContentHash.toHex(ContentHash.fnv1a64(text)) : null;
+			}
+			case FULL -> TracingHelper.truncate(message.getText(), rule.maxLength());
+		};
+	}
+
+	/**
+	 * How the messages of a type are captured.
+	 */
+	public enum Mode {
+
+		/**
+		 * Capture the message text, up to the rule maximum length.
+		 */
+		FULL,
+
+		/**
+		 * Capture a hash of the message text instead of the text.
+		 */
+		HASH,
+
+		/**
+		 * Do not capture the message.
+		 */
+		NONE
+
+	}
+
+	/**
+	 * The capture rule of a message type.
+	 *
+	 * @param mode how the messages are captured
+	 * @param maxLength maximum number of characters captured per message in
+	 * {@link Mode#FULL} mode
+	 */
+	public record Rule(Mode mode, int maxLength) {
+
+		public Rule {
+			Assert.notNull(mode, "mode cannot be null");
+			Assert.isTrue(maxLength >= 0, "maxLength must not be negative");
+		}
+
+		public static Rule full() {
+			return new Rule(Mode.FULL, ContentCaptureSettings.UNLIMITED);
+		}
+
+		public static Rule truncate(int maxLength) {
+			return new Rule(Mode.FULL, maxLength);
+		}
+
+		public static Rule hash() {
+			return new Rule(Mode.HASH, ContentCaptureSettings.UNLIMITED);
+		}
+
+		public static Rule none() {
+			return new Rule(Mode.NONE, ContentCaptureSettings.UNLIMITED);
+		}
+
+	}
+
+}
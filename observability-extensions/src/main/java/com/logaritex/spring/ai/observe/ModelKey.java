@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.Observation;
+
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.observation.ImageModelObservationContext;
+import org.springframework.ai.observation.AiOperationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Low-cardinality identity of the model serving an AI observation, used to key the
+ * per-model meters registered by the extensions.
+ *
+ * @param operation the AI operation type, e.g. {@code chat} or {@code framework}
+ * @param provider the AI provider, e.g. {@code openai}
+ * @param model the requested model name
+ * @author Christian Tzolov
+ */
+public record ModelKey(String operation, String provider, String model) {
+
+	/**
+	 * Placeholder used when a key component is not known.
+	 */
+	public static final String NONE = KeyValue.NONE_VALUE;
+
+	/**
+	 * Placeholder model name used once the configured cardinality limit is reached.
+	 */
+	public static final String OTHER = "other";
+
+	/**
+	 * Resolve the key for a chat model, chat client or image model observation context.
+	 * @param context the observation context
+	 * @return the model key, or {@code null} if the context is not a chat or image
+	 * context
+	 */
+	@Nullable
+	public static ModelKey from(Observation.Context context) {
+		if (context instanceof ChatModelObservationContext chatModelContext) {
+			return from(chatModelContext.getOperationMetadata(), chatModelContext.getRequest());
+		}
+		if (context instanceof ChatClientObservationContext chatClientContext) {
+			return from(chatClientContext.getOperationMetadata(), chatClientContext.getRequest().prompt());
+		}
+		if (context instanceof ImageModelObservationContext imageModelContext) {
+			ImagePrompt prompt = imageModelContext.getRequest();
+			String model = (prompt != null && prompt.getOptions() != null) ? prompt.getOptions().getModel() : null;
+			return from(imageModelContext.getOperationMetadata(), model);
+		}
+		return null;
+	}
+
+	private static ModelKey from(AiOperationMetadata metadata, @Nullable Prompt prompt) {
+		return from(metadata, (prompt != null && prompt.getOptions() != null) ? prompt.getOptions().getModel() : null);
+	}
+
+	private static ModelKey from(AiOperationMetadata metadata, @Nullable String model) {
+		return new ModelKey(valueOrNone(metadata.operationType()), valueOrNone(metadata.provider()),
+				valueOrNone(model));
+	}
+
+	private static String valueOrNone(@Nullable String value) {
+		return StringUtils.hasText(value) ? value : NONE;
+	}
+
+	/**
+	 * Return a copy of this key with the model collapsed into {@link #OTHER}.
+	 * @return the overflow key
+	 */
+	public ModelKey overflow() {
+		return new ModelKey(this.operation, this.provider, OTHER);
+	}
+
+	/**
+	 * Return the meter tags for this key, following the OpenTelemetry semantic
+	 * conventions for AI systems.
+	 * @return the meter tags
+	 */
+	public Tags tags() {
+		return Tags.of("gen_ai.operation.name", this.operation, "gen_ai.system", this.provider, "gen_ai.request.model",
+				this.model);
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ChatMemoryRepository} decorator recording the latency of every repository
+ * operation, and the number of messages and payload size of the conversations read and
+ * written, so the cost of a growing history shows up before it dominates the request
+ * latency.
+ * <p>
+ * The reads and writes made during a chat client call are also summarized on the chat
+ * client observation, found from the current observation, as the
+ * {@code gen_ai.memory.read.*} and {@code gen_ai.memory.write.*} high cardinality keys:
+ * the cumulative duration in milliseconds, the messages and the payload bytes.
+ * <p>
+ * The payload size is the UTF-8 length of the message texts, which is what the JDBC
+ * repository stores; it is computed without encoding the texts.
+ *
+ * @author Christian Tzolov
+ */
+public class ObservedChatMemoryRepository implements ChatMemoryRepository {
+
+	public static final String DURATION_METER_NAME = "gen_ai.client.memory.operation.duration";
+
+	public static final String MESSAGES_METER_NAME = "gen_ai.client.memory.messages";
+
+	public static final String PAYLOAD_METER_NAME = "gen_ai.client.memory.payload.size";
+
+	public static final String OPERATION_TAG = "gen_ai.memory.operation";
+
+	private static final String NO_ERROR = "none";
+
+	private final ChatMemoryRepository delegate;
+
+	private final MeterRegistry meterRegistry;
+
+	private final ObservationRegistry observationRegistry;
+
+	private final Clock clock;
+
+	private final Timer listTimer;
+
+	private final Timer readTimer;
+
+	private final Timer writeTimer;
+
+	private final Timer deleteTimer;
+
+	private final DistributionSummary readMessages;
+
+	private final DistributionSummary writeMessages;
+
+	private final DistributionSummary readPayload;
+
+	private final DistributionSummary writePayload;
+
+	public ObservedChatMemoryRepository(ChatMemoryRepository delegate, MeterRegistry meterRegistry) {
+		this(delegate, meterRegistry, ObservationRegistry.NOOP);
+	}
+
+	public ObservedChatMemoryRepository(ChatMemoryRepository delegate, MeterRegistry meterRegistry,
+			ObservationRegistry observationRegistry) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
+		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+		this.delegate = delegate;
+		this.meterRegistry = meterRegistry;
+		this.observationRegistry = observationRegistry;
+		this.clock = meterRegistry.config().clock();
+		this.listTimer = timer(Operation.LIST, NO_ERROR);
+		this.readTimer = timer(Operation.READ, NO_ERROR);
+		this.writeTimer = timer(Operation.WRITE, NO_ERROR);
+		this.deleteTimer = timer(Operation.DELETE, NO_ERROR);
+		this.readMessages = messages(Operation.READ);
+		this.writeMessages = messages(Operation.WRITE);
+		this.readPayload = payload(Operation.READ);
+		this.writePayload = payload(Operation.WRITE);
+	}
+
+	/**
+	 * Return the decorated repository.
+	 * @return the delegate
+	 */
+	public ChatMemoryRepository getDelegate() {
+		return this.delegate;
+	}
+
+	@Override
+	public List<String> findConversationIds() {
+		long start = this.clock.monotonicTime();
+		try {
+			List<String> conversationIds = this.delegate.findConversationIds();
+			this.listTimer.record(this.clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+			return conversationIds;
+		}
+		catch (RuntimeException ex) {
+			recordError(Operation.LIST, start, ex);
+			throw ex;
+		}
+	}
+
+	@Override
+	public List<Message> findByConversationId(String conversationId) {
+		long start = this.clock.monotonicTime();
+		List<Message> messages;
+		try {
+			messages = this.delegate.findByConversationId(conversationId);
+		}
+		catch (RuntimeException ex) {
+			recordError(Operation.READ, start, ex);
+			throw ex;
+		}
+		long durationNanos = this.clock.monotonicTime() - start;
+		long payload = payloadSize(messages);
+		this.readTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+		this.readMessages.record(messages.size());
+		this.readPayload.record(payload);
+		summarize(Operation.READ, durationNanos, messages.size(), payload);
+		return messages;
+	}
+
+	@Override
+	public void saveAll(String conversationId, List<Message> messages) {
+		long start = this.clock.monotonicTime();
+		try {
+			this.delegate.saveAll(conversationId, messages);
+		}
+		catch (RuntimeException ex) {
+			recordError(Operation.WRITE, start, ex);
+			throw ex;
+		}
+		long durationNanos = this.clock.monotonicTime() - start;
+		long payload = payloadSize(messages);
+		this.writeTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+		this.writeMessages.record(messages.size());
+		this.writePayload.record(payload);
+		summarize(Operation.WRITE, durationNanos, messages.size(), payload);
+	}
+
+	@Override
+	public void deleteByConversationId(String conversationId) {
+		long start = this.clock.monotonicTime();
+		try {
+			this.delegate.deleteByConversationId(conversationId);
+			this.deleteTimer.record(this.clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+		}
+		catch (RuntimeException ex) {
+			recordError(Operation.DELETE, start, ex);
+			throw ex;
+		}
+	}
+
+	private void recordError(Operation operation, long start, RuntimeException ex) {
+		timer(operation, ex.getClass().getSimpleName()).record(this.clock.monotonicTime() - start,
+				TimeUnit.NANOSECONDS);
+	}
+
+	private void summarize(Operation operation, long durationNanos, int messages, long payload) {
+		ChatClientObservationContext context = chatClientContext();
+		if (context != null) {
+			context.computeIfAbsent(Summary.class, key -> new Summary())
+				.add(context, operation, durationNanos, messages, payload);
+		}
+	}
+
+	@Nullable
+	private ChatClientObservationContext chatClientContext() {
+		Observation observation = this.observationRegistry.getCurrentObservation();
+		if (observation == null) {
+			return null;
+		}
+		if (observation.getContext() instanceof ChatClientObservationContext chatClientContext) {
+			return chatClientContext;
+		}
+		return TracingHelper.parentChatClientContext(observation.getContext());
+	}
+
+	private Timer timer(Operation operation, String errorType) {
+		return Timer.builder(DURATION_METER_NAME)
+			.description("Duration of the chat memory repository operations")
+			.tag(OPERATION_TAG, operation.value())
+			.tag("error.type", errorType)
+			.register(this.meterRegistry);
+	}
+
+	private DistributionSummary messages(Operation operation) {
+		return DistributionSummary.builder(MESSAGES_METER_NAME)
+			.description("Number of messages read or written by the chat memory repository")
+			.baseUnit("messages")
+			.tag(OPERATION_TAG, operation.value())
+			.register(this.meterRegistry);
+	}
+
+	private DistributionSummary payload(Operation operation) {
+		return DistributionSummary.builder(PAYLOAD_METER_NAME)
+			.description("UTF-8 size of the message texts read or written by the chat memory repository")
+			.baseUnit("bytes")
+			.tag(OPERATION_TAG, operation.value())
+			.register(this.meterRegistry);
+	}
+
+	static long payloadSize(List<Message> messages) {
+		long size = 0;
+		for (Message message : messages) {
+			String text = message.getText();
+			size += (text != null) ? ContentCaptureMetrics.Recorder.utf8Length(text) : 0;
+		}
+		return size;
+	}
+
+	private enum Operation {
+
+		LIST("list"), READ("read"), WRITE("write"), DELETE("delete");
+
+		private final String value;
+
+		Operation(String value) {
+			this.value = value;
+		}
+
+		String value() {
+			return this.value;
+		}
+
+	}
+
+	/**
+	 * The reads and writes of a single chat client call, reflected in its high
+	 * cardinality keys on every update.
+	 */
+	private static final class Summary {
+
+		private long readNanos;
+
+		private long readMessages;
+
+		private long readBytes;
+
+		private long writeNanos;
+
+		private long writeMessages;
+
+		private long writeBytes;
+
+		synchronized void add(Observation.Context context, Operation operation, long durationNanos, int messages,
+				long payload) {
+			if (operation == Operation.READ) {
+				this.readNanos += durationNanos;
+				this.readMessages += messages;
+				this.readBytes += payload;
+				addKeyValues(context, "gen_ai.memory.read.", this.readNanos, this.readMessages, this.readBytes);
+			}
+			else {
+				this.writeNanos += durationNanos;
+				this.writeMessages += messages;
+				this.writeBytes += payload;
+				addKeyValues(context, "gen_ai.memory.write.", this.writeNanos, this.writeMessages, this.writeBytes);
+			}
+		}
+
+		private static void addKeyValues(Observation.Context context, String prefix, long nanos, long messages,
+				long bytes) {
+			context
+				.addHighCardinalityKeyValue(KeyValue.of(prefix + "duration_ms", String.valueOf(nanos / 1_000_000.0)));
+			context.addHighCardinalityKeyValue(KeyValue.of(prefix + "messages", String.valueOf(messages)));
+			context.addHighCardinalityKeyValue(KeyValue.of(prefix + "bytes", String.valueOf(bytes)));
+		}
+
+	}
+
+}
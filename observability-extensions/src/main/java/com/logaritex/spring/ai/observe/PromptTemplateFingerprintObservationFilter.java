@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationFilter;
+
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link ObservationFilter} adding the fingerprint of the prompt template as a
+ * low-cardinality key to the chat client and chat model observations, so that the latency
+ * and token usage metrics can be broken down per prompt template.
+ * <p>
+ * {@code ChatClient} renders the templates before the call and does not keep them, so the
+ * unrendered system and user templates are read from a {@link PromptTemplateSource}, such
+ * as {@link PromptTemplateSource#ADVISOR_PARAMS} reading the
+ * {@value #SYSTEM_TEMPLATE_PARAM} and {@value #USER_TEMPLATE_PARAM} advisor parameters.
+ * Rendered prompts are never fingerprinted: calls without a template are reported as
+ * {@link PromptTemplateFingerprints#NONE}. Chat model calls made within a chat client
+ * call share the fingerprint of the chat client request.
+ *
+ * @author Christian Tzolov
+ */
+public class PromptTemplateFingerprintObservationFilter implements ObservationFilter {
+
+	public static final String PROMPT_TEMPLATE_KEY = "spring.ai.prompt.template";
+
+	/**
+	 * Request context entry holding the unrendered system template.
+	 */
+	public static final String SYSTEM_TEMPLATE_PARAM = "spring.ai.prompt.template.system";
+
+	/**
+	 * Request context entry holding the unrendered user template.
+	 */
+	public static final String USER_TEMPLATE_PARAM = "spring.ai.prompt.template.user";
+
+	private final PromptTemplateSource source;
+
+	private final PromptTemplateFingerprints fingerprints;
+
+	public PromptTemplateFingerprintObservationFilter(PromptTemplateSource source) {
+		this(source, new PromptTemplateFingerprints());
+	}
+
+	public PromptTemplateFingerprintObservationFilter(PromptTemplateSource source,
+			PromptTemplateFingerprints fingerprints) {
+		Assert.notNull(source, "source cannot be null");
+		Assert.notNull(fingerprints, "fingerprints cannot be null");
+		this.source = source;
+		this.fingerprints = fingerprints;
+	}
+
+	@Override
+	public Observation.Context map(Observation.Context context) {
+		if (context instanceof ChatClientObservationContext chatClientContext) {
+			context.addLowCardinalityKeyValue(KeyValue.of(PROMPT_TEMPLATE_KEY, fingerprint(chatClientContext)));
+		}
+		else if (context instanceof ChatModelObservationContext chatModelContext) {
+			ChatClientObservationContext chatClientContext = TracingHelper.parentChatClientContext(chatModelContext);
+			String fingerprint = (chatClientContext != null) ? fingerprint(chatClientContext)
+					: PromptTemplateFingerprints.NONE;
+			context.addLowCardinalityKeyValue(KeyValue.of(PROMPT_TEMPLATE_KEY, fingerprint));
+		}
+		return context;
+	}
+
+	private String fingerprint(ChatClientObservationContext context) {
+		return context.computeIfAbsent(PromptTemplateFingerprintObservationFilter.class, key -> {
+			PromptTemplateSource.Templates templates = this.source.templates(context.getRequest());
+			return this.fingerprints.fingerprint(templates.system(), templates.user());
+		});
+	}
+
+}
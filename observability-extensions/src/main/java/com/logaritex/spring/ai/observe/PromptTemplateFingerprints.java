@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.common.KeyValue;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache of prompt template fingerprints. A fingerprint is a short, stable hash of
+ * an unrendered system and user template pair, suitable as a low-cardinality key.
+ * <p>
+ * The fingerprint of a template is computed once and then served from a concurrent map,
+ * so the lookups for known templates are lock-free and hash only the template strings,
+ * whose hash codes are cached by constant templates. The number of cached templates is
+ * bounded, templates seen after the limit is reached are reported as {@link #OTHER}.
+ *
+ * @author Christian Tzolov
+ */
+public class PromptTemplateFingerprints {
+
+	public static final int DEFAULT_MAX_TEMPLATES = 1000;
+
+	/**
+	 * Fingerprint used when neither a system nor a user template is known.
+	 */
+	public static final String NONE = KeyValue.NONE_VALUE;
+
+	/**
+	 * Fingerprint used once the configured number of templates is reached.
+	 */
+	public static final String OTHER = "other";
+
+	private final int maxTemplates;
+
+	private final Map<Template, String> fingerprints = new ConcurrentHashMap<>();
+
+	public PromptTemplateFingerprints() {
+		this(DEFAULT_MAX_TEMPLATES);
+	}
+
+	public PromptTemplateFingerprints(int maxTemplates) {
+		Assert.isTrue(maxTemplates > 0, "maxTemplates must be greater than zero");
+		this.maxTemplates = maxTemplates;
+	}
+
+	/**
+	 * Return the fingerprint of the given system and user templates.
+	 * @param systemTemplate the unrendered system template, if any
+	 * @param userTemplate the unrendered user template, if any
+	 * @return the 16 characters hex fingerprint, {@link #NONE} if both templates are
+	 * missing or {@link #OTHER} if the cache is full
+	 */
+	public String fingerprint(@Nullable String systemTemplate, @Nullable String userTemplate) {
+		if (systemTemplate == null && userTemplate == null) {
+			return NONE;
+		}
+		Template template = new Template((systemTemplate != null) ? systemTemplate : "",
+				(userTemplate != null) ? userTemplate : "");
+		String fingerprint = this.fingerprints.get(template);
+		if (fingerprint != null) {
+			return fingerprint;
+		}
+		if (this.fingerprints.size() >= this.maxTemplates) {
+			return OTHER;
+		}
+		return this.fingerprints.computeIfAbsent(template, Template::fingerprint);
+	}
+
+	/**
+	 * Return the number of cached fingerprints.
+	 * @return the cache size
+	 */
+	public int size() {
+		return this.fingerprints.size();
+	}
+
+	private record Template(String system, String user) {
+
+		String fingerprint() {
+			long hash = ContentHash.fnv1a64Seed();
+			hash = ContentHash.fnv1a64(hash, this.system, 0, this.system.length());
+			// Separate the templates, so that moving text between them changes the hash.
+			hash = ContentHash.fnv1a64(hash, "\u0000", 0, 1);
+			hash = ContentHash.fnv1a64(hash, this.user, 0, this.user.length());
+			return ContentHash.toHex(hash);
+		}
+
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.lang.Nullable;
+
+/**
+ * Source of the unrendered prompt templates of a chat client request, fingerprinted by
+ * the {@link PromptTemplateFingerprintObservationFilter}. {@code ChatClient} renders the
+ * templates before the advisors and the observations see the request, so the templates
+ * have to be provided by the application.
+ *
+ * @author Christian Tzolov
+ */
+@FunctionalInterface
+public interface PromptTemplateSource {
+
+	/**
+	 * Source reading the templates from the
+	 * {@value PromptTemplateFingerprintObservationFilter#SYSTEM_TEMPLATE_PARAM} and
+	 * {@value PromptTemplateFingerprintObservationFilter#USER_TEMPLATE_PARAM} entries of
+	 * the request context, e.g. set as advisor parameters.
+	 */
+	PromptTemplateSource ADVISOR_PARAMS = request -> new Templates(
+			text(request.context().get(PromptTemplateFingerprintObservationFilter.SYSTEM_TEMPLATE_PARAM)),
+			text(request.context().get(PromptTemplateFingerprintObservationFilter.USER_TEMPLATE_PARAM)));
+
+	/**
+	 * Return the unrendered templates of the given request.
+	 * @param request the chat client request
+	 * @return the templates, each {@code null} if the request has none
+	 */
+	Templates templates(ChatClientRequest request);
+
+	@Nullable
+	private static String text(@Nullable Object value) {
+		return (value instanceof String text) ? text : null;
+	}
+
+	/**
+	 * The unrendered templates of a request.
+	 *
+	 * @param system the system template, or {@code null} if none
+	 * @param user the user template, or {@code null} if none
+	 */
+	record Templates(@Nullable String system, @Nullable String user) {
+
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-memory, lock-free and mergeable quantile sketch with a relative error guarantee,
+ * following the DDSketch algorithm. Every positive value is counted in the bucket
+ * {@code ceil(log(value) / log(gamma))}, with {@code gamma = (1 + a) / (1 - a)} for a
+ * relative accuracy {@code a}, so any quantile is estimated within {@code a} of its
+ * actual value.
+ * <p>
+ * The buckets cover the range given at construction, and are allocated up front: adding a
+ * value is a logarithm and an atomic increment. The values below the range are counted as
+ * zero, those above it in the last bucket. Two sketches with the same parameters merge
+ * exactly, including from their {@link #toByteArray() binary form}, so the quantiles of a
+ * fleet of instances can be computed from their merged sketches rather than from their
+ * averaged percentiles.
+ *
+ * @author Christian Tzolov
+ */
+public class QuantileSketch {
+
+	private static final byte VERSION = 1;
+
+	private final double relativeAccuracy;
+
+	private final double minValue;
+
+	private final double maxValue;
+
+	private final double gamma;
+
+	private final double logGamma;
+
+	private final int minIndex;
+
+	private final AtomicLongArray counts;
+
+	/**
+	 * Count of the values below the minimum value, stored after the buckets.
+	 */
+	private final int zeroBucket;
+
+	public QuantileSketch(double relativeAccuracy, double minValue, double maxValue) {
+		Assert.isTrue(relativeAccuracy > 0 && relativeAccuracy < 1, "relativeAccuracy must be between 0 and 1");
+		Assert.isTrue(minValue > 0, "minValue must be greater than zero");
+		Assert.isTrue(maxValue > minValue, "maxValue must be greater than minValue");
+		this.relativeAccuracy = relativeAccuracy;
+		this.minValue = minValue;
+		this.maxValue = maxValue;
+		this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+		this.logGamma = Math.log(this.gamma);
+		this.minIndex = index(minValue);
+		int buckets = index(maxValue) - this.minIndex + 1;
+		Assert.isTrue(buckets <= 1 << 20, "too many buckets for the range and accuracy");
+		this.zeroBucket = buckets;
+		this.counts = new AtomicLongArray(buckets + 1);
+	}
+
+	/**
+	 * Count the given value.
+	 * @param value the value
+	 */
+	public void add(double value) {
+		this.counts.incrementAndGet(bucket(value));
+	}
+
+	/**
+	 * Estimate the value at the given quantile.
+	 * @param quantile the quantile, between 0 and 1
+	 * @return the estimated value, or {@code NaN} if the sketch is empty
+	 */
+	public double quantile(double quantile) {
+		Assert.isTrue(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+		long count = count();
+		if (count == 0) {
+			return Double.NaN;
+		}
+		long rank = (long) Math.floor(quantile * (count - 1));
+		long seen = this.counts.get(this.zeroBucket);
+		if (seen > rank) {
+			return 0;
+		}
+		for (int i = 0; i < this.zeroBucket; i++) {
+			seen += this.counts.get(i);
+			if (seen > rank) {
+				return value(i);
+			}
+		}
+		return value(this.zeroBucket - 1);
+	}
+
+	/**
+	 * Return the number of values counted.
+	 * @return the count
+	 */
+	public long count() {
+		long count = 0;
+		for (int i = 0; i < this.counts.length(); i++) {
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Add the counts of the given sketch to this one.
+	 * @param other a sketch with the same accuracy and range
+	 */
+	public void merge(QuantileSketch other) {
+		Assert.isTrue(isCompatible(other), "sketches must have the same accuracy and range");
+		for (int i = 0; i < this.counts.length(); i++) {
+			long count = other.counts.get(i);
+			if (count != 0) {
+				this.counts.addAndGet(i, count);
+			}
+		}
+	}
+
+	/**
+	 * Reset all the counts to zero.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.counts.length(); i++) {
+			this.counts.set(i, 0);
+		}
+	}
+
+	/**
+	 * Encode the parameters and the non-empty buckets of the sketch: the relative
+	 * accuracy and the range as doubles, then the count of the values below the range,
+	 * the number of non-empty buckets and, for each of them, the distance to the previous
+	 * one and its count, all as unsigned variable-length integers.
+	 * @return the binary form of the sketch
+	 */
+	public byte[] toByteArray() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		out.write(VERSION);
+		writeDouble(out, this.relativeAccuracy);
+		writeDouble(out, this.minValue);
+		writeDouble(out, this.maxValue);
+		writeVarLong(out, this.counts.get(this.zeroBucket));
+		long[] counts = new long[this.zeroBucket];
+		int nonEmpty = 0;
+		for (int i = 0; i < this.zeroBucket; i++) {
+			counts[i] = this.counts.get(i);
+			nonEmpty += (counts[i] != 0) ? 1 : 0;
+		}
+		writeVarLong(out, nonEmpty);
+		int previous = 0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] != 0) {
+				writeVarLong(out, i - previous);
+				writeVarLong(out, counts[i]);
+				previous = i;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decode a sketch from its {@link #toByteArray() binary form}.
+	 * @param bytes the binary form
+	 * @return the sketch
+	 * @throws IllegalArgumentException if the bytes are not a valid sketch
+	 */
+	public static QuantileSketch fromByteArray(byte[] bytes) {
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		try {
+			Assert.isTrue(in.get() == VERSION, "unsupported sketch version");
+			QuantileSketch sketch = new QuantileSketch(in.getDouble(), in.getDouble(), in.getDouble());
+			sketch.counts.set(sketch.zeroBucket, readVarLong(in));
+			long nonEmpty = readVarLong(in);
+			int index = 0;
+			for (long i = 0; i < nonEmpty; i++) {
+				index += (int) readVarLong(in);
+				Assert.isTrue(index >= 0 && index < sketch.zeroBucket, "bucket index out of range");
+				sketch.counts.set(index, readVarLong(in));
+			}
+			return sketch;
+		}
+		catch (BufferUnderflowException ex) {
+			throw new IllegalArgumentException("truncated sketch", ex);
+		}
+	}
+
+	private boolean isCompatible(QuantileSketch other) {
+		return this.relativeAccuracy == other.relativeAccuracy && this.minValue == other.minValue
+				&& this.maxValue == other.maxValue;
+	}
+
+	private int bucket(double value) {
+		if (!(value >= this.minValue)) {
+			return this.zeroBucket;
+		}
+		if (value >= this.maxValue) {
+			return this.zeroBucket - 1;
+		}
+		return Math.min(index(value) - this.minIndex, this.zeroBucket - 1);
+	}
+
+	private int index(double value) {
+		return (int) Math.ceil(Math.log(value) / this.logGamma);
+	}
+
+	/**
+	 * Return the value of a bucket, halfway between its bounds in relative terms.
+	 */
+	private double value(int bucket) {
+		return 2 * Math.pow(this.gamma, bucket + this.minIndex) / (this.gamma + 1);
+	}
+
+	private static void writeDouble(ByteArrayOutputStream out, double value) {
+		long bits = Double.doubleToLongBits(value);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			out.write((int) (bits >>> shift));
+		}
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("malformed variable-length integer");
+	}
+
+}
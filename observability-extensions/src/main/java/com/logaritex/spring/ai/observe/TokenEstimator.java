@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.lang.Nullable;
+
+/**
+ * Fast, local estimate of the number of tokens of a text, for the byte pair encodings
+ * used by the chat models. Every run of letters or digits counts as one token per six
+ * characters, every other visible ASCII character as one token, and every character
+ * outside the Latin range, such as the CJK ideographs, as one token. Whitespace is free.
+ * <p>
+ * The estimate walks the characters of the text once, without copying or encoding it, and
+ * does not allocate. It is meant to be calibrated against the token usage reported by the
+ * model.
+ *
+ * @author Christian Tzolov
+ */
+public final class TokenEstimator {
+
+	private static final int CHARS_PER_WORD_TOKEN = 6;
+
+	/**
+	 * Tokens added per message for the role and the separators of the chat template.
+	 */
+	private static final int TOKENS_PER_MESSAGE = 4;
+
+	private TokenEstimator() {
+	}
+
+	/**
+	 * Estimate the number of tokens of the given messages, including the per-message
+	 * overhead of the chat template.
+	 * @param messages the prompt messages
+	 * @return the estimated number of tokens
+	 */
+	public static long estimate(List<Message> messages) {
+		long tokens = 0;
+		for (int i = 0; i < messages.size(); i++) {
+			tokens += TOKENS_PER_MESSAGE + estimate(messages.get(i).getText());
+		}
+		return tokens;
+	}
+
+	/**
+	 * Estimate the number of tokens of the given text.
+	 * @param text the text
+	 * @return the estimated number of tokens
+	 */
+	public static long estimate(@Nullable CharSequence text) {
+		if (text == null) {
+			return 0;
+		}
+		long tokens = 0;
+		int word = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80 ? Character.isLetterOrDigit(c) : isLatin(c)) {
+				word++;
+				continue;
+			}
+			tokens += wordTokens(word);
+			word = 0;
+			if (!Character.isWhitespace(c) && !Character.isLowSurrogate(c)) {
+				tokens++;
+			}
+		}
+		return tokens + wordTokens(word);
+	}
+
+	private static boolean isLatin(char c) {
+		return c < 0x0250 && Character.isLetter(c);
+	}
+
+	private static long wordTokens(int length) {
+		return (length + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+	}
+
+}
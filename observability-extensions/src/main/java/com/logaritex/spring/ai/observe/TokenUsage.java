@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.lang.Nullable;
+
+/**
+ * Token counts reported by the model in the usage of a chat response. A missing response,
+ * metadata, usage or count reads as zero tokens.
+ *
+ * @author Christian Tzolov
+ */
+public final class TokenUsage {
+
+	private TokenUsage() {
+	}
+
+	/**
+	 * The total tokens of the given response.
+	 * @param response the chat response
+	 * @return the total tokens, or zero if not reported
+	 */
+	public static long total(@Nullable ChatResponse response) {
+		Usage usage = usage(response);
+		return tokens((usage != null) ? usage.getTotalTokens() : null);
+	}
+
+	/**
+	 * The prompt tokens of the given response.
+	 * @param response the chat response
+	 * @return the prompt tokens, or zero if not reported
+	 */
+	public static long prompt(@Nullable ChatResponse response) {
+		Usage usage = usage(response);
+		return tokens((usage != null) ? usage.getPromptTokens() : null);
+	}
+
+	/**
+	 * The completion tokens of the given response.
+	 * @param response the chat response
+	 * @return the completion tokens, or zero if not reported
+	 */
+	public static long completion(@Nullable ChatResponse response) {
+		Usage usage = usage(response);
+		return tokens((usage != null) ? usage.getCompletionTokens() : null);
+	}
+
+	@Nullable
+	private static Usage usage(@Nullable ChatResponse response) {
+		return (response != null && response.getMetadata() != null) ? response.getMetadata().getUsage() : null;
+	}
+
+	private static long tokens(@Nullable Integer tokens) {
+		return (tokens != null) ? tokens : 0;
+	}
+
+}
@@ -16,18 +16,25 @@
 
 package com.logaritex.spring.ai.observe;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationView;
+import io.micrometer.tracing.TraceContext;
 import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelSpan;
 import io.opentelemetry.api.trace.Span;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
 
 /**
  * Utilities to prepare and process traces for observability.
@@ -38,9 +45,41 @@ public final class TracingHelper {
 
 	private static final Logger logger = LoggerFactory.getLogger(TracingHelper.class);
 
+	private static final boolean otelBridgePresent = ClassUtils.isPresent("io.micrometer.tracing.otel.bridge.OtelSpan",
+			TracingHelper.class.getClassLoader());
+
+	private static final Set<String> unsupportedSpanTypes = ConcurrentHashMap.newKeySet();
+
 	private TracingHelper() {
 	}
 
+	/**
+	 * Return the closest chat client observation enclosing the given observation, e.g.
+	 * the chat client call a chat model call is made within.
+	 * @param context the observation context
+	 * @return the chat client observation context, or {@code null} if there is none
+	 */
+	@Nullable
+	public static ChatClientObservationContext parentChatClientContext(Observation.ContextView context) {
+		ObservationView parent = context.getParentObservation();
+		while (parent != null) {
+			if (parent.getContextView() instanceof ChatClientObservationContext chatClientContext) {
+				return chatClientContext;
+			}
+			parent = parent.getContextView().getParentObservation();
+		}
+		return null;
+	}
+
+	/**
+	 * Extract the OpenTelemetry span backing the Micrometer span of the given tracing
+	 * context. The span is unwrapped through the public OpenTelemetry bridge API, without
+	 * reflection, so that it also works in native images. The optional OpenTelemetry
+	 * bridge is only linked when it is on the classpath.
+	 * @param tracingContext the tracing context of the observation
+	 * @return the OpenTelemetry span, or {@code null} if the span is not backed by
+	 * OpenTelemetry or the bridge is not on the classpath
+	 */
 	@Nullable
 	public static Span extractOtelSpan(@Nullable TracingObservationHandler.TracingContext tracingContext) {
 		if (tracingContext == null) {
@@ -48,30 +87,98 @@ public final class TracingHelper {
 		}
 
 		io.micrometer.tracing.Span micrometerSpan = tracingContext.getSpan();
-		try {
-			Method toOtelMethod = tracingContext.getSpan()
-				.getClass()
-				.getDeclaredMethod("toOtel", io.micrometer.tracing.Span.class);
-			toOtelMethod.setAccessible(true);
-			Object otelSpanObject = toOtelMethod.invoke(null, micrometerSpan);
-			if (otelSpanObject instanceof Span otelSpan) {
-				return otelSpan;
-			}
-		}
-		catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException ex) {
-			logger.warn("It wasn't possible to extract the OpenTelemetry Span object from Micrometer", ex);
-			return null;
+		if (otelBridgePresent && micrometerSpan instanceof OtelSpan) {
+			return OtelSpan.toOtel(micrometerSpan);
 		}
 
+		// Logged once per span type, the failures are counted by the
+		// ContentCaptureMetrics.
+		if (micrometerSpan != null && unsupportedSpanTypes.add(micrometerSpan.getClass().getName())) {
+			logger.warn("It wasn't possible to extract the OpenTelemetry Span object from Micrometer span of type {}",
+					micrometerSpan.getClass().getName());
+		}
 		return null;
 	}
 
+	/**
+	 * Return the trace and span ids of the span started for an observation.
+	 * @param tracingContext the tracing context of the observation
+	 * @return the trace context, or {@code null} if the observation has no span
+	 */
+	@Nullable
+	public static TraceContext traceContext(@Nullable TracingObservationHandler.TracingContext tracingContext) {
+		io.micrometer.tracing.Span span = (tracingContext != null) ? tracingContext.getSpan() : null;
+		if (span == null || span.isNoop()) {
+			return null;
+		}
+		TraceContext traceContext = span.context();
+		return (traceContext != null && traceContext.traceId() != null) ? traceContext : null;
+	}
+
 	public static String concatenateMaps(Map<String, Object> keyValues) {
 		var keyValuesJoiner = new StringJoiner(", ", "[", "]");
 		keyValues.forEach((key, value) -> keyValuesJoiner.add("\"" + key + "\":\"" + value + "\""));
 		return keyValuesJoiner.toString();
 	}
 
+	public static String concatenateEntries(List<? extends Map.Entry<String, ?>> entries) {
+		var entriesJoiner = new StringJoiner(", ", "[", "]");
+		entries.forEach(entry -> entriesJoiner.add("\"" + entry.getKey() + "\":\"" + entry.getValue() + "\""));
+		return entriesJoiner.toString();
+	}
+
+	public static String concatenateMedia(List<ChatModelObservationContentProcessor.MediaMetadata> media) {
+		var mediaJoiner = new StringJoiner(", ", "[", "]");
+		media.forEach(item -> mediaJoiner.add(item.format()));
+		return mediaJoiner.toString();
+	}
+
+	/**
+	 * Truncate the text to the given maximum length, without splitting a surrogate pair.
+	 * @param text the text to truncate
+	 * @param maxLength the maximum length
+	 * @return the truncated text
+	 */
+	@Nullable
+	public static String truncate(@Nullable String text, int maxLength) {
+		if (text == null || text.length() <= maxLength) {
+			return text;
+		}
+		int end = (maxLength > 0 && Character.isHighSurrogate(text.charAt(maxLength - 1))) ? maxLength - 1 : maxLength;
+		return text.substring(0, end);
+	}
+
+	/**
+	 * Truncate the texts so that their total length does not exceed the given maximum
+	 * length. Texts past the budget are dropped.
+	 * @param texts the texts to truncate
+	 * @param maxLength the maximum total length
+	 * @return the truncated texts
+	 */
+	public static List<String> truncate(List<String> texts, int maxLength) {
+		int remaining = maxLength;
+		List<String> truncated = null;
+		for (int i = 0; i < texts.size(); i++) {
+			String text = texts.get(i);
+			int length = (text != null) ? text.length() : 0;
+			if (length <= remaining) {
+				remaining -= length;
+				if (truncated != null) {
+					truncated.add(text);
+				}
+				continue;
+			}
+			if (truncated == null) {
+				truncated = new ArrayList<>(texts.subList(0, i));
+			}
+			if (remaining > 0) {
+				truncated.add(truncate(text, remaining));
+			}
+			break;
+		}
+		return (truncated != null) ? truncated : texts;
+	}
+
 	public static String concatenateStrings(List<String> strings) {
 		var stringsJoiner = new StringJoiner(", ", "[", "]");
 		strings.forEach(string -> stringsJoiner.add("\"" + string + "\""));
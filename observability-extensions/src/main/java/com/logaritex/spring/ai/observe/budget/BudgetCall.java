@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A chat call admitted by the {@link TokenBudgetAdvisor}, holding the reservation of its
+ * estimated tokens until the model reports the actual usage. Stored in the observation
+ * context of the advisor, where the {@link TokenBudgetObservationHandler} finds it.
+ *
+ * @author Christian Tzolov
+ */
+final class BudgetCall {
+
+	private final TokenBudget budget;
+
+	private final long reservation;
+
+	private final AtomicBoolean released = new AtomicBoolean();
+
+	private volatile boolean charged;
+
+	BudgetCall(TokenBudget budget, long reservation) {
+		this.budget = budget;
+		this.reservation = reservation;
+	}
+
+	/**
+	 * Charge the usage of one model call, replacing the reservation. A call with tool
+	 * round-trips is charged once per model call.
+	 * @param tokens the tokens reported by the model
+	 */
+	void charge(long tokens) {
+		this.charged = true;
+		this.budget.record(tokens);
+		release();
+	}
+
+	/**
+	 * Complete the call, charging the given usage unless already charged from the
+	 * observations.
+	 * @param tokens the tokens of the response, {@code 0} if unknown
+	 */
+	void complete(long tokens) {
+		if (!this.charged && tokens > 0) {
+			this.budget.record(tokens);
+		}
+		release();
+	}
+
+	private void release() {
+		if (this.released.compareAndSet(false, true)) {
+			this.budget.release(this.reservation);
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Clock;
+
+/**
+ * Counter summing the values added over a sliding time window. The window is divided in
+ * slots, each a striped {@link LongAdder}, so concurrent additions from many cores do not
+ * contend on a single atomic. A slot is replaced, rather than reset, when the window
+ * moves past it; an addition racing with the replacement may be lost, the price of not
+ * taking a lock.
+ *
+ * @author Christian Tzolov
+ */
+final class SlidingWindowCounter {
+
+	private final Clock clock;
+
+	private final long slotNanos;
+
+	private final AtomicReferenceArray<Slot> slots;
+
+	SlidingWindowCounter(Clock clock, Duration window, int slotCount) {
+		this.clock = clock;
+		this.slotNanos = Math.max(window.toNanos() / slotCount, 1);
+		this.slots = new AtomicReferenceArray<>(slotCount);
+		for (int i = 0; i < slotCount; i++) {
+			this.slots.set(i, new Slot(Long.MIN_VALUE));
+		}
+	}
+
+	void add(long value) {
+		long epoch = this.clock.monotonicTime() / this.slotNanos;
+		int index = (int) Math.floorMod(epoch, (long) this.slots.length());
+		Slot slot = this.slots.get(index);
+		if (slot.epoch() != epoch) {
+			Slot next = new Slot(epoch);
+			slot = this.slots.compareAndSet(index, slot, next) ? next : this.slots.get(index);
+		}
+		slot.count().add(value);
+	}
+
+	long sum() {
+		long epoch = this.clock.monotonicTime() / this.slotNanos;
+		long sum = 0;
+		for (int i = 0; i < this.slots.length(); i++) {
+			Slot slot = this.slots.get(i);
+			if (slot.epoch() != Long.MIN_VALUE && epoch - slot.epoch() < this.slots.length()) {
+				sum += slot.count().sum();
+			}
+		}
+		return sum;
+	}
+
+	private record Slot(long epoch, LongAdder count) {
+
+		Slot(long epoch) {
+			this(epoch, new LongAdder());
+		}
+
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token budget of a single tenant or key: the tokens used over the sliding window, and
+ * the tokens reserved by the calls in flight, checked against the limit.
+ * <p>
+ * The counters are striped, so the admission check and the reservation are not atomic
+ * together: under contention, the budget can be exceeded by the estimates of the calls
+ * admitted concurrently.
+ *
+ * @author Christian Tzolov
+ */
+public final class TokenBudget {
+
+	private final String key;
+
+	private final long limit;
+
+	private final SlidingWindowCounter used;
+
+	private final LongAdder reserved = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	TokenBudget(String key, long limit, SlidingWindowCounter used) {
+		this.key = key;
+		this.limit = limit;
+		this.used = used;
+	}
+
+	public String key() {
+		return this.key;
+	}
+
+	/**
+	 * Return the maximum number of tokens used over the window.
+	 * @return the token limit
+	 */
+	public long limit() {
+		return this.limit;
+	}
+
+	/**
+	 * Return the tokens reported by the models over the window.
+	 * @return the used tokens
+	 */
+	public long used() {
+		return this.used.sum();
+	}
+
+	/**
+	 * Return the tokens estimated for the calls in flight and not yet reported.
+	 * @return the reserved tokens
+	 */
+	public long reserved() {
+		return this.reserved.sum();
+	}
+
+	/**
+	 * Return the tokens left for new calls.
+	 * @return the remaining tokens, never negative
+	 */
+	public long remaining() {
+		return Math.max(this.limit - used() - reserved(), 0);
+	}
+
+	/**
+	 * Reserve the estimated tokens of a call, if they fit in the remaining budget.
+	 * @param tokens the estimated tokens
+	 * @return whether the tokens were reserved
+	 */
+	public boolean tryReserve(long tokens) {
+		if (tokens > remaining()) {
+			return false;
+		}
+		this.reserved.add(tokens);
+		return true;
+	}
+
+	/**
+	 * Release tokens previously reserved.
+	 * @param tokens the reserved tokens
+	 */
+	public void release(long tokens) {
+		this.reserved.add(-tokens);
+	}
+
+	/**
+	 * Charge the tokens used by a call to the budget.
+	 * @param tokens the used tokens
+	 */
+	public void record(long tokens) {
+		this.used.add(tokens);
+	}
+
+	void recordRejected() {
+		this.rejected.increment();
+	}
+
+	long rejected() {
+		return this.rejected.sum();
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.logaritex.spring.ai.observe.TokenEstimator;
+import com.logaritex.spring.ai.observe.TokenUsage;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Chat client advisor admitting a call only when its estimated tokens fit in the token
+ * budget of its key, over a sliding window. The budget key, typically a tenant or API
+ * key, is read from the {@value #BUDGET_KEY} request context entry by default.
+ * <p>
+ * The estimate is computed locally from the prompt messages, plus the maximum tokens of
+ * the completion when set in the options, and reserved while the call is in flight. The
+ * reservation is replaced by the usage reported by the chat model observations through
+ * the {@link TokenBudgetObservationHandler}, so every model call of a tool calling loop
+ * is charged; without the observations, the usage of the response is charged when the
+ * call completes. A call not fitting in the budget is rejected with a
+ * {@link TokenBudgetExceededException}, or, when queuing, waits for the budget to free up
+ * to the maximum wait.
+ * <p>
+ * The advisor runs after the other advisors by default, so the estimate covers the
+ * history and documents they add to the prompt.
+ *
+ * @author Christian Tzolov
+ */
+public class TokenBudgetAdvisor implements CallAdvisor, StreamAdvisor {
+
+	/**
+	 * Request context key of the budget key.
+	 */
+	public static final String BUDGET_KEY = "token_budget_key";
+
+	public static final String DEFAULT_KEY = "default";
+
+	public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(10);
+
+	public static final int DEFAULT_ORDER = Ordered.LOWEST_PRECEDENCE - 1000;
+
+	private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final TokenBudgets budgets;
+
+	private final Function<ChatClientRequest, String> keyResolver;
+
+	private final Mode mode;
+
+	private final Duration maxWait;
+
+	private final ObservationRegistry observationRegistry;
+
+	private final int order;
+
+	private TokenBudgetAdvisor(Builder builder) {
+		this.budgets = builder.budgets;
+		this.keyResolver = builder.keyResolver;
+		this.mode = builder.mode;
+		this.maxWait = builder.maxWait;
+		this.observationRegistry = builder.observationRegistry;
+		this.order = builder.order;
+	}
+
+	public static Builder builder(TokenBudgets budgets) {
+		return new Builder(budgets);
+	}
+
+	@Override
+	public String getName() {
+		return "TokenBudgetAdvisor";
+	}
+
+	@Override
+	public int getOrder() {
+		return this.order;
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+		BudgetCall call = admit(request);
+		Observation observation = this.observationRegistry.getCurrentObservation();
+		if (observation != null) {
+			observation.getContext().put(BudgetCall.class, call);
+		}
+		ChatClientResponse response = null;
+		try {
+			response = chain.nextCall(request);
+			return response;
+		}
+		finally {
+			call.complete((response != null) ? TokenUsage.total(response.chatResponse()) : 0);
+		}
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+		Flux<ChatClientResponse> responses = Flux.defer(() -> {
+			BudgetCall call = admit(request);
+			AtomicLong tokens = new AtomicLong();
+			return chain.nextStream(request)
+				.doOnNext(response -> tokens.accumulateAndGet(TokenUsage.total(response.chatResponse()), Math::max))
+				.doOnComplete(() -> call.complete(tokens.get()))
+				.doOnError(ex -> call.complete(tokens.get()))
+				.doOnCancel(() -> call.complete(tokens.get()));
+		});
+		return (this.mode == Mode.QUEUE) ? responses.subscribeOn(Schedulers.boundedElastic()) : responses;
+	}
+
+	private BudgetCall admit(ChatClientRequest request) {
+		String key = this.keyResolver.apply(request);
+		TokenBudget budget = this.budgets.budget((key != null) ? key : DEFAULT_KEY);
+		long estimate = estimate(request.prompt());
+		if (!reserve(budget, estimate)) {
+			budget.recordRejected();
+			throw new TokenBudgetExceededException(budget.key(), estimate, budget.remaining());
+		}
+		return new BudgetCall(budget, estimate);
+	}
+
+	private boolean reserve(TokenBudget budget, long estimate) {
+		if (budget.tryReserve(estimate)) {
+			return true;
+		}
+		if (this.mode == Mode.REJECT || estimate > budget.limit()) {
+			return false;
+		}
+		long deadline = System.nanoTime() + this.maxWait.toNanos();
+		long remainingNanos;
+		while ((remainingNanos = deadline - System.nanoTime()) > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(Math.min(remainingNanos, POLL_NANOS));
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			if (budget.tryReserve(estimate)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Estimate the tokens of a call: the prompt tokens, plus the maximum completion
+	 * tokens when set.
+	 * @param prompt the prompt
+	 * @return the estimated tokens
+	 */
+	static long estimate(Prompt prompt) {
+		long tokens = TokenEstimator.estimate(prompt.getInstructions());
+		ChatOptions options = prompt.getOptions();
+		if (options != null && options.getMaxTokens() != null) {
+			tokens += options.getMaxTokens();
+		}
+		return tokens;
+	}
+
+	@Nullable
+	private static String contextKey(ChatClientRequest request) {
+		Object key = request.context().get(BUDGET_KEY);
+		return (key != null) ? key.toString() : null;
+	}
+
+	/**
+	 * What to do with a call not fitting in the budget.
+	 */
+	public enum Mode {
+
+		/**
+		 * Reject the call immediately.
+		 */
+		REJECT,
+
+		/**
+		 * Wait for the budget to free, up to the maximum wait, then reject the call.
+		 */
+		QUEUE
+
+	}
+
+	public static final class Builder {
+
+		private final TokenBudgets budgets;
+
+		private Function<ChatClientRequest, String> keyResolver = TokenBudgetAdvisor::contextKey;
+
+		private Mode mode = Mode.REJECT;
+
+		private Duration maxWait = DEFAULT_MAX_WAIT;
+
+		private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+		private int order = DEFAULT_ORDER;
+
+		private Builder(TokenBudgets budgets) {
+			Assert.notNull(budgets, "budgets cannot be null");
+			this.budgets = budgets;
+		}
+
+		/**
+		 * Set the function resolving the budget key of a call, returning {@code null} for
+		 * the {@value #DEFAULT_KEY} key.
+		 * @param keyResolver the budget key resolver
+		 * @return this builder
+		 */
+		public Builder keyResolver(Function<ChatClientRequest, String> keyResolver) {
+			Assert.notNull(keyResolver, "keyResolver cannot be null");
+			this.keyResolver = keyResolver;
+			return this;
+		}
+
+		public Builder mode(Mode mode) {
+			Assert.notNull(mode, "mode cannot be null");
+			this.mode = mode;
+			return this;
+		}
+
+		public Builder maxWait(Duration maxWait) {
+			Assert.isTrue(maxWait != null && !maxWait.isNegative(), "maxWait must not be negative");
+			this.maxWait = maxWait;
+			return this;
+		}
+
+		/**
+		 * Set the observation registry of the chat client, so the usage reported by the
+		 * chat model observations is charged as soon as every model call completes.
+		 * @param observationRegistry the observation registry
+		 * @return this builder
+		 */
+		public Builder observationRegistry(ObservationRegistry observationRegistry) {
+			Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+			this.observationRegistry = observationRegistry;
+			return this;
+		}
+
+		public Builder order(int order) {
+			this.order = order;
+			return this;
+		}
+
+		public TokenBudgetAdvisor build() {
+			return new TokenBudgetAdvisor(this);
+		}
+
+	}
+
+}
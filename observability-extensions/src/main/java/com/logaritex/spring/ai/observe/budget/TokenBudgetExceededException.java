@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+/**
+ * Thrown when a chat call is rejected because it would exceed the token budget of its
+ * key.
+ *
+ * @author Christian Tzolov
+ */
+public class TokenBudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String key;
+
+	private final long requested;
+
+	private final long remaining;
+
+	public TokenBudgetExceededException(String key, long requested, long remaining) {
+		super("Token budget of '" + key + "' exceeded: " + requested + " tokens requested, " + remaining
+				+ " remaining");
+		this.key = key;
+		this.requested = requested;
+		this.remaining = remaining;
+	}
+
+	public String getKey() {
+		return this.key;
+	}
+
+	public long getRequested() {
+		return this.requested;
+	}
+
+	public long getRemaining() {
+		return this.remaining;
+	}
+
+}
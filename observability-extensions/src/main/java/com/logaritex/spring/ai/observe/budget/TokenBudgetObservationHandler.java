@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import com.logaritex.spring.ai.observe.TokenUsage;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.lang.Nullable;
+
+/**
+ * Handler charging the token usage reported by every chat model call to the budget of the
+ * {@link TokenBudgetAdvisor} call it is part of, found in the parent observations. The
+ * chat model calls made outside of an admitted call are ignored.
+ *
+ * @author Christian Tzolov
+ */
+public class TokenBudgetObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		long tokens = TokenUsage.total(context.getResponse());
+		if (tokens <= 0) {
+			return;
+		}
+		BudgetCall call = budgetCall(context);
+		if (call != null) {
+			call.charge(tokens);
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	@Nullable
+	private static BudgetCall budgetCall(Observation.ContextView context) {
+		ObservationView parent = context.getParentObservation();
+		while (parent != null) {
+			BudgetCall call = parent.getContextView().get(BudgetCall.class);
+			if (call != null) {
+				return call;
+			}
+			parent = parent.getContextView().getParentObservation();
+		}
+		return null;
+	}
+
+}
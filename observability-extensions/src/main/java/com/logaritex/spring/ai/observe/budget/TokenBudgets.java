@@ -0,0 +1,203 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * The token budgets of all the tenants or keys, over a common sliding window. Every key
+ * gets the default limit unless configured otherwise.
+ * <p>
+ * The number of tracked keys is bounded. A key seen after the limit is reached takes the
+ * place of an idle budget, without tokens used over the window nor reserved, and its
+ * meters; keys finding no idle budget share the budget of the {@value #OTHER} key, unless
+ * their limit is configured. The budgets of the configured keys and the {@value #OTHER}
+ * budget are never evicted. A scan finding no idle budget is not repeated before the
+ * window moves by one slot, so the keys over the limit do not scan the budgets on every
+ * call. When a {@link MeterRegistry} is given, every budget registers gauges with its
+ * remaining and used tokens, and a counter of the rejected calls, tagged with the key.
+ *
+ * @author Christian Tzolov
+ */
+public class TokenBudgets {
+
+	public static final String REMAINING_METER_NAME = "gen_ai.client.token.budget.remaining";
+
+	public static final String USED_METER_NAME = "gen_ai.client.token.budget.used";
+
+	public static final String REJECTED_METER_NAME = "gen_ai.client.token.budget.rejected";
+
+	public static final String KEY_TAG = "gen_ai.budget.key";
+
+	public static final String OTHER = "other";
+
+	public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+
+	public static final int DEFAULT_MAX_KEYS = 1000;
+
+	private static final int SLOTS = 12;
+
+	@Nullable
+	private final MeterRegistry meterRegistry;
+
+	private final Clock clock;
+
+	private final Duration window;
+
+	private final long defaultLimit;
+
+	private final Map<String, Long> limits;
+
+	private final int maxKeys;
+
+	private final long slotNanos;
+
+	private final Map<String, TokenBudget> budgets = new ConcurrentHashMap<>();
+
+	private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+	private final AtomicLong nextEvictionNanos;
+
+	public TokenBudgets(long defaultLimit) {
+		this(null, Clock.SYSTEM, DEFAULT_WINDOW, defaultLimit, Map.of(), DEFAULT_MAX_KEYS);
+	}
+
+	/**
+	 * Create the token budgets.
+	 * @param meterRegistry the registry of the budget meters, or {@code null} for none
+	 * @param clock the clock moving the window
+	 * @param window the sliding window of the budgets
+	 * @param defaultLimit the token limit of the keys without a configured limit
+	 * @param limits the token limits by key
+	 * @param maxKeys the maximum number of keys with their own budget
+	 */
+	public TokenBudgets(@Nullable MeterRegistry meterRegistry, Clock clock, Duration window, long defaultLimit,
+			Map<String, Long> limits, int maxKeys) {
+		Assert.notNull(clock, "clock cannot be null");
+		Assert.isTrue(window != null && !window.isNegative() && !window.isZero(), "window must be positive");
+		Assert.isTrue(defaultLimit > 0, "defaultLimit must be greater than zero");
+		Assert.notNull(limits, "limits cannot be null");
+		limits.forEach((key, limit) -> Assert.isTrue(limit > 0, () -> "limit of '" + key + "' must be positive"));
+		Assert.isTrue(maxKeys > 0, "maxKeys must be greater than zero");
+		this.meterRegistry = meterRegistry;
+		this.clock = clock;
+		this.window = window;
+		this.defaultLimit = defaultLimit;
+		this.limits = Map.copyOf(limits);
+		this.maxKeys = maxKeys;
+		this.slotNanos = Math.max(window.toNanos() / SLOTS, 1);
+		this.nextEvictionNanos = new AtomicLong(clock.monotonicTime());
+	}
+
+	/**
+	 * Return the budget of the given key.
+	 * @param key the tenant or key
+	 * @return the budget
+	 */
+	public TokenBudget budget(String key) {
+		TokenBudget budget = this.budgets.get(key);
+		if (budget != null) {
+			return budget;
+		}
+		String boundedKey = (this.budgets.size() < this.maxKeys || this.limits.containsKey(key) || evictIdle()) ? key
+				: OTHER;
+		return this.budgets.computeIfAbsent(boundedKey, this::register);
+	}
+
+	public Duration window() {
+		return this.window;
+	}
+
+	/**
+	 * Evict an idle budget. A call holding the evicted budget, and about to reserve
+	 * tokens from it, charges a budget no longer tracked: the new budget of its key
+	 * misses that call only.
+	 * @return whether a budget was evicted
+	 */
+	private boolean evictIdle() {
+		long nowNanos = this.clock.monotonicTime();
+		long next = this.nextEvictionNanos.get();
+		if (nowNanos - next < 0) {
+			return false;
+		}
+		for (TokenBudget candidate : this.budgets.values()) {
+			if (!isIdle(candidate) || OTHER.equals(candidate.key()) || this.limits.containsKey(candidate.key())) {
+				continue;
+			}
+			TokenBudget remaining = this.budgets.computeIfPresent(candidate.key(), (key, budget) -> {
+				if (budget != candidate || !isIdle(budget)) {
+					return budget;
+				}
+				unregister(key);
+				return null;
+			});
+			if (remaining == null) {
+				return true;
+			}
+		}
+		this.nextEvictionNanos.compareAndSet(next, nowNanos + this.slotNanos);
+		return false;
+	}
+
+	private static boolean isIdle(TokenBudget budget) {
+		return budget.reserved() == 0 && budget.used() == 0;
+	}
+
+	private void unregister(String key) {
+		List<Meter> meters = this.meters.remove(key);
+		if (meters != null) {
+			meters.forEach(this.meterRegistry::remove);
+		}
+	}
+
+	private TokenBudget register(String key) {
+		TokenBudget budget = new TokenBudget(key, this.limits.getOrDefault(key, this.defaultLimit),
+				new SlidingWindowCounter(this.clock, this.window, SLOTS));
+		if (this.meterRegistry != null) {
+			Gauge remaining = Gauge.builder(REMAINING_METER_NAME, budget, TokenBudget::remaining)
+				.description("Tokens left in the budget over the sliding window")
+				.baseUnit("tokens")
+				.tag(KEY_TAG, key)
+				.register(this.meterRegistry);
+			Gauge used = Gauge.builder(USED_METER_NAME, budget, TokenBudget::used)
+				.description("Tokens used over the sliding window")
+				.baseUnit("tokens")
+				.tag(KEY_TAG, key)
+				.register(this.meterRegistry);
+			FunctionCounter rejected = FunctionCounter.builder(REJECTED_METER_NAME, budget, TokenBudget::rejected)
+				.description("Chat calls rejected for exceeding the token budget")
+				.tag(KEY_TAG, key)
+				.register(this.meterRegistry);
+			this.meters.put(key, List.of(remaining, used, rejected));
+		}
+		return budget;
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.util.Assert;
+
+/**
+ * Stub {@link ChatModel} replaying the calls recorded in a replay log, to load test an
+ * application locally without a model provider. Every call returns the completion of the
+ * next recorded call, in a round-robin fashion, after waiting for its recorded duration.
+ * The prompt of the call is ignored. A call recorded without its completion text is
+ * answered with filler text of the recorded completion lengths, so the responses keep
+ * their recorded sizes.
+ * <p>
+ * A replay log is streamed with {@link ReplayLogReader#stream(Path)}, decoding one block
+ * at a time, and read again from its start once exhausted, so logs of any size are
+ * replayed without loading them onto the heap. The model should be closed once done to
+ * release the log.
+ *
+ * @author Christian Tzolov
+ */
+public class ReplayChatModel implements ChatModel, AutoCloseable {
+
+	private final RecordSource source;
+
+	private final double latencyFactor;
+
+	private Stream<ReplayRecord> stream;
+
+	private Iterator<ReplayRecord> records;
+
+	public ReplayChatModel(List<ReplayRecord> records) {
+		this(records, 1.0);
+	}
+
+	/**
+	 * Create a replaying chat model.
+	 * @param records the recorded calls to replay
+	 * @param latencyFactor the factor applied to the recorded durations, {@code 0} to
+	 * answer immediately
+	 */
+	public ReplayChatModel(List<ReplayRecord> records, double latencyFactor) {
+		this(List.copyOf(notEmpty(records))::stream, latencyFactor);
+	}
+
+	private ReplayChatModel(RecordSource source, double latencyFactor) {
+		Assert.isTrue(latencyFactor >= 0, "latencyFactor must not be negative");
+		this.source = source;
+		this.latencyFactor = latencyFactor;
+		rewind();
+		Assert.isTrue(this.records.hasNext(), "records cannot be empty");
+	}
+
+	/**
+	 * Create a chat model replaying the given replay log file or directory.
+	 * @param path the replay log file or directory
+	 * @return the replaying chat model
+	 * @throws IOException if the replay log cannot be read
+	 */
+	public static ReplayChatModel from(Path path) throws IOException {
+		return from(path, 1.0);
+	}
+
+	/**
+	 * Create a chat model replaying the given replay log file or directory.
+	 * @param path the replay log file or directory
+	 * @param latencyFactor the factor applied to the recorded durations, {@code 0} to
+	 * answer immediately
+	 * @return the replaying chat model
+	 * @throws IOException if the replay log cannot be read
+	 */
+	public static ReplayChatModel from(Path path, double latencyFactor) throws IOException {
+		try {
+			return new ReplayChatModel(() -> ReplayLogReader.stream(path), latencyFactor);
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	@Override
+	public ChatResponse call(Prompt prompt) {
+		ReplayRecord record = next();
+		pause((long) (record.durationNanos() * this.latencyFactor));
+		return response(record);
+	}
+
+	@Override
+	public Flux<ChatResponse> stream(Prompt prompt) {
+		return Flux.defer(() -> Flux.just(call(prompt))).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@Override
+	public synchronized void close() {
+		this.stream.close();
+	}
+
+	private synchronized ReplayRecord next() {
+		if (!this.records.hasNext()) {
+			rewind();
+		}
+		return this.records.next();
+	}
+
+	private void rewind() {
+		if (this.stream != null) {
+			this.stream.close();
+		}
+		try {
+			this.stream = this.source.open();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		this.records = this.stream.iterator();
+	}
+
+	private static List<ReplayRecord> notEmpty(List<ReplayRecord> records) {
+		Assert.notEmpty(records, "records cannot be empty");
+		return records;
+	}
+
+	private static ChatResponse response(ReplayRecord record) {
+		List<String> completion = record.completion().isEmpty()
+				? record.completionLengths().stream().map(ReplayChatModel::filler).toList() : record.completion();
+		List<Generation> generations = completion.stream()
+			.map(text -> new Generation(new AssistantMessage(text)))
+			.toList();
+		ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder();
+		if (record.model() != null) {
+			metadata.model(record.model());
+		}
+		if (record.promptTokens() >= 0 || record.completionTokens() >= 0) {
+			metadata
+				.usage(new DefaultUsage(Math.max(record.promptTokens(), 0), Math.max(record.completionTokens(), 0)));
+		}
+		return new ChatResponse(generations, metadata.build());
+	}
+
+	private static String filler(int length) {
+		return "x".repeat(length);
+	}
+
+	private static void pause(long nanos) {
+		if (nanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Opens the stream of the records to replay, once per round.
+	 */
+	@FunctionalInterface
+	private interface RecordSource {
+
+		Stream<ReplayRecord> open() throws IOException;
+
+	}
+
+}
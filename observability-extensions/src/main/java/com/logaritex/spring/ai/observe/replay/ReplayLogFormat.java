@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The binary layout of the replay logs. A log file starts with a header, followed by
+ * blocks of length-prefixed records:
+ *
+ * <pre>
+ * file   := magic:int version:byte flags:byte block*
+ * block  := rawLength:int storedLength:int recordCount:int data:byte[storedLength]
+ * data   := record*                  (deflated when the COMPRESSED flag is set)
+ * record := length:int timestamp:long durationNanos:long promptTokens:int
+ *           completionTokens:int promptLength:int provider:string model:string
+ *           completionLengthCount:int int* promptCount:int string*
+ *           completionCount:int string*
+ * string := length:int utf8:byte[length]     (length -1 for null)
+ * </pre>
+ *
+ * All numbers are big-endian.
+ *
+ * @author Christian Tzolov
+ */
+final class ReplayLogFormat {
+
+	static final int MAGIC = 0x53414952;
+
+	static final byte VERSION = 2;
+
+	static final byte COMPRESSED = 1;
+
+	static final int FILE_HEADER_SIZE = 6;
+
+	static final int BLOCK_HEADER_SIZE = 12;
+
+	private ReplayLogFormat() {
+	}
+
+	static void writeRecord(DataOutput out, ReplayRecord record) throws IOException {
+		out.writeLong(record.timestamp());
+		out.writeLong(record.durationNanos());
+		out.writeInt(record.promptTokens());
+		out.writeInt(record.completionTokens());
+		out.writeInt(record.promptLength());
+		writeString(out, record.provider());
+		writeString(out, record.model());
+		out.writeInt(record.completionLengths().size());
+		for (int length : record.completionLengths()) {
+			out.writeInt(length);
+		}
+		writeStrings(out, record.prompt());
+		writeStrings(out, record.completion());
+	}
+
+	static ReplayRecord readRecord(ByteBuffer in) {
+		long timestamp = in.getLong();
+		long durationNanos = in.getLong();
+		int promptTokens = in.getInt();
+		int completionTokens = in.getInt();
+		int promptLength = in.getInt();
+		String provider = readString(in);
+		String model = readString(in);
+		int count = in.getInt();
+		List<Integer> completionLengths = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			completionLengths.add(in.getInt());
+		}
+		List<String> prompt = readStrings(in);
+		List<String> completion = readStrings(in);
+		return new ReplayRecord(timestamp, durationNanos, provider, model, promptTokens, completionTokens, promptLength,
+				completionLengths, prompt, completion);
+	}
+
+	private static void writeStrings(DataOutput out, List<String> strings) throws IOException {
+		out.writeInt(strings.size());
+		for (String string : strings) {
+			writeString(out, string);
+		}
+	}
+
+	private static void writeString(DataOutput out, @Nullable String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static List<String> readStrings(ByteBuffer in) {
+		int count = in.getInt();
+		List<String> strings = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			strings.add(readString(in));
+		}
+		return strings;
+	}
+
+	@Nullable
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String string;
+		if (in.hasArray()) {
+			string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		}
+		else {
+			byte[] bytes = new byte[length];
+			in.get(in.position(), bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+		}
+		in.position(in.position() + length);
+		return string;
+	}
+
+}
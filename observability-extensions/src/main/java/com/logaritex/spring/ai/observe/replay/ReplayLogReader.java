@@ -0,0 +1,218 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the {@link ReplayRecord replay records} written by {@link ReplayLogWriter}. The
+ * files are memory-mapped and decoded one block at a time, so uncompressed logs are
+ * decoded without copying them onto the heap first and only the current block of a
+ * compressed log is inflated.
+ * <p>
+ * A block truncated by a crash of the writer ends the file: the records before it are
+ * returned, the partial block is ignored.
+ *
+ * @author Christian Tzolov
+ */
+public final class ReplayLogReader {
+
+	private ReplayLogReader() {
+	}
+
+	/**
+	 * Stream the records of a replay log file, or of all the replay log files of a
+	 * directory in sequence order. The records are decoded as the stream is consumed; the
+	 * stream should be closed once done. A file that cannot be read fails the stream with
+	 * an {@link UncheckedIOException}.
+	 * @param path the replay log file or directory
+	 * @return the records, in the order they were written
+	 * @throws IOException if the directory cannot be listed
+	 */
+	public static Stream<ReplayRecord> stream(Path path) throws IOException {
+		RecordIterator records = new RecordIterator(files(path).iterator());
+		return StreamSupport
+			.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(records::close);
+	}
+
+	/**
+	 * Read all the records of a replay log file, or of all the replay log files of a
+	 * directory in sequence order. Prefer {@link #stream(Path)} for large logs.
+	 * @param path the replay log file or directory
+	 * @return the records, in the order they were written
+	 * @throws IOException if a file cannot be read or is not a replay log
+	 */
+	public static List<ReplayRecord> read(Path path) throws IOException {
+		try (Stream<ReplayRecord> records = stream(path)) {
+			return records.toList();
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	private static List<Path> files(Path path) throws IOException {
+		if (!Files.isDirectory(path)) {
+			return List.of(path);
+		}
+		try (Stream<Path> list = Files.list(path)) {
+			return list.filter(file -> file.getFileName().toString().endsWith(ReplayLogWriter.FILE_EXTENSION))
+				.sorted()
+				.toList();
+		}
+	}
+
+	private static ByteBuffer inflate(Inflater inflater, ByteBuffer stored, int rawLength) throws DataFormatException {
+		byte[] raw = new byte[rawLength];
+		inflater.reset();
+		inflater.setInput(stored);
+		int length = 0;
+		while (length < rawLength && !inflater.finished()) {
+			int inflated = inflater.inflate(raw, length, rawLength - length);
+			if (inflated == 0 && inflater.needsInput()) {
+				throw new DataFormatException("Truncated block");
+			}
+			length += inflated;
+		}
+		return ByteBuffer.wrap(raw);
+	}
+
+	/**
+	 * Iterates over the records of the files, decoding one block at a time.
+	 */
+	private static final class RecordIterator implements Iterator<ReplayRecord> {
+
+		private final Iterator<Path> files;
+
+		private Path file;
+
+		private MappedByteBuffer buffer;
+
+		private boolean compressed;
+
+		private Inflater inflater;
+
+		private ByteBuffer block;
+
+		private int blockRecords;
+
+		RecordIterator(Iterator<Path> files) {
+			this.files = files;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.blockRecords == 0) {
+				if (!nextBlock() && !nextFile()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public ReplayRecord next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int length = this.block.getInt();
+			int end = this.block.position() + length;
+			ReplayRecord replayRecord = ReplayLogFormat.readRecord(this.block);
+			this.block.position(end);
+			this.blockRecords--;
+			return replayRecord;
+		}
+
+		void close() {
+			if (this.inflater != null) {
+				this.inflater.end();
+				this.inflater = null;
+			}
+			this.buffer = null;
+			this.block = null;
+		}
+
+		private boolean nextFile() {
+			if (!this.files.hasNext()) {
+				this.buffer = null;
+				return false;
+			}
+			this.file = this.files.next();
+			try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+				this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				if (this.buffer.remaining() < ReplayLogFormat.FILE_HEADER_SIZE
+						|| this.buffer.getInt() != ReplayLogFormat.MAGIC) {
+					throw new IOException("Not a replay log: " + this.file);
+				}
+				byte version = this.buffer.get();
+				if (version != ReplayLogFormat.VERSION) {
+					throw new IOException("Unsupported replay log version " + version + ": " + this.file);
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			this.compressed = (this.buffer.get() & ReplayLogFormat.COMPRESSED) != 0;
+			if (this.compressed && this.inflater == null) {
+				this.inflater = new Inflater();
+			}
+			return true;
+		}
+
+		private boolean nextBlock() {
+			if (this.buffer == null || this.buffer.remaining() < ReplayLogFormat.BLOCK_HEADER_SIZE) {
+				return false;
+			}
+			int rawLength = this.buffer.getInt();
+			int storedLength = this.buffer.getInt();
+			int recordCount = this.buffer.getInt();
+			if (this.buffer.remaining() < storedLength) {
+				this.buffer.position(this.buffer.limit());
+				return false;
+			}
+			ByteBuffer stored = this.buffer.slice(this.buffer.position(), storedLength);
+			this.buffer.position(this.buffer.position() + storedLength);
+			try {
+				this.block = this.compressed ? inflate(this.inflater, stored, rawLength) : stored;
+			}
+			catch (DataFormatException ex) {
+				throw new UncheckedIOException(new IOException("Corrupted replay log: " + this.file, ex));
+			}
+			this.blockRecords = recordCount;
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Appends {@link ReplayRecord replay records} to a rotating set of compact binary log
+ * files, see {@link ReplayLogFormat} for the layout.
+ * <p>
+ * {@link #append(ReplayRecord)} never blocks: the records are handed over to a bounded
+ * queue and encoded and written by a background thread, records offered while the queue
+ * is full are dropped and counted. The records are buffered in memory and written one
+ * block at a time, optionally deflated. A block is written when it reaches the configured
+ * block size, on {@link #flush()} and on {@link #close()}; a crash loses at most the
+ * queued records and the current block. Once a file exceeds the maximum file size a new
+ * one is started, named {@code <prefix>-<sequence>.replay}, and the oldest files beyond
+ * the maximum number of files are deleted. The writer is thread-safe.
+ *
+ * @author Christian Tzolov
+ */
+public class ReplayLogWriter implements Closeable {
+
+	public static final String FILE_EXTENSION = ".replay";
+
+	public static final String DEFAULT_PREFIX = "chat";
+
+	public static final long DEFAULT_MAX_FILE_SIZE = 64 * 1024 * 1024;
+
+	public static final int DEFAULT_MAX_FILES = 16;
+
+	public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+	private static final Logger logger = LoggerFactory.getLogger(ReplayLogWriter.class);
+
+	private final Path directory;
+
+	private final String prefix;
+
+	private final long maxFileSize;
+
+	private final int maxFiles;
+
+	private final int blockSize;
+
+	private final boolean compress;
+
+	private final BlockingQueue<Object> queue;
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final ByteArrayOutputStream block;
+
+	private final DataOutputStream blockOut;
+
+	private final ByteArrayOutputStream record = new ByteArrayOutputStream(1024);
+
+	private final DataOutputStream recordOut = new DataOutputStream(this.record);
+
+	private final Deflater deflater;
+
+	private byte[] deflated = new byte[0];
+
+	private int blockRecords;
+
+	private FileChannel channel;
+
+	private long fileSize;
+
+	private int sequence;
+
+	private boolean failureLogged;
+
+	private volatile boolean closed;
+
+	protected ReplayLogWriter(Builder builder) throws IOException {
+		Assert.notNull(builder.directory, "directory cannot be null");
+		Assert.hasText(builder.prefix, "prefix cannot be empty");
+		Assert.isTrue(builder.maxFileSize > 0, "maxFileSize must be greater than zero");
+		Assert.isTrue(builder.maxFiles > 0, "maxFiles must be greater than zero");
+		Assert.isTrue(builder.blockSize > 0, "blockSize must be greater than zero");
+		Assert.isTrue(builder.queueCapacity > 0, "queueCapacity must be greater than zero");
+		this.directory = builder.directory;
+		this.prefix = builder.prefix;
+		this.maxFileSize = builder.maxFileSize;
+		this.maxFiles = builder.maxFiles;
+		this.blockSize = builder.blockSize;
+		this.compress = builder.compress;
+		this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+		this.block = new ByteArrayOutputStream(this.blockSize);
+		this.blockOut = new DataOutputStream(this.block);
+		this.deflater = this.compress ? new Deflater(Deflater.BEST_SPEED) : null;
+		Files.createDirectories(this.directory);
+		this.sequence = lastSequence();
+		Thread thread = new Thread(this::run, "replay-log-writer-" + this.prefix);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public static Builder builder(Path directory) {
+		return new Builder(directory);
+	}
+
+	/**
+	 * Append a record to the log, without waiting for it to be written.
+	 * @param replayRecord the record to append
+	 * @return {@code true} if the record was queued, {@code false} if it was dropped
+	 * because the queue is full
+	 */
+	public boolean append(ReplayRecord replayRecord) {
+		Assert.notNull(replayRecord, "replayRecord cannot be null");
+		Assert.state(!this.closed, "The replay log is closed");
+		if (this.queue.offer(replayRecord)) {
+			return true;
+		}
+		this.dropped.increment();
+		return false;
+	}
+
+	/**
+	 * Return the number of records dropped because the queue was full.
+	 * @return the number of dropped records
+	 */
+	public long dropped() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Write the queued and buffered records, if any, to the current file.
+	 * @throws IOException if the block cannot be written
+	 */
+	public synchronized void flush() throws IOException {
+		if (!this.closed) {
+			request(new Request(false));
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		request(new Request(true));
+	}
+
+	private void request(Request request) throws IOException {
+		try {
+			this.queue.put(request);
+			request.done().get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the replay log to be written");
+		}
+		catch (ExecutionException ex) {
+			throw (ex.getCause() instanceof IOException ioException) ? ioException
+					: new IOException("Failed to write the replay log", ex.getCause());
+		}
+	}
+
+	private void run() {
+		try {
+			while (true) {
+				Object next = this.queue.take();
+				if (next instanceof ReplayRecord replayRecord) {
+					write(replayRecord);
+				}
+				else if (next instanceof Request request) {
+					complete(request);
+					if (request.close()) {
+						return;
+					}
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void write(ReplayRecord replayRecord) {
+		try {
+			this.record.reset();
+			ReplayLogFormat.writeRecord(this.recordOut, replayRecord);
+			this.blockOut.writeInt(this.record.size());
+			this.record.writeTo(this.blockOut);
+			this.blockRecords++;
+			if (this.block.size() >= this.blockSize) {
+				writeBlock();
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			this.block.reset();
+			this.blockRecords = 0;
+			if (!this.failureLogged) {
+				this.failureLogged = true;
+				logger.warn("Failed to write to the replay log in {}, the buffered records are dropped and further "
+						+ "failures are not logged", this.directory, ex);
+			}
+		}
+	}
+
+	private void complete(Request request) {
+		try {
+			try {
+				if (this.blockRecords > 0) {
+					writeBlock();
+				}
+			}
+			finally {
+				if (request.close()) {
+					release();
+				}
+			}
+			request.done().complete(null);
+		}
+		catch (IOException | RuntimeException ex) {
+			request.done().completeExceptionally(ex);
+		}
+	}
+
+	private void release() throws IOException {
+		if (this.deflater != null) {
+			this.deflater.end();
+		}
+		if (this.channel != null) {
+			this.channel.close();
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		byte[] raw = this.block.toByteArray();
+		this.block.reset();
+		int records = this.blockRecords;
+		this.blockRecords = 0;
+		byte[] stored = raw;
+		int storedLength = raw.length;
+		if (this.compress) {
+			storedLength = deflate(raw);
+			stored = this.deflated;
+		}
+		ByteBuffer header = ByteBuffer.allocate(ReplayLogFormat.BLOCK_HEADER_SIZE);
+		header.putInt(raw.length).putInt(storedLength).putInt(records).flip();
+		FileChannel channel = channel();
+		writeFully(channel, header);
+		writeFully(channel, ByteBuffer.wrap(stored, 0, storedLength));
+		this.fileSize += ReplayLogFormat.BLOCK_HEADER_SIZE + storedLength;
+	}
+
+	private int deflate(byte[] raw) {
+		if (this.deflated.length < raw.length + 64) {
+			this.deflated = new byte[raw.length + 64];
+		}
+		this.deflater.reset();
+		this.deflater.setInput(raw);
+		this.deflater.finish();
+		int length = 0;
+		while (!this.deflater.finished()) {
+			if (length == this.deflated.length) {
+				byte[] larger = new byte[this.deflated.length * 2];
+				System.arraycopy(this.deflated, 0, larger, 0, length);
+				this.deflated = larger;
+			}
+			length += this.deflater.deflate(this.deflated, length, this.deflated.length - length);
+		}
+		return length;
+	}
+
+	private FileChannel channel() throws IOException {
+		if (this.channel != null && this.fileSize < this.maxFileSize) {
+			return this.channel;
+		}
+		if (this.channel != null) {
+			this.channel.close();
+		}
+		this.sequence++;
+		Path file = this.directory.resolve(String.format("%s-%06d%s", this.prefix, this.sequence, FILE_EXTENSION));
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		ByteBuffer header = ByteBuffer.allocate(ReplayLogFormat.FILE_HEADER_SIZE);
+		header.putInt(ReplayLogFormat.MAGIC)
+			.put(ReplayLogFormat.VERSION)
+			.put(this.compress ? ReplayLogFormat.COMPRESSED : 0)
+			.flip();
+		writeFully(this.channel, header);
+		this.fileSize = ReplayLogFormat.FILE_HEADER_SIZE;
+		deleteOldFiles();
+		return this.channel;
+	}
+
+	private void deleteOldFiles() throws IOException {
+		int oldest = this.sequence - this.maxFiles;
+		if (oldest <= 0) {
+			return;
+		}
+		try (var files = Files.list(this.directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				int sequence = sequence(file);
+				if (sequence > 0 && sequence <= oldest) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	private int lastSequence() throws IOException {
+		int last = 0;
+		try (var files = Files.list(this.directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				last = Math.max(last, sequence(file));
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Return the sequence number of one of the log files, or {@code -1} if the file is
+	 * not one of ours.
+	 */
+	private int sequence(Path file) {
+		String name = file.getFileName().toString();
+		if (name.startsWith(this.prefix + "-") && name.endsWith(FILE_EXTENSION)) {
+			try {
+				return Integer
+					.parseInt(name.substring(this.prefix.length() + 1, name.length() - FILE_EXTENSION.length()));
+			}
+			catch (NumberFormatException ex) {
+				// Not one of ours
+			}
+		}
+		return -1;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Request to write the buffered records, processed in order with the queued records.
+	 */
+	private record Request(boolean close, CompletableFuture<Void> done) {
+
+		Request(boolean close) {
+			this(close, new CompletableFuture<>());
+		}
+
+	}
+
+	public static final class Builder {
+
+		private final Path directory;
+
+		private String prefix = DEFAULT_PREFIX;
+
+		private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+
+		private int maxFiles = DEFAULT_MAX_FILES;
+
+		private int blockSize = DEFAULT_BLOCK_SIZE;
+
+		private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+		private boolean compress = true;
+
+		private Builder(Path directory) {
+			this.directory = directory;
+		}
+
+		public Builder prefix(String prefix) {
+			this.prefix = prefix;
+			return this;
+		}
+
+		public Builder maxFileSize(long maxFileSize) {
+			this.maxFileSize = maxFileSize;
+			return this;
+		}
+
+		public Builder maxFiles(int maxFiles) {
+			this.maxFiles = maxFiles;
+			return this;
+		}
+
+		public Builder blockSize(int blockSize) {
+			this.blockSize = blockSize;
+			return this;
+		}
+
+		public Builder queueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		public Builder compress(boolean compress) {
+			this.compress = compress;
+			return this;
+		}
+
+		public ReplayLogWriter build() throws IOException {
+			return new ReplayLogWriter(this);
+		}
+
+	}
+
+}
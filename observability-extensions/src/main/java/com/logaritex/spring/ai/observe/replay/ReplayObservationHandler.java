@@ -0,0 +1,153 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.logaritex.spring.ai.observe.ChatModelObservationContentProcessor;
+import com.logaritex.spring.ai.observe.ChatModelObservationContentProcessor.CompletionChoice;
+import com.logaritex.spring.ai.observe.ContentCaptureControl;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import com.logaritex.spring.ai.observe.TracingHelper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Handler appending every completed chat model call to a {@link ReplayLogWriter replay
+ * log}, with its duration, token usage, prompt and completion lengths, and content. The
+ * content is extracted with {@link ChatModelObservationContentProcessor}, following the
+ * prompt and completion switches, the maximum lengths, the sample rate and the per-role
+ * message policy of the content capture settings, including the capture rules. The
+ * lengths are recorded whatever the settings, so the sizes of the calls can be replayed
+ * without their content.
+ * <p>
+ * Failing to write the log never fails or delays the call: the records are written in the
+ * background and dropped when the writer falls behind, the first drop is logged.
+ *
+ * @author Christian Tzolov
+ */
+public class ReplayObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReplayObservationHandler.class);
+
+	private final ReplayLogWriter writer;
+
+	private final ContentCaptureControl control;
+
+	private final AtomicBoolean failureLogged = new AtomicBoolean();
+
+	public ReplayObservationHandler(ReplayLogWriter writer) {
+		this(writer, new ContentCaptureControl(ContentCaptureSettings.ENABLED));
+	}
+
+	public ReplayObservationHandler(ReplayLogWriter writer, ContentCaptureControl control) {
+		Assert.notNull(writer, "writer cannot be null");
+		Assert.notNull(control, "control cannot be null");
+		this.writer = writer;
+		this.control = control;
+	}
+
+	@Override
+	public void onStart(ChatModelObservationContext context) {
+		context.put(ReplayStart.class, new ReplayStart(System.nanoTime()));
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		ReplayStart start = context.get(ReplayStart.class);
+		if (start == null) {
+			return;
+		}
+		long durationNanos = System.nanoTime() - start.nanos();
+		ContentCaptureSettings settings = this.control.settings(context);
+		boolean sampled = (settings.prompt() || settings.completion()) && this.control.isSampled(context, settings);
+		List<String> prompt = (sampled && settings.prompt())
+				? TracingHelper.truncate(ChatModelObservationContentProcessor.prompt(context, settings.messages()),
+						settings.maxPromptLength())
+				: List.of();
+		List<String> completion = (sampled && settings.completion()) ? TracingHelper.truncate(
+				ChatModelObservationContentProcessor.completion(context), settings.maxCompletionLength()) : List.of();
+		ChatResponseMetadata metadata = (context.getResponse() != null) ? context.getResponse().getMetadata() : null;
+		Usage usage = (metadata != null) ? metadata.getUsage() : null;
+		try {
+			boolean queued = this.writer.append(new ReplayRecord(System.currentTimeMillis(), durationNanos,
+					context.getOperationMetadata().provider(), model(context, metadata),
+					tokens((usage != null) ? usage.getPromptTokens() : null),
+					tokens((usage != null) ? usage.getCompletionTokens() : null), promptLength(context),
+					completionLengths(context), prompt, completion));
+			if (!queued && this.failureLogged.compareAndSet(false, true)) {
+				logger.warn("The replay log queue is full, the chat call is dropped and further drops are not logged");
+			}
+		}
+		catch (RuntimeException ex) {
+			if (this.failureLogged.compareAndSet(false, true)) {
+				logger.warn("Failed to append the chat call to the replay log, further failures are not logged", ex);
+			}
+		}
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	private static String model(ChatModelObservationContext context, ChatResponseMetadata metadata) {
+		if (metadata != null && StringUtils.hasText(metadata.getModel())) {
+			return metadata.getModel();
+		}
+		ChatOptions options = context.getRequest().getOptions();
+		return (options != null) ? options.getModel() : null;
+	}
+
+	private static int promptLength(ChatModelObservationContext context) {
+		int length = 0;
+		for (Message message : context.getRequest().getInstructions()) {
+			String text = message.getText();
+			length += (text != null) ? text.length() : 0;
+		}
+		return length;
+	}
+
+	private static List<Integer> completionLengths(ChatModelObservationContext context) {
+		List<CompletionChoice> choices = ChatModelObservationContentProcessor.choices(context);
+		List<Integer> lengths = new ArrayList<>(choices.size());
+		for (CompletionChoice choice : choices) {
+			lengths.add(choice.length());
+		}
+		return lengths;
+	}
+
+	private static int tokens(Integer tokens) {
+		return (tokens != null) ? tokens : -1;
+	}
+
+	private record ReplayStart(long nanos) {
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A single chat model call recorded in a replay log.
+ *
+ * @param timestamp the epoch millisecond the call completed at
+ * @param durationNanos the duration of the call, in nanoseconds
+ * @param provider the AI provider, or {@code null} if unknown
+ * @param model the model that served the call, or {@code null} if unknown
+ * @param promptTokens the number of prompt tokens, or {@code -1} if not reported
+ * @param completionTokens the number of completion tokens, or {@code -1} if not reported
+ * @param promptLength the length of the prompt messages text, recorded even when the
+ * prompt text is not
+ * @param completionLengths the length of the completion text of every generation,
+ * recorded even when the completion text is not
+ * @param prompt the captured prompt messages text
+ * @param completion the captured completion text, one per generation
+ * @author Christian Tzolov
+ */
+public record ReplayRecord(long timestamp, long durationNanos, @Nullable String provider, @Nullable String model,
+		int promptTokens, int completionTokens, int promptLength, List<Integer> completionLengths, List<String> prompt,
+		List<String> completion) {
+
+	public ReplayRecord {
+		Assert.isTrue(durationNanos >= 0, "durationNanos must not be negative");
+		Assert.isTrue(promptLength >= 0, "promptLength must not be negative");
+		Assert.notNull(completionLengths, "completionLengths cannot be null");
+		Assert.notNull(prompt, "prompt cannot be null");
+		Assert.notNull(completion, "completion cannot be null");
+	}
+
+	/**
+	 * Create a record whose lengths are the lengths of the captured text.
+	 * @param timestamp the epoch millisecond the call completed at
+	 * @param durationNanos the duration of the call, in nanoseconds
+	 * @param provider the AI provider, or {@code null} if unknown
+	 * @param model the model that served the call, or {@code null} if unknown
+	 * @param promptTokens the number of prompt tokens, or {@code -1} if not reported
+	 * @param completionTokens the number of completion tokens, or {@code -1} if not
+	 * reported
+	 * @param prompt the prompt messages text
+	 * @param completion the completion text, one per generation
+	 */
+	public ReplayRecord(long timestamp, long durationNanos, @Nullable String provider, @Nullable String model,
+			int promptTokens, int completionTokens, List<String> prompt, List<String> completion) {
+		this(timestamp, durationNanos, provider, model, promptTokens, completionTokens,
+				prompt.stream().mapToInt(ReplayRecord::length).sum(),
+				completion.stream().map(ReplayRecord::length).toList(), prompt, completion);
+	}
+
+	private static int length(@Nullable String text) {
+		return (text != null) ? text.length() : 0;
+	}
+
+}
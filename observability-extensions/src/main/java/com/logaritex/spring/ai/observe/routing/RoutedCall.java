@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.routing;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A call routed by a {@link RoutingChatModel}, bound to the calling thread while the
+ * target model runs, so the {@link RoutingObservationHandler} can attribute the chat
+ * model observations of the call to its target.
+ *
+ * @author Christian Tzolov
+ */
+final class RoutedCall {
+
+	private static final ThreadLocal<RoutedCall> CURRENT = new ThreadLocal<>();
+
+	private final RoutingChatModel router;
+
+	private final RoutingTarget target;
+
+	private volatile boolean recorded;
+
+	RoutedCall(RoutingChatModel router, RoutingTarget target) {
+		this.router = router;
+		this.target = target;
+	}
+
+	@Nullable
+	static RoutedCall current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Bind the call to the current thread.
+	 * @return the call previously bound, to restore once this call completes
+	 */
+	@Nullable
+	RoutedCall bind() {
+		RoutedCall previous = CURRENT.get();
+		CURRENT.set(this);
+		return previous;
+	}
+
+	static void restore(@Nullable RoutedCall previous) {
+		if (previous != null) {
+			CURRENT.set(previous);
+		}
+		else {
+			CURRENT.remove();
+		}
+	}
+
+	RoutingChatModel router() {
+		return this.router;
+	}
+
+	RoutingTarget target() {
+		return this.target;
+	}
+
+	boolean isRecorded() {
+		return this.recorded;
+	}
+
+	void record(long latencyNanos, boolean failed) {
+		this.recorded = true;
+		this.router.record(this.target, latencyNanos, failed);
+	}
+
+}
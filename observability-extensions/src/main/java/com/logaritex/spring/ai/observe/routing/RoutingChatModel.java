@@ -0,0 +1,389 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.routing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.Clock;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ChatModel} routing every call to the fastest healthy model among several
+ * targets, typically the same model served by different providers or regions.
+ * <p>
+ * Each target keeps an exponentially weighted moving average of its latency and error
+ * rate. A call picks two random healthy targets and goes to the cheaper one, the cost
+ * being the average latency multiplied by the number of calls in flight plus one and
+ * divided by the success rate. Picking the best of two random targets, rather than the
+ * best of all, keeps the load from piling onto a single target whose average is stale. A
+ * target without a recent successful call, and not failing, is probed again, one call at
+ * a time: while its probe is in flight, it costs its stale average, or is avoided if it
+ * has none.
+ * <p>
+ * A target failing a number of consecutive calls, or whose error rate exceeds the
+ * threshold, is ejected for a time growing with the number of ejections in a row. At
+ * least one target is always kept, and the calls go to all the targets if they are all
+ * ejected nonetheless.
+ * <p>
+ * The statistics are fed by the {@link RoutingObservationHandler} from the chat model
+ * observations of the targets. The router times the calls it could not attribute to an
+ * observation itself: the calls of targets that are not observed. The streaming calls
+ * only count for the error rate, their time to first response not being comparable with
+ * the latency of a call.
+ *
+ * @author Christian Tzolov
+ */
+public class RoutingChatModel implements ChatModel {
+
+	public static final double DEFAULT_ALPHA = 0.2;
+
+	public static final int DEFAULT_CONSECUTIVE_FAILURES = 5;
+
+	public static final double DEFAULT_ERROR_RATE_THRESHOLD = 0.5;
+
+	public static final Duration DEFAULT_BASE_EJECTION_TIME = Duration.ofSeconds(30);
+
+	public static final Duration DEFAULT_MAX_EJECTION_TIME = Duration.ofMinutes(5);
+
+	public static final Duration DEFAULT_PROBE_INTERVAL = Duration.ofSeconds(30);
+
+	private static final double MIN_SUCCESS_RATE = 0.1;
+
+	private final RoutingTarget[] targets;
+
+	private final Clock clock;
+
+	private final double alpha;
+
+	private final int consecutiveFailures;
+
+	private final double errorRateThreshold;
+
+	private final long baseEjectionNanos;
+
+	private final long maxEjectionNanos;
+
+	private final long probeIntervalNanos;
+
+	private RoutingChatModel(Builder builder) {
+		this.targets = builder.targets.toArray(RoutingTarget[]::new);
+		this.clock = builder.clock;
+		this.alpha = builder.alpha;
+		this.consecutiveFailures = builder.consecutiveFailures;
+		this.errorRateThreshold = builder.errorRateThreshold;
+		this.baseEjectionNanos = builder.baseEjectionTime.toNanos();
+		this.maxEjectionNanos = builder.maxEjectionTime.toNanos();
+		this.probeIntervalNanos = builder.probeInterval.toNanos();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public ChatResponse call(Prompt prompt) {
+		RoutingTarget target = select();
+		RoutedCall call = new RoutedCall(this, target);
+		RoutedCall previous = call.bind();
+		target.acquire();
+		long startNanos = this.clock.monotonicTime();
+		try {
+			ChatResponse response = target.model().call(prompt);
+			if (!call.isRecorded()) {
+				record(target, this.clock.monotonicTime() - startNanos, false);
+			}
+			return response;
+		}
+		catch (RuntimeException ex) {
+			if (!call.isRecorded()) {
+				record(target, this.clock.monotonicTime() - startNanos, true);
+			}
+			throw ex;
+		}
+		finally {
+			target.release();
+			RoutedCall.restore(previous);
+		}
+	}
+
+	@Override
+	public Flux<ChatResponse> stream(Prompt prompt) {
+		return Flux.defer(() -> {
+			RoutingTarget target = select();
+			AtomicBoolean recorded = new AtomicBoolean();
+			target.acquire();
+			Flux<ChatResponse> responses;
+			try {
+				responses = target.model().stream(prompt);
+			}
+			catch (RuntimeException ex) {
+				target.release();
+				record(target, true);
+				throw ex;
+			}
+			return responses.doOnNext(response -> {
+				if (recorded.compareAndSet(false, true)) {
+					record(target, false);
+				}
+			}).doOnError(ex -> {
+				if (recorded.compareAndSet(false, true)) {
+					record(target, true);
+				}
+			}).doFinally(signal -> {
+				target.release();
+				if (recorded.compareAndSet(false, true)) {
+					target.endProbe();
+				}
+			});
+		});
+	}
+
+	@Override
+	public ChatOptions getDefaultOptions() {
+		return this.targets[0].model().getDefaultOptions();
+	}
+
+	/**
+	 * Return the current statistics of every target, in declaration order.
+	 * @return the target statistics
+	 */
+	public List<TargetStatistics> statistics() {
+		long nowNanos = this.clock.monotonicTime();
+		List<TargetStatistics> statistics = new ArrayList<>(this.targets.length);
+		for (RoutingTarget target : this.targets) {
+			double latencyNanos = target.latencyNanos();
+			statistics.add(new TargetStatistics(target.name(),
+					Double.isNaN(latencyNanos) ? null : Duration.ofNanos((long) latencyNanos), target.errorRate(),
+					target.inFlight(), target.isEjected(nowNanos), target.ejections()));
+		}
+		return statistics;
+	}
+
+	Clock clock() {
+		return this.clock;
+	}
+
+	RoutingTarget select() {
+		if (this.targets.length == 1) {
+			return this.targets[0];
+		}
+		long nowNanos = this.clock.monotonicTime();
+		RoutingTarget[] healthy = new RoutingTarget[this.targets.length];
+		int count = 0;
+		for (RoutingTarget target : this.targets) {
+			if (!target.isEjected(nowNanos)) {
+				healthy[count++] = target;
+			}
+		}
+		if (count == 0) {
+			healthy = this.targets;
+			count = this.targets.length;
+		}
+		if (count == 1) {
+			return healthy[0];
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(count);
+		int second = random.nextInt(count - 1);
+		if (second >= first) {
+			second++;
+		}
+		RoutingTarget a = healthy[first];
+		RoutingTarget b = healthy[second];
+		if (probe(a, nowNanos)) {
+			return a;
+		}
+		if (probe(b, nowNanos)) {
+			return b;
+		}
+		return (cost(b) < cost(a)) ? b : a;
+	}
+
+	private boolean probe(RoutingTarget target, long nowNanos) {
+		boolean unmeasured = Double.isNaN(target.latencyNanos())
+				|| nowNanos - target.lastSampleNanos() > this.probeIntervalNanos;
+		return unmeasured && target.consecutiveFailures() == 0 && target.tryProbe();
+	}
+
+	private double cost(RoutingTarget target) {
+		double latencyNanos = target.latencyNanos();
+		if (Double.isNaN(latencyNanos)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double successRate = Math.max(1.0 - target.errorRate(), MIN_SUCCESS_RATE);
+		return latencyNanos * (target.inFlight() + 1) / successRate;
+	}
+
+	void record(RoutingTarget target, long latencyNanos, boolean failed) {
+		long nowNanos = this.clock.monotonicTime();
+		target.record(latencyNanos, failed, this.alpha, nowNanos);
+		ejectIfUnhealthy(target, failed, nowNanos);
+	}
+
+	private void record(RoutingTarget target, boolean failed) {
+		target.record(failed, this.alpha);
+		ejectIfUnhealthy(target, failed, this.clock.monotonicTime());
+	}
+
+	private void ejectIfUnhealthy(RoutingTarget target, boolean failed, long nowNanos) {
+		if (failed
+				&& (target.consecutiveFailures() >= this.consecutiveFailures
+						|| target.errorRate() > this.errorRateThreshold)
+				&& ejected(nowNanos) < this.targets.length - 1) {
+			target.eject(nowNanos, this.baseEjectionNanos, this.maxEjectionNanos);
+		}
+	}
+
+	private int ejected(long nowNanos) {
+		int ejected = 0;
+		for (RoutingTarget target : this.targets) {
+			if (target.isEjected(nowNanos)) {
+				ejected++;
+			}
+		}
+		return ejected;
+	}
+
+	/**
+	 * Statistics of a single target.
+	 *
+	 * @param name the target name
+	 * @param latency the average latency of the successful calls, or {@code null} if none
+	 * yet
+	 * @param errorRate the average error rate, between {@code 0} and {@code 1}
+	 * @param inFlight the number of calls in flight
+	 * @param ejected whether the target is currently ejected
+	 * @param ejections the number of ejections since the last successful call
+	 */
+	public record TargetStatistics(String name, Duration latency, double errorRate, int inFlight, boolean ejected,
+			int ejections) {
+
+	}
+
+	public static final class Builder {
+
+		private final List<RoutingTarget> targets = new ArrayList<>();
+
+		private final Set<String> names = new HashSet<>();
+
+		private Clock clock = Clock.SYSTEM;
+
+		private double alpha = DEFAULT_ALPHA;
+
+		private int consecutiveFailures = DEFAULT_CONSECUTIVE_FAILURES;
+
+		private double errorRateThreshold = DEFAULT_ERROR_RATE_THRESHOLD;
+
+		private Duration baseEjectionTime = DEFAULT_BASE_EJECTION_TIME;
+
+		private Duration maxEjectionTime = DEFAULT_MAX_EJECTION_TIME;
+
+		private Duration probeInterval = DEFAULT_PROBE_INTERVAL;
+
+		private Builder() {
+		}
+
+		/**
+		 * Add a target to route to.
+		 * @param name the unique target name, e.g. the provider and region
+		 * @param model the target model
+		 * @return this builder
+		 */
+		public Builder target(String name, ChatModel model) {
+			Assert.hasText(name, "name cannot be empty");
+			Assert.notNull(model, "model cannot be null");
+			Assert.isTrue(this.names.add(name), () -> "duplicate target name: " + name);
+			this.targets.add(new RoutingTarget(name, model));
+			return this;
+		}
+
+		public Builder clock(Clock clock) {
+			Assert.notNull(clock, "clock cannot be null");
+			this.clock = clock;
+			return this;
+		}
+
+		/**
+		 * Set the smoothing factor of the moving averages, the weight of the latest call.
+		 * @param alpha the smoothing factor, in {@code (0, 1]}
+		 * @return this builder
+		 */
+		public Builder alpha(double alpha) {
+			Assert.isTrue(alpha > 0 && alpha <= 1, "alpha must be in (0, 1]");
+			this.alpha = alpha;
+			return this;
+		}
+
+		public Builder consecutiveFailures(int consecutiveFailures) {
+			Assert.isTrue(consecutiveFailures > 0, "consecutiveFailures must be greater than zero");
+			this.consecutiveFailures = consecutiveFailures;
+			return this;
+		}
+
+		public Builder errorRateThreshold(double errorRateThreshold) {
+			Assert.isTrue(errorRateThreshold > 0 && errorRateThreshold <= 1, "errorRateThreshold must be in (0, 1]");
+			this.errorRateThreshold = errorRateThreshold;
+			return this;
+		}
+
+		public Builder baseEjectionTime(Duration baseEjectionTime) {
+			Assert.isTrue(baseEjectionTime != null && !baseEjectionTime.isNegative(),
+					"baseEjectionTime must not be negative");
+			this.baseEjectionTime = baseEjectionTime;
+			return this;
+		}
+
+		public Builder maxEjectionTime(Duration maxEjectionTime) {
+			Assert.isTrue(maxEjectionTime != null && !maxEjectionTime.isNegative(),
+					"maxEjectionTime must not be negative");
+			this.maxEjectionTime = maxEjectionTime;
+			return this;
+		}
+
+		/**
+		 * Set the interval after which a target without a successful call is probed
+		 * again, whatever its average latency.
+		 * @param probeInterval the probe interval
+		 * @return this builder
+		 */
+		public Builder probeInterval(Duration probeInterval) {
+			Assert.isTrue(probeInterval != null && !probeInterval.isNegative() && !probeInterval.isZero(),
+					"probeInterval must be positive");
+			this.probeInterval = probeInterval;
+			return this;
+		}
+
+		public RoutingChatModel build() {
+			Assert.notEmpty(this.targets, "at least one target is required");
+			return new RoutingChatModel(this);
+		}
+
+	}
+
+}
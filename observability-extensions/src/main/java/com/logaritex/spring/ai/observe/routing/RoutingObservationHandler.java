@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.routing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+
+/**
+ * Handler feeding the latency and the outcome of the chat model observations to the
+ * {@link RoutingChatModel} that routed the call. The observations of a routed call are
+ * attributed to its target through the call bound to the calling thread, observations
+ * made outside of a routed call are ignored.
+ * <p>
+ * The timing of the observation covers the model call only, so it is preferred over the
+ * timing taken by the router. A single instance serves all the routers of the
+ * application.
+ *
+ * @author Christian Tzolov
+ */
+public class RoutingObservationHandler implements ObservationHandler<ChatModelObservationContext> {
+
+	@Override
+	public void onStart(ChatModelObservationContext context) {
+		RoutedCall call = RoutedCall.current();
+		if (call != null) {
+			context.put(Attempt.class, new Attempt(call, call.router().clock().monotonicTime()));
+		}
+	}
+
+	@Override
+	public void onStop(ChatModelObservationContext context) {
+		Attempt attempt = context.get(Attempt.class);
+		if (attempt == null) {
+			return;
+		}
+		context.remove(Attempt.class);
+		RoutedCall call = attempt.call();
+		long latencyNanos = call.router().clock().monotonicTime() - attempt.startNanos();
+		call.record(latencyNanos, context.getError() != null);
+	}
+
+	@Override
+	public boolean supportsContext(Observation.Context context) {
+		return context instanceof ChatModelObservationContext;
+	}
+
+	private record Attempt(RoutedCall call, long startNanos) {
+
+	}
+
+}
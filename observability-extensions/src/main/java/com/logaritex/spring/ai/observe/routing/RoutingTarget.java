@@ -0,0 +1,188 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.routing;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * A chat model the {@link RoutingChatModel} routes to, with its latency and error
+ * statistics. The statistics are exponentially weighted moving averages kept in atomic
+ * longs and updated with compare-and-set loops, so recording a call never takes a lock.
+ *
+ * @author Christian Tzolov
+ */
+final class RoutingTarget {
+
+	private static final long NONE = Double.doubleToRawLongBits(Double.NaN);
+
+	private static final long NOT_EJECTED = Long.MIN_VALUE;
+
+	private final String name;
+
+	private final ChatModel model;
+
+	private final AtomicLong latencyNanos = new AtomicLong(NONE);
+
+	private final AtomicLong errorRate = new AtomicLong(Double.doubleToRawLongBits(0.0));
+
+	private final AtomicLong lastSampleNanos = new AtomicLong();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicBoolean probing = new AtomicBoolean();
+
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+	private final AtomicInteger ejections = new AtomicInteger();
+
+	private final AtomicLong ejectedUntilNanos = new AtomicLong(NOT_EJECTED);
+
+	RoutingTarget(String name, ChatModel model) {
+		this.name = name;
+		this.model = model;
+	}
+
+	String name() {
+		return this.name;
+	}
+
+	ChatModel model() {
+		return this.model;
+	}
+
+	double latencyNanos() {
+		return Double.longBitsToDouble(this.latencyNanos.get());
+	}
+
+	double errorRate() {
+		return Double.longBitsToDouble(this.errorRate.get());
+	}
+
+	long lastSampleNanos() {
+		return this.lastSampleNanos.get();
+	}
+
+	int inFlight() {
+		return this.inFlight.get();
+	}
+
+	int consecutiveFailures() {
+		return this.consecutiveFailures.get();
+	}
+
+	int ejections() {
+		return this.ejections.get();
+	}
+
+	boolean isEjected(long nowNanos) {
+		long ejectedUntil = this.ejectedUntilNanos.get();
+		return ejectedUntil != NOT_EJECTED && nowNanos - ejectedUntil < 0;
+	}
+
+	void acquire() {
+		this.inFlight.incrementAndGet();
+	}
+
+	void release() {
+		this.inFlight.decrementAndGet();
+	}
+
+	/**
+	 * Start probing the target, unless a probe is already in flight.
+	 * @return whether the caller owns the probe
+	 */
+	boolean tryProbe() {
+		return !this.probing.get() && this.probing.compareAndSet(false, true);
+	}
+
+	void endProbe() {
+		this.probing.set(false);
+	}
+
+	/**
+	 * Record the outcome and the latency of a call. The latency of a failed call is not
+	 * recorded, so a target failing fast does not look fast.
+	 * @param latencyNanos the latency of the call
+	 * @param failed whether the call failed
+	 * @param alpha the smoothing factor of the moving averages
+	 * @param nowNanos the current monotonic time
+	 */
+	void record(long latencyNanos, boolean failed, double alpha, long nowNanos) {
+		if (!failed) {
+			update(this.latencyNanos, latencyNanos, alpha);
+			this.lastSampleNanos.set(nowNanos);
+		}
+		record(failed, alpha);
+	}
+
+	/**
+	 * Record the outcome of a call whose latency is not comparable with the other calls,
+	 * ending the probe in flight if any.
+	 * @param failed whether the call failed
+	 * @param alpha the smoothing factor of the moving averages
+	 */
+	void record(boolean failed, double alpha) {
+		update(this.errorRate, failed ? 1.0 : 0.0, alpha);
+		endProbe();
+		if (failed) {
+			this.consecutiveFailures.incrementAndGet();
+			return;
+		}
+		this.consecutiveFailures.set(0);
+		this.ejections.set(0);
+	}
+
+	/**
+	 * Eject the target, unless another thread already did. The ejection time grows with
+	 * the number of ejections since the last successful call.
+	 * @param nowNanos the current monotonic time
+	 * @param baseNanos the base ejection time
+	 * @param maxNanos the maximum ejection time
+	 * @return whether the target was ejected by this call
+	 */
+	boolean eject(long nowNanos, long baseNanos, long maxNanos) {
+		long ejectedUntil = this.ejectedUntilNanos.get();
+		if (ejectedUntil != NOT_EJECTED && nowNanos - ejectedUntil < 0) {
+			return false;
+		}
+		int ejections = this.ejections.get() + 1;
+		long duration = Math.min(baseNanos * ejections, maxNanos);
+		if (!this.ejectedUntilNanos.compareAndSet(ejectedUntil, nowNanos + duration)) {
+			return false;
+		}
+		this.ejections.set(ejections);
+		this.consecutiveFailures.set(0);
+		this.errorRate.set(Double.doubleToRawLongBits(0.0));
+		return true;
+	}
+
+	private static void update(AtomicLong average, double sample, double alpha) {
+		long current;
+		long updated;
+		do {
+			current = average.get();
+			double value = Double.longBitsToDouble(current);
+			updated = Double.doubleToRawLongBits(Double.isNaN(value) ? sample : value + alpha * (sample - value));
+		}
+		while (!average.compareAndSet(current, updated));
+	}
+
+}
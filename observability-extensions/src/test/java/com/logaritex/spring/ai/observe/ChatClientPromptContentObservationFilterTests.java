@@ -17,6 +17,7 @@
 package com.logaritex.spring.ai.observe;
 
 import java.util.List;
+import java.util.Map;
 
 import io.micrometer.common.KeyValue;
 import io.micrometer.observation.Observation;
@@ -24,9 +25,14 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.util.MimeTypeUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -84,4 +90,129 @@ class ChatClientPromptContentObservationFilterTests {
 				["system":"you're a chimney sweep", "user":"supercalifragilisticexpialidocious"]"""));
 	}
 
+	@Test
+	void whenPromptWithRepeatedMessageTypesThenKeepAllInOrder() {
+		var originalContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt(
+						List.of(new SystemMessage("you're a chimney sweep"), new UserMessage("first question"),
+								new AssistantMessage("first answer"), new UserMessage("second question"))))
+				.build())
+			.build();
+
+		var augmentedContext = this.observationFilter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(KeyValue.of("gen_ai.prompt", """
+				["system":"you're a chimney sweep", "user":"first question", "assistant":"first answer", \
+				"user":"second question"]"""));
+	}
+
+	@Test
+	void whenPromptWithMediaThenRecordMediaMetadata() {
+		var image = Media.builder().mimeType(MimeTypeUtils.IMAGE_PNG).data(new byte[] { 1, 2, 3 }).build();
+		var originalContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt(List.of(new SystemMessage("you're a chimney sweep"),
+						UserMessage.builder().text("what is this?").media(image).build())))
+				.build())
+			.build();
+
+		var augmentedContext = this.observationFilter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(
+				KeyValue.of("gen_ai.prompt.media", "[{\"index\":1, \"mime_type\":\"image/png\", \"size\":3, \"hash\":\""
+						+ ContentHash.crc32c(new byte[] { 1, 2, 3 }) + "\"}]"));
+	}
+
+	@Test
+	void whenRoleOmittedThenMediaIndexMatchesPromptEntry() {
+		var filter = new ChatClientPromptContentObservationFilter(
+				new ContentCaptureControl(ContentCaptureSettings.builder()
+					.messages(new MessageCapturePolicy(Map.of(MessageType.SYSTEM, MessageCapturePolicy.Rule.none())))
+					.build()));
+		var image = Media.builder().mimeType(MimeTypeUtils.IMAGE_PNG).data(new byte[] { 1, 2, 3 }).build();
+		var originalContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt(List.of(new SystemMessage("you're a chimney sweep"),
+						UserMessage.builder().text("what is this?").media(image).build())))
+				.build())
+			.build();
+
+		var augmentedContext = filter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues())
+			.contains(KeyValue.of("gen_ai.prompt", "[\"user\":\"what is this?\"]"))
+			.contains(KeyValue.of("gen_ai.prompt.media",
+					"[{\"index\":0, \"mime_type\":\"image/png\", \"size\":3, \"hash\":\""
+							+ ContentHash.crc32c(new byte[] { 1, 2, 3 }) + "\"}]"));
+	}
+
+	@Test
+	void whenPromptWithoutMediaThenNoMediaMetadata() {
+		var originalContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt("supercalifragilisticexpialidocious")).build())
+			.build();
+
+		var augmentedContext = this.observationFilter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValue("gen_ai.prompt.media")).isNull();
+	}
+
+	@Test
+	void whenMessageCapturePolicyThenCapturePerRole() {
+		var filter = new ChatClientPromptContentObservationFilter(
+				new ContentCaptureControl(ContentCaptureSettings.builder()
+					.messages(new MessageCapturePolicy(Map.of(MessageType.ASSISTANT,
+							MessageCapturePolicy.Rule.truncate(5), MessageType.TOOL, MessageCapturePolicy.Rule.none())))
+					.build()));
+		var originalContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt(List.of(new UserMessage("first question"), new AssistantMessage("first answer"),
+						MessageCapturePolicyTests.unreadableMessage(MessageType.TOOL),
+						new UserMessage("second question"))))
+				.build())
+			.build();
+
+		var augmentedContext = filter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(KeyValue.of("gen_ai.prompt",
+				"[\"user\":\"first question\", \"assistant\":\"first\", \"user\":\"second question\"]"));
+	}
+
+	@Test
+	void whenMessageWithoutTextThenSkipped() {
+		var originalContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt(List.of(new UserMessage("question"), textlessMessage(MessageType.ASSISTANT),
+						new UserMessage("follow-up"))))
+				.build())
+			.build();
+
+		var augmentedContext = this.observationFilter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues())
+			.contains(KeyValue.of("gen_ai.prompt", "[\"user\":\"question\", \"user\":\"follow-up\"]"));
+	}
+
+	private static Message textlessMessage(MessageType messageType) {
+		return new Message() {
+
+			@Override
+			public MessageType getMessageType() {
+				return messageType;
+			}
+
+			@Override
+			public String getText() {
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> getMetadata() {
+				return Map.of();
+			}
+
+		};
+	}
+
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link ChatContextWindowObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatContextWindowObservationHandlerTests {
+
+	// 4 tokens for the message template, 10 for the words
+	private static final String PROMPT = "one two three four five six seven eight nine ten";
+
+	private static final long RAW_ESTIMATE = 14;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ChatContextWindowObservationHandler handler = new ChatContextWindowObservationHandler(
+			this.meterRegistry, Map.of("mistral", 100), 1000, 2);
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		assertThat(this.handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenCallStartedThenUtilizationOfTheModelContextWindow() {
+		this.handler.onStart(chatModelContext("mistral", PROMPT));
+		this.handler.onStart(chatModelContext("llama", PROMPT));
+
+		assertThat(utilization("mistral").max()).isCloseTo(RAW_ESTIMATE / 100.0, within(1e-9));
+		assertThat(utilization("llama").max()).isCloseTo(RAW_ESTIMATE / 1000.0, within(1e-9));
+		assertThat(this.meterRegistry.get(ChatContextWindowObservationHandler.ESTIMATED_TOKENS_METER_NAME)
+			.tag("gen_ai.request.model", "mistral")
+			.summary()
+			.totalAmount()).isEqualTo(RAW_ESTIMATE);
+	}
+
+	@Test
+	void whenUsageReportedThenCalibrated() {
+		var first = chatModelContext("mistral", PROMPT);
+		this.handler.onStart(first);
+		first.setResponse(chatResponse(28));
+		this.handler.onStop(first);
+
+		assertThat(this.handler.calibration(ModelKey.from(first))).isEqualTo(2.0);
+
+		this.handler.onStart(chatModelContext("mistral", PROMPT));
+
+		assertThat(utilization("mistral").max()).isCloseTo(28 / 100.0, within(1e-9));
+
+		var second = chatModelContext("mistral", PROMPT);
+		this.handler.onStart(second);
+		second.setResponse(chatResponse(14));
+		this.handler.onStop(second);
+
+		assertThat(this.handler.calibration(ModelKey.from(second))).isCloseTo(1.9, within(1e-9));
+	}
+
+	@Test
+	void whenPromptOverContextWindowThenExceeded() {
+		this.handler.onStart(chatModelContext("mistral", (PROMPT + " ").repeat(10)));
+
+		assertThat(this.meterRegistry.get(ChatContextWindowObservationHandler.EXCEEDED_METER_NAME)
+			.tag("gen_ai.request.model", "mistral")
+			.counter()
+			.count()).isEqualTo(1);
+	}
+
+	@Test
+	void whenModelLimitReachedThenOverflow() {
+		this.handler.onStart(chatModelContext("mistral", PROMPT));
+		this.handler.onStart(chatModelContext("llama", PROMPT));
+		this.handler.onStart(chatModelContext("gemma", PROMPT));
+
+		assertThat(utilization(ModelKey.OTHER).count()).isEqualTo(1);
+	}
+
+	private DistributionSummary utilization(String model) {
+		return this.meterRegistry.get(ChatContextWindowObservationHandler.UTILIZATION_METER_NAME)
+			.tag("gen_ai.request.model", model)
+			.summary();
+	}
+
+	private static ChatModelObservationContext chatModelContext(String model, String prompt) {
+		return ChatModelObservationContext.builder()
+			.prompt(new Prompt(prompt, ChatOptions.builder().model(model).build()))
+			.provider("superprovider")
+			.build();
+	}
+
+	private static ChatResponse chatResponse(int promptTokens) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, 1)).build());
+	}
+
+}
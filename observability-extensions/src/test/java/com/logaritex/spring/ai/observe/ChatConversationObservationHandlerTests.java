@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatConversationObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatConversationObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+	private final List<ChatConversationObservationHandler.ConversationSummary> summaries = new ArrayList<>();
+
+	private final ChatConversationObservationHandler handler = new ChatConversationObservationHandler(
+			this.meterRegistry, Duration.ofMinutes(10), 2, this.summaries::add);
+
+	ChatConversationObservationHandlerTests() {
+		this.observationRegistry.observationConfig().observationHandler(context -> true);
+	}
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		assertThat(this.handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenConversationEndedThenSummary() {
+		turn("c1", Duration.ofSeconds(2), chatResponse(100, true), chatResponse(50, false));
+		turn("c1", Duration.ofSeconds(1), chatResponse(30, false));
+
+		var summary = this.handler.end("c1");
+
+		assertThat(summary).isNotNull();
+		assertThat(summary.turns()).isEqualTo(2);
+		assertThat(summary.tokens()).isEqualTo(180);
+		assertThat(summary.toolCalls()).isEqualTo(1);
+		assertThat(summary.latency()).isEqualTo(Duration.ofSeconds(3));
+		assertThat(summary.reason()).isEqualTo(ChatConversationObservationHandler.CloseReason.ENDED);
+		assertThat(this.summaries).containsExactly(summary);
+		assertThat(this.handler.size()).isZero();
+		assertThat(this.meterRegistry.get(ChatConversationObservationHandler.TOKENS_METER_NAME)
+			.tag("reason", "ended")
+			.summary()
+			.totalAmount()).isEqualTo(180);
+		assertThat(this.meterRegistry.get(ChatConversationObservationHandler.TURNS_METER_NAME)
+			.tag("reason", "ended")
+			.summary()
+			.totalAmount()).isEqualTo(2);
+		assertThat(this.handler.end("c1")).isNull();
+	}
+
+	@Test
+	void whenConversationIdleThenExpired() {
+		turn("c1", Duration.ofSeconds(1), chatResponse(10, false));
+		this.clock.add(Duration.ofMinutes(5));
+		turn("c2", Duration.ofSeconds(1), chatResponse(10, false));
+		this.clock.add(Duration.ofMinutes(6));
+
+		// The next call expires the first conversation, idle for 11 minutes
+		turn("c2", Duration.ofSeconds(1), chatResponse(10, false));
+
+		assertThat(this.summaries).singleElement().satisfies(summary -> {
+			assertThat(summary.conversationId()).isEqualTo("c1");
+			assertThat(summary.reason()).isEqualTo(ChatConversationObservationHandler.CloseReason.IDLE);
+		});
+		assertThat(this.handler.size()).isEqualTo(1);
+		assertThat(this.meterRegistry.get(ChatConversationObservationHandler.ACTIVE_METER_NAME).gauge().value())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void whenStoreFullThenDropped() {
+		turn("c1", Duration.ofSeconds(1), chatResponse(10, false));
+		turn("c2", Duration.ofSeconds(1), chatResponse(10, false));
+		turn("c3", Duration.ofSeconds(1), chatResponse(10, false));
+
+		assertThat(this.handler.size()).isEqualTo(2);
+		assertThat(this.handler.end("c3")).isNull();
+		assertThat(this.meterRegistry.get(ChatConversationObservationHandler.DROPPED_METER_NAME).counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void whenNoConversationIdThenIgnored() {
+		var chatClientContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt("hello")).build())
+			.build();
+
+		this.handler.onStart(chatClientContext);
+		this.handler.onStop(chatClientContext);
+
+		assertThat(this.handler.size()).isZero();
+	}
+
+	private void turn(String conversationId, Duration latency, ChatResponse... responses) {
+		var chatClientContext = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt("What's the weather?"))
+				.context(Map.of(ChatMemory.CONVERSATION_ID, conversationId))
+				.build())
+			.build();
+		var chatClientObservation = Observation.start("chat client", () -> chatClientContext, this.observationRegistry);
+		this.handler.onStart(chatClientContext);
+		for (ChatResponse response : responses) {
+			var chatModelContext = ChatModelObservationContext.builder()
+				.prompt(new Prompt("What's the weather?", ChatOptions.builder().model("mistral").build()))
+				.provider("superprovider")
+				.build();
+			Observation.createNotStarted("chat model", () -> chatModelContext, this.observationRegistry)
+				.parentObservation(chatClientObservation)
+				.start();
+			this.handler.onStart(chatModelContext);
+			chatModelContext.setResponse(response);
+			this.handler.onStop(chatModelContext);
+		}
+		this.clock.add(latency);
+		this.handler.onStop(chatClientContext);
+	}
+
+	private static ChatResponse chatResponse(int totalTokens, boolean toolCall) {
+		var toolCalls = toolCall ? List.of(new AssistantMessage.ToolCall("1", "function", "weather", "{}"))
+				: List.<AssistantMessage.ToolCall>of();
+		return new ChatResponse(List.of(new Generation(new AssistantMessage("", Map.of(), toolCalls))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(totalTokens, 0)).build());
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatInFlightObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatInFlightObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		var handler = new ChatInFlightObservationHandler(this.meterRegistry);
+
+		assertThat(handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenCallsInFlightThenCountAndOldestAge() {
+		var handler = new ChatInFlightObservationHandler(this.meterRegistry);
+		var first = chatModelContext("mistral");
+		var second = chatModelContext("mistral");
+
+		handler.onStart(first);
+		this.clock.add(Duration.ofSeconds(3));
+		handler.onStart(second);
+		this.clock.add(Duration.ofSeconds(2));
+
+		assertThat(active("mistral")).isEqualTo(2);
+		assertThat(oldest("mistral")).isEqualTo(5);
+
+		handler.onStop(first);
+
+		assertThat(active("mistral")).isEqualTo(1);
+		assertThat(oldest("mistral")).isEqualTo(2);
+
+		handler.onStop(second);
+
+		assertThat(active("mistral")).isZero();
+		assertThat(oldest("mistral")).isZero();
+	}
+
+	@Test
+	void whenStoppedTwiceThenCountedOnce() {
+		var handler = new ChatInFlightObservationHandler(this.meterRegistry);
+		var context = chatModelContext("mistral");
+
+		handler.onStart(context);
+		handler.onStop(context);
+		handler.onStop(context);
+
+		assertThat(active("mistral")).isZero();
+	}
+
+	@Test
+	void whenChatClientCallThenTrackedAsFramework() {
+		var handler = new ChatInFlightObservationHandler(this.meterRegistry);
+		var context = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt("hello")).build())
+			.build();
+
+		handler.onStart(context);
+
+		assertThat(this.meterRegistry.get(ChatInFlightObservationHandler.ACTIVE_METER_NAME)
+			.tag("gen_ai.operation.name", "framework")
+			.tag("gen_ai.system", "spring_ai")
+			.gauge()
+			.value()).isEqualTo(1);
+	}
+
+	@Test
+	void whenModelLimitReachedThenOverflow() {
+		var handler = new ChatInFlightObservationHandler(this.meterRegistry, 1);
+
+		handler.onStart(chatModelContext("mistral"));
+		handler.onStart(chatModelContext("llama"));
+		handler.onStart(chatModelContext("gemma"));
+
+		assertThat(active("mistral")).isEqualTo(1);
+		assertThat(active(ModelKey.OTHER)).isEqualTo(2);
+		assertThat(this.meterRegistry.find(ChatInFlightObservationHandler.ACTIVE_METER_NAME)
+			.tag("gen_ai.request.model", "llama")
+			.gauge()).isNull();
+	}
+
+	private double active(String model) {
+		return this.meterRegistry.get(ChatInFlightObservationHandler.ACTIVE_METER_NAME)
+			.tag("gen_ai.request.model", model)
+			.gauge()
+			.value();
+	}
+
+	private double oldest(String model) {
+		return this.meterRegistry.get(ChatInFlightObservationHandler.OLDEST_METER_NAME)
+			.tag("gen_ai.request.model", model)
+			.timeGauge()
+			.value(TimeUnit.SECONDS);
+	}
+
+	private static ChatModelObservationContext chatModelContext(String model) {
+		return ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious", ChatOptions.builder().model(model).build()))
+			.provider("superprovider")
+			.build();
+	}
+
+}
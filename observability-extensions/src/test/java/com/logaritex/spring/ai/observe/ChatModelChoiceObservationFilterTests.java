@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatModelChoiceObservationFilter}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatModelChoiceObservationFilterTests {
+
+	@Test
+	void whenNotSupportedObservationContextThenReturnOriginalContext() {
+		var expectedContext = new Observation.Context();
+		var actualContext = new ChatModelChoiceObservationFilter().map(expectedContext);
+
+		assertThat(actualContext).isEqualTo(expectedContext);
+	}
+
+	@Test
+	void whenMultipleChoicesThenIndexedAttributes() {
+		var augmentedContext = new ChatModelChoiceObservationFilter().map(observationContext());
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(
+				KeyValue.of("gen_ai.completion.0.length", "0"),
+				KeyValue.of("gen_ai.completion.0.finish_reason", "CONTENT_FILTER"),
+				KeyValue.of("gen_ai.completion.1.length", "10"),
+				KeyValue.of("gen_ai.completion.1.finish_reason", "STOP"),
+				KeyValue.of("gen_ai.completion.1.content", "say please"));
+	}
+
+	@Test
+	void whenMetadataOnlyThenNoContentAttributes() {
+		var augmentedContext = new ChatModelChoiceObservationFilter(false).map(observationContext());
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(
+				KeyValue.of("gen_ai.completion.1.length", "10"),
+				KeyValue.of("gen_ai.completion.1.finish_reason", "STOP"));
+		assertThat(augmentedContext.getHighCardinalityKeyValues())
+			.noneMatch(keyValue -> keyValue.getKey().endsWith(".content"));
+	}
+
+	@Test
+	void whenCompletionCaptureDisabledThenMetadataOnly() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.DISABLED);
+		var augmentedContext = new ChatModelChoiceObservationFilter(control, true).map(observationContext());
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(
+				KeyValue.of("gen_ai.completion.0.length", "0"),
+				KeyValue.of("gen_ai.completion.0.finish_reason", "CONTENT_FILTER"),
+				KeyValue.of("gen_ai.completion.1.length", "10"),
+				KeyValue.of("gen_ai.completion.1.finish_reason", "STOP"));
+		assertThat(augmentedContext.getHighCardinalityKeyValues())
+			.noneMatch(keyValue -> keyValue.getKey().endsWith(".content"));
+	}
+
+	private static ChatModelObservationContext observationContext() {
+		var observationContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious", ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		observationContext.setResponse(new ChatResponse(List.of(
+				new Generation(new AssistantMessage(""),
+						ChatGenerationMetadata.builder().finishReason("CONTENT_FILTER").build()),
+				new Generation(new AssistantMessage("say please"),
+						ChatGenerationMetadata.builder().finishReason("STOP").build()))));
+		return observationContext;
+	}
+
+}
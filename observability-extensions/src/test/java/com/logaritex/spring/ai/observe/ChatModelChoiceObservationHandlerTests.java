@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.EventData;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatModelChoiceObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatModelChoiceObservationHandlerTests {
+
+	@Test
+	void whenMultipleChoicesThenSpanEventPerChoice() {
+		var observationContext = observationContext();
+		var tracingContext = tracingContext(observationContext);
+
+		new ChatModelChoiceObservationHandler().onStop(observationContext);
+
+		List<EventData> events = events(tracingContext);
+		assertThat(events).hasSize(3);
+		assertThat(events).extracting(EventData::getName).containsOnly(AiObservationEventNames.CHOICE.value());
+
+		assertThat(events.get(0).getAttributes().get(ChatModelChoiceObservationHandler.INDEX)).isEqualTo(0L);
+		assertThat(events.get(0).getAttributes().get(ChatModelChoiceObservationHandler.LENGTH)).isZero();
+		assertThat(events.get(0).getAttributes().get(ChatModelChoiceObservationHandler.FINISH_REASON))
+			.isEqualTo("CONTENT_FILTER");
+
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.INDEX)).isEqualTo(1L);
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.LENGTH)).isEqualTo(10L);
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.FINISH_REASON))
+			.isEqualTo("STOP");
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.COMPLETION))
+			.isEqualTo("say please");
+
+		assertThat(events.get(2).getAttributes().get(ChatModelChoiceObservationHandler.INDEX)).isEqualTo(2L);
+		assertThat(events.get(2).getAttributes().get(ChatModelChoiceObservationHandler.FINISH_REASON)).isNull();
+		assertThat(events.get(2).getAttributes().get(ChatModelChoiceObservationHandler.COMPLETION))
+			.isEqualTo("seriously, say please");
+	}
+
+	@Test
+	void whenMetadataOnlyThenNoContent() {
+		var observationContext = observationContext();
+		var tracingContext = tracingContext(observationContext);
+
+		new ChatModelChoiceObservationHandler(false).onStop(observationContext);
+
+		List<EventData> events = events(tracingContext);
+		assertThat(events).hasSize(3);
+		assertThat(events).allSatisfy(event -> {
+			assertThat(event.getAttributes().get(ChatModelChoiceObservationHandler.COMPLETION)).isNull();
+			assertThat(event.getAttributes().get(ChatModelChoiceObservationHandler.LENGTH)).isNotNull();
+		});
+	}
+
+	@Test
+	void whenCompletionCaptureDisabledThenMetadataOnly() {
+		var observationContext = observationContext();
+		var tracingContext = tracingContext(observationContext);
+		var control = new ContentCaptureControl(ContentCaptureSettings.DISABLED);
+
+		new ChatModelChoiceObservationHandler(control, true).onStop(observationContext);
+
+		List<EventData> events = events(tracingContext);
+		assertThat(events).hasSize(3);
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.INDEX)).isEqualTo(1L);
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.LENGTH)).isEqualTo(10L);
+		assertThat(events.get(1).getAttributes().get(ChatModelChoiceObservationHandler.FINISH_REASON))
+			.isEqualTo("STOP");
+		assertThat(events).allSatisfy(
+				event -> assertThat(event.getAttributes().get(ChatModelChoiceObservationHandler.COMPLETION)).isNull());
+	}
+
+	private static ChatModelObservationContext observationContext() {
+		var observationContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious",
+					ChatOptions.builder().model("spoonful-of-sugar").build()))
+			.provider("mary-poppins")
+			.build();
+		observationContext.setResponse(new ChatResponse(List.of(
+				new Generation(new AssistantMessage(""),
+						ChatGenerationMetadata.builder().finishReason("CONTENT_FILTER").build()),
+				new Generation(new AssistantMessage("say please"),
+						ChatGenerationMetadata.builder().finishReason("STOP").build()),
+				new Generation(new AssistantMessage("seriously, say please")))));
+		return observationContext;
+	}
+
+	private static TracingObservationHandler.TracingContext tracingContext(
+			ChatModelObservationContext observationContext) {
+		var sdkTracer = SdkTracerProvider.builder().build().get("test");
+		var otelTracer = new OtelTracer(sdkTracer, new OtelCurrentTraceContext(), null);
+		var tracingContext = new TracingObservationHandler.TracingContext();
+		tracingContext.setSpan(otelTracer.nextSpan());
+		observationContext.put(TracingObservationHandler.TracingContext.class, tracingContext);
+		return tracingContext;
+	}
+
+	private static List<EventData> events(TracingObservationHandler.TracingContext tracingContext) {
+		var otelSpan = TracingHelper.extractOtelSpan(tracingContext);
+		assertThat(otelSpan).isNotNull();
+		return ((ReadableSpan) otelSpan).toSpanData().getEvents();
+	}
+
+}
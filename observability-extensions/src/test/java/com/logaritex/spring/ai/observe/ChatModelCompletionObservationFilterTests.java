@@ -85,6 +85,20 @@ class ChatModelCompletionObservationFilterTests {
 			.contains(KeyValue.of("gen_ai.completion", "[\"say please\", \"seriously, say please\"]"));
 	}
 
+	@Test
+	void whenFirstCompletionEmptyThenLaterCompletionsIncluded() {
+		var originalContext = ChatModelObservationContext.builder()
+			.prompt(generatePrompt(ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		originalContext.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("")),
+				new Generation(new AssistantMessage("seriously, say please")))));
+		var augmentedContext = this.observationFilter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues())
+			.contains(KeyValue.of("gen_ai.completion", "[\"seriously, say please\"]"));
+	}
+
 	private Prompt generatePrompt(ChatOptions chatOptions) {
 		return new Prompt("supercalifragilisticexpialidocious", chatOptions);
 	}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatModelExemplarObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatModelExemplarObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	private final OtelTracer tracer = new OtelTracer(SdkTracerProvider.builder().build().get("test"),
+			new OtelCurrentTraceContext(), null);
+
+	@Test
+	void whenCallObservedThenMetersRecordedWithExemplars() {
+		var handler = new ChatModelExemplarObservationHandler(this.meterRegistry);
+		var span = this.tracer.nextSpan().start();
+		var context = chatModelContext("mistral", span, 120, 30);
+
+		handler.onStart(context);
+		this.clock.add(Duration.ofMillis(1500));
+		handler.onStop(context);
+
+		assertThat(this.meterRegistry.get(ChatModelExemplarObservationHandler.DURATION_METER_NAME)
+			.tag("gen_ai.request.model", "mistral")
+			.timer()
+			.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+		assertThat(this.meterRegistry.get(ChatModelExemplarObservationHandler.TOKENS_METER_NAME)
+			.tag("gen_ai.token.type", "input")
+			.summary()
+			.totalAmount()).isEqualTo(120);
+
+		var exemplars = handler.exemplars();
+		assertThat(exemplars).hasSize(3).allSatisfy(meter -> {
+			assertThat(meter.model().model()).isEqualTo("mistral");
+			assertThat(meter.exemplars()).singleElement().satisfies(exemplar -> {
+				assertThat(exemplar.traceId()).isEqualTo(span.context().traceId());
+				assertThat(exemplar.spanId()).isEqualTo(span.context().spanId());
+			});
+		});
+		assertThat(exemplars.get(0).exemplars().get(0).value()).isEqualTo(1.5);
+		assertThat(exemplars.get(0).exemplars().get(0).bucketUpperBound()).isEqualTo(2.048);
+	}
+
+	@Test
+	void whenTracerGivenThenRecordedWithSpanInScope() {
+		var inScope = new Span[1];
+		var meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+		meterRegistry.config().onMeterAdded(meter -> inScope[0] = this.tracer.currentSpan());
+		var handler = new ChatModelExemplarObservationHandler(meterRegistry, this.tracer, 10);
+		var span = this.tracer.nextSpan().start();
+		var context = chatModelContext("mistral", span, 1, 1);
+
+		handler.onStart(context);
+		handler.onStop(context);
+
+		assertThat(inScope[0]).isNotNull();
+		assertThat(inScope[0].context().spanId()).isEqualTo(span.context().spanId());
+		assertThat(this.tracer.currentSpan()).isNull();
+	}
+
+	@Test
+	void whenNoSpanThenMetersWithoutExemplars() {
+		var handler = new ChatModelExemplarObservationHandler(this.meterRegistry);
+		var context = chatModelContext("mistral", null, 10, 10);
+
+		handler.onStart(context);
+		handler.onStop(context);
+
+		assertThat(this.meterRegistry.get(ChatModelExemplarObservationHandler.DURATION_METER_NAME).timer().count())
+			.isEqualTo(1);
+		assertThat(handler.exemplars()).allSatisfy(meter -> assertThat(meter.exemplars()).isEmpty());
+	}
+
+	@Test
+	void whenResetThenExemplarsDropped() {
+		var handler = new ChatModelExemplarObservationHandler(this.meterRegistry);
+		var context = chatModelContext("mistral", this.tracer.nextSpan().start(), 10, 10);
+		handler.onStart(context);
+		handler.onStop(context);
+
+		handler.resetExemplars();
+
+		assertThat(handler.exemplars()).allSatisfy(meter -> assertThat(meter.exemplars()).isEmpty());
+	}
+
+	private static ChatModelObservationContext chatModelContext(String model, Span span, int promptTokens,
+			int completionTokens) {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt("hello", ChatOptions.builder().model(model).build()))
+			.provider("mistral_ai")
+			.build();
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("hi"))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, completionTokens)).build()));
+		if (span != null) {
+			var tracingContext = new TracingObservationHandler.TracingContext();
+			tracingContext.setSpan(span);
+			context.put(TracingObservationHandler.TracingContext.class, tracingContext);
+		}
+		return context;
+	}
+
+}
@@ -17,16 +17,20 @@
 package com.logaritex.spring.ai.observe;
 
 import java.util.List;
+import java.util.Map;
 
 import io.micrometer.common.KeyValue;
 import io.micrometer.observation.Observation;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.ai.chat.messages.MessageType;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.util.MimeTypeUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -85,4 +89,51 @@ class ChatModelPromptContentObservationFilterTests {
 				KeyValue.of("gen_ai.prompt", "[\"you're a chimney sweep\", \"supercalifragilisticexpialidocious\"]"));
 	}
 
+	@Test
+	void whenMessageCapturePolicyThenCapturePerRole() {
+		var filter = new ChatModelPromptContentObservationFilter(
+				new ContentCaptureControl(ContentCaptureSettings.builder()
+					.messages(new MessageCapturePolicy(Map.of(MessageType.SYSTEM, MessageCapturePolicy.Rule.hash(),
+							MessageType.TOOL, MessageCapturePolicy.Rule.none())))
+					.build()));
+		var originalContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt(
+					List.of(new SystemMessage("you're a chimney sweep"),
+							new UserMessage("supercalifragilisticexpialidocious"),
+							MessageCapturePolicyTests.unreadableMessage(MessageType.TOOL)),
+					ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		var augmentedContext = filter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues()).contains(KeyValue.of("gen_ai.prompt",
+				"[\"" + MessageCapturePolicy.HASH_PREFIX
+						+ ContentHash.toHex(ContentHash.fnv1a64("you're a chimney sweep"))
+						+ "\", \"supercalifragilisticexpialidocious\"]"));
+	}
+
+	@Test
+	void whenRoleOmittedThenMediaIndexMatchesPromptEntry() {
+		var filter = new ChatModelPromptContentObservationFilter(
+				new ContentCaptureControl(ContentCaptureSettings.builder()
+					.messages(new MessageCapturePolicy(Map.of(MessageType.SYSTEM, MessageCapturePolicy.Rule.none())))
+					.build()));
+		var image = Media.builder().mimeType(MimeTypeUtils.IMAGE_PNG).data(new byte[] { 1, 2, 3 }).build();
+		var originalContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt(
+					List.of(new SystemMessage("you're a chimney sweep"),
+							UserMessage.builder().text("what is this?").media(image).build()),
+					ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+
+		var augmentedContext = filter.map(originalContext);
+
+		assertThat(augmentedContext.getHighCardinalityKeyValues())
+			.contains(KeyValue.of("gen_ai.prompt", "[\"what is this?\"]"))
+			.contains(KeyValue.of("gen_ai.prompt.media",
+					"[{\"index\":0, \"mime_type\":\"image/png\", \"size\":3, \"hash\":\""
+							+ ContentHash.crc32c(new byte[] { 1, 2, 3 }) + "\"}]"));
+	}
+
 }
@@ -24,10 +24,13 @@ import io.opentelemetry.sdk.trace.ReadableSpan;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.observation.ChatModelObservationContext;
 import org.springframework.ai.chat.observation.ChatModelPromptContentObservationHandler;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.util.MimeTypeUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -63,4 +66,28 @@ class ChatModelPromptContentObservationHandler2Tests {
 			.containsOnly("supercalifragilisticexpialidocious");
 	}
 
+	@Test
+	void whenPromptWithMediaThenMediaMetadataInSpanEvent() {
+		var image = Media.builder().mimeType(MimeTypeUtils.IMAGE_JPEG).data("https://example.com/chimney.jpg").build();
+		var observationContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt(UserMessage.builder().text("what is this?").media(image).build(),
+					ChatOptions.builder().model("spoonful-of-sugar").build()))
+			.provider("mary-poppins")
+			.build();
+		var sdkTracer = SdkTracerProvider.builder().build().get("test");
+		var otelTracer = new OtelTracer(sdkTracer, new OtelCurrentTraceContext(), null);
+		var tracingContext = new TracingObservationHandler.TracingContext();
+		tracingContext.setSpan(otelTracer.nextSpan());
+		observationContext.put(TracingObservationHandler.TracingContext.class, tracingContext);
+
+		new ChatModelPromptContentObservationHandler2().onStop(observationContext);
+
+		var spanData = ((ReadableSpan) TracingHelper.extractOtelSpan(tracingContext)).toSpanData();
+		var attributes = spanData.getEvents().get(0).getAttributes();
+		assertThat(attributes.get(AttributeKey.stringArrayKey("gen_ai.prompt"))).containsOnly("what is this?");
+		assertThat(attributes.get(AttributeKey.stringArrayKey("gen_ai.prompt.media")))
+			.containsOnly("{\"index\":0, \"mime_type\":\"image/jpeg\", \"size\":-1, \"hash\":\""
+					+ ContentHash.toHex(ContentHash.fnv1a64("https://example.com/chimney.jpg")) + "\"}");
+	}
+
 }
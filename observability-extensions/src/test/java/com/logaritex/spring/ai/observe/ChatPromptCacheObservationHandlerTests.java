@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatPromptCacheObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatPromptCacheObservationHandlerTests {
+
+	private static final List<Message> MESSAGES = List.of(new SystemMessage("You are a poet."),
+			new UserMessage("Tell me a joke"));
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ChatPromptCacheObservationHandler handler = new ChatPromptCacheObservationHandler(this.meterRegistry);
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		assertThat(this.handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenOpenAiUsageThenCachedTokensIncludedInPromptTokens() {
+		call("gpt-4o", MESSAGES, 1000, new OpenAiUsage(1000, new PromptTokensDetails(800)));
+
+		assertThat(tokens("gpt-4o", "hit")).isEqualTo(800);
+		assertThat(tokens("gpt-4o", "miss")).isEqualTo(200);
+		assertThat(hitRatio("gpt-4o")).isEqualTo(0.8);
+	}
+
+	@Test
+	void whenAnthropicUsageThenCachedTokensExcludedFromPromptTokens() {
+		call("claude", MESSAGES, 100, new AnthropicUsage(100, 900));
+
+		assertThat(tokens("claude", "hit")).isEqualTo(900);
+		assertThat(tokens("claude", "miss")).isEqualTo(100);
+	}
+
+	@Test
+	void whenMapUsageThenCachedTokens() {
+		call("gpt-4o", MESSAGES, 1000, Map.of("prompt_tokens_details", Map.of("cached_tokens", 500)));
+
+		assertThat(tokens("gpt-4o", "hit")).isEqualTo(500);
+		assertThat(tokens("gpt-4o", "miss")).isEqualTo(500);
+	}
+
+	@Test
+	void whenNoCachedTokensReportedThenNotRecorded() {
+		call("llama", MESSAGES, 1000, new Object());
+		call("llama", MESSAGES, 1000, null);
+
+		assertThat(this.meterRegistry.find(ChatPromptCacheObservationHandler.TOKENS_METER_NAME).meters()).isEmpty();
+	}
+
+	@Test
+	void whenDifferentSystemPromptsThenTaggedByPrefix() {
+		call("gpt-4o", MESSAGES, 1000, new OpenAiUsage(1000, new PromptTokensDetails(1000)));
+		call("gpt-4o", List.of(new SystemMessage("You are a critic."), new UserMessage("Tell me a joke")), 1000,
+				new OpenAiUsage(1000, new PromptTokensDetails(0)));
+		call("gpt-4o", List.of(new UserMessage("Tell me a joke")), 1000,
+				new OpenAiUsage(1000, new PromptTokensDetails(0)));
+
+		assertThat(this.meterRegistry.find(ChatPromptCacheObservationHandler.HIT_RATIO_METER_NAME).gauges())
+			.extracting(gauge -> gauge.getId().getTag(ChatPromptCacheObservationHandler.PREFIX_TAG))
+			.containsExactlyInAnyOrder(hex(MESSAGES), hex(List.of(new SystemMessage("You are a critic."))),
+					ModelKey.NONE);
+	}
+
+	@Test
+	void whenPrefixLimitReachedThenOverflow() {
+		var handler = new ChatPromptCacheObservationHandler(this.meterRegistry,
+				ChatPromptCacheObservationHandler.NATIVE_USAGE, 1);
+
+		handler.onStop(context("gpt-4o", MESSAGES, 1000, new OpenAiUsage(1000, new PromptTokensDetails(1))));
+		handler.onStop(context("gpt-4o", List.of(new SystemMessage("You are a critic.")), 1000,
+				new OpenAiUsage(1000, new PromptTokensDetails(1))));
+
+		assertThat(this.meterRegistry.get(ChatPromptCacheObservationHandler.HIT_RATIO_METER_NAME)
+			.tag("gen_ai.request.model", ModelKey.OTHER)
+			.tag(ChatPromptCacheObservationHandler.PREFIX_TAG, ModelKey.OTHER)
+			.gauge()).isNotNull();
+	}
+
+	private static String hex(List<Message> messages) {
+		return ContentHash.toHex(ChatPromptCacheObservationHandler.prefixHash(new Prompt(messages)));
+	}
+
+	private double tokens(String model, String status) {
+		return this.meterRegistry.get(ChatPromptCacheObservationHandler.TOKENS_METER_NAME)
+			.tag("gen_ai.request.model", model)
+			.tag("gen_ai.cache.status", status)
+			.functionCounter()
+			.count();
+	}
+
+	private double hitRatio(String model) {
+		return this.meterRegistry.get(ChatPromptCacheObservationHandler.HIT_RATIO_METER_NAME)
+			.tag("gen_ai.request.model", model)
+			.gauge()
+			.value();
+	}
+
+	private void call(String model, List<Message> messages, int promptTokens, Object nativeUsage) {
+		this.handler.onStop(context(model, messages, promptTokens, nativeUsage));
+	}
+
+	private static ChatModelObservationContext context(String model, List<Message> messages, int promptTokens,
+			Object nativeUsage) {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt(messages, ChatOptions.builder().model(model).build()))
+			.provider("superprovider")
+			.build();
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+				ChatResponseMetadata.builder()
+					.usage(new DefaultUsage(promptTokens, 10, promptTokens + 10, nativeUsage))
+					.build()));
+		return context;
+	}
+
+	record OpenAiUsage(Integer promptTokens, PromptTokensDetails promptTokensDetails) {
+	}
+
+	record PromptTokensDetails(Integer cachedTokens) {
+	}
+
+	record AnthropicUsage(Integer inputTokens, Integer cacheReadInputTokens) {
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatPromptRepeatObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatPromptRepeatObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	private final ChatPromptRepeatObservationHandler handler = new ChatPromptRepeatObservationHandler(
+			this.meterRegistry, Duration.ofMinutes(10), 4, 1024, 3);
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		assertThat(this.handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenPromptRepeatedThenCounted() {
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+		this.handler.onStop(chatModelContext("Tell me a story", "mistral"));
+
+		var statistics = this.handler.statistics();
+		assertThat(statistics.calls()).isEqualTo(4);
+		assertThat(statistics.repeats()).isEqualTo(2);
+		assertThat(statistics.repeatRatio()).isEqualTo(0.5);
+		assertThat(statistics.savableTokens()).isEqualTo(60);
+		assertThat(statistics.topPrompts()).singleElement().satisfies(prompt -> {
+			assertThat(prompt.count()).isEqualTo(3);
+			assertThat(prompt.savableTokens()).isEqualTo(60);
+		});
+		assertThat(this.meterRegistry.get(ChatPromptRepeatObservationHandler.RATIO_METER_NAME).gauge().value())
+			.isEqualTo(0.5);
+		assertThat(this.meterRegistry.get(ChatPromptRepeatObservationHandler.REPEATS_METER_NAME).counter().count())
+			.isEqualTo(2);
+		assertThat(
+				this.meterRegistry.get(ChatPromptRepeatObservationHandler.SAVABLE_TOKENS_METER_NAME).counter().count())
+			.isEqualTo(60);
+		assertThat(this.meterRegistry.get(ChatPromptRepeatObservationHandler.TOP_METER_NAME)
+			.tag("rank", "1")
+			.gauge()
+			.value()).isEqualTo(3);
+		assertThat(this.meterRegistry.get(ChatPromptRepeatObservationHandler.TOP_METER_NAME)
+			.tag("rank", "2")
+			.gauge()
+			.value()).isZero();
+	}
+
+	@Test
+	void whenWhitespaceDiffersThenSamePrompt() {
+		assertThat(ChatPromptRepeatObservationHandler.hash(new Prompt("  Tell me\n\ta   joke ")))
+			.isEqualTo(ChatPromptRepeatObservationHandler.hash(new Prompt("Tell me a joke")))
+			.isNotEqualTo(ChatPromptRepeatObservationHandler.hash(new Prompt("Tell me ajoke")));
+	}
+
+	@Test
+	void whenModelDiffersThenNotRepeated() {
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+		this.handler.onStop(chatModelContext("Tell me a joke", "llama"));
+
+		assertThat(this.handler.statistics().repeats()).isZero();
+	}
+
+	@Test
+	void whenWindowSlidesThenOldPromptsForgotten() {
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+
+		this.clock.add(Duration.ofMinutes(5));
+		this.handler.onStop(chatModelContext("Tell me a joke", "mistral"));
+
+		assertThat(this.handler.statistics().repeats()).isEqualTo(2);
+
+		this.clock.add(Duration.ofMinutes(5));
+
+		var statistics = this.handler.statistics();
+		assertThat(statistics.calls()).isEqualTo(1);
+		assertThat(statistics.repeats()).isEqualTo(1);
+		assertThat(statistics.topPrompts()).isEmpty();
+
+		this.clock.add(Duration.ofMinutes(10));
+
+		assertThat(this.handler.statistics().calls()).isZero();
+	}
+
+	@Test
+	void whenHeavyHittersFullThenKeepMostRepeated() {
+		for (int prompt = 0; prompt < 5; prompt++) {
+			for (int call = 0; call <= prompt + 1; call++) {
+				this.handler.onStop(chatModelContext("prompt " + prompt, "mistral"));
+			}
+		}
+
+		assertThat(this.handler.statistics().topPrompts())
+			.extracting(ChatPromptRepeatObservationHandler.RepeatedPrompt::count)
+			.containsExactly(6L, 5L, 4L);
+	}
+
+	private static ChatModelObservationContext chatModelContext(String prompt, String model) {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt(prompt, ChatOptions.builder().model(model).build()))
+			.provider("superprovider")
+			.build();
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("ha"))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(20, 10)).build()));
+		return context;
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+/**
+ * Unit tests for {@link ChatQuantileSketchObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatQuantileSketchObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final ChatQuantileSketchObservationHandler handler = new ChatQuantileSketchObservationHandler(this.clock,
+			ChatQuantileSketchObservationHandler.DEFAULT_RELATIVE_ACCURACY, 1);
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		assertThat(this.handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenCallsRecordedThenSketchesPerMeasure() {
+		for (int i = 1; i <= 100; i++) {
+			call("mistral", Duration.ofMillis(10L * i), i, 2 * i);
+		}
+
+		assertThat(this.handler.sketches()).hasSize(3);
+		assertThat(sketch(ChatQuantileSketchObservationHandler.Measure.LATENCY).quantile(0.5)).isCloseTo(500,
+				withinPercentage(2));
+		assertThat(sketch(ChatQuantileSketchObservationHandler.Measure.PROMPT_TOKENS).quantile(0.99)).isCloseTo(99,
+				withinPercentage(2));
+		assertThat(sketch(ChatQuantileSketchObservationHandler.Measure.COMPLETION_TOKENS).count()).isEqualTo(100);
+	}
+
+	@Test
+	void whenModelLimitReachedThenOverflow() {
+		call("mistral", Duration.ofMillis(10), 1, 1);
+		call("llama", Duration.ofMillis(10), 1, 1);
+
+		assertThat(this.handler.sketches()).extracting(sketch -> sketch.model().model())
+			.containsOnly("mistral", ModelKey.OTHER);
+	}
+
+	private QuantileSketch sketch(ChatQuantileSketchObservationHandler.Measure measure) {
+		return this.handler.sketches()
+			.stream()
+			.filter(sketch -> sketch.measure() == measure)
+			.findFirst()
+			.orElseThrow()
+			.sketch();
+	}
+
+	private void call(String model, Duration latency, int promptTokens, int completionTokens) {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt("hello", ChatOptions.builder().model(model).build()))
+			.provider("superprovider")
+			.build();
+		this.handler.onStart(context);
+		this.clock.add(latency);
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, completionTokens)).build()));
+		this.handler.onStop(context);
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatRetryObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatRetryObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+	private final List<Observation.Event> events = new ArrayList<>();
+
+	ChatRetryObservationHandlerTests() {
+		this.observationRegistry.observationConfig()
+			.observationHandler(new ChatRetryObservationHandler(this.meterRegistry))
+			.observationHandler(new ObservationHandler<>() {
+				@Override
+				public void onEvent(Observation.Event event, Observation.Context context) {
+					ChatRetryObservationHandlerTests.this.events.add(event);
+				}
+
+				@Override
+				public boolean supportsContext(Observation.Context context) {
+					return true;
+				}
+			});
+	}
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		var handler = new ChatRetryObservationHandler(this.meterRegistry);
+
+		assertThat(handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenCallRetriedThenEventsAndMeters() {
+		var chatModelObservation = chatModelObservation();
+		attempt(chatModelObservation, Duration.ofMillis(100), "503", null);
+		this.clock.add(Duration.ofSeconds(1));
+		attempt(chatModelObservation, Duration.ofMillis(200), null, new IOException("reset"));
+		this.clock.add(Duration.ofSeconds(2));
+		attempt(chatModelObservation, Duration.ofMillis(300), "200", null);
+		chatModelObservation.stop();
+
+		assertThat(this.events).extracting(Observation.Event::getName)
+			.containsExactly(ChatRetryObservationHandler.RETRY_EVENT_NAME,
+					ChatRetryObservationHandler.RETRY_EVENT_NAME);
+		assertThat(this.events).extracting(Observation.Event::getContextualName)
+			.containsExactly("retry attempt 2 after 503, backoff 1000ms",
+					"retry attempt 3 after java.io.IOException, backoff 2000ms");
+		assertThat(retries("503")).isEqualTo(1);
+		assertThat(retries("java.io.IOException")).isEqualTo(1);
+		assertThat(this.meterRegistry.get(ChatRetryObservationHandler.BACKOFF_METER_NAME)
+			.timer()
+			.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3000);
+		assertThat(this.meterRegistry.get(ChatRetryObservationHandler.OVERHEAD_METER_NAME)
+			.tag("gen_ai.request.model", "mistral")
+			.timer()
+			.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3300);
+	}
+
+	@Test
+	void whenSingleAttemptThenNoRetry() {
+		var chatModelObservation = chatModelObservation();
+		attempt(chatModelObservation, Duration.ofMillis(100), "200", null);
+		chatModelObservation.stop();
+
+		assertThat(this.events).isEmpty();
+		assertThat(this.meterRegistry.find(ChatRetryObservationHandler.RETRIES_METER_NAME).counter()).isNull();
+		assertThat(this.meterRegistry.find(ChatRetryObservationHandler.OVERHEAD_METER_NAME).timer()).isNull();
+	}
+
+	@Test
+	void whenRequestOutsideChatModelCallThenIgnored() {
+		Observation.start(ChatRetryObservationHandler.DEFAULT_ATTEMPT_OBSERVATION_NAME, this.observationRegistry)
+			.stop();
+
+		assertThat(this.meterRegistry.getMeters()).isEmpty();
+	}
+
+	private Observation chatModelObservation() {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt("hello", ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		return Observation.start("chat model", () -> context, this.observationRegistry);
+	}
+
+	private void attempt(Observation chatModelObservation, Duration latency, String status, Throwable error) {
+		var attempt = Observation
+			.createNotStarted(ChatRetryObservationHandler.DEFAULT_ATTEMPT_OBSERVATION_NAME, this.observationRegistry)
+			.parentObservation(chatModelObservation)
+			.start();
+		this.clock.add(latency);
+		if (status != null) {
+			attempt.lowCardinalityKeyValue("status", status);
+		}
+		if (error != null) {
+			attempt.error(error);
+		}
+		attempt.stop();
+	}
+
+	private double retries(String errorType) {
+		return this.meterRegistry.get(ChatRetryObservationHandler.RETRIES_METER_NAME)
+			.tag("error.type", errorType)
+			.counter()
+			.count();
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.EventData;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatRetrySpanEvents}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatRetrySpanEventsTests {
+
+	private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+	private final List<Observation.Event> events = new ArrayList<>();
+
+	ChatRetrySpanEventsTests() {
+		this.observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+			@Override
+			public void onEvent(Observation.Event event, Observation.Context context) {
+				ChatRetrySpanEventsTests.this.events.add(event);
+			}
+
+			@Override
+			public boolean supportsContext(Observation.Context context) {
+				return true;
+			}
+		});
+	}
+
+	@Test
+	void whenOtelSpanThenSpanEvent() {
+		var chatModelObservation = chatModelObservation();
+		var sdkTracer = SdkTracerProvider.builder().build().get("test");
+		var otelTracer = new OtelTracer(sdkTracer, new OtelCurrentTraceContext(), null);
+		var tracingContext = new TracingObservationHandler.TracingContext();
+		tracingContext.setSpan(otelTracer.nextSpan());
+		chatModelObservation.getContext().put(TracingObservationHandler.TracingContext.class, tracingContext);
+
+		new ChatRetrySpanEvents().retry(chatModelObservation, 2, "503", Duration.ofMillis(250));
+
+		List<EventData> spanEvents = ((ReadableSpan) TracingHelper.extractOtelSpan(tracingContext)).toSpanData()
+			.getEvents();
+		assertThat(spanEvents).hasSize(1);
+		assertThat(spanEvents.get(0).getName()).isEqualTo(ChatRetryObservationHandler.RETRY_EVENT_NAME);
+		assertThat(spanEvents.get(0).getAttributes().get(ChatRetrySpanEvents.ATTEMPT)).isEqualTo(2L);
+		assertThat(spanEvents.get(0).getAttributes().get(ChatRetrySpanEvents.ERROR_TYPE)).isEqualTo("503");
+		assertThat(spanEvents.get(0).getAttributes().get(ChatRetrySpanEvents.BACKOFF)).isEqualTo(250L);
+		assertThat(this.events).isEmpty();
+	}
+
+	@Test
+	void whenNoOtelSpanThenObservationEvent() {
+		var chatModelObservation = chatModelObservation();
+
+		new ChatRetrySpanEvents().retry(chatModelObservation, 2, "503", Duration.ofMillis(250));
+
+		assertThat(this.events).extracting(Observation.Event::getName)
+			.containsExactly(ChatRetryObservationHandler.RETRY_EVENT_NAME);
+	}
+
+	private Observation chatModelObservation() {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious", ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		return Observation.start("chat model", () -> context, this.observationRegistry);
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ChatTopCallsObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ChatTopCallsObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		var handler = handler(ContentCaptureSettings.ENABLED, 2);
+
+		assertThat(handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenCallsRecordedThenTopCallsLargestFirst() {
+		var handler = handler(ContentCaptureSettings.ENABLED, 2);
+
+		call(handler, "first prompt", Duration.ofSeconds(1), 100, 10);
+		call(handler, "second prompt", Duration.ofSeconds(3), 50, 30);
+		call(handler, "third prompt", Duration.ofSeconds(2), 200, 20);
+
+		var topCalls = handler.topCalls();
+
+		assertThat(topCalls.slowest()).extracting(ChatTopCallsObservationHandler.TopCall::latency)
+			.containsExactly(Duration.ofSeconds(3), Duration.ofSeconds(2));
+		assertThat(topCalls.largestPrompts()).extracting(ChatTopCallsObservationHandler.TopCall::promptPreview)
+			.containsExactly("third prompt", "first prompt");
+		assertThat(topCalls.largestCompletions()).extracting(ChatTopCallsObservationHandler.TopCall::completionTokens)
+			.containsExactly(30L, 20L);
+		assertThat(topCalls.slowest().get(0).model().model()).isEqualTo("mistral");
+	}
+
+	@Test
+	void whenPromptLongerThanPreviewThenTruncated() {
+		var handler = handler(ContentCaptureSettings.ENABLED, 2);
+
+		call(handler, "x".repeat(200), Duration.ofSeconds(1), 100, 10);
+
+		assertThat(handler.topCalls().slowest().get(0).promptPreview())
+			.hasSize(ChatTopCallsObservationHandler.DEFAULT_PREVIEW_LENGTH);
+	}
+
+	@Test
+	void whenPromptCaptureDisabledThenNoPreview() {
+		var handler = handler(ContentCaptureSettings.DISABLED, 2);
+
+		call(handler, "first prompt", Duration.ofSeconds(1), 100, 10);
+
+		assertThat(handler.topCalls().slowest()).singleElement()
+			.satisfies(call -> assertThat(call.promptPreview()).isNull());
+	}
+
+	@Test
+	void whenWindowSlidThenOldCallsDropped() {
+		var handler = handler(ContentCaptureSettings.ENABLED, 2);
+
+		call(handler, "old prompt", Duration.ofSeconds(10), 100, 10);
+		this.clock.add(Duration.ofMinutes(3));
+		call(handler, "new prompt", Duration.ofSeconds(1), 100, 10);
+
+		assertThat(handler.topCalls().slowest()).hasSize(2);
+
+		this.clock.add(Duration.ofMinutes(3));
+
+		assertThat(handler.topCalls().slowest()).extracting(ChatTopCallsObservationHandler.TopCall::promptPreview)
+			.containsExactly("new prompt");
+	}
+
+	private ChatTopCallsObservationHandler handler(ContentCaptureSettings settings, int size) {
+		return new ChatTopCallsObservationHandler(new ContentCaptureControl(settings), this.clock,
+				ChatTopCallsObservationHandler.DEFAULT_WINDOW, size,
+				ChatTopCallsObservationHandler.DEFAULT_PREVIEW_LENGTH);
+	}
+
+	private void call(ChatTopCallsObservationHandler handler, String prompt, Duration latency, int promptTokens,
+			int completionTokens) {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt(prompt, ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		handler.onStart(context);
+		this.clock.add(latency);
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, completionTokens)).build()));
+		handler.onStop(context);
+	}
+
+}
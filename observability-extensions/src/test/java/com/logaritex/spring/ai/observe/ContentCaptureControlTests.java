@@ -0,0 +1,156 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import io.micrometer.common.KeyValue;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ContentCaptureControl}.
+ *
+ * @author Christian Tzolov
+ */
+class ContentCaptureControlTests {
+
+	@Test
+	void whenCaptureDisabledThenNoContent() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.DISABLED);
+		var context = observationContext();
+
+		new ChatModelPromptContentObservationFilter(control).map(context);
+		new ChatModelCompletionObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValues()).isEmpty();
+	}
+
+	@Test
+	void whenCaptureToggledThenNextCallsCaptured() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.DISABLED);
+		var filter = new ChatModelPromptContentObservationFilter(control);
+
+		var before = filter.map(observationContext());
+		control.update(control.settings().mutate().prompt(true).build());
+		var after = filter.map(observationContext());
+
+		assertThat(before.getHighCardinalityKeyValue("gen_ai.prompt")).isNull();
+		assertThat(after.getHighCardinalityKeyValue("gen_ai.prompt")).isNotNull();
+	}
+
+	@Test
+	void whenSampledThenPromptAndCompletionCapturedTogether() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().sampleRate(0.5).build());
+		var promptFilter = new ChatModelPromptContentObservationFilter(control);
+		var completionFilter = new ChatModelCompletionObservationFilter(control);
+
+		int sampled = 0;
+		for (int i = 0; i < 1000; i++) {
+			var context = observationContext();
+			promptFilter.map(context);
+			completionFilter.map(context);
+			boolean promptCaptured = context.getHighCardinalityKeyValue("gen_ai.prompt") != null;
+			boolean completionCaptured = context.getHighCardinalityKeyValue("gen_ai.completion") != null;
+			assertThat(promptCaptured).isEqualTo(completionCaptured);
+			sampled += promptCaptured ? 1 : 0;
+		}
+		assertThat(sampled).isBetween(350, 650);
+	}
+
+	@Test
+	void whenSampleRateZeroThenNothingCaptured() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().sampleRate(0).build());
+		var context = new ChatModelPromptContentObservationFilter(control).map(observationContext());
+
+		assertThat(context.getHighCardinalityKeyValues()).isEmpty();
+	}
+
+	@Test
+	void whenMaxLengthThenContentTruncated() {
+		var control = new ContentCaptureControl(
+				ContentCaptureSettings.builder().maxPromptLength(10).maxCompletionLength(4).build());
+		var context = observationContext();
+
+		new ChatModelPromptContentObservationFilter(control).map(context);
+		new ChatModelCompletionObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValues()).contains(KeyValue.of("gen_ai.prompt", "[\"supercal"),
+				KeyValue.of("gen_ai.completion", "[\"sa"));
+	}
+
+	@Test
+	void whenTruncatingListThenBudgetSharedAcrossItems() {
+		assertThat(TracingHelper.truncate(List.of("abc", "defg", "hij"), 5)).containsExactly("abc", "de");
+		assertThat(TracingHelper.truncate(List.of("abc", "defg"), 7)).containsExactly("abc", "defg");
+		assertThat(TracingHelper.truncate(List.of("abc", "defg"), 3)).containsExactly("abc");
+	}
+
+	@Test
+	void whenTruncatingThenSurrogatePairsKept() {
+		assertThat(TracingHelper.truncate("ab😀c", 3)).isEqualTo("ab");
+		assertThat(TracingHelper.truncate("ab😀c", 4)).isEqualTo("ab😀");
+	}
+
+	@Test
+	void whenRuleMatchesThenRuleSettingsApplied() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().sampleRate(0.0).build(),
+				new ContentCaptureRules(
+						List.of(ContentCaptureRule.builder().model("mistral").sampleRate(1.0).build())));
+		var filter = new ChatModelPromptContentObservationFilter(control);
+
+		var matching = filter.map(observationContext());
+		var other = filter.map(ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious", ChatOptions.builder().model("llama").build()))
+			.provider("superprovider")
+			.build());
+
+		assertThat(matching.getHighCardinalityKeyValue("gen_ai.prompt")).isNotNull();
+		assertThat(other.getHighCardinalityKeyValue("gen_ai.prompt")).isNull();
+	}
+
+	@Test
+	void whenSettingsUpdatedThenRulesKept() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.DISABLED, new ContentCaptureRules(
+				List.of(ContentCaptureRule.builder().model("mistral").sampleRate(0.5).build())));
+
+		control.update(ContentCaptureSettings.ENABLED);
+
+		var settings = control.settings(observationContext());
+		assertThat(settings.prompt()).isTrue();
+		assertThat(settings.sampleRate()).isEqualTo(0.5);
+		assertThat(control.settings()).isEqualTo(ContentCaptureSettings.ENABLED);
+	}
+
+	private static ChatModelObservationContext observationContext() {
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious", ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("say please")))));
+		return context;
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link ContentCaptureGovernor}.
+ *
+ * @author Christian Tzolov
+ */
+class ContentCaptureGovernorTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	@Test
+	void whenNoPressureThenNothingShed() {
+		var governor = ContentCaptureGovernor.builder()
+			.bytesPerSecond(1000, 1)
+			.heapOccupancy(() -> 0.1)
+			.meterRegistry(this.meterRegistry)
+			.build();
+
+		assertThat(governor.probability()).isEqualTo(1.0);
+		for (int i = 0; i < 100; i++) {
+			assertThat(governor.shed()).isNull();
+		}
+	}
+
+	@Test
+	void whenRampThenProbabilityDecreasesGradually() {
+		assertThat(ContentCaptureGovernor.ramp(0.5, 0.6, 0.8)).isEqualTo(1.0);
+		assertThat(ContentCaptureGovernor.ramp(0.7, 0.6, 0.8)).isCloseTo(0.5, within(1e-9));
+		assertThat(ContentCaptureGovernor.ramp(0.9, 0.6, 0.8)).isEqualTo(0.0);
+	}
+
+	@Test
+	void whenBytesBudgetDrainedThenShedAndRefilled() {
+		var governor = ContentCaptureGovernor.builder()
+			.bytesPerSecond(1000, 1)
+			.heap(false)
+			.meterRegistry(this.meterRegistry)
+			.build();
+
+		governor.consume(750);
+		assertThat(governor.pressure(ContentCaptureGovernor.Reason.BYTES)).isCloseTo(0.75, within(1e-9));
+		assertThat(governor.probability()).isCloseTo(0.5, within(1e-9));
+
+		governor.consume(5000);
+		assertThat(governor.probability()).isZero();
+		assertThat(governor.shed()).isEqualTo(ContentCaptureGovernor.Reason.BYTES);
+		assertThat(shed("bytes")).isEqualTo(1);
+
+		this.clock.add(Duration.ofSeconds(10));
+		assertThat(governor.probability()).isEqualTo(1.0);
+		assertThat(governor.shed()).isNull();
+	}
+
+	@Test
+	void whenHeapAboveHighWatermarkThenShedForHeap() {
+		var governor = ContentCaptureGovernor.builder()
+			.heapOccupancy(() -> 0.95)
+			.meterRegistry(this.meterRegistry)
+			.build();
+
+		assertThat(governor.shed()).isEqualTo(ContentCaptureGovernor.Reason.HEAP);
+		assertThat(shed("heap")).isEqualTo(1);
+		assertThat(this.meterRegistry.get(ContentCaptureGovernor.PRESSURE_METER_NAME)
+			.tag("source", "heap")
+			.gauge()
+			.value()).isEqualTo(0.95);
+	}
+
+	@Test
+	void whenExporterQueueFillsThenLowestSignalWins() {
+		var queueSize = new AtomicInteger();
+		var governor = ContentCaptureGovernor.builder()
+			.heapOccupancy(() -> 0.8)
+			.exporterQueue(new ContentCaptureGovernor.ExporterQueue() {
+
+				@Override
+				public int size() {
+					return queueSize.get();
+				}
+
+				@Override
+				public int capacity() {
+					return 100;
+				}
+
+			})
+			.meterRegistry(this.meterRegistry)
+			.build();
+
+		assertThat(governor.probability()).isCloseTo(2.0 / 3, within(1e-9));
+
+		queueSize.set(95);
+
+		assertThat(governor.probability()).isZero();
+		assertThat(governor.shed()).isEqualTo(ContentCaptureGovernor.Reason.EXPORTER);
+		assertThat(this.meterRegistry.get(ContentCaptureGovernor.PROBABILITY_METER_NAME).gauge().value()).isZero();
+	}
+
+	@Test
+	void whenHeapOccupancyChangesThenRefreshedAtMostOncePerSecond() {
+		var occupancy = new double[] { 0.95 };
+		var governor = ContentCaptureGovernor.builder()
+			.heapOccupancy(() -> occupancy[0])
+			.meterRegistry(this.meterRegistry)
+			.build();
+
+		occupancy[0] = 0.1;
+
+		assertThat(governor.pressure(ContentCaptureGovernor.Reason.HEAP)).isEqualTo(0.95);
+
+		this.clock.add(Duration.ofSeconds(1));
+
+		assertThat(governor.pressure(ContentCaptureGovernor.Reason.HEAP)).isEqualTo(0.1);
+	}
+
+	@Test
+	void whenShedThenReasonAddedAndContentNotCaptured() {
+		var governor = ContentCaptureGovernor.builder().heapOccupancy(() -> 1.0).build();
+		var control = new ContentCaptureControl(ContentCaptureSettings.ENABLED, ContentCaptureRules.NONE, governor);
+		var context = ChatModelObservationContext.builder().prompt(new Prompt("hello")).provider("openai").build();
+
+		new ChatModelPromptContentObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt")).isNull();
+		assertThat(context.getHighCardinalityKeyValue(ContentCaptureGovernor.SHED_REASON_KEY).getValue())
+			.isEqualTo("heap");
+	}
+
+	@Test
+	void whenCapturedThenChargedToBytesBudget() {
+		var governor = ContentCaptureGovernor.builder().bytesPerSecond(10, 1).heap(false).build();
+		var control = new ContentCaptureControl(ContentCaptureSettings.ENABLED, ContentCaptureRules.NONE, governor);
+		var context = ChatModelObservationContext.builder().prompt(new Prompt("hello")).provider("openai").build();
+
+		new ChatModelPromptContentObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt")).isNotNull();
+		assertThat(governor.pressure(ContentCaptureGovernor.Reason.BYTES)).isGreaterThanOrEqualTo(0.5);
+	}
+
+	@Test
+	void whenHeapFromMemoryPoolsThenOccupancyInRangeAndThresholdsUntouched() {
+		List<Long> thresholds = collectionUsageThresholds();
+
+		var governor = ContentCaptureGovernor.builder().build();
+
+		assertThat(governor.pressure(ContentCaptureGovernor.Reason.HEAP)).isBetween(0.0, 1.0);
+		assertThat(collectionUsageThresholds()).isEqualTo(thresholds);
+	}
+
+	private static List<Long> collectionUsageThresholds() {
+		return ManagementFactory.getMemoryPoolMXBeans()
+			.stream()
+			.filter(MemoryPoolMXBean::isCollectionUsageThresholdSupported)
+			.map(MemoryPoolMXBean::getCollectionUsageThreshold)
+			.toList();
+	}
+
+	private double shed(String reason) {
+		return this.meterRegistry.get(ContentCaptureGovernor.SHED_METER_NAME).tag("reason", reason).counter().count();
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ContentCaptureMetrics}.
+ *
+ * @author Christian Tzolov
+ */
+class ContentCaptureMetricsTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ContentCaptureMetrics metrics = new ContentCaptureMetrics(this.meterRegistry, 1);
+
+	@Test
+	void whenNoopThenNothingRecorded() {
+		var recorder = ContentCaptureMetrics.NOOP.recorder(ChatModelPromptContentObservationHandler2.class,
+				ContentCaptureMetrics.Target.EVENT);
+
+		long sample = recorder.start();
+		recorder.recordSize(sample, "supercalifragilisticexpialidocious");
+		recorder.recordTruncation("supercalifragilisticexpialidocious", "super");
+		recorder.recordBridgeFailure();
+		recorder.stop(sample);
+
+		assertThat(sample).isEqualTo(ContentCaptureMetrics.Recorder.NOT_SAMPLED);
+		assertThat(this.meterRegistry.getMeters()).isEmpty();
+	}
+
+	@Test
+	void whenRecorderCreatedThenMetersRegistered() {
+		this.metrics.recorder(ChatModelPromptContentObservationFilter.class, ContentCaptureMetrics.Target.ATTRIBUTE);
+
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DURATION_METER_NAME)
+			.tag("component", "ChatModelPromptContentObservationFilter")
+			.tag("target", "attribute")
+			.timer()
+			.count()).isZero();
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DROPPED_METER_NAME).counters()).hasSize(2);
+		assertThat(this.meterRegistry.find(ContentCaptureMetrics.BRIDGE_FAILURES_METER_NAME).counter()).isNull();
+	}
+
+	@Test
+	void whenPromptCapturedThenTimeAndSizeRecorded() {
+		var handler = new ChatModelPromptContentObservationHandler2(new ContentCaptureControl(), this.metrics);
+		var observationContext = chatModelContext();
+		observationContext.put(TracingObservationHandler.TracingContext.class, otelTracingContext());
+
+		handler.onStop(observationContext);
+
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DURATION_METER_NAME).timer().count()).isEqualTo(1);
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.SIZE_METER_NAME).summary().totalAmount())
+			.isEqualTo("supercalifragilisticexpialidocious".length());
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.TRUNCATED_METER_NAME).counter().count()).isZero();
+	}
+
+	@Test
+	void whenPromptTooLongThenTruncatedAndDroppedCounted() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().maxPromptLength(10).build());
+		var handler = new ChatModelPromptContentObservationHandler2(control, this.metrics);
+		var observationContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt(List.of(new UserMessage("supercalifragilisticexpialidocious"), new UserMessage("chim"),
+					new UserMessage("chimney"))))
+			.provider("mary-poppins")
+			.build();
+		observationContext.put(TracingObservationHandler.TracingContext.class, otelTracingContext());
+
+		handler.onStop(observationContext);
+
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.TRUNCATED_METER_NAME).counter().count()).isEqualTo(1);
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DROPPED_METER_NAME)
+			.tag("reason", "length")
+			.counter()
+			.count()).isEqualTo(2);
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.SIZE_METER_NAME).summary().totalAmount()).isEqualTo(10);
+	}
+
+	@Test
+	void whenNotSampledThenDroppedCounted() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().sampleRate(0.0).build());
+		var filter = new ChatModelCompletionObservationFilter(control, this.metrics);
+		var observationContext = chatModelContext();
+		observationContext.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("chimney")))));
+
+		filter.map(observationContext);
+
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DROPPED_METER_NAME)
+			.tag("reason", "sampling")
+			.counter()
+			.count()).isEqualTo(1);
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DURATION_METER_NAME).timer().count()).isZero();
+	}
+
+	@Test
+	void whenSpanNotBackedByOpenTelemetryThenBridgeFailureCounted() {
+		var handler = new ChatModelCompletionObservationHandler2(new ContentCaptureControl(), this.metrics);
+		var observationContext = chatModelContext();
+		observationContext.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("chimney")))));
+		var tracingContext = new TracingObservationHandler.TracingContext();
+		tracingContext.setSpan(Span.NOOP);
+		observationContext.put(TracingObservationHandler.TracingContext.class, tracingContext);
+
+		handler.onStop(observationContext);
+		handler.onStop(observationContext);
+
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.BRIDGE_FAILURES_METER_NAME).counter().count())
+			.isEqualTo(2);
+	}
+
+	@Test
+	void whenSampleIntervalThenOnlySomeCallsTimed() {
+		var recorder = new ContentCaptureMetrics(this.meterRegistry, 1_000_000)
+			.recorder(ChatModelCompletionObservationFilter.class, ContentCaptureMetrics.Target.ATTRIBUTE);
+
+		for (int i = 0; i < 100; i++) {
+			recorder.stop(recorder.start());
+		}
+
+		assertThat(this.meterRegistry.get(ContentCaptureMetrics.DURATION_METER_NAME).timer().count()).isLessThan(100);
+	}
+
+	@Test
+	void utf8Length() {
+		assertThat(ContentCaptureMetrics.Recorder.utf8Length("chimney")).isEqualTo(7);
+		assertThat(ContentCaptureMetrics.Recorder.utf8Length("café")).isEqualTo(5);
+		assertThat(ContentCaptureMetrics.Recorder.utf8Length("€")).isEqualTo(3);
+		assertThat(ContentCaptureMetrics.Recorder.utf8Length("😀")).isEqualTo(4);
+	}
+
+	private static ChatModelObservationContext chatModelContext() {
+		return ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious",
+					ChatOptions.builder().model("spoonful-of-sugar").build()))
+			.provider("mary-poppins")
+			.build();
+	}
+
+	private static TracingObservationHandler.TracingContext otelTracingContext() {
+		var otelTracer = new OtelTracer(SdkTracerProvider.builder().build().get("test"), new OtelCurrentTraceContext(),
+				null);
+		var tracingContext = new TracingObservationHandler.TracingContext();
+		tracingContext.setSpan(otelTracer.nextSpan());
+		return tracingContext;
+	}
+
+}
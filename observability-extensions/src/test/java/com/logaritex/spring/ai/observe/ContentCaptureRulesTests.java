@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ContentCaptureRules}.
+ *
+ * @author Christian Tzolov
+ */
+class ContentCaptureRulesTests {
+
+	private final ContentCaptureRules rules = new ContentCaptureRules(
+			List.of(ContentCaptureRule.builder().context("tenant", "pii").sampleRate(0.0).build(),
+					ContentCaptureRule.builder().provider("openai").model("gpt-4o").sampleRate(1.0).build(),
+					ContentCaptureRule.builder().key("gen_ai.request.model", "gpt-4o-mini").sampleRate(0.01).build(),
+					ContentCaptureRule.builder().operation("framework").prompt(false).build()));
+
+	@Test
+	void whenNoRulesThenNoMatch() {
+		assertThat(ContentCaptureRules.NONE.match(chatModelContext("openai", "gpt-4o")))
+			.isEqualTo(ContentCaptureRules.NO_MATCH);
+	}
+
+	@Test
+	void whenNotChatContextThenNoMatch() {
+		assertThat(this.rules.match(new Observation.Context())).isEqualTo(ContentCaptureRules.NO_MATCH);
+	}
+
+	@Test
+	void whenProviderAndModelMatchThenRuleIndex() {
+		assertThat(this.rules.match(chatModelContext("openai", "gpt-4o"))).isEqualTo(1);
+		assertThat(this.rules.match(chatModelContext("ollama", "gpt-4o"))).isEqualTo(ContentCaptureRules.NO_MATCH);
+	}
+
+	@Test
+	void whenLowCardinalityKeyMatchesThenRuleIndex() {
+		var context = chatModelContext("openai", "gpt-4o-mini");
+		context.addLowCardinalityKeyValue(KeyValue.of("gen_ai.request.model", "gpt-4o-mini"));
+
+		assertThat(this.rules.match(context)).isEqualTo(2);
+		assertThat(this.rules.match(chatModelContext("openai", "gpt-4o-mini"))).isEqualTo(ContentCaptureRules.NO_MATCH);
+	}
+
+	@Test
+	void whenChatClientContextEntryMatchesThenFirstRuleWins() {
+		var chatClientContext = chatClientContext(Map.of("tenant", "pii"));
+
+		assertThat(this.rules.match(chatClientContext)).isZero();
+		assertThat(this.rules.match(chatClientContext(Map.of("tenant", "acme")))).isEqualTo(3);
+	}
+
+	@Test
+	void whenChatModelCalledFromChatClientThenMatchRequestContext() {
+		var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(context -> true);
+		var chatClientContext = chatClientContext(Map.of("tenant", "pii"));
+		var chatClientObservation = Observation.start("chat client", () -> chatClientContext, registry);
+		var chatModelContext = chatModelContext("openai", "gpt-4o");
+		Observation.createNotStarted("chat model", () -> chatModelContext, registry)
+			.parentObservation(chatClientObservation)
+			.start();
+
+		assertThat(this.rules.match(chatModelContext)).isZero();
+	}
+
+	@Test
+	void whenDecisionCachedThenSameResult() {
+		for (int i = 0; i < 3; i++) {
+			assertThat(this.rules.match(chatModelContext("openai", "gpt-4o"))).isEqualTo(1);
+			assertThat(this.rules.match(chatModelContext("openai", "gpt-3.5"))).isEqualTo(ContentCaptureRules.NO_MATCH);
+		}
+	}
+
+	@Test
+	void whenDecisionCacheFullThenStillMatch() {
+		var rules = new ContentCaptureRules(List.of(ContentCaptureRule.builder().context("user", "42").build()));
+		for (int i = 0; i < ContentCaptureRules.MAX_DECISIONS + 10; i++) {
+			rules.match(chatClientContext(Map.of("user", String.valueOf(i + 100))));
+		}
+
+		assertThat(rules.match(chatClientContext(Map.of("user", "42")))).isZero();
+	}
+
+	private static ChatModelObservationContext chatModelContext(String provider, String model) {
+		return ChatModelObservationContext.builder()
+			.prompt(new Prompt("supercalifragilisticexpialidocious", ChatOptions.builder().model(model).build()))
+			.provider(provider)
+			.build();
+	}
+
+	private static ChatClientObservationContext chatClientContext(Map<String, Object> requestContext) {
+		return ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt("hello")).context(requestContext).build())
+			.build();
+	}
+
+}
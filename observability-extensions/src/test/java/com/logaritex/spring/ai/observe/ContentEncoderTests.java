@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.opentelemetry.api.common.AttributeKey;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link ContentEncoder}.
+ *
+ * @author Christian Tzolov
+ */
+class ContentEncoderTests {
+
+	@Test
+	void whenBelowThresholdThenKept() {
+		var encoder = new ContentEncoder(100);
+
+		assertThat(encoder.encode("short")).isNull();
+		assertThat(encoder.encode(List.of("short", "values"))).isNull();
+		assertThat(encoder.encode((String) null)).isNull();
+	}
+
+	@Test
+	void whenAboveThresholdThenDeflatedAndDecoded() {
+		var encoder = new ContentEncoder(100);
+		String content = "The quick brown fox jumps over the lazy dog. ".repeat(1000) + "ünïcödé";
+
+		String encoded = encoder.encode(content);
+
+		assertThat(encoded).isNotNull().hasSizeLessThan(content.length() / 10).matches("[A-Za-z0-9+/=]+");
+		assertThat(ContentEncoder.decode(encoded)).isEqualTo(content);
+	}
+
+	@Test
+	void whenNotCompressibleThenKept() {
+		var encoder = new ContentEncoder(10);
+		var random = new Random(42);
+		var content = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			content.append((char) ('!' + random.nextInt(90)));
+		}
+
+		assertThat(encoder.encode(content.toString())).isNull();
+	}
+
+	@Test
+	void whenValuesAboveThresholdThenAllEncoded() {
+		var encoder = new ContentEncoder(100);
+		var values = List.of("a", "lorem ipsum ".repeat(200), "");
+
+		List<String> encoded = encoder.encode(values);
+
+		assertThat(encoded).hasSize(3);
+		assertThat(ContentEncoder.decode(encoded)).isEqualTo(values);
+	}
+
+	@Test
+	void whenInvalidThenDecodingFails() {
+		assertThatIllegalArgumentException().isThrownBy(() -> ContentEncoder.decode("not base64!"));
+		assertThatIllegalArgumentException().isThrownBy(() -> ContentEncoder.decode("AAAA"));
+	}
+
+	@Test
+	void whenEncodedConcurrentlyThenDeflatersReused() throws Exception {
+		var encoder = new ContentEncoder(10, 1, 2);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				String content = ("call " + i + " ").repeat(500 + i);
+				results.add(executor.submit(() -> ContentEncoder.decode(encoder.encode(content)).equals(content)));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get()).isTrue();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void whenEncoderConfiguredThenFiltersEmitEncodingMarker() {
+		var completion = "completion ".repeat(100);
+		var control = new ContentCaptureControl(
+				ContentCaptureSettings.builder().encoder(new ContentEncoder(100)).build());
+		var context = ChatModelObservationContext.builder()
+			.prompt(new Prompt("short prompt"))
+			.provider("openai")
+			.build();
+		context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage(completion)))));
+
+		new ChatModelPromptContentObservationFilter(control).map(context);
+		new ChatModelCompletionObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt").getValue()).isEqualTo("[\"short prompt\"]");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt.encoding")).isNull();
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.completion.encoding").getValue())
+			.isEqualTo(ContentEncoder.DEFLATE_BASE64);
+		assertThat(ContentEncoder.decode(context.getHighCardinalityKeyValue("gen_ai.completion").getValue()))
+			.isEqualTo("[\"" + completion + "\"]");
+	}
+
+	@Test
+	void whenEncodingMarkerThenAttributeKeyFollowsContentKey() {
+		assertThat(AttributeKey.stringKey("gen_ai.completion" + ContentEncoder.ENCODING_SUFFIX).getKey())
+			.isEqualTo("gen_ai.completion.encoding");
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CountMinSketch}.
+ *
+ * @author Christian Tzolov
+ */
+class CountMinSketchTests {
+
+	@Test
+	void whenAddedThenEstimated() {
+		var sketch = new CountMinSketch(4, 1024);
+
+		assertThat(sketch.add(42)).isEqualTo(1);
+		assertThat(sketch.add(42)).isEqualTo(2);
+		assertThat(sketch.estimate(42)).isEqualTo(2);
+		assertThat(sketch.estimate(43)).isZero();
+	}
+
+	@Test
+	void whenManyHashesThenNeverUndercount() {
+		var sketch = new CountMinSketch(4, 256);
+		for (long hash = 0; hash < 10_000; hash++) {
+			sketch.add(hash);
+		}
+		for (int i = 0; i < 100; i++) {
+			sketch.add(-1);
+		}
+
+		assertThat(sketch.estimate(-1)).isBetween(100L, 100L + 10_000 * 3 / 256);
+		for (long hash = 0; hash < 10_000; hash += 97) {
+			assertThat(sketch.estimate(hash)).isPositive();
+		}
+	}
+
+	@Test
+	void whenClearedThenZero() {
+		var sketch = new CountMinSketch(2, 16);
+		sketch.add(42);
+
+		sketch.clear();
+
+		assertThat(sketch.estimate(42)).isZero();
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ExemplarReservoir}.
+ *
+ * @author Christian Tzolov
+ */
+class ExemplarReservoirTests {
+
+	private final OtelTracer tracer = new OtelTracer(SdkTracerProvider.builder().build().get("test"),
+			new OtelCurrentTraceContext(), null);
+
+	@Test
+	void whenValuesOfferedThenOneExemplarPerBucket() {
+		var reservoir = new ExemplarReservoir(1);
+
+		reservoir.offer(1, this.tracer.nextSpan().context(), 1L);
+		reservoir.offer(3, this.tracer.nextSpan().context(), 2L);
+		reservoir.offer(4, this.tracer.nextSpan().context(), 3L);
+		reservoir.offer(1000, this.tracer.nextSpan().context(), 4L);
+
+		assertThat(reservoir.exemplars()).extracting(ExemplarReservoir.Exemplar::bucketUpperBound)
+			.containsExactly(1.0, 4.0, 1024.0);
+		assertThat(reservoir.max().value()).isEqualTo(1000);
+	}
+
+	@Test
+	void whenScaledThenBucketsInFinerUnits() {
+		var reservoir = new ExemplarReservoir(1000);
+
+		reservoir.offer(0.0015, this.tracer.nextSpan().context(), 1L);
+
+		assertThat(reservoir.exemplars()).singleElement()
+			.satisfies(exemplar -> assertThat(exemplar.bucketUpperBound()).isEqualTo(0.002));
+	}
+
+	@Test
+	void whenExemplarRecordedThenTraceAndSpanIdsKept() {
+		var reservoir = new ExemplarReservoir(1);
+		var context = this.tracer.nextSpan().context();
+
+		reservoir.offer(42, context, 7L);
+
+		var exemplar = reservoir.max();
+		assertThat(exemplar.traceId()).isEqualTo(context.traceId());
+		assertThat(exemplar.spanId()).isEqualTo(context.spanId());
+		assertThat(exemplar.timestamp()).isEqualTo(7L);
+	}
+
+	@Test
+	void whenManyValuesInBucketThenEverySpanCanBeChosen() {
+		var reservoir = new ExemplarReservoir(1);
+		var first = this.tracer.nextSpan().context();
+		int replaced = 0;
+		for (int run = 0; run < 200; run++) {
+			reservoir.reset();
+			reservoir.offer(10, first, 0L);
+			reservoir.offer(10, this.tracer.nextSpan().context(), 0L);
+			if (!reservoir.max().spanId().equals(first.spanId())) {
+				replaced++;
+			}
+		}
+		assertThat(replaced).isBetween(50, 150);
+	}
+
+	@Test
+	void whenNoTraceThenNothingKept() {
+		var reservoir = new ExemplarReservoir(1);
+
+		reservoir.offer(10, null, 0L);
+
+		assertThat(reservoir.exemplars()).isEmpty();
+		assertThat(reservoir.max()).isNull();
+	}
+
+}
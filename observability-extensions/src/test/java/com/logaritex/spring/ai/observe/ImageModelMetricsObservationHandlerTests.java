@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.image.Image;
+import org.springframework.ai.image.ImageGeneration;
+import org.springframework.ai.image.ImageOptionsBuilder;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.image.observation.ImageModelObservationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ImageModelMetricsObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ImageModelMetricsObservationHandlerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() {
+		var handler = new ImageModelMetricsObservationHandler(this.meterRegistry);
+
+		assertThat(handler.supportsContext(new Observation.Context())).isFalse();
+	}
+
+	@Test
+	void whenImagesGeneratedThenLatencyPerImageAndPayloadSizes() {
+		var handler = new ImageModelMetricsObservationHandler(this.meterRegistry);
+		var context = imageContext("dall-e-3");
+		String data = Base64.getEncoder().encodeToString(new byte[1000]);
+
+		handler.onStart(context);
+		this.clock.add(Duration.ofSeconds(8));
+		context.setResponse(new ImageResponse(List.of(new ImageGeneration(new Image(null, data)),
+				new ImageGeneration(new Image("https://images/12345", null)))));
+		handler.onStop(context);
+
+		var duration = this.meterRegistry.get(ImageModelMetricsObservationHandler.DURATION_METER_NAME)
+			.tag("gen_ai.request.model", "dall-e-3")
+			.tag("gen_ai.request.image.size", "1024x1024")
+			.timer();
+		assertThat(duration.count()).isEqualTo(2);
+		assertThat(duration.mean(TimeUnit.SECONDS)).isEqualTo(4);
+		assertThat(this.meterRegistry.get(ImageModelMetricsObservationHandler.GENERATED_METER_NAME).counter().count())
+			.isEqualTo(2);
+		assertThat(payloadSize("b64_json")).isEqualTo(1000);
+		assertThat(payloadSize("url")).isEqualTo("https://images/12345".length());
+	}
+
+	@Test
+	void whenNoResponseThenNothingRecorded() {
+		var handler = new ImageModelMetricsObservationHandler(this.meterRegistry);
+		var context = imageContext("dall-e-3");
+
+		handler.onStart(context);
+		handler.onStop(context);
+
+		assertThat(this.meterRegistry.find(ImageModelMetricsObservationHandler.DURATION_METER_NAME).timer()).isNull();
+	}
+
+	@Test
+	void whenModelLimitReachedThenOverflow() {
+		var handler = new ImageModelMetricsObservationHandler(this.meterRegistry, 1);
+
+		for (String model : List.of("dall-e-3", "dall-e-2", "gpt-image-1")) {
+			var context = imageContext(model);
+			handler.onStart(context);
+			context.setResponse(new ImageResponse(List.of(new ImageGeneration(new Image("https://images/1", null)))));
+			handler.onStop(context);
+		}
+
+		assertThat(this.meterRegistry.get(ImageModelMetricsObservationHandler.GENERATED_METER_NAME)
+			.tag("gen_ai.request.model", ModelKey.OTHER)
+			.counter()
+			.count()).isEqualTo(2);
+	}
+
+	@Test
+	void whenBase64PaddedThenDecodedLengthExact() {
+		for (int length = 0; length < 10; length++) {
+			String encoded = Base64.getEncoder().encodeToString(new byte[length]);
+			assertThat(ImageModelMetricsObservationHandler.decodedLength(encoded)).isEqualTo(length);
+		}
+	}
+
+	private double payloadSize(String format) {
+		return this.meterRegistry.get(ImageModelMetricsObservationHandler.PAYLOAD_SIZE_METER_NAME)
+			.tag("format", format)
+			.summary()
+			.totalAmount();
+	}
+
+	private static ImageModelObservationContext imageContext(String model) {
+		return ImageModelObservationContext.builder()
+			.imagePrompt(new ImagePrompt("a red fox",
+					ImageOptionsBuilder.builder().model(model).width(1024).height(1024).build()))
+			.provider("openai")
+			.build();
+	}
+
+}
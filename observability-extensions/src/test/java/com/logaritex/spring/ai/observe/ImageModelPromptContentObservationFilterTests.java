@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.image.Image;
+import org.springframework.ai.image.ImageGeneration;
+import org.springframework.ai.image.ImageMessage;
+import org.springframework.ai.image.ImageOptionsBuilder;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.image.observation.ImageModelObservationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ImageModelPromptContentObservationFilter}.
+ *
+ * @author Christian Tzolov
+ */
+class ImageModelPromptContentObservationFilterTests {
+
+	@Test
+	void whenNotSupportedObservationContextThenReturnOriginalContext() {
+		var expectedContext = new Observation.Context();
+
+		var actualContext = new ImageModelPromptContentObservationFilter().map(expectedContext);
+
+		assertThat(actualContext).isEqualTo(expectedContext);
+		assertThat(actualContext.getHighCardinalityKeyValues()).isEmpty();
+	}
+
+	@Test
+	void whenImagePromptThenPromptAndRequestCaptured() {
+		var context = imageContext(new ImagePrompt(List.of(new ImageMessage("a red fox"), new ImageMessage("in snow")),
+				ImageOptionsBuilder.builder().N(2).width(1024).height(512).responseFormat("b64_json").build()));
+
+		new ImageModelPromptContentObservationFilter().map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt").getValue())
+			.isEqualTo("[\"a red fox\", \"in snow\"]");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.request.image.count").getValue()).isEqualTo("2");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.request.image.size").getValue()).isEqualTo("1024x512");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.request.image.response_format").getValue())
+			.isEqualTo("b64_json");
+	}
+
+	@Test
+	void whenMaxPromptLengthThenPromptCapped() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().maxPromptLength(8).build());
+		var context = imageContext(new ImagePrompt("a watercolor painting of a lighthouse"));
+
+		new ImageModelPromptContentObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt").getValue()).isEqualTo("[\"a wate");
+	}
+
+	@Test
+	void whenNotSampledThenOnlyRequestCaptured() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().sampleRate(0).build());
+		var context = imageContext(new ImagePrompt("a red fox", ImageOptionsBuilder.builder().N(1).build()));
+
+		new ImageModelPromptContentObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt")).isNull();
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.request.image.count").getValue()).isEqualTo("1");
+	}
+
+	@Test
+	void whenImagePromptCaptureDisabledThenOnlyRequestCaptured() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.builder().imagePrompt(false).build());
+		var context = imageContext(new ImagePrompt("a red fox", ImageOptionsBuilder.builder().N(1).build()));
+
+		new ImageModelPromptContentObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt")).isNull();
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.request.image.count").getValue()).isEqualTo("1");
+	}
+
+	@Test
+	void whenRuleDisablesPromptThenImagePromptNotCaptured() {
+		var control = new ContentCaptureControl(ContentCaptureSettings.ENABLED,
+				new ContentCaptureRules(List.of(ContentCaptureRule.builder().prompt(false).build())));
+		var context = imageContext(new ImagePrompt("a red fox"));
+
+		new ImageModelPromptContentObservationFilter(control).map(context);
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.prompt")).isNull();
+	}
+
+	@Test
+	void whenResponseThenImageDataNeverCaptured() {
+		var context = imageContext(new ImagePrompt("a red fox"));
+		context.setResponse(new ImageResponse(List.of(new ImageGeneration(new Image("https://images/1", "aGVsbG8=")))));
+
+		new ImageModelPromptContentObservationFilter().map(context);
+
+		assertThat(context.getHighCardinalityKeyValues())
+			.noneMatch(keyValue -> keyValue.getValue().contains("aGVsbG8") || keyValue.getValue().contains("images/1"));
+	}
+
+	private static ImageModelObservationContext imageContext(ImagePrompt prompt) {
+		return ImageModelObservationContext.builder().imagePrompt(prompt).provider("openai").build();
+	}
+
+}
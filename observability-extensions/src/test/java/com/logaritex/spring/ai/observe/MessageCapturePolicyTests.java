@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link MessageCapturePolicy}.
+ *
+ * @author Christian Tzolov
+ */
+class MessageCapturePolicyTests {
+
+	@Test
+	void whenNoRuleThenCaptureInFull() {
+		assertThat(MessageCapturePolicy.ALL.capture(new UserMessage("supercalifragilisticexpialidocious")))
+			.isEqualTo("supercalifragilisticexpialidocious");
+		assertThat(MessageCapturePolicy.ALL.includes(MessageType.TOOL)).isTrue();
+	}
+
+	@Test
+	void whenRulesThenApplyPerMessageType() {
+		var policy = new MessageCapturePolicy(
+				Map.of(MessageType.SYSTEM, MessageCapturePolicy.Rule.hash(), MessageType.ASSISTANT,
+						MessageCapturePolicy.Rule.truncate(5), MessageType.TOOL, MessageCapturePolicy.Rule.none()));
+
+		assertThat(policy.capture(new UserMessage("supercalifragilisticexpialidocious")))
+			.isEqualTo("supercalifragilisticexpialidocious");
+		assertThat(policy.capture(new SystemMessage("you're a chimney sweep"))).isEqualTo(
+				MessageCapturePolicy.HASH_PREFIX + ContentHash.toHex(ContentHash.fnv1a64("you're a chimney sweep")));
+		assertThat(policy.capture(new AssistantMessage("supercalifragilisticexpialidocious"))).isEqualTo("super");
+		assertThat(policy.includes(MessageType.TOOL)).isFalse();
+	}
+
+	@Test
+	void whenExcludedThenTextNotRead() {
+		var policy = new MessageCapturePolicy(Map.of(MessageType.TOOL, MessageCapturePolicy.Rule.none()));
+
+		assertThat(policy.capture(unreadableMessage(MessageType.TOOL))).isNull();
+	}
+
+	@Test
+	void whenNegativeMaxLengthThenThrow() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new MessageCapturePolicy.Rule(MessageCapturePolicy.Mode.FULL, -1));
+	}
+
+	/**
+	 * Return a message failing when its text is read.
+	 */
+	static Message unreadableMessage(MessageType messageType) {
+		return new Message() {
+
+			@Override
+			public MessageType getMessageType() {
+				return messageType;
+			}
+
+			@Override
+			public String getText() {
+				throw new AssertionError("The message text should not be read");
+			}
+
+			@Override
+			public Map<String, Object> getMetadata() {
+				return Map.of();
+			}
+
+		};
+	}
+
+}
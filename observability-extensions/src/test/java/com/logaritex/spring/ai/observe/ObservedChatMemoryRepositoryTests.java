@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link ObservedChatMemoryRepository}.
+ *
+ * @author Christian Tzolov
+ */
+class ObservedChatMemoryRepositoryTests {
+
+	private static final List<Message> MESSAGES = List.of(new UserMessage("héllo"), new AssistantMessage("hi 👋"));
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	@Test
+	void whenReadAndWriteThenLatencyMessagesAndPayloadRecorded() {
+		var repository = new ObservedChatMemoryRepository(new StubRepository(Duration.ofMillis(20), false),
+				this.meterRegistry);
+
+		repository.saveAll("conversation", MESSAGES);
+		repository.findByConversationId("conversation");
+		repository.findConversationIds();
+		repository.deleteByConversationId("conversation");
+
+		assertThat(timer("write").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(20);
+		assertThat(timer("read").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(20);
+		assertThat(timer("list").count()).isEqualTo(1);
+		assertThat(timer("delete").count()).isEqualTo(1);
+		assertThat(summary(ObservedChatMemoryRepository.MESSAGES_METER_NAME, "read").totalAmount()).isEqualTo(2);
+		assertThat(summary(ObservedChatMemoryRepository.MESSAGES_METER_NAME, "write").totalAmount()).isEqualTo(2);
+		assertThat(summary(ObservedChatMemoryRepository.PAYLOAD_METER_NAME, "read").totalAmount()).isEqualTo(13);
+	}
+
+	@Test
+	void whenPayloadThenUtf8Length() {
+		assertThat(ObservedChatMemoryRepository.payloadSize(MESSAGES)).isEqualTo(6 + 7);
+		assertThat(ObservedChatMemoryRepository.payloadSize(List.of(new UserMessage("日本")))).isEqualTo(6);
+	}
+
+	@Test
+	void whenOperationFailsThenRecordedWithErrorType() {
+		var repository = new ObservedChatMemoryRepository(new StubRepository(Duration.ZERO, true), this.meterRegistry);
+
+		assertThatIllegalStateException().isThrownBy(() -> repository.findByConversationId("conversation"));
+
+		assertThat(this.meterRegistry.get(ObservedChatMemoryRepository.DURATION_METER_NAME)
+			.tag(ObservedChatMemoryRepository.OPERATION_TAG, "read")
+			.tag("error.type", "IllegalStateException")
+			.timer()
+			.count()).isEqualTo(1);
+		assertThat(summary(ObservedChatMemoryRepository.MESSAGES_METER_NAME, "read").count()).isZero();
+	}
+
+	@Test
+	void whenInChatClientCallThenSummaryOnChatClientObservation() {
+		var observationRegistry = ObservationRegistry.create();
+		observationRegistry.observationConfig().observationHandler(context -> true);
+		var repository = new ObservedChatMemoryRepository(new StubRepository(Duration.ofMillis(20), false),
+				this.meterRegistry, observationRegistry);
+		var context = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt("hello")).build())
+			.build();
+		var chatClientObservation = Observation.createNotStarted("spring.ai.chat.client", () -> context,
+				observationRegistry);
+
+		chatClientObservation.observe(() -> Observation.createNotStarted("advisor", observationRegistry).observe(() -> {
+			repository.findByConversationId("conversation");
+			repository.saveAll("conversation", MESSAGES);
+			repository.findByConversationId("conversation");
+		}));
+
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.memory.read.duration_ms").getValue()).isEqualTo("40.0");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.memory.read.messages").getValue()).isEqualTo("4");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.memory.write.messages").getValue()).isEqualTo("2");
+		assertThat(context.getHighCardinalityKeyValue("gen_ai.memory.write.bytes").getValue()).isEqualTo("13");
+	}
+
+	@Test
+	void whenOutsideChatClientCallThenNoSummary() {
+		var observationRegistry = ObservationRegistry.create();
+		observationRegistry.observationConfig().observationHandler(context -> true);
+		var repository = new ObservedChatMemoryRepository(new StubRepository(Duration.ZERO, false), this.meterRegistry,
+				observationRegistry);
+		var observation = Observation.createNotStarted("other", observationRegistry);
+
+		observation.observe(() -> repository.findByConversationId("conversation"));
+
+		assertThat(observation.getContext().getHighCardinalityKeyValues()).isEmpty();
+	}
+
+	private Timer timer(String operation) {
+		return this.meterRegistry.get(ObservedChatMemoryRepository.DURATION_METER_NAME)
+			.tag(ObservedChatMemoryRepository.OPERATION_TAG, operation)
+			.tag("error.type", "none")
+			.timer();
+	}
+
+	private DistributionSummary summary(String name, String operation) {
+		return this.meterRegistry.get(name).tag(ObservedChatMemoryRepository.OPERATION_TAG, operation).summary();
+	}
+
+	/**
+	 * Repository taking a fixed time to read and write, optionally failing the reads.
+	 */
+	private final class StubRepository implements ChatMemoryRepository {
+
+		private final Duration latency;
+
+		private final boolean failing;
+
+		StubRepository(Duration latency, boolean failing) {
+			this.latency = latency;
+			this.failing = failing;
+		}
+
+		@Override
+		public List<String> findConversationIds() {
+			return List.of("conversation");
+		}
+
+		@Override
+		public List<Message> findByConversationId(String conversationId) {
+			if (this.failing) {
+				throw new IllegalStateException("database down");
+			}
+			ObservedChatMemoryRepositoryTests.this.clock.add(this.latency);
+			return MESSAGES;
+		}
+
+		@Override
+		public void saveAll(String conversationId, List<Message> messages) {
+			ObservedChatMemoryRepositoryTests.this.clock.add(this.latency);
+		}
+
+		@Override
+		public void deleteByConversationId(String conversationId) {
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.observation.ChatClientObservationContext;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PromptTemplateFingerprintObservationFilter}.
+ *
+ * @author Christian Tzolov
+ */
+class PromptTemplateFingerprintObservationFilterTests {
+
+	private final PromptTemplateFingerprintObservationFilter filter = new PromptTemplateFingerprintObservationFilter(
+			PromptTemplateSource.ADVISOR_PARAMS);
+
+	@Test
+	void whenNotSupportedObservationContextThenReturnOriginalContext() {
+		var expectedContext = new Observation.Context();
+		var actualContext = this.filter.map(expectedContext);
+
+		assertThat(actualContext).isEqualTo(expectedContext);
+		assertThat(actualContext.getLowCardinalityKeyValues()).isEmpty();
+	}
+
+	@Test
+	void whenSameTemplateThenSameFingerprint() {
+		String first = fingerprint(this.filter
+			.map(chatClientContext("You are a poet.", "Tell me a joke about {topic}", "Tell me a joke about cats")));
+		String second = fingerprint(this.filter
+			.map(chatClientContext("You are a poet.", "Tell me a joke about {topic}", "Tell me a joke about dogs")));
+		String other = fingerprint(this.filter
+			.map(chatClientContext("You are a poet.", "Tell me a story about {topic}", "Tell me a story about cats")));
+
+		assertThat(first).hasSize(16)
+			.isEqualTo(second)
+			.isNotEqualTo(other)
+			.isEqualTo(new PromptTemplateFingerprints().fingerprint("You are a poet.", "Tell me a joke about {topic}"));
+	}
+
+	@Test
+	void whenNoTemplateThenRenderedPromptNotFingerprinted() {
+		var fingerprints = new PromptTemplateFingerprints();
+		var context = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder()
+				.prompt(new Prompt(List.of(new SystemMessage("You are a poet."), new UserMessage("Tell me a joke"))))
+				.build())
+			.build();
+
+		assertThat(fingerprint(
+				new PromptTemplateFingerprintObservationFilter(PromptTemplateSource.ADVISOR_PARAMS, fingerprints)
+					.map(context)))
+			.isEqualTo(PromptTemplateFingerprints.NONE);
+		assertThat(fingerprints.size()).isZero();
+	}
+
+	@Test
+	void whenNoMessagesThenNone() {
+		var context = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt(List.of())).build())
+			.build();
+
+		assertThat(fingerprint(this.filter.map(context))).isEqualTo(PromptTemplateFingerprints.NONE);
+	}
+
+	@Test
+	void whenCustomSourceThenTemplatesFromSource() {
+		var customFilter = new PromptTemplateFingerprintObservationFilter(
+				request -> new PromptTemplateSource.Templates(null, "Tell me a joke about {topic}"));
+		var context = ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt("Tell me a joke about cats")).build())
+			.build();
+
+		assertThat(fingerprint(customFilter.map(context)))
+			.isEqualTo(new PromptTemplateFingerprints().fingerprint(null, "Tell me a joke about {topic}"));
+	}
+
+	@Test
+	void whenTemplateLimitReachedThenOther() {
+		var limitedFilter = new PromptTemplateFingerprintObservationFilter(PromptTemplateSource.ADVISOR_PARAMS,
+				new PromptTemplateFingerprints(1));
+
+		String first = fingerprint(limitedFilter.map(chatClientContext(null, "one", "one")));
+
+		assertThat(first).isNotEqualTo(PromptTemplateFingerprints.OTHER);
+		assertThat(fingerprint(limitedFilter.map(chatClientContext(null, "two", "two"))))
+			.isEqualTo(PromptTemplateFingerprints.OTHER);
+		assertThat(fingerprint(limitedFilter.map(chatClientContext(null, "one", "one")))).isEqualTo(first);
+	}
+
+	@Test
+	void whenChatModelCalledFromChatClientThenChatClientFingerprint() {
+		var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(context -> true);
+		var chatClientContext = chatClientContext("You are a poet.", "Tell me a joke about {topic}",
+				"Tell me a joke about cats");
+		var chatClientObservation = Observation.start("chat client", () -> chatClientContext, registry);
+		// The advisors augmented the prompt sent to the chat model.
+		var chatModelContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt(
+					List.of(new SystemMessage("You are a poet."),
+							new UserMessage("Tell me a joke about cats\nUse the following context: ...")),
+					ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+		Observation.createNotStarted("chat model", () -> chatModelContext, registry)
+			.parentObservation(chatClientObservation)
+			.start();
+
+		String chatModelFingerprint = fingerprint(this.filter.map(chatModelContext));
+		String chatClientFingerprint = fingerprint(this.filter.map(chatClientContext));
+
+		assertThat(chatModelFingerprint).isEqualTo(chatClientFingerprint)
+			.isEqualTo(new PromptTemplateFingerprints().fingerprint("You are a poet.", "Tell me a joke about {topic}"));
+	}
+
+	@Test
+	void whenChatModelCalledDirectlyThenNone() {
+		var chatModelContext = ChatModelObservationContext.builder()
+			.prompt(new Prompt("Tell me a joke", ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+
+		assertThat(fingerprint(this.filter.map(chatModelContext))).isEqualTo(PromptTemplateFingerprints.NONE);
+	}
+
+	private static ChatClientObservationContext chatClientContext(String systemTemplate, String userTemplate,
+			String user) {
+		List<Message> messages = (systemTemplate != null)
+				? List.of(new SystemMessage(systemTemplate), new UserMessage(user)) : List.of(new UserMessage(user));
+		Map<String, Object> templates = new HashMap<>();
+		if (systemTemplate != null) {
+			templates.put(PromptTemplateFingerprintObservationFilter.SYSTEM_TEMPLATE_PARAM, systemTemplate);
+		}
+		templates.put(PromptTemplateFingerprintObservationFilter.USER_TEMPLATE_PARAM, userTemplate);
+		return ChatClientObservationContext.builder()
+			.request(ChatClientRequest.builder().prompt(new Prompt(messages)).context(templates).build())
+			.build();
+	}
+
+	private static String fingerprint(Observation.Context context) {
+		KeyValue keyValue = context
+			.getLowCardinalityKeyValue(PromptTemplateFingerprintObservationFilter.PROMPT_TEMPLATE_KEY);
+		assertThat(keyValue).isNotNull();
+		return keyValue.getValue();
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+/**
+ * Unit tests for {@link QuantileSketch}.
+ *
+ * @author Christian Tzolov
+ */
+class QuantileSketchTests {
+
+	@Test
+	void whenEmptyThenNaN() {
+		var sketch = new QuantileSketch(0.01, 1, 1e6);
+
+		assertThat(sketch.count()).isZero();
+		assertThat(sketch.quantile(0.5)).isNaN();
+	}
+
+	@Test
+	void whenValuesAddedThenQuantilesWithinRelativeAccuracy() {
+		var sketch = new QuantileSketch(0.01, 1, 1e6);
+		var random = new Random(42);
+		double[] values = new double[10_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(random.nextGaussian() * 2 + 6);
+			sketch.add(values[i]);
+		}
+		Arrays.sort(values);
+
+		assertThat(sketch.count()).isEqualTo(values.length);
+		for (double quantile : new double[] { 0.5, 0.9, 0.99 }) {
+			double expected = values[(int) Math.floor(quantile * (values.length - 1))];
+			assertThat(sketch.quantile(quantile)).isCloseTo(expected, withinPercentage(1));
+		}
+	}
+
+	@Test
+	void whenOutOfRangeThenClamped() {
+		var sketch = new QuantileSketch(0.01, 1, 1000);
+
+		sketch.add(0);
+		sketch.add(1e9);
+
+		assertThat(sketch.quantile(0)).isZero();
+		assertThat(sketch.quantile(1)).isCloseTo(1000, withinPercentage(1));
+	}
+
+	@Test
+	void whenMergedThenSameAsSingleSketch() {
+		var all = new QuantileSketch(0.01, 1, 1e6);
+		var first = new QuantileSketch(0.01, 1, 1e6);
+		var second = new QuantileSketch(0.01, 1, 1e6);
+		for (int i = 1; i <= 1000; i++) {
+			all.add(i);
+			((i % 3 == 0) ? first : second).add(i);
+		}
+
+		first.merge(second);
+
+		assertThat(first.count()).isEqualTo(all.count());
+		assertThat(first.quantile(0.5)).isEqualTo(all.quantile(0.5));
+		assertThat(first.quantile(0.99)).isEqualTo(all.quantile(0.99));
+	}
+
+	@Test
+	void whenMergedWithDifferentParametersThenFails() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new QuantileSketch(0.01, 1, 1e6).merge(new QuantileSketch(0.02, 1, 1e6)));
+	}
+
+	@Test
+	void whenSerializedThenRoundTrip() {
+		var sketch = new QuantileSketch(0.01, 0.01, 1e8);
+		sketch.add(0.001);
+		for (int i = 1; i <= 1000; i++) {
+			sketch.add(i * 7.5);
+		}
+
+		byte[] bytes = sketch.toByteArray();
+		var decoded = QuantileSketch.fromByteArray(bytes);
+
+		assertThat(bytes.length).isLessThan(1500);
+		assertThat(decoded.count()).isEqualTo(sketch.count());
+		assertThat(decoded.quantile(0)).isZero();
+		assertThat(decoded.quantile(0.5)).isEqualTo(sketch.quantile(0.5));
+		assertThat(decoded.toByteArray()).isEqualTo(bytes);
+	}
+
+	@Test
+	void whenTruncatedThenFails() {
+		var sketch = new QuantileSketch(0.01, 1, 1e6);
+		sketch.add(42);
+		byte[] bytes = sketch.toByteArray();
+
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> QuantileSketch.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1)));
+	}
+
+}
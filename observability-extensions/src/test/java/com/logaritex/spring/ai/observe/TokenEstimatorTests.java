@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TokenEstimator}.
+ *
+ * @author Christian Tzolov
+ */
+class TokenEstimatorTests {
+
+	@Test
+	void whenEmptyThenZero() {
+		assertThat(TokenEstimator.estimate((String) null)).isZero();
+		assertThat(TokenEstimator.estimate("")).isZero();
+		assertThat(TokenEstimator.estimate(" \n\t ")).isZero();
+	}
+
+	@Test
+	void whenWordsThenOneTokenPerSixCharacters() {
+		assertThat(TokenEstimator.estimate("Hello, world!")).isEqualTo(4);
+		assertThat(TokenEstimator.estimate("supercalifragilisticexpialidocious")).isEqualTo(6);
+		assertThat(TokenEstimator.estimate("café au lait")).isEqualTo(3);
+	}
+
+	@Test
+	void whenNonLatinThenOneTokenPerCharacter() {
+		assertThat(TokenEstimator.estimate("你好")).isEqualTo(2);
+		assertThat(TokenEstimator.estimate("😀")).isEqualTo(1);
+	}
+
+	@Test
+	void whenMessagesThenTemplateOverhead() {
+		assertThat(TokenEstimator.estimate(List.of(new SystemMessage("You are a poet."), new UserMessage("Hi"))))
+			.isEqualTo(4 + 5 + 4 + 1);
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TokenUsage}.
+ *
+ * @author Christian Tzolov
+ */
+class TokenUsageTests {
+
+	@Test
+	void whenUsageThenTokens() {
+		ChatResponse response = ChatResponse.builder()
+			.generations(List.of(new Generation(new AssistantMessage("hello"))))
+			.metadata(ChatResponseMetadata.builder().usage(new DefaultUsage(10, 5, 20)).build())
+			.build();
+
+		assertThat(TokenUsage.prompt(response)).isEqualTo(10);
+		assertThat(TokenUsage.completion(response)).isEqualTo(5);
+		assertThat(TokenUsage.total(response)).isEqualTo(20);
+	}
+
+	@Test
+	void whenNoUsageThenZero() {
+		ChatResponse response = ChatResponse.builder()
+			.generations(List.of(new Generation(new AssistantMessage("hello"))))
+			.build();
+
+		assertThat(TokenUsage.prompt(response)).isZero();
+		assertThat(TokenUsage.completion(response)).isZero();
+		assertThat(TokenUsage.total(response)).isZero();
+	}
+
+	@Test
+	void whenNoResponseThenZero() {
+		assertThat(TokenUsage.prompt(null)).isZero();
+		assertThat(TokenUsage.completion(null)).isZero();
+		assertThat(TokenUsage.total(null)).isZero();
+	}
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link TokenBudgetAdvisor} and {@link TokenBudgetObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class TokenBudgetAdvisorTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final TokenBudgets budgets = new TokenBudgets(null, this.clock, Duration.ofMinutes(1), 1000, Map.of(), 10);
+
+	@Test
+	void whenWithinBudgetThenChargedWithResponseUsage() {
+		var chatClient = chatClient(TokenBudgetAdvisor.builder(this.budgets).build(), new StubChatModel(300),
+				ObservationRegistry.NOOP);
+
+		chatClient.prompt("hello").call().chatResponse();
+
+		var budget = this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY);
+		assertThat(budget.used()).isEqualTo(300);
+		assertThat(budget.reserved()).isZero();
+	}
+
+	@Test
+	void whenBudgetExhaustedThenRejected() {
+		var model = new StubChatModel(1000);
+		var chatClient = chatClient(TokenBudgetAdvisor.builder(this.budgets).build(), model, ObservationRegistry.NOOP);
+		chatClient.prompt("hello").call().chatResponse();
+
+		assertThatExceptionOfType(TokenBudgetExceededException.class)
+			.isThrownBy(() -> chatClient.prompt("hello").call().chatResponse())
+			.satisfies(ex -> {
+				assertThat(ex.getKey()).isEqualTo(TokenBudgetAdvisor.DEFAULT_KEY);
+				assertThat(ex.getRemaining()).isZero();
+			});
+		assertThat(model.calls()).isEqualTo(1);
+		assertThat(this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY).rejected()).isEqualTo(1);
+	}
+
+	@Test
+	void whenBudgetKeyInContextThenOwnBudget() {
+		var chatClient = chatClient(TokenBudgetAdvisor.builder(this.budgets).build(), new StubChatModel(1000),
+				ObservationRegistry.NOOP);
+		chatClient.prompt("hello").advisors(a -> a.param(TokenBudgetAdvisor.BUDGET_KEY, "tenant-a")).call().content();
+
+		chatClient.prompt("hello").advisors(a -> a.param(TokenBudgetAdvisor.BUDGET_KEY, "tenant-b")).call().content();
+
+		assertThat(this.budgets.budget("tenant-a").used()).isEqualTo(1000);
+		assertThat(this.budgets.budget("tenant-b").used()).isEqualTo(1000);
+		assertThat(this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY).used()).isZero();
+	}
+
+	@Test
+	void whenMaxTokensSetThenReservedUpFront() {
+		var chatClient = chatClient(TokenBudgetAdvisor.builder(this.budgets).build(), new StubChatModel(10),
+				ObservationRegistry.NOOP);
+
+		assertThatExceptionOfType(TokenBudgetExceededException.class)
+			.isThrownBy(() -> chatClient.prompt("hello")
+				.options(ChatOptions.builder().maxTokens(2000).build())
+				.call()
+				.content())
+			.satisfies(ex -> assertThat(ex.getRequested()).isGreaterThan(2000));
+	}
+
+	@Test
+	void whenObservedThenEveryModelCallChargedOnce() {
+		var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new TokenBudgetObservationHandler());
+		var advisor = TokenBudgetAdvisor.builder(this.budgets).observationRegistry(registry).build();
+		var model = new StubChatModel(200, registry);
+		model.modelCalls(3);
+		var chatClient = chatClient(advisor, model, registry);
+
+		chatClient.prompt("hello").call().chatResponse();
+
+		var budget = this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY);
+		assertThat(budget.used()).isEqualTo(600);
+		assertThat(budget.reserved()).isZero();
+	}
+
+	@Test
+	void whenQueuedThenAdmittedOnceBudgetFrees() throws Exception {
+		var budget = this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY);
+		budget.tryReserve(1000);
+		var advisor = TokenBudgetAdvisor.builder(this.budgets)
+			.mode(TokenBudgetAdvisor.Mode.QUEUE)
+			.maxWait(Duration.ofSeconds(5))
+			.build();
+		var chatClient = chatClient(advisor, new StubChatModel(100), ObservationRegistry.NOOP);
+
+		var content = CompletableFuture.supplyAsync(() -> chatClient.prompt("hello").call().content());
+		TimeUnit.MILLISECONDS.sleep(100);
+
+		assertThat(content).isNotDone();
+
+		budget.release(1000);
+
+		assertThat(content.get(5, TimeUnit.SECONDS)).isEqualTo("hello");
+		assertThat(budget.used()).isEqualTo(100);
+	}
+
+	@Test
+	void whenQueuedLongerThanMaxWaitThenRejected() {
+		this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY).tryReserve(1000);
+		var advisor = TokenBudgetAdvisor.builder(this.budgets)
+			.mode(TokenBudgetAdvisor.Mode.QUEUE)
+			.maxWait(Duration.ofMillis(100))
+			.build();
+		var chatClient = chatClient(advisor, new StubChatModel(100), ObservationRegistry.NOOP);
+
+		assertThatExceptionOfType(TokenBudgetExceededException.class)
+			.isThrownBy(() -> chatClient.prompt("hello").call().content());
+	}
+
+	@Test
+	void whenStreamThenChargedWithLastUsage() {
+		var chatClient = chatClient(TokenBudgetAdvisor.builder(this.budgets).build(), new StubChatModel(300),
+				ObservationRegistry.NOOP);
+
+		List<String> chunks = chatClient.prompt("hello").stream().content().collectList().block();
+
+		var budget = this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY);
+		assertThat(chunks).hasSize(2);
+		assertThat(budget.used()).isEqualTo(300);
+		assertThat(budget.reserved()).isZero();
+	}
+
+	@Test
+	void whenStreamOverBudgetThenRejectedOnSubscription() {
+		this.budgets.budget(TokenBudgetAdvisor.DEFAULT_KEY).record(1000);
+		var model = new StubChatModel(300);
+		var chatClient = chatClient(TokenBudgetAdvisor.builder(this.budgets).build(), model, ObservationRegistry.NOOP);
+
+		assertThatExceptionOfType(TokenBudgetExceededException.class)
+			.isThrownBy(() -> chatClient.prompt("hello").stream().content().blockLast());
+		assertThat(model.calls()).isZero();
+	}
+
+	private static ChatClient chatClient(TokenBudgetAdvisor advisor, ChatModel model, ObservationRegistry registry) {
+		return ChatClient.builder(model, registry, null).defaultAdvisors(advisor).build();
+	}
+
+	/**
+	 * Local model reporting a fixed token usage, optionally observed like a provider
+	 * model and calling itself for tool round-trips.
+	 */
+	private static final class StubChatModel implements ChatModel {
+
+		private final int totalTokens;
+
+		private final ObservationRegistry registry;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private int modelCalls = 1;
+
+		StubChatModel(int totalTokens) {
+			this(totalTokens, ObservationRegistry.NOOP);
+		}
+
+		StubChatModel(int totalTokens, ObservationRegistry registry) {
+			this.totalTokens = totalTokens;
+			this.registry = registry;
+		}
+
+		void modelCalls(int modelCalls) {
+			this.modelCalls = modelCalls;
+		}
+
+		int calls() {
+			return this.calls.get();
+		}
+
+		@Override
+		public ChatResponse call(Prompt prompt) {
+			this.calls.incrementAndGet();
+			ChatResponse response = null;
+			for (int i = 0; i < this.modelCalls; i++) {
+				var context = ChatModelObservationContext.builder().prompt(prompt).provider("stub").build();
+				response = Observation.createNotStarted("gen_ai.client.operation", () -> context, this.registry)
+					.observe(() -> {
+						ChatResponse modelResponse = response("hello", this.totalTokens);
+						context.setResponse(modelResponse);
+						return modelResponse;
+					});
+			}
+			return response;
+		}
+
+		@Override
+		public Flux<ChatResponse> stream(Prompt prompt) {
+			this.calls.incrementAndGet();
+			return Flux.just(response("hel", 0), response("lo", this.totalTokens));
+		}
+
+		private static ChatResponse response(String text, int totalTokens) {
+			return ChatResponse.builder()
+				.generations(List.of(new Generation(new AssistantMessage(text))))
+				.metadata(ChatResponseMetadata.builder().usage(new DefaultUsage(totalTokens, 0)).build())
+				.build();
+		}
+
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.budget;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TokenBudgets}.
+ *
+ * @author Christian Tzolov
+ */
+class TokenBudgetsTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, this.clock);
+
+	@Test
+	void whenWindowSlidesThenUsageExpires() {
+		var budgets = new TokenBudgets(null, this.clock, Duration.ofMinutes(1), 1000, Map.of(), 10);
+		var budget = budgets.budget("tenant");
+
+		budget.record(300);
+		this.clock.add(Duration.ofSeconds(30));
+		budget.record(200);
+
+		assertThat(budget.used()).isEqualTo(500);
+		assertThat(budget.remaining()).isEqualTo(500);
+
+		this.clock.add(Duration.ofSeconds(35));
+
+		assertThat(budget.used()).isEqualTo(200);
+
+		this.clock.add(Duration.ofSeconds(30));
+
+		assertThat(budget.used()).isZero();
+		assertThat(budget.remaining()).isEqualTo(1000);
+	}
+
+	@Test
+	void whenReservedThenCountedUntilReleased() {
+		var budget = new TokenBudgets(null, this.clock, Duration.ofMinutes(1), 1000, Map.of(), 10).budget("tenant");
+
+		assertThat(budget.tryReserve(800)).isTrue();
+		assertThat(budget.tryReserve(300)).isFalse();
+		assertThat(budget.remaining()).isEqualTo(200);
+
+		budget.release(800);
+
+		assertThat(budget.tryReserve(300)).isTrue();
+		assertThat(budget.reserved()).isEqualTo(300);
+	}
+
+	@Test
+	void whenLimitConfiguredThenUsedForKey() {
+		var budgets = new TokenBudgets(null, this.clock, Duration.ofMinutes(1), 1000, Map.of("batch", 50_000L), 10);
+
+		assertThat(budgets.budget("batch").limit()).isEqualTo(50_000);
+		assertThat(budgets.budget("tenant").limit()).isEqualTo(1000);
+	}
+
+	@Test
+	void whenKeyLimitReachedThenSharedOtherBudget() {
+		var budgets = new TokenBudgets(null, this.clock, Duration.ofMinutes(1), 1000, Map.of("batch", 50_000L), 1);
+
+		budgets.budget("first").record(100);
+
+		assertThat(budgets.budget("second").key()).isEqualTo(TokenBudgets.OTHER);
+		assertThat(budgets.budget("third")).isSameAs(budgets.budget(TokenBudgets.OTHER));
+		assertThat(budgets.budget("batch").key()).isEqualTo("batch");
+	}
+
+	@Test
+	void whenKeyLimitReachedThenIdleBudgetEvicted() {
+		var budgets = new TokenBudgets(this.meterRegistry, this.clock, Duration.ofMinutes(1), 1000, Map.of(), 1);
+		budgets.budget("first").record(100);
+
+		assertThat(budgets.budget("second").key()).isEqualTo(TokenBudgets.OTHER);
+
+		this.clock.add(Duration.ofSeconds(61));
+
+		var second = budgets.budget("second");
+		second.record(100);
+
+		assertThat(second.key()).isEqualTo("second");
+		assertThat(budgets.budget("first").key()).isEqualTo(TokenBudgets.OTHER);
+		assertThat(this.meterRegistry.find(TokenBudgets.USED_METER_NAME).tag(TokenBudgets.KEY_TAG, "first").gauge())
+			.isNull();
+		assertThat(this.meterRegistry.find(TokenBudgets.USED_METER_NAME).tag(TokenBudgets.KEY_TAG, "second").gauge())
+			.isNotNull();
+	}
+
+	@Test
+	void whenBudgetReservedThenNotEvicted() {
+		var budgets = new TokenBudgets(null, this.clock, Duration.ofMinutes(1), 1000, Map.of(), 1);
+		budgets.budget("first").tryReserve(100);
+
+		assertThat(budgets.budget("second").key()).isEqualTo(TokenBudgets.OTHER);
+		this.clock.add(Duration.ofSeconds(61));
+		assertThat(budgets.budget("second").key()).isEqualTo(TokenBudgets.OTHER);
+
+		budgets.budget("first").release(100);
+		this.clock.add(Duration.ofSeconds(5));
+
+		assertThat(budgets.budget("second").key()).isEqualTo("second");
+	}
+
+	@Test
+	void whenMeterRegistryThenRemainingAndUsedGauges() {
+		var budgets = new TokenBudgets(this.meterRegistry, this.clock, Duration.ofMinutes(1), 1000, Map.of(), 10);
+		var budget = budgets.budget("tenant");
+
+		budget.record(300);
+		budget.tryReserve(100);
+		budget.recordRejected();
+
+		assertThat(this.meterRegistry.get(TokenBudgets.REMAINING_METER_NAME)
+			.tag(TokenBudgets.KEY_TAG, "tenant")
+			.gauge()
+			.value()).isEqualTo(600);
+		assertThat(this.meterRegistry.get(TokenBudgets.USED_METER_NAME)
+			.tag(TokenBudgets.KEY_TAG, "tenant")
+			.gauge()
+			.value()).isEqualTo(300);
+		assertThat(this.meterRegistry.get(TokenBudgets.REJECTED_METER_NAME)
+			.tag(TokenBudgets.KEY_TAG, "tenant")
+			.functionCounter()
+			.count()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link ReplayChatModel}.
+ *
+ * @author Christian Tzolov
+ */
+class ReplayChatModelTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void whenCalledThenReplayRecordsRoundRobin() {
+		var chatModel = new ReplayChatModel(ReplayLogWriterTests.records(2), 0);
+
+		assertThat(text(chatModel.call(new Prompt("hello")))).isEqualTo("answer number 0");
+		assertThat(text(chatModel.call(new Prompt("hello")))).isEqualTo("answer number 1");
+		assertThat(text(chatModel.call(new Prompt("hello")))).isEqualTo("answer number 0");
+	}
+
+	@Test
+	void whenCalledThenReproduceMetadata() {
+		var chatModel = new ReplayChatModel(ReplayLogWriterTests.records(1), 0);
+
+		ChatResponse response = chatModel.call(new Prompt("hello"));
+
+		assertThat(response.getResults()).hasSize(2);
+		assertThat(response.getMetadata().getModel()).isEqualTo("mistral");
+		assertThat(response.getMetadata().getUsage().getPromptTokens()).isEqualTo(10);
+		assertThat(response.getMetadata().getUsage().getCompletionTokens()).isZero();
+	}
+
+	@Test
+	void whenCalledThenReproduceLatency() {
+		var record = new ReplayRecord(0, Duration.ofMillis(50).toNanos(), null, null, -1, -1, List.of("hello"),
+				List.of("world"));
+		var chatModel = new ReplayChatModel(List.of(record));
+
+		long start = System.nanoTime();
+		chatModel.call(new Prompt("hello"));
+
+		assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+	}
+
+	@Test
+	void whenCompletionNotCapturedThenReplyOfRecordedLengths() {
+		var record = new ReplayRecord(0, 0, null, null, -1, -1, 42, List.of(5, 3), List.of(), List.of());
+		var chatModel = new ReplayChatModel(List.of(record), 0);
+
+		ChatResponse response = chatModel.call(new Prompt("hello"));
+
+		assertThat(response.getResults()).extracting(generation -> generation.getOutput().getText())
+			.containsExactly("xxxxx", "xxx");
+	}
+
+	@Test
+	void whenStreamedThenSingleResponse() {
+		var chatModel = new ReplayChatModel(ReplayLogWriterTests.records(1), 0);
+
+		assertThat(chatModel.stream(new Prompt("hello")).collectList().block()).hasSize(1);
+	}
+
+	@Test
+	void whenCreatedFromLogThenReplay() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			for (ReplayRecord record : ReplayLogWriterTests.records(3)) {
+				writer.append(record);
+			}
+		}
+		try (var chatModel = ReplayChatModel.from(this.directory, 0)) {
+			assertThat(chatModel.call("hello")).isEqualTo("answer number 0");
+			assertThat(chatModel.call("hello")).isEqualTo("answer number 1");
+			assertThat(chatModel.call("hello")).isEqualTo("answer number 2");
+			assertThat(chatModel.call("hello")).isEqualTo("answer number 0");
+		}
+	}
+
+	@Test
+	void whenCreatedFromEmptyLogThenRejected() throws IOException {
+		ReplayLogWriter.builder(this.directory).build().close();
+
+		assertThatIllegalArgumentException().isThrownBy(() -> ReplayChatModel.from(this.directory));
+	}
+
+	private static String text(ChatResponse response) {
+		return response.getResult().getOutput().getText();
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Unit tests for {@link ReplayLogWriter} and {@link ReplayLogReader}.
+ *
+ * @author Christian Tzolov
+ */
+class ReplayLogWriterTests {
+
+	@TempDir
+	Path directory;
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void whenWrittenThenReadBack(boolean compress) throws IOException {
+		List<ReplayRecord> records = records(100);
+		try (var writer = ReplayLogWriter.builder(this.directory).compress(compress).blockSize(1024).build()) {
+			for (ReplayRecord record : records) {
+				writer.append(record);
+			}
+		}
+
+		assertThat(ReplayLogReader.read(this.directory)).isEqualTo(records);
+	}
+
+	@Test
+	void whenCompressedThenSmaller() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).prefix("plain").compress(false).build()) {
+			for (ReplayRecord record : records(100)) {
+				writer.append(record);
+			}
+		}
+		try (var writer = ReplayLogWriter.builder(this.directory).prefix("deflated").build()) {
+			for (ReplayRecord record : records(100)) {
+				writer.append(record);
+			}
+		}
+
+		assertThat(Files.size(this.directory.resolve("deflated-000001.replay")))
+			.isLessThan(Files.size(this.directory.resolve("plain-000001.replay")) / 2);
+	}
+
+	@Test
+	void whenMaxFileSizeExceededThenRotate() throws IOException {
+		List<ReplayRecord> records = records(100);
+		try (var writer = ReplayLogWriter.builder(this.directory).blockSize(256).maxFileSize(2048).build()) {
+			for (ReplayRecord record : records) {
+				writer.append(record);
+			}
+		}
+
+		assertThat(files()).hasSizeGreaterThan(1).allMatch(file -> file.getFileName().toString().startsWith("chat-"));
+		assertThat(ReplayLogReader.read(this.directory)).isEqualTo(records);
+	}
+
+	@Test
+	void whenMaxFilesExceededThenOldestDeleted() throws IOException {
+		List<ReplayRecord> records = records(100);
+		try (var writer = ReplayLogWriter.builder(this.directory)
+			.blockSize(256)
+			.maxFileSize(2048)
+			.maxFiles(2)
+			.build()) {
+			for (ReplayRecord record : records) {
+				writer.append(record);
+			}
+		}
+
+		assertThat(files()).hasSize(2);
+		List<ReplayRecord> kept = ReplayLogReader.read(this.directory);
+		assertThat(kept).isNotEmpty().isEqualTo(records.subList(records.size() - kept.size(), records.size()));
+	}
+
+	@Test
+	void whenStreamedThenRecordsDecodedInOrder() throws IOException {
+		List<ReplayRecord> records = records(100);
+		try (var writer = ReplayLogWriter.builder(this.directory).blockSize(256).maxFileSize(2048).build()) {
+			for (ReplayRecord record : records) {
+				writer.append(record);
+			}
+		}
+
+		try (Stream<ReplayRecord> stream = ReplayLogReader.stream(this.directory)) {
+			assertThat(stream.limit(3)).containsExactlyElementsOf(records.subList(0, 3));
+		}
+	}
+
+	@Test
+	void whenReopenedThenContinueSequence() throws IOException {
+		List<ReplayRecord> records = records(4);
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			writer.append(records.get(0));
+			writer.append(records.get(1));
+		}
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			writer.append(records.get(2));
+			writer.append(records.get(3));
+		}
+
+		assertThat(files()).extracting(file -> file.getFileName().toString())
+			.containsExactly("chat-000001.replay", "chat-000002.replay");
+		assertThat(ReplayLogReader.read(this.directory)).isEqualTo(records);
+	}
+
+	@Test
+	void whenLastBlockTruncatedThenIgnored() throws IOException {
+		List<ReplayRecord> records = records(2);
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			writer.append(records.get(0));
+			writer.flush();
+			writer.append(records.get(1));
+		}
+		Path file = this.directory.resolve("chat-000001.replay");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		assertThat(ReplayLogReader.read(file)).containsExactly(records.get(0));
+	}
+
+	@Test
+	void whenNotReplayLogThenThrow() throws IOException {
+		Path file = Files.writeString(this.directory.resolve("other.replay"), "supercalifragilisticexpialidocious");
+
+		assertThatIOException().isThrownBy(() -> ReplayLogReader.read(file)).withMessageContaining("Not a replay log");
+	}
+
+	private List<Path> files() throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.sorted().toList();
+		}
+	}
+
+	static List<ReplayRecord> records(int count) {
+		List<ReplayRecord> records = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			records.add(new ReplayRecord(1_700_000_000_000L + i, 1_000_000L * i, "superprovider",
+					(i % 2 == 0) ? "mistral" : null, 10 + i, (i % 3 == 0) ? -1 : 20 + i,
+					List.of("you're a chimney sweep",
+							"question number " + i + " about the supercalifragilisticexpialidocious"),
+					List.of("answer number " + i, "café 😀")));
+		}
+		return records;
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.logaritex.spring.ai.observe.ContentCaptureControl;
+import com.logaritex.spring.ai.observe.ContentCaptureSettings;
+import com.logaritex.spring.ai.observe.MessageCapturePolicy;
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ReplayObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class ReplayObservationHandlerTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void whenNotSupportedObservationContextThenNotSupported() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			assertThat(new ReplayObservationHandler(writer).supportsContext(new Observation.Context())).isFalse();
+		}
+	}
+
+	@Test
+	void whenCallCompletedThenRecorded() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			var handler = new ReplayObservationHandler(writer,
+					new ContentCaptureControl(ContentCaptureSettings.builder()
+						.messages(
+								new MessageCapturePolicy(Map.of(MessageType.SYSTEM, MessageCapturePolicy.Rule.none())))
+						.build()));
+			var context = chatModelContext();
+
+			handler.onStart(context);
+			context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("chim chim cher-ee"))),
+					ChatResponseMetadata.builder().model("mistral-7b").usage(new DefaultUsage(12, 5)).build()));
+			handler.onStop(context);
+		}
+
+		List<ReplayRecord> records = ReplayLogReader.read(this.directory);
+		assertThat(records).hasSize(1);
+		ReplayRecord record = records.get(0);
+		assertThat(record.provider()).isEqualTo("superprovider");
+		assertThat(record.model()).isEqualTo("mistral-7b");
+		assertThat(record.prompt()).containsExactly("supercalifragilisticexpialidocious");
+		assertThat(record.completion()).containsExactly("chim chim cher-ee");
+		assertThat(record.promptTokens()).isEqualTo(12);
+		assertThat(record.completionTokens()).isEqualTo(5);
+		assertThat(record.durationNanos()).isPositive();
+	}
+
+	@Test
+	void whenCompletionCaptureDisabledThenTruncatedPromptOnly() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			var handler = new ReplayObservationHandler(writer, new ContentCaptureControl(
+					ContentCaptureSettings.builder().completion(false).maxPromptLength(5).build()));
+			var context = chatModelContext();
+
+			handler.onStart(context);
+			context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("chim chim cher-ee")))));
+			handler.onStop(context);
+		}
+
+		ReplayRecord record = ReplayLogReader.read(this.directory).get(0);
+		assertThat(record.prompt()).containsExactly("you'r");
+		assertThat(record.completion()).isEmpty();
+		assertThat(record.completionLengths()).containsExactly(17);
+		assertThat(record.provider()).isEqualTo("superprovider");
+	}
+
+	@Test
+	void whenContentCaptureDisabledThenLengthsRecorded() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			var handler = new ReplayObservationHandler(writer,
+					new ContentCaptureControl(ContentCaptureSettings.DISABLED));
+			var context = chatModelContext();
+
+			handler.onStart(context);
+			context.setResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("chim chim cher-ee")),
+					new Generation(new AssistantMessage("chim cher-oo")))));
+			handler.onStop(context);
+		}
+
+		ReplayRecord record = ReplayLogReader.read(this.directory).get(0);
+		assertThat(record.prompt()).isEmpty();
+		assertThat(record.completion()).isEmpty();
+		assertThat(record.promptLength()).isEqualTo(56);
+		assertThat(record.completionLengths()).containsExactly(17, 12);
+	}
+
+	@Test
+	void whenCallFailedThenRecordedWithoutCompletion() throws IOException {
+		try (var writer = ReplayLogWriter.builder(this.directory).build()) {
+			var handler = new ReplayObservationHandler(writer);
+			var context = chatModelContext();
+
+			handler.onStart(context);
+			handler.onStop(context);
+		}
+
+		ReplayRecord record = ReplayLogReader.read(this.directory).get(0);
+		assertThat(record.model()).isEqualTo("mistral");
+		assertThat(record.completion()).isEmpty();
+		assertThat(record.promptTokens()).isEqualTo(-1);
+	}
+
+	@Test
+	void whenWriterClosedThenCallNotFailed() throws IOException {
+		var writer = ReplayLogWriter.builder(this.directory).build();
+		writer.close();
+		var handler = new ReplayObservationHandler(writer);
+		var context = chatModelContext();
+
+		handler.onStart(context);
+		handler.onStop(context);
+
+		assertThat(ReplayLogReader.read(this.directory)).isEmpty();
+	}
+
+	private static ChatModelObservationContext chatModelContext() {
+		return ChatModelObservationContext.builder()
+			.prompt(new Prompt(
+					List.of(new SystemMessage("you're a chimney sweep"),
+							new UserMessage("supercalifragilisticexpialidocious")),
+					ChatOptions.builder().model("mistral").build()))
+			.provider("superprovider")
+			.build();
+	}
+
+}
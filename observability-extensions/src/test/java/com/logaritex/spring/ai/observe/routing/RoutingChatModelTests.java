@@ -0,0 +1,407 @@
+/*
+ * Copyright 2025-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.logaritex.spring.ai.observe.routing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link RoutingChatModel} and {@link RoutingObservationHandler}.
+ *
+ * @author Christian Tzolov
+ */
+class RoutingChatModelTests {
+
+	private final MockClock clock = new MockClock();
+
+	@Test
+	void whenTargetFasterThenPreferred() {
+		var fast = new StubChatModel(Duration.ofMillis(100));
+		var slow = new StubChatModel(Duration.ofSeconds(1));
+		var router = RoutingChatModel.builder().target("fast", fast).target("slow", slow).clock(this.clock).build();
+
+		for (int i = 0; i < 20; i++) {
+			router.call(new Prompt("hello"));
+		}
+
+		assertThat(fast.calls()).isEqualTo(19);
+		assertThat(slow.calls()).isEqualTo(1);
+		assertThat(router.statistics()).extracting(RoutingChatModel.TargetStatistics::latency)
+			.containsExactly(Duration.ofMillis(100), Duration.ofSeconds(1));
+	}
+
+	@Test
+	void whenTargetSlowsDownThenRoutedAway() {
+		var first = new StubChatModel(Duration.ofMillis(100));
+		var second = new StubChatModel(Duration.ofMillis(200));
+		var router = RoutingChatModel.builder()
+			.target("first", first)
+			.target("second", second)
+			.clock(this.clock)
+			.alpha(0.5)
+			.build();
+		router.call(new Prompt("hello"));
+		router.call(new Prompt("hello"));
+
+		first.latency(Duration.ofSeconds(1));
+		for (int i = 0; i < 10; i++) {
+			router.call(new Prompt("hello"));
+		}
+
+		assertThat(first.calls()).isEqualTo(2);
+		assertThat(second.calls()).isEqualTo(10);
+	}
+
+	@Test
+	void whenLatencyEstimateStaleThenProbed() {
+		var fast = new StubChatModel(Duration.ofMillis(100));
+		var slow = new StubChatModel(Duration.ofSeconds(1));
+		var router = RoutingChatModel.builder()
+			.target("fast", fast)
+			.target("slow", slow)
+			.clock(this.clock)
+			.probeInterval(Duration.ofSeconds(10))
+			.build();
+		router.call(new Prompt("hello"));
+		router.call(new Prompt("hello"));
+
+		this.clock.add(Duration.ofSeconds(9));
+		router.call(new Prompt("hello"));
+		this.clock.add(Duration.ofSeconds(2));
+		router.call(new Prompt("hello"));
+
+		assertThat(fast.calls()).isEqualTo(2);
+		assertThat(slow.calls()).isEqualTo(2);
+	}
+
+	@Test
+	void whenStaleTargetProbedThenOtherCallsKeepItsCost() {
+		var fast = new StubChatModel(Duration.ofMillis(100));
+		var slow = new StubChatModel(Duration.ofSeconds(1));
+		var router = RoutingChatModel.builder()
+			.target("fast", fast)
+			.target("slow", slow)
+			.clock(this.clock)
+			.probeInterval(Duration.ofSeconds(10))
+			.build();
+		router.call(new Prompt("hello"));
+		router.call(new Prompt("hello"));
+
+		this.clock.add(Duration.ofSeconds(11));
+		slow.whileCalled(() -> {
+			for (int i = 0; i < 5; i++) {
+				router.call(new Prompt("hello"));
+			}
+		});
+		router.call(new Prompt("hello"));
+		router.call(new Prompt("hello"));
+
+		assertThat(slow.calls()).isEqualTo(2);
+		assertThat(fast.calls()).isEqualTo(7);
+	}
+
+	@Test
+	void whenConsecutiveFailuresThenEjectedUntilEjectionTimeElapsed() {
+		var healthy = new StubChatModel(Duration.ofMillis(100));
+		var failing = new StubChatModel(Duration.ofMillis(10));
+		var router = RoutingChatModel.builder()
+			.target("healthy", healthy)
+			.target("failing", failing)
+			.clock(this.clock)
+			.consecutiveFailures(2)
+			.errorRateThreshold(1.0)
+			.baseEjectionTime(Duration.ofSeconds(5))
+			.build();
+		callIgnoringFailures(router, 2);
+
+		failing.failing(true);
+		callIgnoringFailures(router, 10);
+
+		assertThat(failing.calls()).isEqualTo(3);
+		assertThat(healthy.calls()).isEqualTo(9);
+		assertThat(router.statistics().get(1).ejected()).isTrue();
+		assertThat(router.statistics().get(1).ejections()).isEqualTo(1);
+
+		failing.failing(false);
+		this.clock.add(Duration.ofSeconds(5));
+		router.call(new Prompt("hello"));
+
+		assertThat(failing.calls()).isEqualTo(4);
+		assertThat(router.statistics().get(1).ejected()).isFalse();
+		assertThat(router.statistics().get(1).ejections()).isZero();
+	}
+
+	@Test
+	void whenErrorRateExceedsThresholdThenEjected() {
+		var failing = new StubChatModel(Duration.ofMillis(10));
+		var slow = new StubChatModel(Duration.ofSeconds(10));
+		failing.failing(true);
+		var router = RoutingChatModel.builder()
+			.target("failing", failing)
+			.target("slow", slow)
+			.clock(this.clock)
+			.consecutiveFailures(100)
+			.errorRateThreshold(0.3)
+			.alpha(0.5)
+			.build();
+
+		callIgnoringFailures(router, 2);
+
+		assertThat(failing.calls()).isEqualTo(1);
+		assertThat(router.statistics().get(0).ejected()).isTrue();
+		assertThat(router.statistics().get(0).errorRate()).isZero();
+	}
+
+	@Test
+	void whenAllTargetsFailingThenLastKept() {
+		var first = new StubChatModel(Duration.ofMillis(10));
+		var second = new StubChatModel(Duration.ofMillis(10));
+		first.failing(true);
+		second.failing(true);
+		var router = RoutingChatModel.builder()
+			.target("first", first)
+			.target("second", second)
+			.clock(this.clock)
+			.consecutiveFailures(1)
+			.build();
+
+		callIgnoringFailures(router, 10);
+
+		assertThat(router.statistics()).filteredOn(RoutingChatModel.TargetStatistics::ejected).hasSize(1);
+		assertThat(first.calls() + second.calls()).isEqualTo(10);
+	}
+
+	@Test
+	void whenObservedThenObservationTimingRecorded() {
+		var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new RoutingObservationHandler());
+		var model = new StubChatModel(Duration.ofMillis(100), registry);
+		model.overhead(Duration.ofMillis(50));
+		var router = RoutingChatModel.builder().target("model", model).clock(this.clock).build();
+
+		router.call(new Prompt("hello"));
+
+		assertThat(router.statistics().get(0).latency()).isEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	void whenObservedFailureThenRecordedOnce() {
+		var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new RoutingObservationHandler());
+		var model = new StubChatModel(Duration.ofMillis(100), registry);
+		model.failing(true);
+		var router = RoutingChatModel.builder()
+			.target("model", model)
+			.clock(this.clock)
+			.alpha(0.5)
+			.errorRateThreshold(1.0)
+			.build();
+
+		callIgnoringFailures(router, 1);
+
+		assertThat(router.statistics().get(0).errorRate()).isEqualTo(0.5);
+		assertThat(router.statistics().get(0).latency()).isNull();
+	}
+
+	@Test
+	void whenObservationOutsideRoutedCallThenIgnored() {
+		var handler = new RoutingObservationHandler();
+		var context = ChatModelObservationContext.builder().prompt(new Prompt("hello")).provider("stub").build();
+
+		handler.onStart(context);
+		handler.onStop(context);
+
+		assertThat(context.containsKey(RoutedCall.class)).isFalse();
+		assertThat(RoutedCall.current()).isNull();
+	}
+
+	@Test
+	void whenStreamThenLatencyNotRecorded() {
+		var model = new StubChatModel(Duration.ofMillis(100));
+		var router = RoutingChatModel.builder().target("model", model).clock(this.clock).alpha(0.5).build();
+		router.call(new Prompt("hello"));
+
+		List<ChatResponse> responses = router.stream(new Prompt("hello")).collectList().block();
+
+		assertThat(responses).hasSize(3);
+		assertThat(router.statistics().get(0).latency()).isEqualTo(Duration.ofMillis(100));
+		assertThat(router.statistics().get(0).inFlight()).isZero();
+
+		model.failing(true);
+		router.stream(new Prompt("hello")).onErrorComplete().blockLast();
+
+		assertThat(router.statistics().get(0).errorRate()).isEqualTo(0.5);
+		assertThat(router.statistics().get(0).latency()).isEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	void whenStreamThrowsThenReleasedAndRecordedAsFailure() {
+		var model = new StubChatModel(Duration.ofMillis(100));
+		model.streamThrowing(true);
+		var router = RoutingChatModel.builder()
+			.target("model", model)
+			.clock(this.clock)
+			.alpha(0.5)
+			.errorRateThreshold(1.0)
+			.build();
+
+		assertThatIllegalStateException().isThrownBy(() -> router.stream(new Prompt("hello")).blockLast());
+
+		assertThat(router.statistics().get(0).inFlight()).isZero();
+		assertThat(router.statistics().get(0).errorRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	void whenDuplicateTargetNameThenRejected() {
+		var builder = RoutingChatModel.builder().target("model", new StubChatModel(Duration.ZERO));
+
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> builder.target("model", new StubChatModel(Duration.ZERO)));
+		assertThatIllegalArgumentException().isThrownBy(() -> RoutingChatModel.builder().build());
+	}
+
+	private static void callIgnoringFailures(ChatModel model, int calls) {
+		for (int i = 0; i < calls; i++) {
+			try {
+				model.call(new Prompt("hello"));
+			}
+			catch (IllegalStateException ex) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * Local model answering after an injected latency, advancing the mock clock instead
+	 * of sleeping, and optionally observed like a provider model.
+	 */
+	private final class StubChatModel implements ChatModel {
+
+		@Nullable
+		private final ObservationRegistry registry;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private volatile Duration latency;
+
+		private volatile Duration overhead = Duration.ZERO;
+
+		private volatile boolean failing;
+
+		private volatile boolean streamThrowing;
+
+		@Nullable
+		private volatile Runnable whileCalled;
+
+		StubChatModel(Duration latency) {
+			this(latency, null);
+		}
+
+		StubChatModel(Duration latency, @Nullable ObservationRegistry registry) {
+			this.latency = latency;
+			this.registry = registry;
+		}
+
+		void latency(Duration latency) {
+			this.latency = latency;
+		}
+
+		void overhead(Duration overhead) {
+			this.overhead = overhead;
+		}
+
+		void failing(boolean failing) {
+			this.failing = failing;
+		}
+
+		void streamThrowing(boolean streamThrowing) {
+			this.streamThrowing = streamThrowing;
+		}
+
+		/**
+		 * Run the given action once, during the next call, while the call is in flight.
+		 */
+		void whileCalled(Runnable action) {
+			this.whileCalled = action;
+		}
+
+		int calls() {
+			return this.calls.get();
+		}
+
+		@Override
+		public ChatResponse call(Prompt prompt) {
+			this.calls.incrementAndGet();
+			Runnable action = this.whileCalled;
+			if (action != null) {
+				this.whileCalled = null;
+				action.run();
+			}
+			RoutingChatModelTests.this.clock.add(this.overhead);
+			if (this.registry == null) {
+				return respond();
+			}
+			var context = ChatModelObservationContext.builder().prompt(prompt).provider("stub").build();
+			return Observation.createNotStarted("gen_ai.client.operation", () -> context, this.registry)
+				.observe(this::respond);
+		}
+
+		@Override
+		public Flux<ChatResponse> stream(Prompt prompt) {
+			this.calls.incrementAndGet();
+			if (this.streamThrowing) {
+				throw new IllegalStateException("stub failure");
+			}
+			return Flux.range(0, 3).map(i -> {
+				RoutingChatModelTests.this.clock.add(this.latency);
+				if (this.failing) {
+					throw new IllegalStateException("stub failure");
+				}
+				return new ChatResponse(List.of(new Generation(new AssistantMessage("chunk " + i))));
+			});
+		}
+
+		private ChatResponse respond() {
+			RoutingChatModelTests.this.clock.add(this.latency);
+			if (this.failing) {
+				throw new IllegalStateException("stub failure");
+			}
+			return new ChatResponse(List.of(new Generation(new AssistantMessage("hello"))));
+		}
+
+	}
+
+}